@@ -0,0 +1,117 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import java.util.Arrays;
+
+import org.dishevelled.bitset.MutableBitSet;
+
+/**
+ * Concept lattice with a native in-memory backend.
+ * @see ConceptLattice
+ */
+public class AdjacencyConceptLattice extends AdjacencyLattice<Concept> {
+
+    private static MutableBitSet ones(long numBits) {
+        MutableBitSet ones = new MutableBitSet(numBits);
+        ones.set(0, numBits);
+        return ones;
+    }
+
+    /**
+     * Construct an empty concept lattice whose top concept has all attributes.
+     * @param numBits number of attributes
+     */
+    public AdjacencyConceptLattice(long numBits) {
+        super(new Concept(new MutableBitSet(), ones(numBits)));
+    }
+
+    /**
+     * Insert a concept, adding its intent with AddIntent and then adding its
+     * extent to the extents of the new concept and every concept below it.
+     * @param concept to insert
+     * @return the concept in this lattice with the intent of the inserted concept
+     */
+    public Concept insert(final Concept concept) {
+        int added = super.addIntent(concept, top);
+
+        int[] queue = new int[size];
+        int head = 0, tail = 0;
+        colors[added] = ++color;
+        queue[tail++] = added;
+
+        while (head < tail) {
+            int visiting = queue[head++];
+            element(visiting).extent().or(concept.extent());
+
+            for (int i = 0, n = lowerSize[visiting]; i < n; i++) {
+                int target = lower[visiting][i];
+
+                if (colors[target] != color) {
+                    colors[target] = color;
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, tail * 2);
+                    }
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return element(added);
+    }
+
+    @Override
+    public final Concept join(final Concept left, final Concept right) {
+        Concept query = new Concept(new MutableBitSet(), left.bits().copy().or(right.bits()));
+        return element(supremum(query));
+    }
+
+    /**
+     * The supremum of a concept depends only on its intent, so queries are
+     * cached by intent.
+     * @param concept query
+     * @return packed intent
+     */
+    @Override
+    protected final Object cacheKey(final Concept concept) {
+        return concept.bits();
+    }
+
+    /**
+     * Add a concept enumerated in batch, without computing covers. The concept
+     * with all attributes replaces the top concept.
+     * @param concept to add
+     * @return vertex of the added concept
+     */
+    final int addConcept(final Concept concept) {
+        if (concept.bits().equals(element(top).bits())) {
+            elements[top] = concept;
+            invalidate();
+            return top;
+        }
+        return addVertex(concept);
+    }
+
+    final void setBottom(final int bottom) {
+        this.bottom = bottom;
+    }
+}
@@ -0,0 +1,476 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Complete lattice with a native in-memory backend. Vertices are dense int
+ * ids into an element array, and the upper and lower covers of each vertex are
+ * kept in primitive adjacency arrays, so supremum and addIntent walk int arrays
+ * instead of Blueprints property maps and edges.
+ * @param <E> element type
+ * @see CompleteLattice
+ */
+public abstract class AdjacencyLattice<E extends PartiallyOrdered> implements Lattice<E> {
+    protected Object[] elements;
+    protected int[] colors;
+    protected int[][] upper, lower;
+    protected int[] upperSize, lowerSize;
+    protected int top, bottom;
+    protected int color, size, order;
+    private Cache<Object, Integer> cache;
+    private long queryCacheSize;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Construct a lattice with a native backend.
+     * @param top element
+     */
+    protected AdjacencyLattice(final E top) {
+        checkNotNull(top);
+        elements = new Object[INITIAL_CAPACITY];
+        colors = new int[INITIAL_CAPACITY];
+        upper = new int[INITIAL_CAPACITY][];
+        lower = new int[INITIAL_CAPACITY][];
+        upperSize = new int[INITIAL_CAPACITY];
+        lowerSize = new int[INITIAL_CAPACITY];
+        order = 0;
+        color = 0;
+        size = 0;
+
+        this.top = addVertex(top);
+        bottom = this.top;
+    }
+
+    /**
+     * Get the element of a vertex.
+     * @param vertex id
+     * @return element
+     */
+    @SuppressWarnings("unchecked")
+    protected final E element(final int vertex) {
+        return (E) elements[vertex];
+    }
+
+    private boolean filter(final int source, final int target) {
+        return filter(element(source), element(target));
+    }
+
+    private boolean filter(final int source, final E right) {
+        return filter(element(source), right);
+    }
+
+    private boolean filter(final E left, final int target) {
+        return filter(left, element(target));
+    }
+
+    private boolean filter(final E right, final E left) {
+        return right.isGreaterOrEqualTo(left);
+    }
+
+    /**
+     * Find the supremum or least upper bound.
+     * @param proposed element
+     * @param generator vertex
+     * @return supremum vertex
+     */
+    protected final int supremum(final E proposed, int generator) {
+        boolean max = true;
+        while (max) {
+            max = false;
+            int[] targets = lower[generator];
+            for (int i = 0, n = lowerSize[generator]; i < n; i++) {
+                int target = targets[i];
+                if (filter(target, proposed)) {
+                    generator = target;
+                    max = true;
+                    break;
+                }
+            }
+        }
+        return generator;
+    }
+
+    /**
+     * Set the maximum number of supremum query results kept in a bounded,
+     * least recently used cache. Queries from the top (find, contains, covers,
+     * join and meet) are served from the cache until the lattice changes.
+     * @param maximumSize maximum number of cached results, or zero to disable
+     * the cache
+     */
+    public final void setQueryCacheSize(final long maximumSize) {
+        checkArgument(maximumSize >= 0L, "maximumSize must be at least zero");
+        queryCacheSize = maximumSize;
+        cache = (maximumSize == 0L) ? null : CacheBuilder.newBuilder().maximumSize(maximumSize).<Object, Integer>build();
+    }
+
+    /**
+     * Get the maximum number of cached supremum query results.
+     * @return maximum number of cached results, or zero if the cache is disabled
+     */
+    public final long getQueryCacheSize() {
+        return queryCacheSize;
+    }
+
+    /**
+     * Get the key of a query in the supremum query cache. The supremum of an
+     * element depends only on how it is ordered, subclasses may use a smaller
+     * key such as a concept intent.
+     * @param element query
+     * @return cache key
+     */
+    protected Object cacheKey(final E element) {
+        return element;
+    }
+
+    /**
+     * Invalidate the supremum query cache, if enabled. Subclasses that replace
+     * elements in place must call this.
+     */
+    protected final void invalidate() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Find the supremum from the top, using the query cache if enabled.
+     * @param proposed element
+     * @return supremum vertex
+     */
+    protected final int supremum(final E proposed) {
+        if (cache == null) {
+            return supremum(proposed, top);
+        }
+        Object key = cacheKey(proposed);
+        Integer found = cache.getIfPresent(key);
+        if (found == null) {
+            found = supremum(proposed, top);
+            cache.put(key, found);
+        }
+        return found;
+    }
+
+    @Override
+    public final E find(final E element) {
+        return this.meet(element, this.top());
+    }
+
+    @Override
+    public final boolean contains(final E element) {
+        return this.find(element).equals(element);
+    }
+
+    @Override
+    public final boolean containsAll(final Collection<? extends E> collection) {
+        for (E element : collection) {
+            if (!this.contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public final boolean covers(final E left, final E right) {
+        int found = this.supremum(left);
+
+        if (found != bottom) {
+            if (contains(upper[found], upperSize[found], right) || contains(lower[found], lowerSize[found], right)) {
+                return right.isLessThan(left);
+            }
+        }
+        return false;
+    }
+
+    private boolean contains(final int[] vertices, final int n, final E element) {
+        for (int i = 0; i < n; i++) {
+            if (element(vertices[i]).equals(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public final java.util.Iterator<E> iterator() {
+        return new java.util.Iterator<E>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public E next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return element(next++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Add a vertex.
+     * @param label element
+     * @return new vertex
+     */
+    protected final int addVertex(final E label) {
+        if (size == elements.length) {
+            int capacity = size * 2;
+            elements = Arrays.copyOf(elements, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            upper = Arrays.copyOf(upper, capacity);
+            lower = Arrays.copyOf(lower, capacity);
+            upperSize = Arrays.copyOf(upperSize, capacity);
+            lowerSize = Arrays.copyOf(lowerSize, capacity);
+        }
+        int vertex = size++;
+        elements[vertex] = label;
+        colors[vertex] = color;
+        upper[vertex] = EMPTY;
+        lower[vertex] = EMPTY;
+        invalidate();
+        return vertex;
+    }
+
+    private static int[] add(final int[] vertices, final int n, final int vertex) {
+        int[] result = (n == vertices.length) ? Arrays.copyOf(vertices, Math.max(4, n * 2)) : vertices;
+        result[n] = vertex;
+        return result;
+    }
+
+    private static int remove(final int[] vertices, final int n, final int vertex) {
+        for (int i = 0; i < n; i++) {
+            if (vertices[i] == vertex) {
+                System.arraycopy(vertices, i + 1, vertices, i, n - i - 1);
+                return n - 1;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Add a cover relation.
+     * @param source upper vertex
+     * @param target lower vertex, covered by source
+     */
+    protected final void addCover(final int source, final int target) {
+        lower[source] = add(lower[source], lowerSize[source]++, target);
+        upper[target] = add(upper[target], upperSize[target]++, source);
+        ++order;
+        invalidate();
+    }
+
+    /**
+     * Remove a cover relation.
+     * @param source upper vertex
+     * @param target lower vertex
+     */
+    private void removeCover(final int source, final int target) {
+        int n = lowerSize[source];
+        lowerSize[source] = remove(lower[source], n, target);
+        upperSize[target] = remove(upper[target], upperSize[target], source);
+        if (lowerSize[source] < n) {
+            --order;
+        }
+    }
+
+    /**
+     * Add a new element dynamically to the lattice.
+     * @param proposed element
+     * @param generator vertex
+     * @return new added vertex or generator if the proposed element already
+     * exists
+     */
+    @SuppressWarnings("unchecked")
+    protected final int addIntent(final E proposed, int generator) {
+        generator = supremum(proposed, generator);
+
+        if (filter(generator, proposed) && filter(proposed, generator)) {
+            return generator;
+        }
+
+        int[] parents = new int[lowerSize[generator]];
+        int n = 0;
+        int[] targets = Arrays.copyOf(lower[generator], lowerSize[generator]);
+        for (int target : targets) {
+            int candidate = target;
+            if (!filter(target, proposed) && !filter(proposed, target)) {
+                E intersect = (E) element(target).intersect(proposed);
+                candidate = addIntent(intersect, candidate);
+            }
+
+            boolean add = true;
+            int kept = 0;
+            for (int i = 0; i < n; i++) {
+                int parent = parents[i];
+                if (add && filter(parent, candidate)) {
+                    add = false;
+                }
+                if (add && filter(candidate, parent)) {
+                    continue;
+                }
+                parents[kept++] = parent;
+            }
+            n = kept;
+
+            if (add) {
+                parents[n++] = candidate;
+            }
+        }
+
+        int child = addVertex((E) proposed.union(element(generator)));
+        addCover(generator, child);
+
+        bottom = filter(bottom, proposed) ? child : bottom;
+
+        for (int i = 0; i < n; i++) {
+            int parent = parents[i];
+            if (parent != generator) {
+                removeCover(generator, parent);
+                addCover(child, parent);
+            }
+        }
+        return child;
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * The lattice order.
+     * @return the number of cover relations
+     */
+    public final int order() {
+        return order;
+    }
+
+    @Override
+    public final E bottom() {
+        return element(bottom);
+    }
+
+    @Override
+    public final E top() {
+        return element(top);
+    }
+
+    @Override
+    public E join(final E left, final E right) {
+        return element(supremum((E) left.union(right)));
+    }
+
+    @Override
+    public E meet(final E left, final E right) {
+        return element(supremum((E) left.intersect(right)));
+    }
+
+    @Override
+    public double measure(final E left, final E right) {
+        return (double) join(left, right).measure() /
+                        meet(right, top()).measure();
+    }
+
+    /**
+     * Export the lattice to a graph, with the same vertex properties and edges
+     * as a {@link CompleteLattice} backed by that graph.
+     * @param graph to export to
+     * @return the graph
+     */
+    public final Graph export(final Graph graph) {
+        checkNotNull(graph);
+        Vertex[] vertices = new Vertex[size];
+        for (int i = 0; i < size; i++) {
+            vertices[i] = graph.addVertex(null);
+            vertices[i].setProperty(CompleteLattice.LABEL, elements[i]);
+            vertices[i].setProperty(CompleteLattice.COLOR, colors[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < lowerSize[i]; j++) {
+                graph.addEdge(null, vertices[i], vertices[lower[i][j]], "");
+                graph.addEdge(null, vertices[lower[i][j]], vertices[i], "");
+            }
+        }
+        return graph;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("digraph {\n");
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < upperSize[i]; j++) {
+                sb.append(" \"")
+                  .append(elements[i])
+                  .append("\" -> \"")
+                  .append(elements[upper[i][j]])
+                  .append("\"[label=\"\"]\n");
+            }
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return bottom == top;
+    }
+
+    @Override
+    public final Object[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public final <E> E[] toArray(E[] elements) {
+        int i = 0;
+        for (Object element : this) {
+            elements[i++] = (E) element;
+        }
+        return elements;
+    }
+}
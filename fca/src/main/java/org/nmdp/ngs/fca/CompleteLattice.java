@@ -33,6 +33,10 @@ import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 
@@ -46,6 +50,8 @@ public abstract class CompleteLattice<E extends PartiallyOrdered> implements Lat
     protected Graph graph;
     protected Vertex top, bottom;
     protected int color, size, order;
+    private Cache<Object, Vertex> cache;
+    private long queryCacheSize;
 
     protected static final String LABEL = "label";
     protected static final String COLOR = "color";
@@ -143,6 +149,62 @@ public abstract class CompleteLattice<E extends PartiallyOrdered> implements Lat
         return generator;
     }
     
+    /**
+     * Set the maximum number of supremum query results kept in a bounded,
+     * least recently used cache. Queries from the top (find, contains, covers,
+     * join and meet) are served from the cache until the lattice changes.
+     * @param maximumSize maximum number of cached results, or zero to disable
+     * the cache
+     */
+    public final void setQueryCacheSize(final long maximumSize) {
+        checkArgument(maximumSize >= 0L, "maximumSize must be at least zero");
+        queryCacheSize = maximumSize;
+        cache = (maximumSize == 0L) ? null : CacheBuilder.newBuilder().maximumSize(maximumSize).<Object, Vertex>build();
+    }
+
+    /**
+     * Get the maximum number of cached supremum query results.
+     * @return maximum number of cached results, or zero if the cache is disabled
+     */
+    public final long getQueryCacheSize() {
+        return queryCacheSize;
+    }
+
+    /**
+     * Get the key of a query in the supremum query cache. The supremum of an
+     * element depends only on how it is ordered, subclasses may use a smaller
+     * key such as a concept intent.
+     * @param element query
+     * @return cache key
+     */
+    protected Object cacheKey(final E element) {
+        return element;
+    }
+
+    private void invalidate() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Find the supremum from the top, using the query cache if enabled.
+     * @param proposed element
+     * @return supremum vertex
+     */
+    protected final Vertex supremum(final E proposed) {
+        if (cache == null) {
+            return supremum(proposed, top);
+        }
+        Object key = cacheKey(proposed);
+        Vertex found = cache.getIfPresent(key);
+        if (found == null) {
+            found = supremum(proposed, top);
+            cache.put(key, found);
+        }
+        return found;
+    }
+
     @Override
     public final E find(final E element) {
         return this.meet(element, this.top());
@@ -170,7 +232,7 @@ public abstract class CompleteLattice<E extends PartiallyOrdered> implements Lat
     
     @Override
     public final boolean covers(final E left, final E right) {
-        Vertex found = this.supremum(left, top);
+        Vertex found = this.supremum(left);
 
         if(found != bottom) {
             for(Edge edge : found.getEdges(Direction.IN)) {
@@ -195,6 +257,7 @@ public abstract class CompleteLattice<E extends PartiallyOrdered> implements Lat
         child.setProperty("label", label);
         child.setProperty("color", color);
         ++size;
+        invalidate();
         return child;
     }
 
@@ -202,6 +265,7 @@ public abstract class CompleteLattice<E extends PartiallyOrdered> implements Lat
         graph.addEdge(null, source, target, weight);
         Edge edge = graph.addEdge(null, target, source, weight);
         ++order;
+        invalidate();
         return edge;
     }
 
@@ -326,12 +390,12 @@ public abstract class CompleteLattice<E extends PartiallyOrdered> implements Lat
 
     @Override
     public E join(final E left, final E right) {
-        return supremum((E) left.union(right), top).getProperty(LABEL);
+        return supremum((E) left.union(right)).getProperty(LABEL);
     }
 
     @Override
     public E meet(final E left, final E right) {
-        return supremum((E) left.intersect(right), top).getProperty(LABEL);
+        return supremum((E) left.intersect(right)).getProperty(LABEL);
     }
 
     @Override
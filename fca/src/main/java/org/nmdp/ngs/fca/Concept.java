@@ -31,24 +31,32 @@ import org.dishevelled.bitset.MutableBitSet;
  * their associated attributes (B).
  */
 public final class Concept extends PartiallyOrdered<Concept> {
-    private final MutableBitSet intent, extent;
+    private final MutableBitSet extent;
+    private final LongBitSet bits;
+    private MutableBitSet intent;
 
     /**
      * Construct a concept with given objects (extent) and attributes (intent).
+     * The intent is packed on construction, so later changes to it are not
+     * seen by comparisons.
      * @param extent objects
      * @param intent attributes
      */
     public Concept(final MutableBitSet extent, final MutableBitSet intent) {
         this.extent = extent;
         this.intent = intent;
+        this.bits = LongBitSet.valueOf(intent);
     }
-    
-    private MutableBitSet and(final Concept that) {
-        return new MutableBitSet().or(this.intent).and(that.intent);
-    }
-    
-    private MutableBitSet or(final Concept that) {
-        return new MutableBitSet().or(this.extent).or(that.extent);
+
+    /**
+     * Construct a concept with given objects (extent) and packed attributes
+     * (intent).
+     * @param extent objects
+     * @param bits attributes
+     */
+    Concept(final MutableBitSet extent, final LongBitSet bits) {
+        this.extent = extent;
+        this.bits = bits;
     }
 
     /**
@@ -64,12 +72,23 @@ public final class Concept extends PartiallyOrdered<Concept> {
      * @return intent
      */
     public MutableBitSet intent() {
+        if (intent == null) {
+            intent = bits.toMutableBitSet();
+        }
         return intent;
     }
+
+    /**
+     * Get the packed representation of the concept's attributes.
+     * @return packed intent
+     */
+    LongBitSet bits() {
+        return bits;
+    }
     
     @Override
     public boolean apply(final Concept that) {
-        return this.intent.equals(this.intersect(that).intent);
+        return this.bits.isSubsetOf(that.bits);
     } 
     
     @Override
@@ -79,7 +98,7 @@ public final class Concept extends PartiallyOrdered<Concept> {
     
     @Override
     public boolean isLessOrEqualTo(final Concept that) {
-        return this.intent.equals(this.and(that));
+        return this.bits.isSubsetOf(that.bits);
     }
     
     @Override
@@ -89,7 +108,7 @@ public final class Concept extends PartiallyOrdered<Concept> {
     
     @Override
     public boolean isGreaterOrEqualTo(final Concept that) {
-        return that.intent.equals(this.and(that));
+        return that.bits.isSubsetOf(this.bits);
     }
     
     /**
@@ -109,7 +128,7 @@ public final class Concept extends PartiallyOrdered<Concept> {
 
         Concept concept = (Concept) that;
         return concept.extent.equals(this.extent) &&
-               concept.intent.equals(this.intent);
+               concept.bits.equals(this.bits);
     }
 
     /**
@@ -118,7 +137,7 @@ public final class Concept extends PartiallyOrdered<Concept> {
      */
     @Override
     public int hashCode() {
-        return Objects.hashCode(extent, intent);
+        return Objects.hashCode(extent, bits);
     }
     
     /**
@@ -130,7 +149,7 @@ public final class Concept extends PartiallyOrdered<Concept> {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append(Context.indexes(extent)).append(Context.indexes(intent));
+        sb.append(Context.indexes(extent)).append(Context.indexes(intent()));
         return sb.toString();
     }
 
@@ -142,7 +161,7 @@ public final class Concept extends PartiallyOrdered<Concept> {
      */
     @Override
     public Concept intersect(final Concept that) {
-        return new Concept(new MutableBitSet(), this.and(that));
+        return new Concept(new MutableBitSet(), bits.copy().and(that.bits));
     }
 
     /**
@@ -153,7 +172,7 @@ public final class Concept extends PartiallyOrdered<Concept> {
      */
     @Override
     public Concept union(final Concept that) {
-        return new Concept(this.or(that), this.intent());
+        return new Concept(new MutableBitSet().or(this.extent).or(that.extent), bits);
     }
 
     /**
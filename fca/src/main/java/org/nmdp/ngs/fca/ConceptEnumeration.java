@@ -0,0 +1,489 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Batch enumeration of all formal concepts of a cross table by closure
+ * algorithms over bitset intents, as an alternative to inserting objects one at
+ * a time through AddIntent.
+ * @see <a href="https://en.wikipedia.org/wiki/Formal_concept_analysis">formal
+ * concept analysis</a>
+ */
+public final class ConceptEnumeration {
+
+    /**
+     * Private no-arg constructor.
+     */
+    private ConceptEnumeration() {
+        // empty
+    }
+
+    /**
+     * Cross table as object rows and attribute columns.
+     */
+    private static final class Table {
+        final long nrow, ncol;
+        final LongBitSet[] rows, columns;
+        final LongBitSet objects, attributes;
+        final long minSupport;
+
+        Table(final CrossTable table, final long ncol) {
+            this(table, ncol, 0L);
+        }
+
+        Table(final CrossTable table, final long ncol, final long minSupport) {
+            this.nrow = table.getNumberOfRows();
+            this.ncol = ncol;
+            this.minSupport = minSupport;
+            objects = new LongBitSet(nrow).set(0, nrow);
+            attributes = new LongBitSet(ncol).set(0, ncol);
+            rows = new LongBitSet[(int) nrow];
+            columns = new LongBitSet[(int) ncol];
+            for (int j = 0; j < ncol; j++) {
+                columns[j] = new LongBitSet(nrow);
+            }
+            for (int i = 0; i < nrow; i++) {
+                rows[i] = LongBitSet.valueOf(table.getRow(i).intent).and(attributes);
+                for (long j = rows[i].nextSetBit(0); j >= 0; j = rows[i].nextSetBit(j + 1)) {
+                    columns[(int) j].set(i);
+                }
+            }
+        }
+
+        /**
+         * Derive the objects sharing all attributes of an intent.
+         * @param intent attributes
+         * @return extent
+         */
+        LongBitSet extent(final LongBitSet intent) {
+            LongBitSet extent = objects.copy();
+            for (long j = intent.nextSetBit(0); j >= 0; j = intent.nextSetBit(j + 1)) {
+                extent.and(columns[(int) j]);
+            }
+            return extent;
+        }
+
+        /**
+         * Derive the attributes shared by all objects of an extent.
+         * @param extent objects
+         * @return intent
+         */
+        LongBitSet intent(final LongBitSet extent) {
+            LongBitSet intent = attributes.copy();
+            for (long i = extent.nextSetBit(0); i >= 0; i = extent.nextSetBit(i + 1)) {
+                intent.and(rows[(int) i]);
+            }
+            return intent;
+        }
+    }
+
+    /**
+     * Enumerate all concepts of a cross table with Ganter's NextClosure
+     * algorithm, in lectic order of their intents.
+     * @param table cross table
+     * @return list of concepts
+     */
+    public static List<Concept> nextClosure(final CrossTable table) {
+        checkNotNull(table);
+        return nextClosure(new Table(table, table.getNumberOfColumns()));
+    }
+
+    private static List<Concept> nextClosure(final Table t) {
+        List<Concept> concepts = new ArrayList<>();
+
+        LongBitSet extent = t.extent(new LongBitSet(t.ncol));
+        LongBitSet intent = t.intent(extent);
+        concepts.add(new Concept(extent.toMutableBitSet(), intent));
+
+        while (intent.cardinality() < t.ncol) {
+            LongBitSet next = null;
+            LongBitSet nextExtent = null;
+            LongBitSet prefix = intent.copy();
+            for (long i = t.ncol - 1; i >= 0; i--) {
+                if (prefix.get(i)) {
+                    prefix.clear(i);
+                    continue;
+                }
+                LongBitSet candidate = prefix.copy();
+                candidate.set(i);
+                LongBitSet candidateExtent = t.extent(candidate);
+                LongBitSet closed = t.intent(candidateExtent);
+
+                // canonical if the closure adds no attribute before i
+                LongBitSet added = closed.copy().andNot(prefix);
+                if (added.nextSetBit(0) == i) {
+                    next = closed;
+                    nextExtent = candidateExtent;
+                    break;
+                }
+            }
+            intent = next;
+            concepts.add(new Concept(nextExtent.toMutableBitSet(), intent));
+        }
+        return concepts;
+    }
+
+    /**
+     * Enumerate all concepts of a cross table with Andrews' In-Close2
+     * algorithm, depth first from the concept of all objects.
+     * @param table cross table
+     * @return list of concepts
+     */
+    public static List<Concept> inClose(final CrossTable table) {
+        checkNotNull(table);
+        return inClose(new Table(table, table.getNumberOfColumns()));
+    }
+
+    /**
+     * Enumerate the concepts of a cross table with at least the specified
+     * support (extent cardinality) with In-Close2, depth first from the concept
+     * of all objects. These are the frequent closed itemsets of the table;
+     * since support only shrinks below a concept, every subtree below an
+     * infrequent child is pruned without being visited.
+     * @param table cross table
+     * @param minSupport minimum support, must be at least zero
+     * @return list of concepts
+     */
+    public static List<Concept> inClose(final CrossTable table, final long minSupport) {
+        checkNotNull(table);
+        checkArgument(minSupport >= 0L, "minSupport must be at least zero");
+        return inClose(new Table(table, table.getNumberOfColumns(), minSupport));
+    }
+
+    private static List<Concept> inClose(final Table t) {
+        List<Concept> concepts = new ArrayList<>();
+        if (t.nrow >= t.minSupport) {
+            inClose(t, t.objects.copy(), new LongBitSet(t.ncol), 0, concepts);
+        }
+        return concepts;
+    }
+
+    private static void inClose(final Table t, final LongBitSet extent, final LongBitSet intent, final int start, final List<Concept> concepts) {
+        List<LongBitSet> childExtents = new ArrayList<>();
+        List<Integer> childAttributes = new ArrayList<>();
+
+        for (int j = start; j < t.ncol; j++) {
+            if (intent.get(j)) {
+                continue;
+            }
+            LongBitSet child = extent.copy().and(t.columns[j]);
+            if (child.equals(extent)) {
+                intent.set(j);
+            }
+            else if (child.cardinality() >= t.minSupport && isCanonical(t, child, intent, j)) {
+                childExtents.add(child);
+                childAttributes.add(j);
+            }
+        }
+        concepts.add(new Concept(extent.toMutableBitSet(), intent));
+
+        for (int k = 0; k < childExtents.size(); k++) {
+            int j = childAttributes.get(k);
+            LongBitSet childIntent = intent.copy();
+            childIntent.set(j);
+            inClose(t, childExtents.get(k), childIntent, j + 1, concepts);
+        }
+    }
+
+    /**
+     * Enumerate all concepts of a cross table with In-Close2 on the common
+     * fork/join pool. Each subtree below a canonical child is mined as its
+     * own task; the canonicity test already generates every concept exactly
+     * once, so no shared state or locking is needed to deduplicate. Concepts
+     * are returned in the same order as {@link #inClose(CrossTable)}.
+     * @param table cross table
+     * @return list of concepts
+     */
+    public static List<Concept> parallelInClose(final CrossTable table) {
+        return parallelInClose(table, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Enumerate all concepts of a cross table with In-Close2 on the specified
+     * fork/join pool.
+     * @param table cross table
+     * @param pool fork/join pool
+     * @return list of concepts
+     */
+    public static List<Concept> parallelInClose(final CrossTable table, final ForkJoinPool pool) {
+        checkNotNull(table);
+        checkNotNull(pool);
+        return parallelInClose(new Table(table, table.getNumberOfColumns()), pool);
+    }
+
+    private static List<Concept> parallelInClose(final Table t, final ForkJoinPool pool) {
+        if (t.nrow < t.minSupport) {
+            return new ArrayList<>();
+        }
+        return pool.invoke(new InClose(t, t.objects.copy(), new LongBitSet(t.ncol), 0));
+    }
+
+    /**
+     * Minimum extent cardinality of a subtree mined as its own task, smaller
+     * subtrees are mined in the calling thread.
+     */
+    static final long FORK_THRESHOLD = 16L;
+
+    /**
+     * In-Close2 subtree task.
+     */
+    private static final class InClose extends RecursiveTask<List<Concept>> {
+        private final Table t;
+        private final LongBitSet extent;
+        private final LongBitSet intent;
+        private final int start;
+
+        InClose(final Table t, final LongBitSet extent, final LongBitSet intent, final int start) {
+            this.t = t;
+            this.extent = extent;
+            this.intent = intent;
+            this.start = start;
+        }
+
+        @Override
+        protected List<Concept> compute() {
+            List<Concept> concepts = new ArrayList<>();
+            if (extent.cardinality() < FORK_THRESHOLD) {
+                inClose(t, extent, intent, start, concepts);
+                return concepts;
+            }
+
+            List<LongBitSet> childExtents = new ArrayList<>();
+            List<Integer> childAttributes = new ArrayList<>();
+            for (int j = start; j < t.ncol; j++) {
+                if (intent.get(j)) {
+                    continue;
+                }
+                LongBitSet child = extent.copy().and(t.columns[j]);
+                if (child.equals(extent)) {
+                    intent.set(j);
+                }
+                else if (child.cardinality() >= t.minSupport && isCanonical(t, child, intent, j)) {
+                    childExtents.add(child);
+                    childAttributes.add(j);
+                }
+            }
+            concepts.add(new Concept(extent.toMutableBitSet(), intent));
+
+            List<InClose> tasks = new ArrayList<>(childExtents.size());
+            for (int k = 0; k < childExtents.size(); k++) {
+                int j = childAttributes.get(k);
+                LongBitSet childIntent = intent.copy();
+                childIntent.set(j);
+                tasks.add(new InClose(t, childExtents.get(k), childIntent, j + 1));
+            }
+            invokeAll(tasks);
+            for (InClose task : tasks) {
+                concepts.addAll(task.join());
+            }
+            return concepts;
+        }
+    }
+
+    /**
+     * Test that no attribute before j outside of the intent is shared by all
+     * objects of the child extent.
+     */
+    private static boolean isCanonical(final Table t, final LongBitSet child, final LongBitSet intent, final int j) {
+        for (int k = 0; k < j; k++) {
+            if (!intent.get(k) && child.isSubsetOf(t.columns[k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Concept> enumerate(final Table t, final CrossTable.Construction construction) {
+        switch (construction) {
+        case NEXT_CLOSURE:
+            return nextClosure(t);
+        case IN_CLOSE:
+            return inClose(t);
+        case PARALLEL_IN_CLOSE:
+            return parallelInClose(t, ForkJoinPool.commonPool());
+        default:
+            throw new IllegalArgumentException("construction must be a batch construction, was " + construction);
+        }
+    }
+
+    /**
+     * Find the upper neighbors of a concept. An upper neighbor D of a concept
+     * with intent B is the closure of B and an attribute m, for exactly
+     * |D \ B| such attributes m.
+     * @param t table
+     * @param concept concept
+     * @param vertices vertex of each concept by intent
+     * @return vertices of the upper neighbors
+     */
+    private static int[] covers(final Table t, final Concept concept, final Map<LongBitSet, Integer> vertices, final int top) {
+        LongBitSet intent = concept.bits();
+        LongBitSet extent = LongBitSet.valueOf(concept.extent());
+        long cardinality = intent.cardinality();
+        Map<LongBitSet, Integer> counts = new HashMap<>();
+        for (int m = 0; m < t.ncol; m++) {
+            if (intent.get(m)) {
+                continue;
+            }
+            LongBitSet child = extent.copy().and(t.columns[m]);
+            if (child.cardinality() < t.minSupport) {
+                continue;
+            }
+            LongBitSet closed = t.intent(child);
+            Integer count = counts.get(closed);
+            counts.put(closed, (count == null) ? 1 : count + 1);
+        }
+        int[] covers = new int[counts.size()];
+        int n = 0;
+        for (Map.Entry<LongBitSet, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() == entry.getKey().cardinality() - cardinality) {
+                covers[n++] = vertices.get(entry.getKey());
+            }
+        }
+        // without a frequent upper neighbor, the top concept is the only cover
+        if (n == 0 && cardinality < t.ncol) {
+            return new int[] { top };
+        }
+        return Arrays.copyOf(covers, n);
+    }
+
+    /**
+     * Upper neighbors task over a range of concepts.
+     */
+    private static final class Covers extends RecursiveAction {
+        private final Table t;
+        private final List<Concept> concepts;
+        private final Map<LongBitSet, Integer> vertices;
+        private final int[][] covers;
+        private final int top, from, to;
+
+        Covers(final Table t, final List<Concept> concepts, final Map<LongBitSet, Integer> vertices, final int[][] covers, final int top, final int from, final int to) {
+            this.t = t;
+            this.concepts = concepts;
+            this.vertices = vertices;
+            this.covers = covers;
+            this.top = top;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= FORK_THRESHOLD) {
+                for (int v = from; v < to; v++) {
+                    covers[v] = covers(t, concepts.get(v), vertices, top);
+                }
+            }
+            else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Covers(t, concepts, vertices, covers, top, from, mid), new Covers(t, concepts, vertices, covers, top, mid, to));
+            }
+        }
+    }
+
+    private static boolean containsTop(final List<Concept> concepts, final long numBits) {
+        for (Concept concept : concepts) {
+            if (concept.bits().cardinality() == numBits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build the concept lattice of a cross table from all of its concepts,
+     * computing the cover relation in one pass.
+     * @param table cross table
+     * @param numBits number of attributes
+     * @param construction enumeration algorithm, NEXT_CLOSURE, IN_CLOSE or
+     * PARALLEL_IN_CLOSE
+     * @return concept lattice
+     */
+    static AdjacencyConceptLattice lattice(final CrossTable table, final long numBits, final CrossTable.Construction construction) {
+        return lattice(table, numBits, construction, 0L);
+    }
+
+    /**
+     * Build the iceberg lattice of a cross table, the concepts with at least
+     * the specified support (extent cardinality) and the concept of all
+     * attributes as top. Every frequent concept keeps its frequent upper
+     * neighbors, and a concept with none is covered by top.
+     * @param table cross table
+     * @param numBits number of attributes
+     * @param construction enumeration algorithm, IN_CLOSE or PARALLEL_IN_CLOSE
+     * if minSupport is greater than zero
+     * @param minSupport minimum support
+     * @return concept lattice
+     */
+    static AdjacencyConceptLattice lattice(final CrossTable table, final long numBits, final CrossTable.Construction construction, final long minSupport) {
+        checkArgument(minSupport >= 0L, "minSupport must be at least zero");
+        checkArgument(minSupport == 0L || construction != CrossTable.Construction.NEXT_CLOSURE, "construction must be IN_CLOSE or PARALLEL_IN_CLOSE if minSupport is greater than zero");
+        Table t = new Table(table, numBits, minSupport);
+        List<Concept> concepts = enumerate(t, construction);
+        if (minSupport > 0L && !containsTop(concepts, numBits)) {
+            concepts.add(new Concept(t.extent(t.attributes).toMutableBitSet(), t.attributes.copy()));
+        }
+
+        AdjacencyConceptLattice lattice = new AdjacencyConceptLattice(numBits);
+        Map<LongBitSet, Integer> vertices = new HashMap<>(concepts.size() * 2);
+        int[] ids = new int[concepts.size()];
+        int bottom = 0;
+        for (int v = 0; v < concepts.size(); v++) {
+            Concept concept = concepts.get(v);
+            ids[v] = lattice.addConcept(concept);
+            vertices.put(concept.bits(), ids[v]);
+            if (concept.bits().cardinality() < concepts.get(bottom).bits().cardinality()) {
+                bottom = v;
+            }
+        }
+
+        int[][] covers = new int[concepts.size()][];
+        if (construction == CrossTable.Construction.PARALLEL_IN_CLOSE) {
+            ForkJoinPool.commonPool().invoke(new Covers(t, concepts, vertices, covers, lattice.top, 0, concepts.size()));
+        }
+        else {
+            for (int v = 0; v < concepts.size(); v++) {
+                covers[v] = covers(t, concepts.get(v), vertices, lattice.top);
+            }
+        }
+        for (int v = 0; v < concepts.size(); v++) {
+            for (int upper : covers[v]) {
+                lattice.addCover(upper, ids[v]);
+            }
+        }
+        lattice.setBottom(ids[bottom]);
+        return lattice;
+    }
+}
@@ -75,8 +75,18 @@ public class ConceptLattice extends CompleteLattice<Concept> {
     
     @Override
     public final Concept join(final Concept left, final Concept right) {
-        MutableBitSet bits = (MutableBitSet) new MutableBitSet().or(left.intent()).or(right.intent());
-        Concept query = new Concept(new MutableBitSet(), bits);
-        return supremum(query, top).getProperty(LABEL);
+        Concept query = new Concept(new MutableBitSet(), left.bits().copy().or(right.bits()));
+        return supremum(query).getProperty(LABEL);
+    }
+
+    /**
+     * The supremum of a concept depends only on its intent, so queries are
+     * cached by intent.
+     * @param concept query
+     * @return packed intent
+     */
+    @Override
+    protected final Object cacheKey(final Concept concept) {
+        return concept.bits();
     }
 }
@@ -0,0 +1,317 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.nio.channels.FileChannel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+import org.dishevelled.bitset.MutableBitSet;
+
+/**
+ * Compact binary snapshots of concept lattices. A snapshot stores every
+ * concept as fixed-width packed extent and intent words, followed by the cover
+ * relation as two int arrays, so that a lattice built once may be reloaded by
+ * memory mapping the snapshot instead of rebuilding it from its context.
+ *
+ * <p>The format is big-endian:</p>
+ * <pre>
+ * int    magic, "FCAL"
+ * int    version
+ * long   number of attributes
+ * int    number of concepts, n
+ * int    bottom concept, the top concept is always 0
+ * int    extent words per concept, e
+ * int    intent words per concept, i
+ * long[] n * (e + i) concept extent and intent words
+ * int    number of covers, m
+ * int[]  m upper concepts
+ * int[]  m lower concepts
+ * </pre>
+ */
+public final class ConceptLatticeSnapshot {
+    /** Magic number, "FCAL". */
+    static final int MAGIC = 0x4643414c;
+
+    /** Format version. */
+    static final int VERSION = 1;
+
+    /** Header size in bytes. */
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 4 + 4;
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private ConceptLatticeSnapshot() {
+        // empty
+    }
+
+
+    /**
+     * Write a snapshot of the specified concept lattice with a native backend
+     * to the specified file.
+     * @param lattice concept lattice to write, must not be null
+     * @param file file to write to, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(final AdjacencyConceptLattice lattice, final File file) throws IOException {
+        checkNotNull(lattice);
+        checkNotNull(file);
+
+        List<Concept> concepts = new ArrayList<>(lattice.size);
+        for (int v = 0; v < lattice.size; v++) {
+            concepts.add(lattice.element(v));
+        }
+        int order = 0;
+        for (int v = 0; v < lattice.size; v++) {
+            order += lattice.lowerSize[v];
+        }
+        int[] uppers = new int[order];
+        int[] lowers = new int[order];
+        int m = 0;
+        for (int v = 0; v < lattice.size; v++) {
+            for (int j = 0; j < lattice.lowerSize[v]; j++) {
+                uppers[m] = v;
+                lowers[m] = lattice.lower[v][j];
+                m++;
+            }
+        }
+        write(concepts, lattice.top, lattice.bottom, uppers, lowers, file);
+    }
+
+    /**
+     * Write a snapshot of the specified concept lattice with a Blueprints
+     * backend to the specified file.
+     * @param lattice concept lattice to write, must not be null
+     * @param file file to write to, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(final ConceptLattice lattice, final File file) throws IOException {
+        checkNotNull(lattice);
+        checkNotNull(file);
+
+        List<Concept> concepts = new ArrayList<>(lattice.size);
+        Map<Object, Integer> ids = new HashMap<>(lattice.size * 2);
+        concepts.add((Concept) lattice.top.getProperty(ConceptLattice.LABEL));
+        ids.put(lattice.top.getId(), 0);
+        for (Vertex vertex : lattice.graph.getVertices()) {
+            if (!ids.containsKey(vertex.getId())) {
+                ids.put(vertex.getId(), concepts.size());
+                concepts.add((Concept) vertex.getProperty(ConceptLattice.LABEL));
+            }
+        }
+
+        // each cover is a pair of directed edges, keep the one from the larger intent
+        List<Integer> covers = new ArrayList<>();
+        for (Edge edge : lattice.graph.getEdges()) {
+            int source = ids.get(edge.getVertex(Direction.OUT).getId());
+            int target = ids.get(edge.getVertex(Direction.IN).getId());
+            if (source != target && concepts.get(source).isGreaterOrEqualTo(concepts.get(target))) {
+                covers.add(source);
+                covers.add(target);
+            }
+        }
+        int[] uppers = new int[covers.size() / 2];
+        int[] lowers = new int[covers.size() / 2];
+        for (int i = 0; i < uppers.length; i++) {
+            uppers[i] = covers.get(2 * i);
+            lowers[i] = covers.get(2 * i + 1);
+        }
+        write(concepts, 0, ids.get(lattice.bottom.getId()), uppers, lowers, file);
+    }
+
+    private static void write(final List<Concept> concepts, final int top, final int bottom, final int[] uppers, final int[] lowers, final File file) throws IOException {
+        int n = concepts.size();
+        LongBitSet[] extents = new LongBitSet[n];
+        int extentWords = 0;
+        int intentWords = 0;
+        for (int v = 0; v < n; v++) {
+            extents[v] = LongBitSet.valueOf(concepts.get(v).extent());
+            extentWords = Math.max(extentWords, words(extents[v]));
+            intentWords = Math.max(intentWords, words(concepts.get(v).bits()));
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(concepts.get(top).bits().cardinality());
+            out.writeInt(n);
+            out.writeInt(remap(bottom, top));
+            out.writeInt(extentWords);
+            out.writeInt(intentWords);
+            writeConcept(out, extents[top], concepts.get(top).bits(), extentWords, intentWords);
+            for (int v = 0; v < n; v++) {
+                if (v != top) {
+                    writeConcept(out, extents[v], concepts.get(v).bits(), extentWords, intentWords);
+                }
+            }
+            out.writeInt(uppers.length);
+            for (int upper : uppers) {
+                out.writeInt(remap(upper, top));
+            }
+            for (int lower : lowers) {
+                out.writeInt(remap(lower, top));
+            }
+        }
+    }
+
+    /**
+     * Map vertex ids so that the top vertex is written first.
+     */
+    private static int remap(final int v, final int top) {
+        if (v == top) {
+            return 0;
+        }
+        return (v < top) ? v + 1 : v;
+    }
+
+    private static int words(final LongBitSet bits) {
+        long[] words = bits.words();
+        int n = words.length;
+        while (n > 0 && words[n - 1] == 0L) {
+            n--;
+        }
+        return n;
+    }
+
+    private static void writeConcept(final DataOutputStream out, final LongBitSet extent, final LongBitSet intent, final int extentWords, final int intentWords) throws IOException {
+        writeWords(out, extent.words(), extentWords);
+        writeWords(out, intent.words(), intentWords);
+    }
+
+    private static void writeWords(final DataOutputStream out, final long[] words, final int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            out.writeLong(i < words.length ? words[i] : 0L);
+        }
+    }
+
+    /**
+     * Read a concept lattice with a native backend from the specified snapshot
+     * file. The file is memory mapped only while reading; every concept and
+     * cover is copied into the returned lattice, so this is a full load onto
+     * the heap, although much faster than rebuilding the lattice.
+     * @param file snapshot file to read from, must not be null
+     * @return concept lattice read from the specified snapshot file
+     * @throws IOException if an I/O error occurs or the snapshot is not valid
+     */
+    public static AdjacencyConceptLattice read(final File file) throws IOException {
+        checkNotNull(file);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("concept lattice snapshot " + file + " is too large to map, was " + size + " bytes");
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0L, size));
+        }
+    }
+
+    /**
+     * Read a concept lattice with a native backend from the specified snapshot
+     * buffer, starting at its position. The snapshot is read as big-endian
+     * whatever the byte order of the buffer, and the position of the buffer is
+     * not changed.
+     * @param buffer snapshot buffer to read from, must not be null
+     * @return concept lattice read from the specified snapshot buffer
+     * @throws IOException if the snapshot is not valid
+     */
+    public static AdjacencyConceptLattice read(final ByteBuffer buffer) throws IOException {
+        checkNotNull(buffer);
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+                throw new IOException("not a concept lattice snapshot");
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported concept lattice snapshot version " + version);
+            }
+            long numBits = in.getLong();
+            int n = in.getInt();
+            int bottom = in.getInt();
+            int extentWords = in.getInt();
+            int intentWords = in.getInt();
+            if (n < 1 || bottom < 0 || bottom >= n || extentWords < 0 || intentWords < 0) {
+                throw new IOException("invalid concept lattice snapshot header");
+            }
+
+            AdjacencyConceptLattice lattice = new AdjacencyConceptLattice(numBits);
+            for (int v = 0; v < n; v++) {
+                long[] extent = new long[extentWords];
+                long[] intent = new long[intentWords];
+                in.asLongBuffer().get(extent);
+                in.position(in.position() + 8 * extentWords);
+                in.asLongBuffer().get(intent);
+                in.position(in.position() + 8 * intentWords);
+
+                int id = lattice.addConcept(new Concept(new MutableBitSet(extent, extentWords), LongBitSet.wrap(intent)));
+                if (id != v) {
+                    throw new IOException("invalid concept lattice snapshot, concept " + v + " is out of order");
+                }
+            }
+
+            int m = in.getInt();
+            if (m < 0) {
+                throw new IOException("invalid concept lattice snapshot cover count " + m);
+            }
+            int[] uppers = new int[m];
+            int[] lowers = new int[m];
+            in.asIntBuffer().get(uppers);
+            in.position(in.position() + 4 * m);
+            in.asIntBuffer().get(lowers);
+            in.position(in.position() + 4 * m);
+            for (int i = 0; i < m; i++) {
+                if (uppers[i] < 0 || uppers[i] >= n || lowers[i] < 0 || lowers[i] >= n) {
+                    throw new IOException("invalid concept lattice snapshot cover " + uppers[i] + " " + lowers[i]);
+                }
+                lattice.addCover(uppers[i], lowers[i]);
+            }
+            lattice.setBottom(bottom);
+            return lattice;
+        }
+        catch (BufferUnderflowException e) {
+            throw new IOException("truncated concept lattice snapshot", e);
+        }
+    }
+}
@@ -168,6 +168,33 @@ public final class Context<G extends Relatable, M extends Relatable> {
         return lattice;
     }
     
+    /**
+     * Get the concept lattice for this context with a native backend.
+     * @return concept lattice
+     */
+    public AdjacencyConceptLattice asAdjacencyConceptLattice() {
+        return this.asAdjacencyConceptLattice(CrossTable.Construction.ADD_INTENT);
+    }
+    
+    /**
+     * Get the concept lattice for this context with a native backend.
+     * @param construction algorithm
+     * @return concept lattice
+     */
+    public AdjacencyConceptLattice asAdjacencyConceptLattice(final CrossTable.Construction construction) {
+        return this.asCrossTable().asAdjacencyConceptLattice(attributes.size(), construction);
+    }
+    
+    /**
+     * Get the iceberg concept lattice for this context, the concepts shared
+     * by at least the specified number of objects.
+     * @param minSupport minimum support, must be at least zero
+     * @return iceberg concept lattice
+     */
+    public AdjacencyConceptLattice asIcebergConceptLattice(final long minSupport) {
+        return this.asCrossTable().asIcebergConceptLattice(attributes.size(), minSupport);
+    }
+    
     /**
      * Calculate the isomorphic down lattice.
      * @param <G> element type
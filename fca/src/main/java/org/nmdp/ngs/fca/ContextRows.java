@@ -0,0 +1,472 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+
+import org.dishevelled.bitset.MutableBitSet;
+
+import org.nmdp.ngs.fca.partial.Equal;
+import org.nmdp.ngs.fca.partial.LessOrEqual;
+import org.nmdp.ngs.fca.partial.NotEqual;
+import org.nmdp.ngs.fca.partial.NotGreaterOrEqual;
+
+/**
+ * Cross table rows of a context, built in parallel across objects with whole
+ * word writes. Contexts of bounded intervals in a single dimension related by
+ * order or equality are built from endpoint-sorted attributes, in time
+ * proportional to the logarithm of the number of attributes plus the number of
+ * related attributes per object, instead of one relation call per object and
+ * attribute.
+ */
+final class ContextRows {
+
+    /**
+     * Minimum number of rows built by a single task.
+     */
+    static final int FORK_THRESHOLD = 64;
+
+    /**
+     * Private no-arg constructor.
+     */
+    private ContextRows() {
+        // empty
+    }
+
+    /**
+     * Row building strategy.
+     */
+    private interface Strategy {
+
+        /**
+         * Build the row of an object into words of attribute bits.
+         * @param i object index
+         * @param words attribute words, initially clear
+         */
+        void row(int i, long[] words);
+    }
+
+    /**
+     * Build the cross table rows of the specified context on the common
+     * fork/join pool.
+     * @param context context
+     * @return one row per object
+     */
+    static MutableBitSet[] rows(final Context context) {
+        return rows(context, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Build the cross table rows of the specified context on the specified
+     * fork/join pool.
+     * @param context context
+     * @param pool fork/join pool
+     * @return one row per object
+     */
+    static MutableBitSet[] rows(final Context context, final ForkJoinPool pool) {
+        List objects = context.getObjects();
+        List attributes = context.getAttributes();
+        int words = (attributes.size() + 63) >>> 6;
+        MutableBitSet[] rows = new MutableBitSet[objects.size()];
+        pool.invoke(new Rows(strategy(objects, attributes, context.getRelation()), rows, Math.max(1, words), 0, rows.length));
+        return rows;
+    }
+
+    /**
+     * Rows task over a range of objects.
+     */
+    private static final class Rows extends RecursiveAction {
+        private final Strategy strategy;
+        private final MutableBitSet[] rows;
+        private final int words, from, to;
+
+        Rows(final Strategy strategy, final MutableBitSet[] rows, final int words, final int from, final int to) {
+            this.strategy = strategy;
+            this.rows = rows;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= FORK_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    long[] row = new long[words];
+                    strategy.row(i, row);
+                    rows[i] = new MutableBitSet(row, words);
+                }
+            }
+            else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Rows(strategy, rows, words, from, mid), new Rows(strategy, rows, words, mid, to));
+            }
+        }
+    }
+
+    private static Strategy strategy(final List objects, final List attributes, final BinaryRelation relation) {
+        if (isSweepable(objects, attributes)) {
+            Class<?> type = relation.getClass();
+            if (type == LessOrEqual.class) {
+                return new Enclosing(ranges(objects), ranges(attributes), false);
+            }
+            if (type == NotGreaterOrEqual.class) {
+                return new Enclosing(ranges(objects), ranges(attributes), true);
+            }
+            if (type == Equal.class) {
+                return new Equals(ranges(objects), ranges(attributes), false);
+            }
+            if (type == NotEqual.class) {
+                return new Equals(ranges(objects), ranges(attributes), true);
+            }
+        }
+        return new Apply(objects, attributes, relation);
+    }
+
+    /**
+     * Test if every object and attribute is a bounded, nonempty interval, all
+     * in one dimension common to objects and attributes, for which the order
+     * relation reduces to range enclosure.
+     */
+    private static boolean isSweepable(final List objects, final List attributes) {
+        boolean first = true;
+        int dimension = 0;
+        for (List elements : new List[] { objects, attributes }) {
+            for (Object element : elements) {
+                if (!(element instanceof Interval)) {
+                    return false;
+                }
+                Interval interval = (Interval) element;
+                if (interval == Interval.NULL || interval == Interval.MAGIC || interval.hasNone()) {
+                    return false;
+                }
+                Range range = interval.toRange();
+                if (!range.hasLowerBound() || !range.hasUpperBound() || range.isEmpty()) {
+                    return false;
+                }
+                if (!first && interval.getDimension() != dimension) {
+                    return false;
+                }
+                dimension = interval.getDimension();
+                first = false;
+            }
+        }
+        return true;
+    }
+
+    private static Range[] ranges(final List elements) {
+        Range[] ranges = new Range[elements.size()];
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = ((Interval) elements.get(i)).toRange();
+        }
+        return ranges;
+    }
+
+    /**
+     * Generic strategy, one relation call per object and attribute, setting a
+     * word of bits at a time.
+     */
+    private static final class Apply implements Strategy {
+        private final List objects, attributes;
+        private final BinaryRelation relation;
+
+        Apply(final List objects, final List attributes, final BinaryRelation relation) {
+            this.objects = objects;
+            this.attributes = attributes;
+            this.relation = relation;
+        }
+
+        @Override
+        public void row(final int i, final long[] words) {
+            Object object = objects.get(i);
+            int n = attributes.size();
+            for (int w = 0, j = 0; j < n; w++) {
+                long word = 0L;
+                for (int end = Math.min(n, j + 64); j < end; j++) {
+                    if (relation.apply((Relatable) object, (Relatable) attributes.get(j))) {
+                        word |= 1L << j;
+                    }
+                }
+                words[w] = word;
+            }
+        }
+    }
+
+    /**
+     * Compare ranges by lower bound, a closed lower bound before an open one.
+     */
+    private static final Comparator<Range> LOWER = new Comparator<Range>() {
+            @Override
+            public int compare(final Range left, final Range right) {
+                int result = left.lowerEndpoint().compareTo(right.lowerEndpoint());
+                if (result == 0 && left.lowerBoundType() != right.lowerBoundType()) {
+                    return left.lowerBoundType() == BoundType.CLOSED ? -1 : 1;
+                }
+                return result;
+            }
+        };
+
+    /**
+     * Compare ranges by upper bound, an open upper bound before a closed one.
+     */
+    private static final Comparator<Range> UPPER = new Comparator<Range>() {
+            @Override
+            public int compare(final Range left, final Range right) {
+                int result = left.upperEndpoint().compareTo(right.upperEndpoint());
+                if (result == 0 && left.upperBoundType() != right.upperBoundType()) {
+                    return left.upperBoundType() == BoundType.OPEN ? -1 : 1;
+                }
+                return result;
+            }
+        };
+
+    /**
+     * Enclosure strategy for the order relation of intervals: an object is less
+     * than or equal to an attribute if the attribute range encloses the object
+     * range, that is if the attribute starts at or before the object and ends at
+     * or after it. Attributes are sorted by lower bound into a merge sort tree,
+     * each node of which holds its attributes ordered by upper bound, so that the
+     * attributes starting at or before an object and ending at or after it are
+     * found by scanning the ends of the O(log m) nodes covering that prefix, and
+     * only related attributes are visited.
+     */
+    private static final class Enclosing implements Strategy {
+        private final Range[] objects, attributes;
+        private final Integer[] sorted;
+        private final Range[] lowers;
+        private final int size;
+        private final int[][] tree;
+        private final boolean complement;
+
+        Enclosing(final Range[] objects, final Range[] attributes, final boolean complement) {
+            this.objects = objects;
+            this.attributes = attributes;
+            this.complement = complement;
+            sorted = new Integer[attributes.length];
+            for (int j = 0; j < sorted.length; j++) {
+                sorted[j] = j;
+            }
+            Arrays.sort(sorted, new Comparator<Integer>() {
+                    @Override
+                    public int compare(final Integer left, final Integer right) {
+                        return LOWER.compare(attributes[left], attributes[right]);
+                    }
+                });
+            lowers = new Range[sorted.length];
+            for (int k = 0; k < sorted.length; k++) {
+                lowers[k] = attributes[sorted[k]];
+            }
+
+            // merge sort tree over sorted positions, each node ordered by upper bound
+            int n = 1;
+            while (n < lowers.length) {
+                n <<= 1;
+            }
+            size = n;
+            tree = new int[2 * n][];
+            for (int k = 0; k < n; k++) {
+                tree[n + k] = (k < lowers.length) ? new int[] { k } : new int[0];
+            }
+            for (int node = n - 1; node > 0; node--) {
+                tree[node] = merge(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        /**
+         * Merge two lists of sorted positions ordered by upper bound.
+         */
+        private int[] merge(final int[] left, final int[] right) {
+            int[] merged = new int[left.length + right.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < left.length && j < right.length) {
+                merged[k++] = (UPPER.compare(lowers[left[i]], lowers[right[j]]) <= 0) ? left[i++] : right[j++];
+            }
+            while (i < left.length) {
+                merged[k++] = left[i++];
+            }
+            while (j < right.length) {
+                merged[k++] = right[j++];
+            }
+            return merged;
+        }
+
+        /**
+         * Find the number of sorted attributes with lower bound before or equal
+         * to the lower bound of the specified range.
+         */
+        private int upTo(final Range range) {
+            int low = 0;
+            int high = lowers.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (LOWER.compare(lowers[mid], range) <= 0) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Find the number of sorted attributes with lower bound strictly before
+         * the lower bound of the specified range.
+         */
+        private int before(final Range range) {
+            int low = 0;
+            int high = lowers.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (LOWER.compare(lowers[mid], range) < 0) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public void row(final int i, final long[] words) {
+            Range object = objects[i];
+            if (!complement) {
+                // object <= attribute, attributes starting at or before the object that end at or after it
+                for (int low = size, high = size + upTo(object); low < high; low >>>= 1, high >>>= 1) {
+                    if ((low & 1) != 0) {
+                        enclosing(tree[low++], object, words);
+                    }
+                    if ((high & 1) != 0) {
+                        enclosing(tree[--high], object, words);
+                    }
+                }
+            }
+            else {
+                // !(object >= attribute), all attributes but those starting at or after the object that end at or before it
+                int n = attributes.length;
+                Arrays.fill(words, 0, n >>> 6, -1L);
+                if ((n & 63) != 0) {
+                    words[n >>> 6] = -1L >>> -n;
+                }
+                for (int low = size + before(object), high = size + lowers.length; low < high; low >>>= 1, high >>>= 1) {
+                    if ((low & 1) != 0) {
+                        enclosed(tree[low++], object, words);
+                    }
+                    if ((high & 1) != 0) {
+                        enclosed(tree[--high], object, words);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Set the bits of the attributes of a node, all starting at or before the
+         * object, that end at or after the object.
+         */
+        private void enclosing(final int[] node, final Range object, final long[] words) {
+            for (int k = node.length - 1; k >= 0 && UPPER.compare(lowers[node[k]], object) >= 0; k--) {
+                int j = sorted[node[k]];
+                words[j >>> 6] |= 1L << j;
+            }
+        }
+
+        /**
+         * Clear the bits of the attributes of a node, all starting at or after the
+         * object, that end at or before the object.
+         */
+        private void enclosed(final int[] node, final Range object, final long[] words) {
+            for (int k = 0; k < node.length && UPPER.compare(lowers[node[k]], object) <= 0; k++) {
+                int j = sorted[node[k]];
+                words[j >>> 6] &= ~(1L << j);
+            }
+        }
+    }
+
+    /**
+     * Hash strategy for equality of intervals in a single dimension.
+     */
+    private static final class Equals implements Strategy {
+        private final Range[] objects;
+        private final Map<Range, int[]> attributes;
+        private final int n;
+        private final boolean complement;
+
+        Equals(final Range[] objects, final Range[] attributes, final boolean complement) {
+            this.objects = objects;
+            this.n = attributes.length;
+            this.complement = complement;
+            Map<Range, List<Integer>> indexes = new HashMap<>(attributes.length * 2);
+            for (int j = 0; j < attributes.length; j++) {
+                List<Integer> list = indexes.get(attributes[j]);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    indexes.put(attributes[j], list);
+                }
+                list.add(j);
+            }
+            this.attributes = new HashMap<>(indexes.size() * 2);
+            for (Map.Entry<Range, List<Integer>> entry : indexes.entrySet()) {
+                int[] array = new int[entry.getValue().size()];
+                for (int k = 0; k < array.length; k++) {
+                    array[k] = entry.getValue().get(k);
+                }
+                this.attributes.put(entry.getKey(), array);
+            }
+        }
+
+        @Override
+        public void row(final int i, final long[] words) {
+            if (complement) {
+                Arrays.fill(words, 0, n >>> 6, -1L);
+                if ((n & 63) != 0) {
+                    words[n >>> 6] = -1L >>> -n;
+                }
+            }
+            int[] equal = attributes.get(objects[i]);
+            if (equal != null) {
+                for (int j : equal) {
+                    if (complement) {
+                        words[j >>> 6] &= ~(1L << j);
+                    }
+                    else {
+                        words[j >>> 6] |= 1L << j;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -135,17 +135,7 @@ public final class CrossTable implements Iterable<CrossTable.Row> {
         
         CrossTable table = new CrossTable();
         
-        List<G> objects = context.getObjects();
-        List<M> attributes = context.getAttributes();
-        BinaryRelation relation = context.getRelation();
-
-        for(int i = 0; i < objects.size(); i++) {
-            MutableBitSet bits = new MutableBitSet(attributes.size());
-            for(int j = 0; j < attributes.size(); j++) {
-                if(relation.apply(objects.get((int) i), attributes.get((int) j))) {
-                    bits.flip(j);
-                }
-            }
+        for(MutableBitSet bits : ContextRows.rows(context)) {
             table.addRow(bits);
         }
         
@@ -248,6 +238,61 @@ public final class CrossTable implements Iterable<CrossTable.Row> {
         return lattice;
     }
 
+
+    /**
+     * Concept lattice construction algorithm.
+     */
+    public enum Construction {
+        /** Insert objects one at a time (AddIntent). */
+        ADD_INTENT,
+
+        /** Enumerate all concepts with NextClosure, then compute covers. */
+        NEXT_CLOSURE,
+
+        /** Enumerate all concepts with In-Close2, then compute covers. */
+        IN_CLOSE,
+
+        /** Enumerate all concepts with In-Close2 across all cores, then compute covers. */
+        PARALLEL_IN_CLOSE
+    }
+
+    public AdjacencyConceptLattice asAdjacencyConceptLattice() {
+        return asAdjacencyConceptLattice(Construction.ADD_INTENT);
+    }
+
+    public AdjacencyConceptLattice asAdjacencyConceptLattice(final Construction construction) {
+        return asAdjacencyConceptLattice(ncol, construction);
+    }
+
+    AdjacencyConceptLattice asAdjacencyConceptLattice(final long numBits, final Construction construction) {
+        checkNotNull(construction);
+        if (construction != Construction.ADD_INTENT) {
+            return ConceptEnumeration.lattice(this, numBits, construction);
+        }
+        AdjacencyConceptLattice lattice = new AdjacencyConceptLattice(numBits);
+        
+        for(Row row : table) {
+            lattice.insert(row.asConcept(numBits));
+        }
+        
+        return lattice;
+    }
+
+    /**
+     * Get the iceberg concept lattice for this cross table: the concepts whose
+     * extent has at least the specified number of objects, under the concept
+     * of all attributes. Concepts below the threshold are pruned during
+     * enumeration rather than built and discarded.
+     * @param minSupport minimum support, must be at least zero
+     * @return iceberg concept lattice
+     */
+    public AdjacencyConceptLattice asIcebergConceptLattice(final long minSupport) {
+        return asIcebergConceptLattice(ncol, minSupport);
+    }
+
+    AdjacencyConceptLattice asIcebergConceptLattice(final long numBits, final long minSupport) {
+        return ConceptEnumeration.lattice(this, numBits, Construction.IN_CLOSE, minSupport);
+    }
     
     @Override
     public Iterator<Row> iterator() {
@@ -0,0 +1,368 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import java.util.Arrays;
+
+import org.dishevelled.bitset.MutableBitSet;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Fixed-width bitset packed into an array of words, specialized for the intent
+ * and extent arithmetic of concept lattices. Binary operations are in place
+ * and subset tests do not allocate. Cardinality and hash code are cached until
+ * the next mutation. Bitsets of different widths compare as if padded with
+ * clear bits.
+ */
+public final class LongBitSet {
+    private long[] words;
+    private long cardinality = -1L;
+    private int hashCode;
+    private boolean hashed;
+
+    /**
+     * Construct an empty bitset.
+     * @param numBits number of bits, must be at least zero
+     */
+    public LongBitSet(final long numBits) {
+        checkArgument(numBits >= 0L, "numBits must be at least zero");
+        words = new long[wordIndex(numBits + 63L)];
+    }
+
+    private LongBitSet(final long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Wrap an array of words without copying.
+     * @param words words, bit <code>i</code> is bit <code>i % 64</code> of
+     * word <code>i / 64</code>
+     * @return bitset backed by the words
+     */
+    static LongBitSet wrap(final long[] words) {
+        return new LongBitSet(words);
+    }
+
+    /**
+     * Get the backing words without copying.
+     * @return words
+     */
+    long[] words() {
+        return words;
+    }
+
+    private static int wordIndex(final long index) {
+        return (int) (index >>> 6);
+    }
+
+    private void modified() {
+        cardinality = -1L;
+        hashed = false;
+    }
+
+    private void ensureWords(final int n) {
+        if (n > words.length) {
+            words = Arrays.copyOf(words, n);
+        }
+    }
+
+    /**
+     * Create a packed copy of a bitset.
+     * @param bits bitset
+     * @return packed copy
+     */
+    public static LongBitSet valueOf(final MutableBitSet bits) {
+        checkNotNull(bits);
+        LongBitSet result = new LongBitSet(bits.capacity());
+        for (long i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result.ensureWords(wordIndex(i) + 1);
+            result.words[wordIndex(i)] |= 1L << i;
+        }
+        return result;
+    }
+
+    /**
+     * Create a mutable bitset with the same set bits.
+     * @return mutable bitset
+     */
+    public MutableBitSet toMutableBitSet() {
+        MutableBitSet bits = new MutableBitSet(capacity());
+        for (long i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            bits.set(i);
+        }
+        return bits;
+    }
+
+    /**
+     * Copy this bitset.
+     * @return copy
+     */
+    public LongBitSet copy() {
+        LongBitSet copy = new LongBitSet(words.clone());
+        copy.cardinality = cardinality;
+        copy.hashCode = hashCode;
+        copy.hashed = hashed;
+        return copy;
+    }
+
+    /**
+     * Get the capacity.
+     * @return number of bits that fit without growing
+     */
+    public long capacity() {
+        return ((long) words.length) << 6;
+    }
+
+    /**
+     * Get a bit.
+     * @param index bit index
+     * @return true if the bit is set
+     */
+    public boolean get(final long index) {
+        int i = wordIndex(index);
+        return i < words.length && (words[i] & (1L << index)) != 0L;
+    }
+
+    /**
+     * Set a bit.
+     * @param index bit index
+     * @return this bitset
+     */
+    public LongBitSet set(final long index) {
+        checkArgument(index >= 0L, "index must be at least zero");
+        int i = wordIndex(index);
+        ensureWords(i + 1);
+        words[i] |= 1L << index;
+        modified();
+        return this;
+    }
+
+    /**
+     * Set a range of bits.
+     * @param start first bit index, inclusive
+     * @param end last bit index, exclusive
+     * @return this bitset
+     */
+    public LongBitSet set(final long start, final long end) {
+        checkArgument(start >= 0L, "start must be at least zero");
+        checkArgument(end >= start, "end must be greater than or equal to start");
+        if (start == end) {
+            return this;
+        }
+        int first = wordIndex(start);
+        int last = wordIndex(end - 1L);
+        ensureWords(last + 1);
+        long firstMask = -1L << start;
+        long lastMask = -1L >>> -end;
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+        }
+        else {
+            words[first] |= firstMask;
+            for (int i = first + 1; i < last; i++) {
+                words[i] = -1L;
+            }
+            words[last] |= lastMask;
+        }
+        modified();
+        return this;
+    }
+
+    /**
+     * Clear a bit.
+     * @param index bit index
+     * @return this bitset
+     */
+    public LongBitSet clear(final long index) {
+        int i = wordIndex(index);
+        if (i < words.length) {
+            words[i] &= ~(1L << index);
+            modified();
+        }
+        return this;
+    }
+
+    /**
+     * Find the next set bit.
+     * @param index first bit index to check
+     * @return index of the next set bit, or -1 if there is none
+     */
+    public long nextSetBit(final long index) {
+        int i = wordIndex(index);
+        if (i >= words.length) {
+            return -1L;
+        }
+        long word = words[i] & (-1L << index);
+        while (true) {
+            if (word != 0L) {
+                return (((long) i) << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++i == words.length) {
+                return -1L;
+            }
+            word = words[i];
+        }
+    }
+
+    /**
+     * Intersect this bitset with another in place.
+     * @param that bitset
+     * @return this bitset
+     */
+    public LongBitSet and(final LongBitSet that) {
+        int n = Math.min(words.length, that.words.length);
+        for (int i = 0; i < n; i++) {
+            words[i] &= that.words[i];
+        }
+        Arrays.fill(words, n, words.length, 0L);
+        modified();
+        return this;
+    }
+
+    /**
+     * Union this bitset with another in place.
+     * @param that bitset
+     * @return this bitset
+     */
+    public LongBitSet or(final LongBitSet that) {
+        ensureWords(that.words.length);
+        for (int i = 0, n = that.words.length; i < n; i++) {
+            words[i] |= that.words[i];
+        }
+        modified();
+        return this;
+    }
+
+    /**
+     * Clear all bits of this bitset that are set in another, in place.
+     * @param that bitset
+     * @return this bitset
+     */
+    public LongBitSet andNot(final LongBitSet that) {
+        int n = Math.min(words.length, that.words.length);
+        for (int i = 0; i < n; i++) {
+            words[i] &= ~that.words[i];
+        }
+        modified();
+        return this;
+    }
+
+    /**
+     * Test if every bit set in this bitset is also set in another.
+     * @param that bitset
+     * @return true if this is a subset of that
+     */
+    public boolean isSubsetOf(final LongBitSet that) {
+        int n = Math.min(words.length, that.words.length);
+        for (int i = 0; i < n; i++) {
+            if ((words[i] & ~that.words[i]) != 0L) {
+                return false;
+            }
+        }
+        for (int i = n; i < words.length; i++) {
+            if (words[i] != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Test if this bitset shares any set bit with another.
+     * @param that bitset
+     * @return true if the intersection is not empty
+     */
+    public boolean intersects(final LongBitSet that) {
+        for (int i = 0, n = Math.min(words.length, that.words.length); i < n; i++) {
+            if ((words[i] & that.words[i]) != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of set bits.
+     * @return cardinality
+     */
+    public long cardinality() {
+        if (cardinality < 0L) {
+            long count = 0L;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            cardinality = count;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Test if no bit is set.
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return cardinality() == 0L;
+    }
+
+    @Override
+    public boolean equals(final Object right) {
+        if (right == this) {
+            return true;
+        }
+        if (!(right instanceof LongBitSet)) {
+            return false;
+        }
+        LongBitSet that = (LongBitSet) right;
+        if (hashed && that.hashed && hashCode != that.hashCode) {
+            return false;
+        }
+        return this.isSubsetOf(that) && that.isSubsetOf(this);
+    }
+
+    @Override
+    public int hashCode() {
+        if (!hashed) {
+            long h = 1234L;
+            for (int i = words.length; --i >= 0;) {
+                h ^= words[i] * (i + 1);
+            }
+            hashCode = (int) ((h >> 32) ^ h);
+            hashed = true;
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (long i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(i);
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,540 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Half-open genomic interval <code>[lower, upper)</code> with primitive long
+ * endpoints and a dimension, for example a chromosome. Each operation has a
+ * variant that writes its result into a caller-supplied interval, which may be
+ * this interval, so that chained operations need not allocate. The order
+ * relations do not allocate either.
+ *
+ * <p>
+ * {@link Long#MIN_VALUE} and {@link Long#MAX_VALUE} stand for minus and plus
+ * infinity. Empty intervals are canonical: all empty intervals of a dimension
+ * are equal, whatever their endpoints. Unlike {@link Interval}, adjacent
+ * intervals such as <code>[1, 3)</code> and <code>[3, 5)</code> do not
+ * overlap.
+ * </p>
+ *
+ * <p>
+ * Intervals are mutable, so do not modify an interval used as a key in a hash
+ * set or map.
+ * </p>
+ */
+public final class LongInterval extends PartiallyOrdered<LongInterval>
+                                implements Comparable<LongInterval> {
+    private int dimension;
+    private long lower;
+    private long upper;
+
+    /**
+     * The one and only dimensionless interval with no values, cannot be
+     * modified.
+     */
+    public static final LongInterval NULL = new LongInterval(0, 0L, 0L);
+
+    /**
+     * The one and only dimensionless interval with every value, cannot be
+     * modified.
+     */
+    public static final LongInterval MAGIC = new LongInterval(0, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    /**
+     * Construct an interval equal to {@link #NULL}, for use as a result.
+     */
+    public LongInterval() {
+        this(0, 0L, 0L);
+    }
+
+    /**
+     * Construct an interval with specified dimension and endpoints.
+     * @param dimension dimension, must be at least zero
+     * @param lower inclusive lower endpoint, or Long.MIN_VALUE if unbounded
+     * @param upper exclusive upper endpoint, or Long.MAX_VALUE if unbounded
+     */
+    public LongInterval(final int dimension, final long lower, final long upper) {
+        checkArgument(dimension >= 0, "dimension must be at least zero");
+        this.dimension = dimension;
+        this.lower = lower < upper ? lower : 0L;
+        this.upper = lower < upper ? upper : 0L;
+    }
+
+    private LongInterval assign(final int dimension, final long lower, final long upper) {
+        checkArgument(this != NULL && this != MAGIC, "NULL and MAGIC cannot be modified");
+        this.dimension = dimension;
+        this.lower = lower < upper ? lower : 0L;
+        this.upper = lower < upper ? upper : 0L;
+        return this;
+    }
+
+    /**
+     * Set the dimension and endpoints of this interval.
+     * @param dimension dimension, must be at least zero
+     * @param lower inclusive lower endpoint, or Long.MIN_VALUE if unbounded
+     * @param upper exclusive upper endpoint, or Long.MAX_VALUE if unbounded
+     * @return this interval
+     */
+    public LongInterval set(final int dimension, final long lower, final long upper) {
+        checkArgument(dimension >= 0, "dimension must be at least zero");
+        return assign(dimension, lower, upper);
+    }
+
+    /**
+     * Set this interval equal to another.
+     * @param that interval
+     * @return this interval
+     */
+    public LongInterval set(final LongInterval that) {
+        checkNotNull(that);
+        return assign(that.dimension, that.lower, that.upper);
+    }
+
+    /**
+     * Copy this interval.
+     * @return a new modifiable interval equal to this
+     */
+    public LongInterval copy() {
+        return new LongInterval(dimension, lower, upper);
+    }
+
+    /**
+     * Get the interval dimension.
+     * @return dimension
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Get the inclusive lower endpoint.
+     * @return lower endpoint, Long.MIN_VALUE if unbounded
+     */
+    public long getLower() {
+        return lower;
+    }
+
+    /**
+     * Get the exclusive upper endpoint.
+     * @return upper endpoint, Long.MAX_VALUE if unbounded
+     */
+    public long getUpper() {
+        return upper;
+    }
+
+    /**
+     * Test if this interval has no values.
+     * @return true if this interval is empty
+     */
+    public boolean isEmpty() {
+        return lower >= upper;
+    }
+
+    /**
+     * Test if this interval has no dimension and no values.
+     * @return true if this interval equals {@link #NULL}
+     */
+    public boolean hasNone() {
+        return isNull(dimension, lower, upper);
+    }
+
+    /**
+     * Test if this interval has no dimension and every value.
+     * @return true if this interval equals {@link #MAGIC}
+     */
+    public boolean hasAll() {
+        return isMagic(dimension, lower, upper);
+    }
+
+    private static boolean isNull(final int dimension, final long lower, final long upper) {
+        return dimension == 0 && lower >= upper;
+    }
+
+    private static boolean isMagic(final int dimension, final long lower, final long upper) {
+        return dimension == 0 && lower == Long.MIN_VALUE && upper == Long.MAX_VALUE;
+    }
+
+    /**
+     * Find the intersection of two intervals in the dimension and endpoints of
+     * each, without allocating.
+     */
+    private static LongInterval intersect(final int leftDimension, final long leftLower, final long leftUpper,
+                                          final int rightDimension, final long rightLower, final long rightUpper,
+                                          final LongInterval result) {
+        if (isMagic(leftDimension, leftLower, leftUpper)) {
+            return result.assign(rightDimension, rightLower, rightUpper);
+        }
+        if (isMagic(rightDimension, rightLower, rightUpper)) {
+            return result.assign(leftDimension, leftLower, leftUpper);
+        }
+        if (isNull(leftDimension, leftLower, leftUpper) || isNull(rightDimension, rightLower, rightUpper) || leftDimension != rightDimension) {
+            return result.assign(0, 0L, 0L);
+        }
+        return result.assign(leftDimension, Math.max(leftLower, rightLower), Math.min(leftUpper, rightUpper));
+    }
+
+    /**
+     * Find the intersection of two intervals.
+     * @param that interval
+     * @return intersection of this and that, which is empty if the two
+     * intervals do not overlap and {@link #NULL} if they differ in dimension
+     */
+    @Override
+    public LongInterval intersect(final LongInterval that) {
+        return intersect(that, new LongInterval());
+    }
+
+    /**
+     * Find the intersection of two intervals without allocating.
+     * @param that interval
+     * @param result interval to write the intersection into, may be this or
+     * that
+     * @return result
+     */
+    public LongInterval intersect(final LongInterval that, final LongInterval result) {
+        checkNotNull(that);
+        checkNotNull(result);
+        return intersect(dimension, lower, upper, that.dimension, that.lower, that.upper, result);
+    }
+
+    /**
+     * Find the lattice-compatible union of two intervals, as
+     * {@link Interval#union(org.nmdp.ngs.fca.Interval)}. To span two intervals
+     * use {@link #span(LongInterval, LongInterval)} instead.
+     * @param that interval
+     * @return this
+     */
+    @Override
+    public LongInterval union(final LongInterval that) {
+        return this;
+    }
+
+    /**
+     * Find the smallest interval containing two intervals of the same
+     * dimension without allocating.
+     * @param that interval
+     * @param result interval to write the span into, may be this or that
+     * @return result, {@link #MAGIC} values if the intervals differ in
+     * dimension and neither is {@link #NULL}
+     */
+    public LongInterval span(final LongInterval that, final LongInterval result) {
+        checkNotNull(that);
+        checkNotNull(result);
+        if (this.hasNone() || (this.isEmpty() && this.dimension == that.dimension)) {
+            return result.assign(that.dimension, that.lower, that.upper);
+        }
+        if (that.hasNone() || (that.isEmpty() && this.dimension == that.dimension)) {
+            return result.assign(dimension, lower, upper);
+        }
+        if (this.dimension != that.dimension || this.hasAll() || that.hasAll()) {
+            return result.assign(0, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+        return result.assign(dimension, Math.min(lower, that.lower), Math.max(upper, that.upper));
+    }
+
+    /**
+     * Find the interval that extends ahead of this one.
+     * @return interval from the upper endpoint of this to plus infinity
+     */
+    public LongInterval ahead() {
+        return ahead(new LongInterval());
+    }
+
+    /**
+     * Find the interval that extends ahead of this one without allocating.
+     * @param result interval to write into, may be this
+     * @return result, every value if this is empty
+     */
+    public LongInterval ahead(final LongInterval result) {
+        checkNotNull(result);
+        if (isEmpty()) {
+            return result.assign(dimension, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+        return result.assign(dimension, upper == Long.MAX_VALUE ? 0L : upper, upper == Long.MAX_VALUE ? 0L : Long.MAX_VALUE);
+    }
+
+    /**
+     * Find the interval that extends behind this one.
+     * @return interval from minus infinity to the lower endpoint of this
+     */
+    public LongInterval behind() {
+        return behind(new LongInterval());
+    }
+
+    /**
+     * Find the interval that extends behind this one without allocating.
+     * @param result interval to write into, may be this
+     * @return result, every value if this is empty
+     */
+    public LongInterval behind(final LongInterval result) {
+        checkNotNull(result);
+        if (isEmpty()) {
+            return result.assign(dimension, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+        return result.assign(dimension, lower == Long.MIN_VALUE ? 0L : Long.MIN_VALUE, lower == Long.MIN_VALUE ? 0L : lower);
+    }
+
+    /**
+     * Find the gap between two intervals.
+     * @param that interval
+     * @return the interval between this and that, {@link #NULL} if neither is
+     * before the other
+     */
+    public LongInterval gap(final LongInterval that) {
+        return gap(that, new LongInterval());
+    }
+
+    /**
+     * Find the gap between two intervals without allocating.
+     * @param that interval
+     * @param result interval to write the gap into, may be this or that
+     * @return result, empty if the intervals are adjacent
+     */
+    public LongInterval gap(final LongInterval that, final LongInterval result) {
+        checkNotNull(that);
+        checkNotNull(result);
+        if (this.before(that)) {
+            return result.assign(dimension, upper, that.lower);
+        }
+        if (this.after(that)) {
+            return result.assign(dimension, that.upper, lower);
+        }
+        return result.assign(0, 0L, 0L);
+    }
+
+    /**
+     * Find the difference between two intervals without allocating. The
+     * difference has at most two parts, the values of this behind that and the
+     * values of this ahead of that.
+     * @param that interval
+     * @param behind interval to write the part behind that into
+     * @param ahead interval to write the part ahead of that into
+     * @see Interval#minus(org.nmdp.ngs.fca.Interval)
+     */
+    public void minus(final LongInterval that, final LongInterval behind, final LongInterval ahead) {
+        checkNotNull(that);
+        checkNotNull(behind);
+        checkNotNull(ahead);
+        checkArgument(behind != ahead, "behind and ahead must be different intervals");
+        int thatDimension = that.dimension;
+        long thatLower = that.lower;
+        long thatUpper = that.upper;
+        int thisDimension = dimension;
+        long thisLower = lower;
+        long thisUpper = upper;
+        if (thatLower >= thatUpper) {
+            intersect(thisDimension, thisLower, thisUpper, thatDimension, Long.MIN_VALUE, Long.MAX_VALUE, behind);
+            ahead.assign(0, 0L, 0L);
+        }
+        else {
+            intersect(thisDimension, thisLower, thisUpper, thatDimension, Long.MIN_VALUE, thatLower, behind);
+            intersect(thisDimension, thisLower, thisUpper, thatDimension, thatUpper, Long.MAX_VALUE, ahead);
+        }
+    }
+
+    /**
+     * Test if an interval precedes another.
+     * @param that interval
+     * @return true if both are non-empty in the same dimension and this ends
+     * at or before that starts
+     */
+    public boolean before(final LongInterval that) {
+        checkNotNull(that);
+        return !this.isEmpty() && !that.isEmpty() && this.dimension == that.dimension && this.upper <= that.lower;
+    }
+
+    /**
+     * Test if an interval is after another.
+     * @param that interval
+     * @return true if that interval is before this
+     */
+    public boolean after(final LongInterval that) {
+        checkNotNull(that);
+        return that.before(this);
+    }
+
+    /**
+     * Test if an interval overlaps another.
+     * @param that interval
+     * @return true if the intersection of this and that is not empty
+     */
+    public boolean overlaps(final LongInterval that) {
+        checkNotNull(that);
+        if (this.hasAll() || that.hasAll()) {
+            return !this.isEmpty() && !that.isEmpty();
+        }
+        return this.dimension == that.dimension && Math.max(lower, that.lower) < Math.min(upper, that.upper);
+    }
+
+    /**
+     * Test if this interval contains all elements of another, as
+     * <code>that.equals(this.intersect(that))</code> without allocating.
+     * @param that interval
+     * @return true if this interval encloses that
+     */
+    public boolean encloses(final LongInterval that) {
+        checkNotNull(that);
+        if (this.hasAll() || that.hasNone()) {
+            return true;
+        }
+        if (that.hasAll() || this.hasNone() || this.dimension != that.dimension) {
+            return false;
+        }
+        return that.isEmpty() || (lower <= that.lower && that.upper <= upper);
+    }
+
+    @Override
+    public boolean apply(final LongInterval that) {
+        return that.encloses(this);
+    }
+
+    @Override
+    public boolean isGreaterOrEqualTo(final LongInterval that) {
+        return encloses(that);
+    }
+
+    /**
+     * Find the length of this interval.
+     * @return number of values, or positive infinity if unbounded
+     */
+    @Override
+    public double measure() {
+        if (lower == Long.MIN_VALUE || upper == Long.MAX_VALUE) {
+            return isEmpty() ? 0.0d : Double.POSITIVE_INFINITY;
+        }
+        return (double) upper - (double) lower;
+    }
+
+    /**
+     * Convert an interval of long endpoints.
+     * @param interval interval, closed or open bounds are converted to half-open
+     * @return a new modifiable interval
+     */
+    public static LongInterval valueOf(final Interval<Long> interval) {
+        checkNotNull(interval);
+        Range<Long> range = interval.toRange();
+        if (range == null) {
+            return new LongInterval(interval.getDimension(), 0L, 0L);
+        }
+        long lower = Long.MIN_VALUE;
+        long upper = Long.MAX_VALUE;
+        if (range.hasLowerBound()) {
+            lower = range.lowerEndpoint();
+            if (range.lowerBoundType() == BoundType.OPEN && lower != Long.MAX_VALUE) {
+                lower++;
+            }
+        }
+        if (range.hasUpperBound()) {
+            upper = range.upperEndpoint();
+            if (range.upperBoundType() == BoundType.CLOSED && upper != Long.MAX_VALUE) {
+                upper++;
+            }
+        }
+        return new LongInterval(interval.getDimension(), lower, upper);
+    }
+
+    /**
+     * Convert this interval.
+     * @return an interval of long endpoints, {@link Interval#NULL} or
+     * {@link Interval#MAGIC} if this equals {@link #NULL} or {@link #MAGIC}
+     */
+    public Interval<Long> toInterval() {
+        if (hasNone()) {
+            return Interval.NULL;
+        }
+        if (hasAll()) {
+            return Interval.MAGIC;
+        }
+        if (lower == Long.MIN_VALUE) {
+            return new Interval<>(dimension, upper == Long.MAX_VALUE ? Range.<Long>all() : Range.lessThan(upper));
+        }
+        return new Interval<>(dimension, upper == Long.MAX_VALUE ? Range.atLeast(lower) : Range.closedOpen(lower, upper));
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+        if (!(that instanceof LongInterval)) {
+            return false;
+        }
+        LongInterval interval = (LongInterval) that;
+        return dimension == interval.dimension && lower == interval.lower && upper == interval.upper;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * dimension + Long.hashCode(lower)) + Long.hashCode(upper);
+    }
+
+    /**
+     * Compare two intervals.
+     * @param that interval
+     * @return a negative integer as this before that, a positive integer as
+     * this after that, otherwise zero
+     */
+    @Override
+    public int compareTo(final LongInterval that) {
+        if (this.before(that)) {
+            return -1;
+        }
+        if (this.after(that)) {
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Get the string representation of this interval, in the format of
+     * {@link Interval#toString()}.
+     * @return interval string
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (!hasNone() && !hasAll()) {
+            sb.append(dimension).append(":");
+        }
+        if (isEmpty()) {
+            return sb.append("()").toString();
+        }
+        if (lower == Long.MIN_VALUE) {
+            sb.append("(-∞");
+        }
+        else {
+            sb.append("[").append(lower);
+        }
+        sb.append("..");
+        if (upper == Long.MAX_VALUE) {
+            sb.append("+∞)");
+        }
+        else {
+            sb.append(upper).append(")");
+        }
+        return sb.toString();
+    }
+}
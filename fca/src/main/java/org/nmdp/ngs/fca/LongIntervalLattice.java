@@ -0,0 +1,78 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import com.tinkerpop.blueprints.Graph;
+
+/**
+ * Lattice of genomic intervals with primitive long endpoints. Order tests
+ * during insertion do not allocate, unlike {@link IntervalLattice}.
+ *
+ * <p>Intervals are modifiable, so {@link #insert}, {@link #meet}, {@link #join}
+ * and {@link #find} return copies of lattice elements. Elements returned by
+ * {@link #top}, {@link #bottom} and iteration are the lattice's own and must
+ * not be modified.</p>
+ */
+public final class LongIntervalLattice extends CompleteLattice<LongInterval> {
+
+    /**
+     * Construct an interval lattice assigned to a designated graph (backend).
+     * @param graph assignment
+     */
+    public LongIntervalLattice(final Graph graph) {
+        super(graph, LongInterval.MAGIC);
+    }
+
+    /**
+     * Insert an interval. The lattice keeps a copy, so the interval may be
+     * reused afterwards.
+     * @param interval interval to insert
+     * @return a copy of the lattice element equal to the interval
+     */
+    public LongInterval insert(final LongInterval interval) {
+        return ((LongInterval) super.addIntent(interval.copy(), top).getProperty(LABEL)).copy();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return a copy of the lattice element
+     */
+    @Override
+    public LongInterval join(final LongInterval left, final LongInterval right) {
+        return super.join(left, right).copy();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return a copy of the lattice element
+     */
+    @Override
+    public LongInterval meet(final LongInterval left, final LongInterval right) {
+        return super.meet(left, right).copy();
+    }
+
+    @Override
+    protected Object cacheKey(final LongInterval element) {
+        return element.copy();
+    }
+}
@@ -0,0 +1,318 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static org.nmdp.ngs.fca.TestUtil.bits;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import com.google.common.collect.Iterables;
+
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+
+import org.dishevelled.bitset.MutableBitSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for AdjacencyConceptLattice.
+ */
+public final class AdjacencyConceptLatticeTest {
+    private AdjacencyConceptLattice lattice;
+
+    /*
+     * From Davey and Priestly "Introduction to Lattices and Order" second
+     * edition, page 77.
+     */
+    @Before
+    public void setUp() {
+        lattice = new AdjacencyConceptLattice(7);
+
+        lattice.insert(new Concept(bits(0), bits(0, 1, 3, 5)));
+        lattice.insert(new Concept(bits(1), bits(0, 1, 3, 4)));
+        lattice.insert(new Concept(bits(2), bits(0, 1, 3, 4, 5, 6)));
+        lattice.insert(new Concept(bits(3), bits(0, 2, 4, 5)));
+        lattice.insert(new Concept(bits(4), bits(1, 3)));
+        lattice.insert(new Concept(bits(5), bits(0, 5)));
+    }
+
+    private static Set<String> concepts(final Iterable<Concept> lattice) {
+        Set<String> concepts = new HashSet<>();
+        for (Concept concept : lattice) {
+            concepts.add(concept.toString());
+        }
+        return concepts;
+    }
+
+    private static CrossTable randomCrossTable(final int rows, final int columns, final double density, final Random random) {
+        CrossTable table = new CrossTable();
+        for (int i = 0; i < rows; i++) {
+            MutableBitSet bits = new MutableBitSet(columns);
+            for (int j = 0; j < columns; j++) {
+                if (random.nextDouble() < density) {
+                    bits.set(j);
+                }
+            }
+            table.addRow(bits);
+        }
+        return table;
+    }
+
+    @Test
+    public void testInsert() {
+        Concept top = lattice.top();
+        Concept bottom = lattice.bottom();
+
+        assertEquals(top.intent(), bits(0, 1, 2, 3, 4, 5, 6));
+        assertEquals(top.extent(), bits());
+
+        assertEquals(bottom.intent(), bits());
+        assertEquals(bottom.extent(), bits(0, 1, 2, 3, 4, 5));
+        assertEquals(lattice.size(), 12);
+    }
+
+    @Test
+    public void testIterator() {
+        assertEquals(12, Iterables.size(lattice));
+    }
+
+    @Test
+    public void testSameConceptsAsConceptLattice() {
+        ConceptLattice expected = new ConceptLattice(new TinkerGraph(), 7);
+        expected.insert(new Concept(bits(0), bits(0, 1, 3, 5)));
+        expected.insert(new Concept(bits(1), bits(0, 1, 3, 4)));
+        expected.insert(new Concept(bits(2), bits(0, 1, 3, 4, 5, 6)));
+        expected.insert(new Concept(bits(3), bits(0, 2, 4, 5)));
+        expected.insert(new Concept(bits(4), bits(1, 3)));
+        expected.insert(new Concept(bits(5), bits(0, 5)));
+
+        assertEquals(concepts(expected), concepts(lattice));
+    }
+
+    @Test
+    public void testSameConceptsAsConceptLatticeRandom() {
+        Random random = new Random(42L);
+        for (int i = 0; i < 10; i++) {
+            CrossTable table = randomCrossTable(20, 12, 0.4d, random);
+            ConceptLattice expected = table.asConceptLattice(new TinkerGraph());
+            AdjacencyConceptLattice observed = table.asAdjacencyConceptLattice();
+
+            assertEquals(expected.size(), observed.size());
+            assertEquals(concepts(expected), concepts(observed));
+        }
+    }
+
+    @Test
+    public void testMeet() {
+        Concept left = lattice.meet(lattice.top(), new Concept(bits(), bits(1, 3)));
+        Concept right = lattice.meet(lattice.top(), new Concept(bits(), bits(0, 5)));
+
+        assertEquals(left.intent(), bits(1, 3));
+        assertEquals(right.intent(), bits(0, 5));
+        assertEquals(lattice.meet(left, left).intent(), bits(1, 3));
+        assertEquals(lattice.meet(left, right).intent(), bits());
+    }
+
+    @Test
+    public void testJoin() {
+        Concept left = lattice.join(lattice.bottom(), new Concept(bits(), bits(1, 3)));
+        Concept right = lattice.join(lattice.bottom(), new Concept(bits(), bits(0, 5)));
+
+        assertEquals(left.intent(), bits(1, 3));
+        assertEquals(right.intent(), bits(0, 5));
+        assertEquals(lattice.join(left, left).intent(), bits(1, 3));
+        assertEquals(lattice.join(left, right).intent(), bits(0, 1, 3, 5));
+    }
+
+    @Test
+    public void testMeasure() {
+        Concept V = new Concept(bits(3), bits(0, 2, 4, 5));
+        Concept W = new Concept(bits(4), bits(1, 3));
+        Concept Z = new Concept(bits(6), bits(0));
+
+        assertEquals(0.0, lattice.measure(V, W), 0.0);
+        assertEquals(0.0, lattice.measure(W, V), 0.0);
+        assertEquals(0.2, lattice.measure(V, Z), 0.01);
+        assertEquals(1.0, lattice.measure(Z, V), 0.0);
+    }
+
+    @Test
+    public void testSize() {
+        assertEquals(new AdjacencyConceptLattice(7).size(), 1);
+        assertEquals(lattice.size(), 12);
+    }
+
+    @Test
+    public void testIsEmpty() {
+        assertTrue(new AdjacencyConceptLattice(7).isEmpty());
+        assertFalse(lattice.isEmpty());
+    }
+
+    @Test
+    public void testFind() {
+        Concept element = new Concept(bits(), bits(0, 2, 4, 5));
+        Concept found = lattice.find(element);
+
+        assertEquals(found.intent(), element.intent());
+        assertEquals(found.extent(), bits(3));
+        assertEquals(lattice.find(new Concept(bits(), bits())), lattice.bottom());
+        assertEquals(lattice.find(new Concept(bits(), bits(0, 1, 2, 3, 4, 5, 6))), lattice.top());
+        assertEquals(lattice.find(new Concept(bits(), bits(0, 2, 4))).intent(), element.intent());
+    }
+
+    @Test
+    public void testContains() {
+        Concept element = new Concept(bits(), bits(0, 2, 4, 5));
+
+        assertFalse(lattice.contains(element));
+        assertFalse(lattice.contains(new Concept(bits(3), bits(0, 2, 4))));
+        assertTrue(lattice.contains(new Concept(bits(3), element.intent())));
+        assertTrue(lattice.contains(new Concept(bits(0, 1, 2, 3, 4, 5), bits())));
+        assertTrue(lattice.contains(new Concept(bits(), bits(0, 1, 2, 3, 4, 5, 6))));
+    }
+
+    @Test
+    public void testCovers() {
+        Concept STUW = new Concept(bits(0, 1, 2, 4), bits(1, 3));
+        Concept STU = new Concept(bits(0, 1, 2), bits(0, 1, 3));
+        Concept SU = new Concept(bits(0, 2), bits(0, 1, 3, 5));
+
+        assertFalse(lattice.covers(STUW, STU));
+        assertTrue(lattice.covers(STU, STUW));
+        assertTrue(lattice.covers(SU, STU));
+        assertFalse(lattice.covers(SU, STUW));
+        assertFalse(lattice.covers(STUW, STUW));
+    }
+
+    @Test
+    public void testToArray() {
+        Object[] concepts = lattice.toArray();
+        assertEquals(concepts.length, 12);
+        assertTrue(concepts[0] instanceof Concept);
+        assertEquals(12, lattice.toArray(new Concept[12]).length);
+    }
+
+    @Test
+    public void testExport() {
+        Graph graph = lattice.export(new TinkerGraph());
+        assertEquals(12, Iterables.size(graph.getVertices()));
+        assertEquals(2 * lattice.order(), Iterables.size(graph.getEdges()));
+    }
+
+    @Test
+    public void testToString() {
+        assertTrue(lattice.toString().startsWith("digraph {\n"));
+        assertEquals(lattice.order(), lattice.toString().split("->").length - 1);
+    }
+
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetQueryCacheSizeNegative() {
+        lattice.setQueryCacheSize(-1L);
+    }
+
+    @Test
+    public void testQueryCache() {
+        Concept STUW = new Concept(bits(0, 1, 2, 4), bits(1, 3));
+        Concept STU = new Concept(bits(0, 1, 2), bits(0, 1, 3));
+        Concept left = new Concept(bits(), bits(1, 3));
+        Concept right = new Concept(bits(), bits(0, 5));
+
+        assertEquals(0L, lattice.getQueryCacheSize());
+        Concept join = lattice.join(left, right);
+        Concept meet = lattice.meet(left, right);
+
+        lattice.setQueryCacheSize(16L);
+        assertEquals(16L, lattice.getQueryCacheSize());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(join, lattice.join(left, right));
+            assertEquals(meet, lattice.meet(left, right));
+            assertTrue(lattice.covers(STU, STUW));
+            assertFalse(lattice.covers(STUW, STU));
+            assertTrue(lattice.contains(new Concept(bits(3), bits(0, 2, 4, 5))));
+        }
+
+        lattice.setQueryCacheSize(0L);
+        assertEquals(0L, lattice.getQueryCacheSize());
+        assertEquals(join, lattice.join(left, right));
+    }
+
+    @Test
+    public void testQueryCacheInvalidatedOnInsert() {
+        AdjacencyConceptLattice cached = new AdjacencyConceptLattice(7);
+        cached.setQueryCacheSize(16L);
+        cached.insert(new Concept(bits(0), bits(0, 1, 3, 5)));
+        cached.insert(new Concept(bits(1), bits(0, 1, 3, 4)));
+
+        Concept query = new Concept(bits(), bits(0, 5));
+        assertEquals(bits(0, 1, 3, 5), cached.find(query).intent());
+        assertEquals(bits(0, 1, 3, 5), cached.find(query).intent());
+
+        cached.insert(new Concept(bits(5), bits(0, 5)));
+        assertEquals(bits(0, 5), cached.find(query).intent());
+        assertEquals(bits(0, 5), cached.find(query).intent());
+    }
+
+    @Test
+    public void testQueryCacheAddConceptReplacesTop() {
+        AdjacencyConceptLattice cached = new AdjacencyConceptLattice(7);
+        cached.setQueryCacheSize(16L);
+        Concept query = new Concept(bits(), bits(0, 1, 2, 3, 4, 5, 6));
+        assertEquals(bits(), cached.find(query).extent());
+
+        Concept top = new Concept(bits(2), bits(0, 1, 2, 3, 4, 5, 6));
+        assertEquals(cached.top, cached.addConcept(top));
+        assertSame(top, cached.find(query));
+    }
+
+    // methods for benchmarking, blueprints backend vs native backend
+    private static final int M = 3;
+    private static final int N = 200;
+
+    @Test
+    public void testBlueprintsBackend() {
+        Random random = new Random(42L);
+        for (int m = 0; m < M; m++) {
+            CrossTable table = randomCrossTable(N, 24, 0.3d, random);
+            assertTrue(table.asConceptLattice(new TinkerGraph()).size() > 1);
+        }
+    }
+
+    @Test
+    public void testNativeBackend() {
+        Random random = new Random(42L);
+        for (int m = 0; m < M; m++) {
+            CrossTable table = randomCrossTable(N, 24, 0.3d, random);
+            assertTrue(table.asAdjacencyConceptLattice().size() > 1);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import static org.nmdp.ngs.fca.TestUtil.bits;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+
+import org.dishevelled.bitset.MutableBitSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for ConceptEnumeration.
+ */
+public final class ConceptEnumerationTest {
+    private CrossTable table;
+
+    /*
+     * From Davey and Priestly "Introduction to Lattices and Order" second
+     * edition, page 77.
+     */
+    @Before
+    public void setUp() {
+        table = new CrossTable();
+        table.addRow(bits(0, 1, 3, 5));
+        table.addRow(bits(0, 1, 3, 4));
+        table.addRow(bits(0, 1, 3, 4, 5, 6));
+        table.addRow(bits(0, 2, 4, 5));
+        table.addRow(bits(1, 3));
+        table.addRow(bits(0, 5));
+    }
+
+    private static Set<String> concepts(final Iterable<Concept> concepts) {
+        Set<String> strings = new HashSet<>();
+        for (Concept concept : concepts) {
+            strings.add(concept.toString());
+        }
+        return strings;
+    }
+
+    private static CrossTable randomCrossTable(final int rows, final int columns, final double density, final Random random) {
+        CrossTable table = new CrossTable();
+        for (int i = 0; i < rows; i++) {
+            MutableBitSet bits = new MutableBitSet(columns);
+            for (int j = 0; j < columns; j++) {
+                if (random.nextDouble() < density) {
+                    bits.set(j);
+                }
+            }
+            table.addRow(bits);
+        }
+        return table;
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNextClosureNullTable() {
+        ConceptEnumeration.nextClosure(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testInCloseNullTable() {
+        ConceptEnumeration.inClose(null);
+    }
+
+    @Test
+    public void testNextClosure() {
+        List<Concept> concepts = ConceptEnumeration.nextClosure(table);
+        assertEquals(12, concepts.size());
+        assertEquals(concepts(table.asAdjacencyConceptLattice()), concepts(concepts));
+    }
+
+    @Test
+    public void testNextClosureLecticOrder() {
+        List<Concept> concepts = ConceptEnumeration.nextClosure(table);
+        assertEquals(bits(), concepts.get(0).intent());
+        assertEquals(bits(0, 1, 2, 3, 4, 5, 6), concepts.get(concepts.size() - 1).intent());
+    }
+
+    @Test
+    public void testInClose() {
+        List<Concept> concepts = ConceptEnumeration.inClose(table);
+        assertEquals(12, concepts.size());
+        assertEquals(concepts(table.asAdjacencyConceptLattice()), concepts(concepts));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testParallelInCloseNullTable() {
+        ConceptEnumeration.parallelInClose(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testParallelInCloseNullPool() {
+        ConceptEnumeration.parallelInClose(table, null);
+    }
+
+    @Test
+    public void testParallelInClose() {
+        List<Concept> concepts = ConceptEnumeration.parallelInClose(table);
+        assertEquals(12, concepts.size());
+        assertEquals(concepts(table.asAdjacencyConceptLattice()), concepts(concepts));
+    }
+
+    @Test
+    public void testParallelInCloseSameOrderAsInClose() {
+        Random random = new Random(42L);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int i = 0; i < 10; i++) {
+                CrossTable randomTable = randomCrossTable(200, 16, 0.3d, random);
+                assertEquals(ConceptEnumeration.inClose(randomTable).toString(), ConceptEnumeration.parallelInClose(randomTable, pool).toString());
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelInCloseSameConceptsAsConceptLattice() {
+        Random random = new Random(42L);
+        for (int i = 0; i < 10; i++) {
+            CrossTable randomTable = randomCrossTable(60, 12, 0.4d, random);
+            ConceptLattice expected = randomTable.asConceptLattice(new TinkerGraph());
+            List<Concept> observed = ConceptEnumeration.parallelInClose(randomTable);
+            assertEquals(expected.size(), observed.size());
+            assertEquals(concepts(expected), concepts(observed));
+        }
+    }
+
+    @Test
+    public void testParallelInCloseContext() {
+        Context context = Context.powerset(Poset.singletons(Arrays.asList("a", "b", "c", "d")));
+        assertEquals(concepts(context.asConceptLattice(new TinkerGraph())), concepts(context.asAdjacencyConceptLattice(CrossTable.Construction.PARALLEL_IN_CLOSE)));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInCloseNegativeMinSupport() {
+        ConceptEnumeration.inClose(table, -1L);
+    }
+
+    @Test
+    public void testInCloseMinSupport() {
+        assertEquals(ConceptEnumeration.inClose(table).toString(), ConceptEnumeration.inClose(table, 0L).toString());
+        Random random = new Random(42L);
+        for (int i = 0; i < 10; i++) {
+            CrossTable randomTable = randomCrossTable(60, 12, 0.4d, random);
+            for (long minSupport : new long[] { 1L, 5L, 20L, 61L }) {
+                Set<String> expected = new HashSet<>();
+                for (Concept concept : ConceptEnumeration.inClose(randomTable)) {
+                    if (concept.extent().cardinality() >= minSupport) {
+                        expected.add(concept.toString());
+                    }
+                }
+                assertEquals(expected, concepts(ConceptEnumeration.inClose(randomTable, minSupport)));
+            }
+        }
+    }
+
+    private static int hasseOrder(final List<Concept> concepts) {
+        int order = 0;
+        for (Concept lower : concepts) {
+            for (Concept upper : concepts) {
+                if (upper.isGreaterThan(lower)) {
+                    boolean cover = true;
+                    for (Concept between : concepts) {
+                        if (between.isGreaterThan(lower) && upper.isGreaterThan(between)) {
+                            cover = false;
+                            break;
+                        }
+                    }
+                    if (cover) {
+                        order++;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testIcebergNegativeMinSupport() {
+        table.asIcebergConceptLattice(-1L);
+    }
+
+    @Test
+    public void testIceberg() {
+        AdjacencyConceptLattice iceberg = table.asIcebergConceptLattice(3L);
+        // six concepts shared by at least three objects, and top
+        assertEquals(7, iceberg.size());
+        assertEquals(hasseOrder(Arrays.asList(iceberg.toArray(new Concept[iceberg.size()]))), iceberg.order());
+        assertEquals(bits(0, 1, 2, 3, 4, 5, 6), iceberg.top().intent());
+        assertEquals(bits(), iceberg.top().extent());
+        assertEquals(bits(), iceberg.bottom().intent());
+
+        assertEquals(bits(0, 5), iceberg.join(new Concept(bits(), bits(0)), new Concept(bits(), bits(5))).intent());
+        assertEquals(bits(0, 1, 2, 3, 4, 5, 6), iceberg.join(new Concept(bits(), bits(1, 3)), new Concept(bits(), bits(0, 5))).intent());
+        assertTrue(iceberg.contains(new Concept(bits(0, 1, 2), bits(0, 1, 3))));
+        assertFalse(iceberg.contains(new Concept(bits(0, 2), bits(0, 1, 3, 5))));
+        assertTrue(iceberg.covers(new Concept(bits(0, 1, 2), bits(0, 1, 3)), new Concept(bits(0, 1, 2, 4), bits(1, 3))));
+    }
+
+    @Test
+    public void testIcebergZeroMinSupport() {
+        AdjacencyConceptLattice expected = table.asAdjacencyConceptLattice();
+        AdjacencyConceptLattice observed = table.asIcebergConceptLattice(0L);
+        assertEquals(expected.size(), observed.size());
+        assertEquals(expected.order(), observed.order());
+        assertEquals(concepts(expected), concepts(observed));
+    }
+
+    @Test
+    public void testIcebergMinSupportAboveRows() {
+        AdjacencyConceptLattice iceberg = table.asIcebergConceptLattice(7L);
+        assertEquals(1, iceberg.size());
+        assertEquals(0, iceberg.order());
+        assertEquals(iceberg.top(), iceberg.bottom());
+    }
+
+    @Test
+    public void testIcebergRandom() {
+        Random random = new Random(42L);
+        for (int i = 0; i < 10; i++) {
+            CrossTable randomTable = randomCrossTable(60, 12, 0.4d, random);
+            AdjacencyConceptLattice full = randomTable.asAdjacencyConceptLattice();
+            for (long minSupport : new long[] { 1L, 5L, 20L }) {
+                Set<String> expected = new HashSet<>();
+                for (Concept concept : full) {
+                    if (concept.extent().cardinality() >= minSupport || concept.equals(full.top())) {
+                        expected.add(concept.toString());
+                    }
+                }
+                AdjacencyConceptLattice iceberg = randomTable.asIcebergConceptLattice(minSupport);
+                assertEquals(expected, concepts(iceberg));
+                assertEquals(hasseOrder(Arrays.asList(iceberg.toArray(new Concept[iceberg.size()]))), iceberg.order());
+                assertEquals(full.bottom(), iceberg.bottom());
+            }
+        }
+    }
+
+    @Test
+    public void testIcebergContext() {
+        Context context = Context.powerset(Poset.singletons(Arrays.asList("a", "b", "c")));
+        assertTrue(context.asIcebergConceptLattice(2L).size() < context.asAdjacencyConceptLattice().size());
+    }
+
+    @Test
+    public void testEmptyTable() {
+        assertEquals(1, ConceptEnumeration.nextClosure(new CrossTable()).size());
+        assertEquals(1, ConceptEnumeration.inClose(new CrossTable()).size());
+        assertEquals(1, ConceptEnumeration.parallelInClose(new CrossTable()).size());
+    }
+
+    @Test
+    public void testConstructionsAgree() {
+        Random random = new Random(42L);
+        for (int i = 0; i < 10; i++) {
+            CrossTable randomTable = randomCrossTable(30, 12, 0.4d, random);
+            AdjacencyConceptLattice expected = randomTable.asAdjacencyConceptLattice(CrossTable.Construction.ADD_INTENT);
+            for (CrossTable.Construction construction : new CrossTable.Construction[] { CrossTable.Construction.NEXT_CLOSURE, CrossTable.Construction.IN_CLOSE, CrossTable.Construction.PARALLEL_IN_CLOSE }) {
+                AdjacencyConceptLattice observed = randomTable.asAdjacencyConceptLattice(construction);
+                assertEquals(expected.size(), observed.size());
+                assertEquals(expected.order(), observed.order());
+                assertEquals(concepts(expected), concepts(observed));
+                assertEquals(expected.top().toString(), observed.top().toString());
+                assertEquals(expected.bottom().toString(), observed.bottom().toString());
+            }
+        }
+    }
+
+    @Test
+    public void testBatchLatticeQueries() {
+        AdjacencyConceptLattice lattice = table.asAdjacencyConceptLattice(CrossTable.Construction.IN_CLOSE);
+        Concept STUW = new Concept(bits(0, 1, 2, 4), bits(1, 3));
+        Concept STU = new Concept(bits(0, 1, 2), bits(0, 1, 3));
+        Concept SU = new Concept(bits(0, 2), bits(0, 1, 3, 5));
+
+        assertTrue(lattice.covers(STU, STUW));
+        assertTrue(lattice.covers(SU, STU));
+        assertEquals(bits(3), lattice.find(new Concept(bits(), bits(0, 2, 4))).extent());
+        assertEquals(bits(0, 1, 3, 5), lattice.join(new Concept(bits(), bits(1, 3)), new Concept(bits(), bits(0, 5))).intent());
+    }
+
+    @Test
+    public void testContextConstruction() {
+        Context context = Context.powerset(Poset.singletons(Arrays.asList("a", "b", "c")));
+        assertEquals(concepts(context.asAdjacencyConceptLattice()), concepts(context.asAdjacencyConceptLattice(CrossTable.Construction.NEXT_CLOSURE)));
+    }
+
+
+    // methods for benchmarking, incremental AddIntent vs batch NextClosure vs batch In-Close vs parallel In-Close vs iceberg
+    private static final int M = 3;
+    private static final int N = 400;
+
+    private static void construct(final CrossTable.Construction construction) {
+        Random random = new Random(42L);
+        for (int m = 0; m < M; m++) {
+            CrossTable table = randomCrossTable(N, 24, 0.3d, random);
+            assertTrue(table.asAdjacencyConceptLattice(construction).size() > 1);
+        }
+    }
+
+    @Test
+    public void testAddIntent() {
+        construct(CrossTable.Construction.ADD_INTENT);
+    }
+
+    @Test
+    public void testNextClosureBatch() {
+        construct(CrossTable.Construction.NEXT_CLOSURE);
+    }
+
+    @Test
+    public void testInCloseBatch() {
+        construct(CrossTable.Construction.IN_CLOSE);
+    }
+
+    @Test
+    public void testParallelInCloseBatch() {
+        construct(CrossTable.Construction.PARALLEL_IN_CLOSE);
+    }
+
+    @Test
+    public void testIcebergBatch() {
+        Random random = new Random(42L);
+        for (int m = 0; m < M; m++) {
+            CrossTable table = randomCrossTable(N, 24, 0.3d, random);
+            assertTrue(table.asIcebergConceptLattice(N / 50).size() > 1);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import static org.nmdp.ngs.fca.TestUtil.bits;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.nio.file.Files;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+
+import org.dishevelled.bitset.MutableBitSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for ConceptLatticeSnapshot.
+ */
+public final class ConceptLatticeSnapshotTest {
+    private CrossTable table;
+    private File file;
+
+    /*
+     * From Davey and Priestly "Introduction to Lattices and Order" second
+     * edition, page 77.
+     */
+    @Before
+    public void setUp() throws IOException {
+        table = new CrossTable();
+        table.addRow(bits(0, 1, 3, 5));
+        table.addRow(bits(0, 1, 3, 4));
+        table.addRow(bits(0, 1, 3, 4, 5, 6));
+        table.addRow(bits(0, 2, 4, 5));
+        table.addRow(bits(1, 3));
+        table.addRow(bits(0, 5));
+
+        file = File.createTempFile("conceptLatticeSnapshotTest", ".fcal");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private static Set<String> concepts(final Iterable<Concept> lattice) {
+        Set<String> strings = new HashSet<>();
+        for (Concept concept : lattice) {
+            strings.add(concept.toString());
+        }
+        return strings;
+    }
+
+    private static CrossTable randomCrossTable(final int rows, final int columns, final double density, final Random random) {
+        CrossTable table = new CrossTable();
+        for (int i = 0; i < rows; i++) {
+            MutableBitSet bits = new MutableBitSet(columns);
+            for (int j = 0; j < columns; j++) {
+                if (random.nextDouble() < density) {
+                    bits.set(j);
+                }
+            }
+            table.addRow(bits);
+        }
+        return table;
+    }
+
+    private static void assertSameLattice(final AdjacencyConceptLattice expected, final AdjacencyConceptLattice observed) {
+        assertEquals(expected.size(), observed.size());
+        assertEquals(expected.order(), observed.order());
+        assertEquals(concepts(expected), concepts(observed));
+        assertEquals(expected.top(), observed.top());
+        assertEquals(expected.bottom(), observed.bottom());
+        assertEquals(expected.toString().length(), observed.toString().length());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testWriteNullLattice() throws IOException {
+        ConceptLatticeSnapshot.write((AdjacencyConceptLattice) null, file);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testWriteNullFile() throws IOException {
+        ConceptLatticeSnapshot.write(table.asAdjacencyConceptLattice(), null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testReadNullFile() throws IOException {
+        ConceptLatticeSnapshot.read((File) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testReadNullBuffer() throws IOException {
+        ConceptLatticeSnapshot.read((ByteBuffer) null);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        AdjacencyConceptLattice expected = table.asAdjacencyConceptLattice();
+        ConceptLatticeSnapshot.write(expected, file);
+        AdjacencyConceptLattice observed = ConceptLatticeSnapshot.read(file);
+        assertSameLattice(expected, observed);
+    }
+
+    @Test
+    public void testRoundTripQueries() throws IOException {
+        ConceptLatticeSnapshot.write(table.asAdjacencyConceptLattice(), file);
+        AdjacencyConceptLattice lattice = ConceptLatticeSnapshot.read(file);
+
+        Concept STUW = new Concept(bits(0, 1, 2, 4), bits(1, 3));
+        Concept STU = new Concept(bits(0, 1, 2), bits(0, 1, 3));
+        assertTrue(lattice.covers(STU, STUW));
+        assertFalse(lattice.covers(STUW, STU));
+        assertEquals(bits(0, 1, 3, 5), lattice.join(new Concept(bits(), bits(1, 3)), new Concept(bits(), bits(0, 5))).intent());
+        assertTrue(lattice.contains(new Concept(bits(3), bits(0, 2, 4, 5))));
+        assertEquals(bits(0, 1, 2, 3, 4, 5), lattice.bottom().extent());
+    }
+
+    @Test
+    public void testRoundTripInsert() throws IOException {
+        ConceptLatticeSnapshot.write(table.asAdjacencyConceptLattice(), file);
+        AdjacencyConceptLattice lattice = ConceptLatticeSnapshot.read(file);
+        lattice.insert(new Concept(bits(6), bits(2, 6)));
+
+        table.addRow(bits(2, 6));
+        assertSameLattice(table.asAdjacencyConceptLattice(), lattice);
+    }
+
+    @Test
+    public void testRoundTripRandom() throws IOException {
+        Random random = new Random(42L);
+        for (int i = 0; i < 10; i++) {
+            CrossTable randomTable = randomCrossTable(40, 70, 0.1d, random);
+            AdjacencyConceptLattice expected = randomTable.asAdjacencyConceptLattice(CrossTable.Construction.IN_CLOSE);
+            ConceptLatticeSnapshot.write(expected, file);
+            assertSameLattice(expected, ConceptLatticeSnapshot.read(file));
+        }
+    }
+
+    @Test
+    public void testRoundTripBlueprints() throws IOException {
+        ConceptLattice blueprints = table.asConceptLattice(new TinkerGraph());
+        ConceptLatticeSnapshot.write(blueprints, file);
+        AdjacencyConceptLattice observed = ConceptLatticeSnapshot.read(file);
+        assertSameLattice(table.asAdjacencyConceptLattice(), observed);
+        assertEquals(concepts(blueprints), concepts(observed));
+    }
+
+    @Test
+    public void testReadBuffer() throws IOException {
+        AdjacencyConceptLattice expected = table.asAdjacencyConceptLattice();
+        ConceptLatticeSnapshot.write(expected, file);
+        assertSameLattice(expected, ConceptLatticeSnapshot.read(ByteBuffer.wrap(Files.readAllBytes(file.toPath()))));
+    }
+
+    @Test
+    public void testReadBufferLittleEndianAtPosition() throws IOException {
+        AdjacencyConceptLattice expected = table.asAdjacencyConceptLattice();
+        ConceptLatticeSnapshot.write(expected, file);
+        byte[] snapshot = Files.readAllBytes(file.toPath());
+        ByteBuffer buffer = ByteBuffer.allocate(snapshot.length + 3).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(3);
+        buffer.put(snapshot);
+        buffer.position(3);
+        assertSameLattice(expected, ConceptLatticeSnapshot.read(buffer));
+        assertEquals(3, buffer.position());
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadEmpty() throws IOException {
+        ConceptLatticeSnapshot.read(file);
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadInvalidMagic() throws IOException {
+        ConceptLatticeSnapshot.write(table.asAdjacencyConceptLattice(), file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[0] = 'X';
+        ConceptLatticeSnapshot.read(ByteBuffer.wrap(bytes));
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadUnsupportedVersion() throws IOException {
+        ConceptLatticeSnapshot.write(table.asAdjacencyConceptLattice(), file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[7] = 99;
+        ConceptLatticeSnapshot.read(ByteBuffer.wrap(bytes));
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadTruncated() throws IOException {
+        ConceptLatticeSnapshot.write(table.asAdjacencyConceptLattice(), file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ConceptLatticeSnapshot.read(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+
+
+    // methods for benchmarking, rebuild from cross table vs load snapshot
+    private static final int M = 3;
+    private static final int N = 400;
+
+    @Test
+    public void testRebuild() {
+        CrossTable randomTable = randomCrossTable(N, 24, 0.3d, new Random(42L));
+        for (int m = 0; m < M; m++) {
+            assertTrue(randomTable.asAdjacencyConceptLattice().size() > 1);
+        }
+    }
+
+    @Test
+    public void testLoadSnapshot() throws IOException {
+        CrossTable randomTable = randomCrossTable(N, 24, 0.3d, new Random(42L));
+        ConceptLatticeSnapshot.write(randomTable.asAdjacencyConceptLattice(CrossTable.Construction.IN_CLOSE), file);
+        for (int m = 0; m < M; m++) {
+            assertTrue(ConceptLatticeSnapshot.read(file).size() > 1);
+        }
+    }
+}
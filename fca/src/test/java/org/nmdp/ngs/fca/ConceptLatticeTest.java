@@ -166,4 +166,75 @@ public final class ConceptLatticeTest {
         assertEquals(concepts.length, 12);
         assertTrue(concepts[0] instanceof Concept);
     }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetQueryCacheSizeNegative() {
+        lattice.setQueryCacheSize(-1L);
+    }
+
+    @Test
+    public void testQueryCache() {
+        Concept STUW = new Concept(bits(0, 1, 2, 4), bits(1, 3));
+        Concept STU = new Concept(bits(0, 1, 2), bits(0, 1, 3));
+        Concept left = new Concept(bits(), bits(1, 3));
+        Concept right = new Concept(bits(), bits(0, 5));
+
+        assertEquals(0L, lattice.getQueryCacheSize());
+        Concept join = lattice.join(left, right);
+        Concept meet = lattice.meet(left, right);
+
+        lattice.setQueryCacheSize(16L);
+        assertEquals(16L, lattice.getQueryCacheSize());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(join, lattice.join(left, right));
+            assertEquals(meet, lattice.meet(left, right));
+            assertTrue(lattice.covers(STU, STUW));
+            assertFalse(lattice.covers(STUW, STU));
+            assertTrue(lattice.contains(new Concept(bits(3), bits(0, 2, 4, 5))));
+        }
+
+        lattice.setQueryCacheSize(0L);
+        assertEquals(0L, lattice.getQueryCacheSize());
+        assertEquals(join, lattice.join(left, right));
+    }
+
+    @Test
+    public void testQueryCacheInvalidatedOnInsert() {
+        ConceptLattice cached = new ConceptLattice(new TinkerGraph(), 7);
+        cached.setQueryCacheSize(16L);
+        cached.insert(new Concept(bits(0), bits(0, 1, 3, 5)));
+        cached.insert(new Concept(bits(1), bits(0, 1, 3, 4)));
+
+        Concept query = new Concept(bits(), bits(0, 5));
+        assertEquals(bits(0, 1, 3, 5), cached.find(query).intent());
+        assertEquals(bits(0, 1, 3, 5), cached.find(query).intent());
+
+        cached.insert(new Concept(bits(5), bits(0, 5)));
+        assertEquals(bits(0, 5), cached.find(query).intent());
+        assertEquals(bits(0, 5), cached.find(query).intent());
+    }
+
+
+    // methods for benchmarking, repeated queries without vs with the query cache
+    private static final int M = 10000;
+
+    private static void query(final ConceptLattice lattice) {
+        Concept left = new Concept(bits(), bits(1, 3));
+        Concept right = new Concept(bits(), bits(0, 5));
+        for (int m = 0; m < M; m++) {
+            assertEquals(bits(0, 1, 3, 5), lattice.join(left, right).intent());
+            assertEquals(bits(), lattice.meet(left, right).intent());
+        }
+    }
+
+    @Test
+    public void testUncachedQueries() {
+        query(lattice);
+    }
+
+    @Test
+    public void testCachedQueries() {
+        lattice.setQueryCacheSize(1000L);
+        query(lattice);
+    }
 }
@@ -0,0 +1,235 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+
+import org.dishevelled.bitset.MutableBitSet;
+
+import org.junit.Test;
+
+import org.nmdp.ngs.fca.partial.Equal;
+import org.nmdp.ngs.fca.partial.LessOrEqual;
+import org.nmdp.ngs.fca.partial.LessThan;
+import org.nmdp.ngs.fca.partial.NotEqual;
+import org.nmdp.ngs.fca.partial.NotGreaterOrEqual;
+
+/**
+ * Unit tests for ContextRows.
+ */
+public final class ContextRowsTest {
+
+    private static List<Interval<Integer>> randomIntervals(final int n, final int dimensions, final Random random) {
+        List<Interval<Integer>> intervals = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int lower = random.nextInt(50);
+            int upper = lower + random.nextInt(20);
+            BoundType lowerType = random.nextBoolean() ? BoundType.CLOSED : BoundType.OPEN;
+            BoundType upperType = random.nextBoolean() ? BoundType.CLOSED : BoundType.OPEN;
+            if (lower == upper) {
+                lowerType = BoundType.CLOSED;
+                upperType = BoundType.CLOSED;
+            }
+            intervals.add(new Interval<>(1 + random.nextInt(dimensions), Range.range(lower, lowerType, upper, upperType)));
+        }
+        return intervals;
+    }
+
+    private static Context context(final List objects, final List attributes, final BinaryRelation relation) {
+        return Context.builder().withObjects(objects).withAttributes(attributes).withRelation(relation).build();
+    }
+
+    private static void assertRows(final Context context) {
+        List objects = context.getObjects();
+        List attributes = context.getAttributes();
+        MutableBitSet[] rows = ContextRows.rows(context);
+        assertEquals(objects.size(), rows.length);
+        for (int i = 0; i < objects.size(); i++) {
+            MutableBitSet expected = new MutableBitSet(attributes.size());
+            for (int j = 0; j < attributes.size(); j++) {
+                if (context.getRelation().apply((Relatable) objects.get(i), (Relatable) attributes.get(j))) {
+                    expected.set(j);
+                }
+            }
+            assertEquals("row " + i, Context.indexes(expected), Context.indexes(rows[i]));
+        }
+    }
+
+    private static List<BinaryRelation> relations() {
+        return Arrays.<BinaryRelation>asList(new LessOrEqual(), new NotGreaterOrEqual(), new Equal(), new NotEqual(), new LessThan());
+    }
+
+    @Test
+    public void testIntervals() {
+        Random random = new Random(42L);
+        for (BinaryRelation relation : relations()) {
+            for (int n : new int[] { 0, 1, 63, 64, 65, 300 }) {
+                List<Interval<Integer>> intervals = randomIntervals(n, 1, random);
+                assertRows(context(intervals, intervals, relation));
+            }
+        }
+    }
+
+    @Test
+    public void testIntervalsNestedSharedEndpoints() {
+        List<Interval<Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            intervals.add(new Interval<>(1, Range.closed(i, 80 - i)));
+            intervals.add(new Interval<>(1, Range.closedOpen(i, 80 - i)));
+            intervals.add(new Interval<>(1, Range.openClosed(i, 80)));
+            intervals.add(new Interval<>(1, Range.open(0, 80 - i)));
+        }
+        for (BinaryRelation relation : relations()) {
+            assertRows(context(intervals, intervals, relation));
+        }
+    }
+
+    @Test
+    public void testIntervalsDuplicates() {
+        Random random = new Random(42L);
+        for (BinaryRelation relation : relations()) {
+            List<Interval<Integer>> intervals = randomIntervals(100, 1, random);
+            intervals.addAll(intervals.subList(0, 50));
+            assertRows(context(intervals, intervals, relation));
+        }
+    }
+
+    @Test
+    public void testIntervalsDifferentObjectsAndAttributes() {
+        Random random = new Random(42L);
+        for (BinaryRelation relation : relations()) {
+            assertRows(context(randomIntervals(70, 1, random), randomIntervals(130, 1, random), relation));
+        }
+    }
+
+    @Test
+    public void testIntervalsMixedDimensions() {
+        Random random = new Random(42L);
+        for (BinaryRelation relation : relations()) {
+            List<Interval<Integer>> intervals = randomIntervals(100, 3, random);
+            assertRows(context(intervals, intervals, relation));
+        }
+    }
+
+    @Test
+    public void testIntervalsObjectsAndAttributesInDifferentDimensions() {
+        List<Interval<Integer>> objects = Arrays.asList(new Interval<>(1, Range.closed(2, 3)));
+        List<Interval<Integer>> attributes = Arrays.asList(new Interval<>(2, Range.closed(1, 5)));
+        assertFalse(new LessOrEqual().apply(objects.get(0), attributes.get(0)));
+        for (BinaryRelation relation : relations()) {
+            assertRows(context(objects, attributes, relation));
+        }
+        Random random = new Random(42L);
+        for (BinaryRelation relation : relations()) {
+            assertRows(context(randomIntervals(70, 1, random), shift(randomIntervals(130, 1, random)), relation));
+        }
+    }
+
+    private static List<Interval<Integer>> shift(final List<Interval<Integer>> intervals) {
+        List<Interval<Integer>> shifted = new ArrayList<>(intervals.size());
+        for (Interval<Integer> interval : intervals) {
+            shifted.add(new Interval<>(interval.getDimension() + 1, interval.toRange()));
+        }
+        return shifted;
+    }
+
+    @Test
+    public void testIntervalsUnbounded() {
+        List<Interval<Integer>> intervals = new ArrayList<>(randomIntervals(100, 1, new Random(42L)));
+        intervals.add(new Interval<>(1, Range.atLeast(10)));
+        intervals.add(new Interval<>(1, Range.closedOpen(10, 10)));
+        for (BinaryRelation relation : relations()) {
+            assertRows(context(intervals, intervals, relation));
+        }
+    }
+
+    @Test
+    public void testPosets() {
+        List<Poset<String>> singletons = Poset.singletons(Arrays.asList("a", "b", "c", "d"));
+        for (BinaryRelation relation : relations()) {
+            assertRows(context(singletons, singletons, relation));
+        }
+    }
+
+    @Test
+    public void testPool() {
+        List<Interval<Integer>> intervals = randomIntervals(300, 1, new Random(42L));
+        Context context = context(intervals, intervals, new LessOrEqual());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MutableBitSet[] expected = ContextRows.rows(context);
+            MutableBitSet[] observed = ContextRows.rows(context, pool);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(Context.indexes(expected[i]), Context.indexes(observed[i]));
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFromContext() {
+        List<Interval<Integer>> intervals = randomIntervals(100, 1, new Random(42L));
+        CrossTable table = CrossTable.fromContext(context(intervals, intervals, new LessOrEqual()));
+        assertEquals(100L, table.getNumberOfRows());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(table.getRow(i).intent.get(i));
+        }
+    }
+
+
+    // methods for benchmarking, one relation call per cell vs sorted sweep
+    private static final int M = 3;
+    private static final int N = 2000;
+
+    @Test
+    public void testPerCell() {
+        List<Interval<Integer>> intervals = randomIntervals(N, 1, new Random(42L));
+        // a subclass is not recognized by the sweep, so every cell is a relation call
+        BinaryRelation relation = new LessOrEqual() { };
+        for (int m = 0; m < M; m++) {
+            assertEquals(N, ContextRows.rows(context(intervals, intervals, relation)).length);
+        }
+    }
+
+    @Test
+    public void testSweep() {
+        List<Interval<Integer>> intervals = randomIntervals(N, 1, new Random(42L));
+        for (int m = 0; m < M; m++) {
+            assertEquals(N, ContextRows.rows(context(intervals, intervals, new LessOrEqual())).length);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import static org.nmdp.ngs.fca.TestUtil.bits;
+
+import java.util.Random;
+
+import org.dishevelled.bitset.MutableBitSet;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for LongBitSet.
+ */
+public final class LongBitSetTest {
+
+    private static LongBitSet packed(final long... indexes) {
+        return LongBitSet.valueOf(bits(indexes));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorNegativeNumBits() {
+        new LongBitSet(-1L);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testValueOfNull() {
+        LongBitSet.valueOf(null);
+    }
+
+    @Test
+    public void testEmpty() {
+        LongBitSet bits = new LongBitSet(100L);
+        assertTrue(bits.isEmpty());
+        assertEquals(0L, bits.cardinality());
+        assertEquals(128L, bits.capacity());
+        assertEquals(-1L, bits.nextSetBit(0));
+    }
+
+    @Test
+    public void testSetGetClear() {
+        LongBitSet bits = new LongBitSet(10L);
+        bits.set(3).set(64).set(200);
+        assertTrue(bits.get(3));
+        assertTrue(bits.get(64));
+        assertTrue(bits.get(200));
+        assertFalse(bits.get(4));
+        assertFalse(bits.get(1000));
+        assertEquals(3L, bits.cardinality());
+
+        bits.clear(64);
+        assertFalse(bits.get(64));
+        assertEquals(2L, bits.cardinality());
+        bits.clear(1000);
+        assertEquals(2L, bits.cardinality());
+    }
+
+    @Test
+    public void testSetRange() {
+        assertEquals(packed(2, 3, 4), new LongBitSet(8L).set(2, 5));
+        assertEquals(130L, new LongBitSet(130L).set(0, 130).cardinality());
+        assertEquals(70L, new LongBitSet(0L).set(60, 130).cardinality());
+        assertTrue(new LongBitSet(8L).set(5, 5).isEmpty());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetRangeEndBeforeStart() {
+        new LongBitSet(8L).set(5, 4);
+    }
+
+    @Test
+    public void testNextSetBit() {
+        LongBitSet bits = packed(1, 63, 64, 130);
+        assertEquals(1L, bits.nextSetBit(0));
+        assertEquals(63L, bits.nextSetBit(2));
+        assertEquals(64L, bits.nextSetBit(64));
+        assertEquals(130L, bits.nextSetBit(65));
+        assertEquals(-1L, bits.nextSetBit(131));
+    }
+
+    @Test
+    public void testAnd() {
+        assertEquals(packed(1, 3), packed(0, 1, 3, 100).and(packed(1, 2, 3)));
+    }
+
+    @Test
+    public void testOr() {
+        assertEquals(packed(0, 1, 3, 100), packed(0, 1).or(packed(3, 100)));
+    }
+
+    @Test
+    public void testAndNot() {
+        assertEquals(packed(0, 100), packed(0, 1, 3, 100).andNot(packed(1, 2, 3)));
+    }
+
+    @Test
+    public void testIsSubsetOf() {
+        assertTrue(packed().isSubsetOf(packed()));
+        assertTrue(packed(1, 3).isSubsetOf(packed(0, 1, 3, 100)));
+        assertFalse(packed(0, 1, 3, 100).isSubsetOf(packed(1, 3)));
+        assertTrue(new LongBitSet(1000L).set(3).isSubsetOf(packed(3)));
+        assertFalse(new LongBitSet(1000L).set(900).isSubsetOf(packed(3)));
+    }
+
+    @Test
+    public void testIntersects() {
+        assertTrue(packed(1, 100).intersects(packed(100)));
+        assertFalse(packed(1, 100).intersects(packed(2, 3)));
+    }
+
+    @Test
+    public void testCardinalityInvalidated() {
+        LongBitSet bits = packed(1, 2);
+        assertEquals(2L, bits.cardinality());
+        bits.or(packed(3));
+        assertEquals(3L, bits.cardinality());
+        bits.and(packed(3));
+        assertEquals(1L, bits.cardinality());
+    }
+
+    @Test
+    public void testEqualsAndHashCodeIndependentOfCapacity() {
+        LongBitSet narrow = new LongBitSet(8L).set(3);
+        LongBitSet wide = new LongBitSet(1000L).set(3);
+        assertEquals(narrow, wide);
+        assertEquals(narrow.hashCode(), wide.hashCode());
+        assertNotEquals(narrow, wide.set(999));
+    }
+
+    @Test
+    public void testHashCodeInvalidated() {
+        LongBitSet bits = packed(1);
+        int hashCode = bits.hashCode();
+        bits.set(2);
+        assertEquals(packed(1, 2).hashCode(), bits.hashCode());
+        assertNotEquals(hashCode, bits.hashCode());
+    }
+
+    @Test
+    public void testCopy() {
+        LongBitSet bits = packed(1, 2);
+        LongBitSet copy = bits.copy();
+        copy.set(3);
+        assertEquals(packed(1, 2), bits);
+        assertEquals(packed(1, 2, 3), copy);
+    }
+
+    @Test
+    public void testToMutableBitSet() {
+        assertEquals(bits(0, 5, 70), packed(0, 5, 70).toMutableBitSet());
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("[0, 5, 70]", packed(0, 5, 70).toString());
+        assertEquals(Context.indexes(bits(0, 5, 70)).toString(), packed(0, 5, 70).toString());
+    }
+
+
+    // methods for benchmarking, allocating MutableBitSet subset test vs packed subset test
+    private static final int M = 1000;
+    private static final int N = 1000;
+
+    private static MutableBitSet[] randomBits(final Random random) {
+        MutableBitSet[] bits = new MutableBitSet[N];
+        for (int i = 0; i < N; i++) {
+            bits[i] = new MutableBitSet(256);
+            for (int j = 0; j < 256; j++) {
+                if (random.nextDouble() < 0.8d) {
+                    bits[i].set(j);
+                }
+            }
+        }
+        return bits;
+    }
+
+    @Test
+    public void testMutableBitSetSubset() {
+        MutableBitSet[] bits = randomBits(new Random(42L));
+        int count = 0;
+        for (int m = 0; m < M; m++) {
+            for (int i = 1; i < N; i++) {
+                if (bits[i].equals(new MutableBitSet().or(bits[i]).and(bits[i - 1]))) {
+                    count++;
+                }
+            }
+        }
+        assertTrue(count >= 0);
+    }
+
+    @Test
+    public void testLongBitSetSubset() {
+        MutableBitSet[] random = randomBits(new Random(42L));
+        LongBitSet[] bits = new LongBitSet[N];
+        for (int i = 0; i < N; i++) {
+            bits[i] = LongBitSet.valueOf(random[i]);
+        }
+        int count = 0;
+        for (int m = 0; m < M; m++) {
+            for (int i = 1; i < N; i++) {
+                if (bits[i].isSubsetOf(bits[i - 1])) {
+                    count++;
+                }
+            }
+        }
+        assertTrue(count >= 0);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.google.common.collect.Range;
+
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for LongIntervalLattice.
+ */
+public final class LongIntervalLatticeTest {
+    private LongIntervalLattice lattice;
+    private LongInterval x, y, z, w;
+
+    @Before
+    public void setUp() {
+        lattice = new LongIntervalLattice(new TinkerGraph());
+        x = new LongInterval(1, 9L, 13L);
+        y = new LongInterval(1, 10L, 15L);
+        z = new LongInterval(1, 11L, 17L);
+        w = new LongInterval(2, 1L, 3L);
+    }
+
+    /**
+     * Genomic intervals on a few chromosomes, as closed intervals so that
+     * intersections are never empty ranges.
+     */
+    private static List<Interval<Long>> genomicIntervals(final int n, final Random random) {
+        List<Interval<Long>> intervals = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            long start = random.nextInt(200000);
+            intervals.add(new Interval<>(1 + random.nextInt(3), Range.closed(start, start + 100L + random.nextInt(10000))));
+        }
+        return intervals;
+    }
+
+    private static Set<String> elements(final Iterable<?> lattice) {
+        Set<String> elements = new HashSet<>();
+        for (Object element : lattice) {
+            elements.add(element instanceof Interval ? LongInterval.valueOf((Interval<Long>) element).toString() : element.toString());
+        }
+        return elements;
+    }
+
+    @Test
+    public void testInsert() {
+        assertEquals(x, lattice.insert(x));
+        lattice.insert(y);
+        lattice.insert(z);
+        lattice.insert(w);
+
+        assertEquals(LongInterval.MAGIC, lattice.top());
+        assertEquals(LongInterval.NULL, lattice.bottom());
+        assertTrue(lattice.contains(new LongInterval(1, 11L, 13L)));
+        assertTrue(lattice.contains(new LongInterval(1, 10L, 13L)));
+        assertEquals(new LongInterval(1, 10L, 13L), lattice.meet(x, y));
+    }
+
+    @Test
+    public void testInsertCopies() {
+        LongInterval inserted = lattice.insert(x);
+        x.set(y);
+        assertEquals(new LongInterval(1, 9L, 13L), inserted);
+        assertTrue(lattice.contains(new LongInterval(1, 9L, 13L)));
+    }
+
+    @Test
+    public void testReturnsCopies() {
+        lattice.insert(x);
+        lattice.insert(y);
+        lattice.insert(z);
+        lattice.insert(w);
+        int size = lattice.size();
+
+        lattice.insert(x).set(w);
+        lattice.meet(x, y).set(w);
+        lattice.join(x, y).set(w);
+        lattice.find(new LongInterval(1, 11L, 12L)).set(w);
+
+        assertEquals(size, lattice.size());
+        assertTrue(lattice.contains(new LongInterval(1, 9L, 13L)));
+        assertTrue(lattice.contains(new LongInterval(1, 10L, 13L)));
+        assertTrue(lattice.contains(new LongInterval(1, 11L, 13L)));
+        assertEquals(new LongInterval(1, 10L, 13L), lattice.meet(x, y));
+        assertEquals(lattice.join(x, y), lattice.join(x, y));
+        assertEquals(new LongInterval(1, 11L, 13L), lattice.find(new LongInterval(1, 11L, 12L)));
+    }
+
+    @Test
+    public void testQueryCache() {
+        lattice.insert(x);
+        lattice.insert(y);
+        lattice.setQueryCacheSize(16L);
+        LongInterval query = new LongInterval(1, 10L, 12L);
+        assertEquals(new LongInterval(1, 10L, 13L), lattice.find(query));
+        query.set(1, 9L, 12L);
+        assertEquals(x, lattice.find(query));
+    }
+
+    @Test
+    public void testSameElementsAsIntervalLattice() {
+        Random random = new Random(42L);
+        for (int i = 0; i < 5; i++) {
+            IntervalLattice<Long> expected = new IntervalLattice<>(new TinkerGraph());
+            LongIntervalLattice observed = new LongIntervalLattice(new TinkerGraph());
+            for (Interval<Long> interval : genomicIntervals(40, random)) {
+                expected.insert(interval);
+                observed.insert(LongInterval.valueOf(interval));
+            }
+            assertEquals(expected.size(), observed.size());
+            assertEquals(elements(expected), elements(observed));
+        }
+    }
+
+
+    // methods for benchmarking, Interval lattice vs LongInterval lattice
+    private static final int M = 3;
+    private static final int N = 300;
+
+    @Test
+    public void testIntervalLattice() {
+        Random random = new Random(42L);
+        for (int m = 0; m < M; m++) {
+            IntervalLattice<Long> intervals = new IntervalLattice<>(new TinkerGraph());
+            for (Interval<Long> interval : genomicIntervals(N, random)) {
+                intervals.insert(interval);
+            }
+            assertTrue(intervals.size() > N);
+        }
+    }
+
+    @Test
+    public void testLongIntervalLattice() {
+        Random random = new Random(42L);
+        for (int m = 0; m < M; m++) {
+            LongIntervalLattice intervals = new LongIntervalLattice(new TinkerGraph());
+            LongInterval reused = new LongInterval();
+            for (Interval<Long> interval : genomicIntervals(N, random)) {
+                Range<Long> range = interval.toRange();
+                intervals.insert(reused.set(interval.getDimension(), range.lowerEndpoint(), range.upperEndpoint() + 1L));
+            }
+            assertTrue(intervals.size() > N);
+        }
+    }
+}
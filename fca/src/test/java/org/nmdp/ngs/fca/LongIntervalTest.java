@@ -0,0 +1,275 @@
+/*
+
+    ngs-fca  Formal concept analysis for genomics.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.fca;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import com.google.common.collect.Range;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for LongInterval.
+ */
+public final class LongIntervalTest {
+    private LongInterval a, b, c, result;
+
+    @Before
+    public void setUp() {
+        a = new LongInterval(1, 2L, 5L);
+        b = new LongInterval(1, 8L, 11L);
+        c = new LongInterval(1, 2L, 11L);
+        result = new LongInterval();
+    }
+
+    private static Interval<Long> randomInterval(final Random random) {
+        long lower = random.nextInt(100);
+        return new Interval<>(1 + random.nextInt(2), Range.closed(lower, lower + random.nextInt(30)));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorNegativeDimension() {
+        new LongInterval(-1, 0L, 1L);
+    }
+
+    @Test
+    public void testEmptyIsCanonical() {
+        assertEquals(new LongInterval(1, 5L, 5L), new LongInterval(1, 7L, 3L));
+        assertEquals(new LongInterval(1, 5L, 5L).hashCode(), new LongInterval(1, 7L, 3L).hashCode());
+        assertTrue(new LongInterval(1, 5L, 5L).isEmpty());
+        assertFalse(new LongInterval(1, 5L, 5L).hasNone());
+        assertEquals(LongInterval.NULL, new LongInterval());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullCannotBeModified() {
+        a.intersect(b, LongInterval.NULL);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMagicCannotBeModified() {
+        LongInterval.MAGIC.set(a);
+    }
+
+    @Test
+    public void testIntersect() {
+        assertEquals(a, a.intersect(c));
+        assertEquals(a, c.intersect(a));
+        assertEquals(a, a.intersect(a));
+        assertTrue(a.intersect(b).isEmpty());
+        assertEquals(1, a.intersect(b).getDimension());
+        assertEquals(LongInterval.NULL, a.intersect(new LongInterval(2, 2L, 5L)));
+        assertEquals(a, a.intersect(LongInterval.MAGIC));
+        assertEquals(a, LongInterval.MAGIC.intersect(a));
+        assertEquals(LongInterval.NULL, a.intersect(LongInterval.NULL));
+    }
+
+    @Test
+    public void testIntersectReuse() {
+        assertSame(result, a.intersect(c, result));
+        assertEquals(a, result);
+        assertSame(c, c.intersect(new LongInterval(1, 4L, 20L), c));
+        assertEquals(new LongInterval(1, 4L, 11L), c);
+    }
+
+    @Test
+    public void testIntersectAgreesWithInterval() {
+        Random random = new Random(42L);
+        for (int i = 0; i < 1000; i++) {
+            Interval<Long> left = randomInterval(random);
+            Interval<Long> right = randomInterval(random);
+            assertEquals(LongInterval.valueOf(left.intersect(right)), LongInterval.valueOf(left).intersect(LongInterval.valueOf(right)));
+            assertEquals(left.isGreaterOrEqualTo(right), LongInterval.valueOf(left).isGreaterOrEqualTo(LongInterval.valueOf(right)));
+            assertEquals(left.isLessOrEqualTo(right), LongInterval.valueOf(left).isLessOrEqualTo(LongInterval.valueOf(right)));
+            assertEquals(left.overlaps(right), LongInterval.valueOf(left).overlaps(LongInterval.valueOf(right)));
+            assertEquals(left.before(right), LongInterval.valueOf(left).before(LongInterval.valueOf(right)));
+            assertEquals(left.compareTo(right), LongInterval.valueOf(left).compareTo(LongInterval.valueOf(right)));
+        }
+    }
+
+    @Test
+    public void testEncloses() {
+        assertTrue(c.encloses(a));
+        assertFalse(a.encloses(c));
+        assertTrue(a.encloses(a));
+        assertTrue(a.encloses(LongInterval.NULL));
+        assertTrue(a.encloses(new LongInterval(1, 0L, 0L)));
+        assertFalse(a.encloses(new LongInterval(2, 0L, 0L)));
+        assertTrue(LongInterval.MAGIC.encloses(a));
+        assertFalse(a.encloses(LongInterval.MAGIC));
+        assertTrue(c.isGreaterThan(a));
+        assertTrue(a.isLessThan(c));
+        assertTrue(a.isNonComparableTo(b));
+    }
+
+    @Test
+    public void testSpan() {
+        assertEquals(c, a.span(b, result));
+        assertEquals(c, b.span(a, result));
+        assertEquals(a, a.span(LongInterval.NULL, result));
+        assertEquals(a, a.span(new LongInterval(1, 0L, 0L), result));
+        assertEquals(LongInterval.MAGIC, a.span(new LongInterval(2, 2L, 5L), result));
+        assertSame(a, a.span(b, a));
+        assertEquals(c, a);
+    }
+
+    @Test
+    public void testAheadBehind() {
+        assertEquals(new LongInterval(1, 5L, Long.MAX_VALUE), a.ahead());
+        assertEquals(new LongInterval(1, Long.MIN_VALUE, 2L), a.behind());
+        assertEquals(new LongInterval(1, Long.MIN_VALUE, Long.MAX_VALUE), new LongInterval(1, 0L, 0L).ahead());
+        assertTrue(a.ahead().ahead().isEmpty());
+        assertTrue(a.behind().behind().isEmpty());
+        assertEquals(LongInterval.MAGIC, LongInterval.NULL.ahead());
+        assertSame(a, a.ahead(a));
+        assertEquals(new LongInterval(1, 5L, Long.MAX_VALUE), a);
+    }
+
+    @Test
+    public void testGap() {
+        assertEquals(new LongInterval(1, 5L, 8L), a.gap(b));
+        assertEquals(new LongInterval(1, 5L, 8L), b.gap(a));
+        assertTrue(a.gap(new LongInterval(1, 5L, 8L)).isEmpty());
+        assertEquals(LongInterval.NULL, a.gap(c));
+        assertEquals(LongInterval.NULL, a.gap(new LongInterval(2, 8L, 11L)));
+        assertSame(b, a.gap(b, b));
+        assertEquals(new LongInterval(1, 5L, 8L), b);
+    }
+
+    @Test
+    public void testMinus() {
+        LongInterval ahead = new LongInterval();
+        c.minus(a, result, ahead);
+        assertTrue(result.isEmpty());
+        assertEquals(new LongInterval(1, 5L, 11L), ahead);
+
+        c.minus(new LongInterval(1, 4L, 6L), result, ahead);
+        assertEquals(new LongInterval(1, 2L, 4L), result);
+        assertEquals(new LongInterval(1, 6L, 11L), ahead);
+
+        a.minus(a, result, ahead);
+        assertTrue(result.isEmpty());
+        assertTrue(ahead.isEmpty());
+
+        a.minus(LongInterval.NULL, result, ahead);
+        assertEquals(a, result);
+        assertTrue(ahead.isEmpty());
+
+        c.minus(a, c, ahead);
+        assertTrue(c.isEmpty());
+        assertEquals(new LongInterval(1, 5L, 11L), ahead);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMinusSameResults() {
+        c.minus(a, result, result);
+    }
+
+    @Test
+    public void testMeasure() {
+        assertEquals(3.0d, a.measure(), 0.0d);
+        assertEquals(0.0d, LongInterval.NULL.measure(), 0.0d);
+        assertEquals(Double.POSITIVE_INFINITY, a.ahead().measure(), 0.0d);
+    }
+
+    @Test
+    public void testValueOf() {
+        assertEquals(a, LongInterval.valueOf(new Interval<>(1, Range.closed(2L, 4L))));
+        assertEquals(a, LongInterval.valueOf(new Interval<>(1, Range.open(1L, 5L))));
+        assertEquals(a.ahead(), LongInterval.valueOf(new Interval<>(1, Range.atLeast(5L))));
+        assertEquals(LongInterval.MAGIC, LongInterval.valueOf(Interval.MAGIC));
+        assertEquals(LongInterval.NULL, LongInterval.valueOf(Interval.NULL));
+    }
+
+    @Test
+    public void testToInterval() {
+        assertEquals(new Interval<>(1, Range.closedOpen(2L, 5L)), a.toInterval());
+        assertEquals(new Interval<>(1, Range.atLeast(5L)), a.ahead().toInterval());
+        assertEquals(new Interval<>(1, Range.lessThan(2L)), a.behind().toInterval());
+        assertSame(Interval.MAGIC, LongInterval.MAGIC.toInterval());
+        assertSame(Interval.NULL, LongInterval.NULL.toInterval());
+        assertEquals(a, LongInterval.valueOf(a.toInterval()));
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("1:[2..5)", a.toString());
+        assertEquals(new Interval<>(1, Range.atLeast(5L)).toString(), a.ahead().toString());
+        assertEquals(new Interval<>(1, Range.lessThan(2L)).toString(), a.behind().toString());
+        assertEquals(Interval.MAGIC.toString(), LongInterval.MAGIC.toString());
+        assertEquals(Interval.NULL.toString(), LongInterval.NULL.toString());
+        assertEquals("1:()", a.intersect(b).toString());
+    }
+
+    // methods for benchmarking, Interval algebra vs LongInterval algebra with reuse
+    private static final int M = 3;
+    private static final int N = 200000;
+
+    @Test
+    public void testIntervalAlgebra() {
+        Random random = new Random(42L);
+        for (int m = 0; m < M; m++) {
+            int overlaps = 0;
+            for (int i = 0; i < N; i++) {
+                Interval<Long> left = randomInterval(random);
+                Interval<Long> right = randomInterval(random);
+                if (!left.intersect(right).intersect(left.coalesce(right)).hasNone()) {
+                    overlaps++;
+                }
+                left.gap(right);
+                left.minus(right);
+            }
+            assertTrue(overlaps > 0);
+        }
+    }
+
+    @Test
+    public void testLongIntervalAlgebra() {
+        Random random = new Random(42L);
+        LongInterval left = new LongInterval();
+        LongInterval right = new LongInterval();
+        LongInterval behind = new LongInterval();
+        LongInterval ahead = new LongInterval();
+        for (int m = 0; m < M; m++) {
+            int overlaps = 0;
+            for (int i = 0; i < N; i++) {
+                long lower = random.nextInt(100);
+                left.set(1 + random.nextInt(2), lower, lower + 1L + random.nextInt(30));
+                lower = random.nextInt(100);
+                right.set(1 + random.nextInt(2), lower, lower + 1L + random.nextInt(30));
+                if (!left.intersect(right, behind).intersect(left.span(right, ahead), behind).isEmpty()) {
+                    overlaps++;
+                }
+                left.gap(right, behind);
+                left.minus(right, behind, ahead);
+            }
+            assertTrue(overlaps > 0);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+
+    ngs-hml  Mapping for HML XSDs.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.hml;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.net.URL;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import javax.xml.XMLConstants;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.nmdp.ngs.hml.jaxb.Hml;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Thread safe, schema validating codec for HML xml.
+ *
+ * <p>
+ * The JAXB context and the HML schema are created once per codec and shared,
+ * unmarshallers and marshallers are created once per thread and reused.
+ * Prefer {@link #getDefault()} over creating new codecs.
+ * </p>
+ */
+public final class HmlCodec {
+    /** JAXB context. */
+    private final JAXBContext context;
+
+    /** HML schema. */
+    private final Schema schema;
+
+    /** Unmarshaller per thread. */
+    private final ThreadLocal<Unmarshaller> unmarshallers = new ThreadLocal<Unmarshaller>();
+
+    /** Marshaller per thread. */
+    private final ThreadLocal<Marshaller> marshallers = new ThreadLocal<Marshaller>();
+
+    /** Default codec, created lazily. */
+    private static volatile HmlCodec defaultCodec;
+
+
+    /**
+     * Create a new HML codec.
+     *
+     * @throws IOException if the JAXB context or the HML schema could not be created
+     */
+    public HmlCodec() throws IOException {
+        try {
+            context = JAXBContext.newInstance(Hml.class);
+            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            URL schemaURL = HmlCodec.class.getResource("/org/nmdp/ngs/hml/xsd/hml-1.0.1.xsd");
+            schema = schemaFactory.newSchema(schemaURL);
+        }
+        catch (JAXBException | SAXException e) {
+            throw new IOException("could not create HML codec", e);
+        }
+    }
+
+
+    /**
+     * Return the default HML codec, shared by HmlReader and HmlWriter.
+     *
+     * @return the default HML codec
+     * @throws IOException if the default HML codec could not be created
+     */
+    public static HmlCodec getDefault() throws IOException {
+        HmlCodec codec = defaultCodec;
+        if (codec == null) {
+            synchronized (HmlCodec.class) {
+                codec = defaultCodec;
+                if (codec == null) {
+                    codec = new HmlCodec();
+                    defaultCodec = codec;
+                }
+            }
+        }
+        return codec;
+    }
+
+    /**
+     * Return the JAXB context for this codec.
+     *
+     * @return the JAXB context for this codec
+     */
+    public JAXBContext getContext() {
+        return context;
+    }
+
+    /**
+     * Return the HML schema for this codec.
+     *
+     * @return the HML schema for this codec
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Return the unmarshaller for the current thread.
+     *
+     * @return the unmarshaller for the current thread
+     * @throws JAXBException if the unmarshaller could not be created
+     */
+    private Unmarshaller unmarshaller() throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallers.get();
+        if (unmarshaller == null) {
+            unmarshaller = context.createUnmarshaller();
+            unmarshaller.setSchema(schema);
+            unmarshallers.set(unmarshaller);
+        }
+        return unmarshaller;
+    }
+
+    /**
+     * Return the marshaller for the current thread.
+     *
+     * @return the marshaller for the current thread
+     * @throws JAXBException if the marshaller could not be created
+     */
+    private Marshaller marshaller() throws JAXBException {
+        Marshaller marshaller = marshallers.get();
+        if (marshaller == null) {
+            marshaller = context.createMarshaller();
+            marshaller.setSchema(schema);
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            marshallers.set(marshaller);
+        }
+        return marshaller;
+    }
+
+    /**
+     * Read HML from the specified reader.
+     *
+     * @param reader reader to read from, must not be null
+     * @return the HML read from the specified reader
+     * @throws IOException if an I/O error occurs
+     */
+    public Hml read(final Reader reader) throws IOException {
+        checkNotNull(reader);
+        try {
+            return (Hml) unmarshaller().unmarshal(reader);
+        }
+        catch (JAXBException e) {
+            throw new IOException("could not unmarshal HML", e);
+        }
+    }
+
+    /**
+     * Write the specified HML to the specified writer.
+     *
+     * @param data HML to write, must not be null
+     * @param writer writer to write to, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(final Hml data, final Writer writer) throws IOException {
+        checkNotNull(data);
+        checkNotNull(writer);
+        try {
+            marshaller().marshal(data, writer);
+        }
+        catch (JAXBException e) {
+            throw new IOException("could not marshal HML", e);
+        }
+    }
+}
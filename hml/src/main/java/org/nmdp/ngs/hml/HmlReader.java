@@ -34,23 +34,12 @@ import java.io.InputStreamReader;
 import java.io.IOException;
 import java.io.Reader;
 
-import javax.xml.XMLConstants;
-
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
-
-import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
-
 import com.google.common.base.Charsets;
 
 import com.google.common.io.Resources;
 
 import org.nmdp.ngs.hml.jaxb.Hml;
 
-import org.xml.sax.SAXException;
-
 /**
  * Reader for HML xml.
  */
@@ -65,7 +54,8 @@ public final class HmlReader {
 
 
     /**
-     * Read HML from the specified reader.
+     * Read HML from the specified reader, validating against the HML schema
+     * with the default HML codec.
      *
      * @param reader reader to read from, must not be null
      * @return the HML read from the specified reader
@@ -73,18 +63,7 @@ public final class HmlReader {
      */
     public static Hml read(final Reader reader) throws IOException {
         checkNotNull(reader);
-        try {
-            JAXBContext context = JAXBContext.newInstance(Hml.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            URL schemaURL = HmlReader.class.getResource("/org/nmdp/ngs/hml/xsd/hml-1.0.1.xsd");
-            Schema schema = schemaFactory.newSchema(schemaURL);
-            unmarshaller.setSchema(schema);
-            return (Hml) unmarshaller.unmarshal(reader);
-        }
-        catch (JAXBException | SAXException e) {
-            throw new IOException("could not unmarshal HML", e);
-        }
+        return HmlCodec.getDefault().read(reader);
     }
 
     /**
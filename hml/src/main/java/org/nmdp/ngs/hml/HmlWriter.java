@@ -24,8 +24,6 @@ package org.nmdp.ngs.hml;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.net.URL;
-
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
@@ -34,19 +32,8 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 
-import javax.xml.XMLConstants;
-
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-
-import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
-
 import org.nmdp.ngs.hml.jaxb.Hml;
 
-import org.xml.sax.SAXException;
-
 /**
  * Writer for HML xml.
  */
@@ -61,7 +48,8 @@ public final class HmlWriter {
 
 
     /**
-     * Write the specified HML to the specified writer.
+     * Write the specified HML to the specified writer, validating against the
+     * HML schema with the default HML codec.
      *
      * @param data HML to write, must not be null
      * @param writer writer to write to, must not be null
@@ -70,21 +58,7 @@ public final class HmlWriter {
     public static void write(final Hml data, final Writer writer) throws IOException {
         checkNotNull(data);
         checkNotNull(writer);
-
-        try {
-            JAXBContext context = JAXBContext.newInstance(Hml.class);
-            Marshaller marshaller = context.createMarshaller();
-            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            URL schemaURL = HmlReader.class.getResource("/org/nmdp/ngs/hml/xsd/hml-1.0.1.xsd");
-            Schema schema = schemaFactory.newSchema(schemaURL);
-            marshaller.setSchema(schema);
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.marshal(data, writer);
-        }
-        catch (JAXBException | SAXException e) {
-            e.printStackTrace();
-            throw new IOException("could not marshal HML", e);
-        }
+        HmlCodec.getDefault().write(data, writer);
     }
 
     /**
@@ -0,0 +1,175 @@
+/*
+
+    ngs-hml  Mapping for HML XSDs.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.hml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Charsets;
+
+import com.google.common.io.Resources;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.nmdp.ngs.hml.jaxb.Hml;
+
+/**
+ * Unit test for HmlCodec.
+ */
+public final class HmlCodecTest {
+    private HmlCodec codec;
+
+    @Before
+    public void setUp() throws Exception {
+        codec = new HmlCodec();
+    }
+
+    @Test
+    public void testConstructor() {
+        assertNotNull(codec.getContext());
+        assertNotNull(codec.getSchema());
+    }
+
+    @Test
+    public void testGetDefault() throws Exception {
+        assertNotNull(HmlCodec.getDefault());
+        assertSame(HmlCodec.getDefault(), HmlCodec.getDefault());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testReadNullReader() throws Exception {
+        codec.read((Reader) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testWriteNullData() throws Exception {
+        codec.write(null, new StringWriter());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testWriteNullWriter() throws Exception {
+        codec.write(new Hml(), (Writer) null);
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        assertNotNull(codec.read(createReader("hml-example.xml")));
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadInvalidSchema() throws Exception {
+        codec.read(createReader("invalid-schema.xml"));
+    }
+
+    @Test
+    public void testReadAfterInvalid() throws Exception {
+        for (String name : new String[] { "invalid-syntax.xml", "invalid-schema.xml", "empty.xml" }) {
+            try {
+                codec.read(createReader(name));
+                fail("expected IOException for " + name);
+            }
+            catch (IOException e) {
+                // expected
+            }
+            assertNotNull(codec.read(createReader("hml-example.xml")));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Hml data = codec.read(createReader("hml-example.xml"));
+        StringWriter writer = new StringWriter();
+        codec.write(data, writer);
+
+        Hml roundTrip = codec.read(new StringReader(writer.toString()));
+        StringWriter roundTripWriter = new StringWriter();
+        codec.write(roundTrip, roundTripWriter);
+        assertEquals(writer.toString(), roundTripWriter.toString());
+    }
+
+    @Test
+    public void testConcurrentReadWrite() throws Exception {
+        final String xml = Resources.toString(HmlCodecTest.class.getResource("hml-example.xml"), Charsets.UTF_8);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executorService.submit(new Callable<String>() {
+                        @Override
+                        public String call() throws Exception {
+                            StringWriter writer = new StringWriter();
+                            codec.write(codec.read(new StringReader(xml)), writer);
+                            return writer.toString();
+                        }
+                    }));
+            }
+            String expected = futures.get(0).get();
+            for (Future<String> future : futures) {
+                assertEquals(expected, future.get());
+            }
+        }
+        finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static Reader createReader(final String name) throws IOException {
+        return new InputStreamReader(HmlCodecTest.class.getResourceAsStream(name), Charsets.UTF_8);
+    }
+
+
+    // methods for benchmarking, new codec per read vs shared codec
+    private static final int M = 20;
+
+    @Test
+    public void testNewCodecPerRead() throws Exception {
+        for (int m = 0; m < M; m++) {
+            assertNotNull(new HmlCodec().read(createReader("hml-example.xml")));
+        }
+    }
+
+    @Test
+    public void testSharedCodec() throws Exception {
+        for (int m = 0; m < M; m++) {
+            assertNotNull(codec.read(createReader("hml-example.xml")));
+        }
+    }
+}
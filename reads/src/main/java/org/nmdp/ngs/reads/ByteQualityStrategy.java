@@ -0,0 +1,39 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads;
+
+/**
+ * Byte quality strategy, generates FASTQ Sanger (Phred+33) encoded quality scores for an entire read at once.
+ */
+public interface ByteQualityStrategy {
+
+    /**
+     * Append FASTQ Sanger (Phred+33) encoded quality scores for a read of the specified length
+     * to the specified read buffer.  Quality scores for many reads may be appended to the same
+     * read buffer by calling this method repeatedly.
+     *
+     * @param length read length, must be at least zero
+     * @param qualities read buffer to append encoded quality scores to
+     */
+    void qualityScores(int length, ReadBuffer qualities);
+}
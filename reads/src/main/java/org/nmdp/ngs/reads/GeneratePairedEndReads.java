@@ -28,7 +28,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.io.Flushable;
 import java.io.IOException;
 
-import java.util.Iterator;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.math3.distribution.IntegerDistribution;
 import org.apache.commons.math3.distribution.RealDistribution;
@@ -41,12 +41,11 @@ import org.biojava.bio.program.fastq.FastqBuilder;
 import org.biojava.bio.program.fastq.FastqVariant;
 import org.biojava.bio.program.fastq.FastqWriter;
 
-import org.biojava.bio.seq.DNATools;
 import org.biojava.bio.seq.Sequence;
 
-import org.biojava.bio.symbol.IllegalSymbolException;
-import org.biojava.bio.symbol.Symbol;
-import org.biojava.bio.symbol.SymbolList;
+import org.nmdp.ngs.reads.mutation.ByteMutationStrategies;
+
+import org.nmdp.ngs.reads.quality.ByteQualityStrategies;
 
 /**
  * Generate paired-end next generation sequencing (NGS/HTS) reads.
@@ -55,6 +54,15 @@ public final class GeneratePairedEndReads implements Runnable {
     /** Reference. */
     private final Sequence reference;
 
+    /** Reference bases, as lowercase DNA tokens. */
+    private final byte[] bases;
+
+    /** Reusable read buffer. */
+    private final ReadBuffer read = new ReadBuffer();
+
+    /** Reusable quality scores buffer. */
+    private final ReadBuffer qualities = new ReadBuffer();
+
     /** FASTQ variant. */
     private final FastqVariant variant;
 
@@ -73,6 +81,9 @@ public final class GeneratePairedEndReads implements Runnable {
     /** Quality strategy. */
     private final QualityStrategy quality;
 
+    /** Quality strategy, as a byte quality strategy. */
+    private final ByteQualityStrategy byteQuality;
+
     /** Coverage strategy. */
     private final CoverageStrategy coverage;
 
@@ -80,7 +91,7 @@ public final class GeneratePairedEndReads implements Runnable {
     private final double mutationRate;
 
     /** Mutation strategy. */
-    private final MutationStrategy mutation;
+    private final ByteMutationStrategy mutation;
 
     /** First appendable. */
     private final Appendable first;
@@ -136,14 +147,16 @@ public final class GeneratePairedEndReads implements Runnable {
         checkNotNull(writer, "writer must not be null");
 
         this.reference = reference;
+        this.bases = reference.seqString().getBytes(StandardCharsets.US_ASCII);
         this.variant = variant;
         this.random = random;
         this.length = length;
         this.insertSize = insertSize;
         this.quality = quality;
+        this.byteQuality = ByteQualityStrategies.asByteQualityStrategy(quality);
         this.coverage = coverage;
         this.mutationRate = mutationRate;
-        this.mutation = mutation;
+        this.mutation = ByteMutationStrategies.asByteMutationStrategy(mutation);
         this.first = first;
         this.second = second;
         this.writer = writer;
@@ -185,67 +198,42 @@ public final class GeneratePairedEndReads implements Runnable {
         // truncate on both ends
         int s = Math.max(1, start);
         int e = Math.min(reference.length() + 1, end);
-        SymbolList read = reference.subList(s, e - 1);
 
         // mutate and build sequence
-        StringBuilder sequence = new StringBuilder();
-        for (Iterator<Symbol> i = read.iterator(); i.hasNext(); ) {
-            Symbol symbol = i.next();
+        read.clear();
+        for (int i = s - 1; i < e - 1; i++) {
+            byte base = bases[i];
             if (random.nextDouble() < mutationRate) {
-                for (Iterator<Symbol> j = mutation.mutate(symbol).iterator(); j.hasNext(); ) {
-                    Symbol mutated = j.next();
-                    try {
-                        sequence.append(DNATools.dnaToken(mutated));
-                    }
-                    catch (IllegalSymbolException ex) {
-                        // ignore
-                    }
-                }
+                mutation.mutate(base, read);
             }
             else {
-                try {
-                    sequence.append(DNATools.dnaToken(symbol));
-                }
-                catch (IllegalSymbolException ex) {
-                    // ignore
-                }
+                read.append(base);
             }
         }
 
         if (reverse) {
-            // reverse orientation
-            sequence.reverse();
-
-            // ...and reverse complement
-            for (int index = 0; index < sequence.length(); index++) {
-                if (sequence.charAt(index) == 'a') {
-                    sequence.setCharAt(index, 't');
-                }
-                else if (sequence.charAt(index) == 't') {
-                    sequence.setCharAt(index, 'a');
-                }
-                else if (sequence.charAt(index) == 'g') {
-                    sequence.setCharAt(index, 'c');
-                }
-                else if (sequence.charAt(index) == 'c') {
-                    sequence.setCharAt(index, 'g');
-                }
-            }
+            // reverse orientation and reverse complement
+            read.reverseComplement();
         }
 
         // apply quality scores
-        StringBuilder qualityScores = new StringBuilder();
-        for (int i = 0, size = sequence.length(); i < size; i++) {
-            double qualityScore = quality.qualityScore(i, size);
-            qualityScores.append(variant.quality(Math.max(Math.min((int) qualityScore, variant.maximumQualityScore()), variant.minimumQualityScore())));
+        qualities.clear();
+        if (variant.isSanger()) {
+            byteQuality.qualityScores(read.length(), qualities);
+        }
+        else {
+            for (int i = 0, size = read.length(); i < size; i++) {
+                double qualityScore = quality.qualityScore(i, size);
+                qualities.append((byte) variant.quality(Math.max(Math.min((int) qualityScore, variant.maximumQualityScore()), variant.minimumQualityScore())));
+            }
         }
 
         // write fastq
         Fastq fastq = new FastqBuilder()
             .withVariant(variant)
             .withDescription(reference.getName() + "-" + count + suffix)
-            .withSequence(sequence.toString())
-            .withQuality(qualityScores.toString())
+            .withSequence(read.toString())
+            .withQuality(qualities.toString())
             .build();
 
         try {
@@ -260,6 +248,6 @@ public final class GeneratePairedEndReads implements Runnable {
         }
 
         // update coverage
-        coverage.add(reference, s, Math.min(reference.length() + 1, s + read.length()));
+        coverage.add(reference, s, e);
     }
 }
@@ -28,7 +28,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.io.Flushable;
 import java.io.IOException;
 
-import java.util.Iterator;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.math3.distribution.IntegerDistribution;
 import org.apache.commons.math3.distribution.RealDistribution;
@@ -36,6 +36,8 @@ import org.apache.commons.math3.distribution.UniformIntegerDistribution;
 
 import org.apache.commons.math3.random.RandomGenerator;
 
+import org.biojava.bio.Annotation;
+
 import org.biojava.bio.program.fastq.Fastq;
 import org.biojava.bio.program.fastq.FastqBuilder;
 import org.biojava.bio.program.fastq.FastqVariant;
@@ -44,9 +46,18 @@ import org.biojava.bio.program.fastq.FastqWriter;
 import org.biojava.bio.seq.DNATools;
 import org.biojava.bio.seq.Sequence;
 
+import org.biojava.bio.seq.impl.SimpleSequence;
+
+import org.biojava.bio.symbol.AbstractSymbolList;
+import org.biojava.bio.symbol.Alphabet;
 import org.biojava.bio.symbol.IllegalSymbolException;
 import org.biojava.bio.symbol.Symbol;
-import org.biojava.bio.symbol.SymbolList;
+
+import org.nmdp.ngs.reads.fasta.IndexedFasta;
+
+import org.nmdp.ngs.reads.mutation.ByteMutationStrategies;
+
+import org.nmdp.ngs.reads.quality.ByteQualityStrategies;
 
 /**
  * Generate next generation sequencing (NGS/HTS) reads.
@@ -55,6 +66,21 @@ public final class GenerateReads implements Runnable {
     /** Reference. */
     private final Sequence reference;
 
+    /** Reference bases, as lowercase DNA tokens, or null if read from an indexed FASTA file. */
+    private final byte[] bases;
+
+    /** Indexed FASTA file to read reference bases from, if any. */
+    private final IndexedFasta fasta;
+
+    /** Reusable buffer for reference bases read from an indexed FASTA file. */
+    private byte[] slice = new byte[0];
+
+    /** Reusable read buffer. */
+    private final ReadBuffer read = new ReadBuffer();
+
+    /** Reusable quality scores buffer. */
+    private final ReadBuffer qualities = new ReadBuffer();
+
     /** FASTQ variant. */
     private final FastqVariant variant;
 
@@ -70,6 +96,9 @@ public final class GenerateReads implements Runnable {
     /** Quality strategy. */
     private final QualityStrategy quality;
 
+    /** Quality strategy, as a byte quality strategy. */
+    private final ByteQualityStrategy byteQuality;
+
     /** Coverage strategy. */
     private final CoverageStrategy coverage;
 
@@ -77,7 +106,7 @@ public final class GenerateReads implements Runnable {
     private final double mutationRate;
 
     /** Mutation strategy. */
-    private final MutationStrategy mutation;
+    private final ByteMutationStrategy mutation;
 
     /** Appendable. */
     private final Appendable appendable;
@@ -111,6 +140,73 @@ public final class GenerateReads implements Runnable {
                                   final Appendable appendable,
                                   final FastqWriter writer) {
 
+        this(reference, reference.seqString().getBytes(StandardCharsets.US_ASCII), null, variant, random, length, quality, coverage, mutationRate, mutation, appendable, writer);
+    }
+
+    /**
+     * Generate next generation sequencing (NGS/HTS) reads from the sequence with the specified name
+     * in the specified indexed FASTA file.  Only the reference bases covered by each read are read
+     * from the indexed FASTA file.
+     *
+     * @param fasta indexed FASTA file, must not be null
+     * @param name sequence name, must not be null
+     * @param variant FASTQ variant, must not be null
+     * @param random random, must not be null
+     * @param length length distribution, must not be null
+     * @param quality quality strategy, must not be null
+     * @param coverage coverage strategy, must not be null
+     * @param mutationRate mutation rate, must be between <code>0.0</code> and <code>1.0</code>, inclusive
+     * @param mutation mutation strategy, must not be null
+     * @param appendable appendable, must not be null
+     * @param writer FASTQ writer, must not be null
+     * @throws IllegalArgumentException if no sequence with the specified name exists, or if the sequence
+     *    is longer than <code>Integer.MAX_VALUE</code> bases
+     */
+    public GenerateReads(final IndexedFasta fasta,
+                                  final String name,
+                                  final FastqVariant variant,
+                                  final RandomGenerator random,
+                                  final RealDistribution length,
+                                  final QualityStrategy quality,
+                                  final CoverageStrategy coverage,
+                                  final double mutationRate,
+                                  final MutationStrategy mutation,
+                                  final Appendable appendable,
+                                  final FastqWriter writer) {
+
+        this(new SimpleSequence(new MappedSymbolList(fasta.sequence(name)), name, name, Annotation.EMPTY_ANNOTATION), null, fasta,
+             variant, random, length, quality, coverage, mutationRate, mutation, appendable, writer);
+    }
+
+    /**
+     * Generate next generation sequencing (NGS/HTS) reads.
+     *
+     * @param reference reference
+     * @param bases reference bases, as lowercase DNA tokens, if any
+     * @param fasta indexed FASTA file to read reference bases from, if <code>bases</code> is null
+     * @param variant FASTQ variant
+     * @param random random
+     * @param length length distribution
+     * @param quality quality strategy
+     * @param coverage coverage strategy
+     * @param mutationRate mutation rate
+     * @param mutation mutation strategy
+     * @param appendable appendable
+     * @param writer FASTQ writer
+     */
+    private GenerateReads(final Sequence reference,
+                          final byte[] bases,
+                          final IndexedFasta fasta,
+                          final FastqVariant variant,
+                          final RandomGenerator random,
+                          final RealDistribution length,
+                          final QualityStrategy quality,
+                          final CoverageStrategy coverage,
+                          final double mutationRate,
+                          final MutationStrategy mutation,
+                          final Appendable appendable,
+                          final FastqWriter writer) {
+
         checkNotNull(reference, "reference must not be null");
         checkNotNull(variant, "variant must not be null");
         checkNotNull(random, "random must not be null");
@@ -124,13 +220,16 @@ public final class GenerateReads implements Runnable {
         checkNotNull(writer, "writer must not be null");
 
         this.reference = reference;
+        this.bases = bases;
+        this.fasta = fasta;
         this.variant = variant;
         this.random = random;
         this.length = length;
         this.quality = quality;
+        this.byteQuality = ByteQualityStrategies.asByteQualityStrategy(quality);
         this.coverage = coverage;
         this.mutationRate = mutationRate;
-        this.mutation = mutation;
+        this.mutation = ByteMutationStrategies.asByteMutationStrategy(mutation);
         this.appendable = appendable;
         this.writer = writer;
 
@@ -161,46 +260,45 @@ public final class GenerateReads implements Runnable {
         // truncate on both ends
         int s = Math.max(1, start);
         int e = Math.min(reference.length() + 1, end);
-        SymbolList read = reference.subList(s, e - 1);
+
+        // read reference bases from indexed FASTA file if necessary
+        byte[] source = bases;
+        int offset = s - 1;
+        if (source == null) {
+            source = slice(s - 1, e - 1);
+            offset = 0;
+        }
 
         // mutate and build sequence
-        StringBuilder sequence = new StringBuilder();
-        for (Iterator<Symbol> i = read.iterator(); i.hasNext(); ) {
-            Symbol symbol = i.next();
+        read.clear();
+        for (int i = offset, last = offset + (e - s); i < last; i++) {
+            byte base = source[i];
             if (random.nextDouble() < mutationRate) {
-                for (Iterator<Symbol> j = mutation.mutate(symbol).iterator(); j.hasNext(); ) {
-                    Symbol mutated = j.next();
-                    try {
-                        sequence.append(DNATools.dnaToken(mutated));
-                    }
-                    catch (IllegalSymbolException ex) {
-                        // ignore
-                    }
-                }
+                mutation.mutate(base, read);
             }
             else {
-                try {
-                    sequence.append(DNATools.dnaToken(symbol));
-                }
-                catch (IllegalSymbolException ex) {
-                    // ignore
-                }
+                read.append(base);
             }
         }
 
         // apply quality scores
-        StringBuilder qualityScores = new StringBuilder();
-        for (int i = 0, size = sequence.length(); i < size; i++) {
-            double qualityScore = quality.qualityScore(i, size);
-            qualityScores.append(variant.quality(Math.max(Math.min((int) qualityScore, variant.maximumQualityScore()), variant.minimumQualityScore())));
+        qualities.clear();
+        if (variant.isSanger()) {
+            byteQuality.qualityScores(read.length(), qualities);
+        }
+        else {
+            for (int i = 0, size = read.length(); i < size; i++) {
+                double qualityScore = quality.qualityScore(i, size);
+                qualities.append((byte) variant.quality(Math.max(Math.min((int) qualityScore, variant.maximumQualityScore()), variant.minimumQualityScore())));
+            }
         }
 
         // write fastq
         Fastq fastq = new FastqBuilder()
             .withVariant(variant)
             .withDescription(reference.getName() + "-" + count)
-            .withSequence(sequence.toString())
-            .withQuality(qualityScores.toString())
+            .withSequence(read.toString())
+            .withQuality(qualities.toString())
             .build();
 
         try {
@@ -215,6 +313,67 @@ public final class GenerateReads implements Runnable {
         }
 
         // update coverage
-        coverage.add(reference, s, Math.min(reference.length() + 1, s + read.length()));
+        coverage.add(reference, s, e);
+    }
+
+    /**
+     * Read the reference bases in <code>[start, end)</code> from the indexed FASTA file as lowercase
+     * DNA tokens into the reusable slice buffer.
+     *
+     * @param start start position, 0-based, inclusive
+     * @param end end position, 0-based, exclusive
+     * @return the reusable slice buffer
+     */
+    private byte[] slice(final int start, final int end) {
+        if (slice.length < (end - start)) {
+            slice = new byte[Math.max(end - start, 2 * slice.length)];
+        }
+        fasta.copy(reference.getName(), start, end, slice, 0);
+        for (int i = 0, size = end - start; i < size; i++) {
+            byte base = slice[i];
+            if (base >= 'A' && base <= 'Z') {
+                slice[i] = (byte) (base + ('a' - 'A'));
+            }
+        }
+        return slice;
+    }
+
+    /**
+     * DNA symbol list view over reference bases in an indexed FASTA file.
+     */
+    private static final class MappedSymbolList extends AbstractSymbolList {
+        /** Reference bases. */
+        private final CharSequence bases;
+
+
+        /**
+         * Create a new mapped symbol list.
+         *
+         * @param bases reference bases
+         */
+        private MappedSymbolList(final CharSequence bases) {
+            this.bases = bases;
+        }
+
+
+        @Override
+        public Alphabet getAlphabet() {
+            return DNATools.getDNA();
+        }
+
+        @Override
+        public int length() {
+            return bases.length();
+        }
+
+        @Override
+        public Symbol symbolAt(final int index) {
+            try {
+                return DNATools.forSymbol(Character.toLowerCase(bases.charAt(index - 1)));
+            }
+            catch (IllegalSymbolException e) {
+                throw new IllegalStateException("invalid reference base at position " + index, e);
+            }
+        }
     }
 }
@@ -0,0 +1,199 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+
+/**
+ * Reusable byte array read buffer.
+ */
+public final class ReadBuffer implements CharSequence {
+    /** Default initial capacity. */
+    static final int DEFAULT_CAPACITY = 256;
+
+    /** Complement lookup table. */
+    private static final byte[] COMPLEMENT = new byte[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            COMPLEMENT[i] = (byte) i;
+        }
+        COMPLEMENT['a'] = 't';
+        COMPLEMENT['t'] = 'a';
+        COMPLEMENT['c'] = 'g';
+        COMPLEMENT['g'] = 'c';
+        COMPLEMENT['A'] = 'T';
+        COMPLEMENT['T'] = 'A';
+        COMPLEMENT['C'] = 'G';
+        COMPLEMENT['G'] = 'C';
+    }
+
+    /** Bytes. */
+    private byte[] bytes;
+
+    /** Length. */
+    private int length;
+
+
+    /**
+     * Create a new read buffer with the default initial capacity.
+     */
+    public ReadBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new read buffer with the specified initial capacity.
+     *
+     * @param capacity initial capacity, must be at least zero
+     */
+    public ReadBuffer(final int capacity) {
+        checkArgument(capacity >= 0, "capacity must be at least zero");
+        bytes = new byte[capacity];
+    }
+
+
+    /**
+     * Append the specified byte to this read buffer.
+     *
+     * @param b byte to append
+     * @return this read buffer
+     */
+    public ReadBuffer append(final byte b) {
+        ensureCapacity(length + 1);
+        bytes[length++] = b;
+        return this;
+    }
+
+    /**
+     * Append the specified range of bytes to this read buffer.
+     *
+     * @param src source bytes
+     * @param offset offset into source bytes
+     * @param len number of bytes to append
+     * @return this read buffer
+     */
+    public ReadBuffer append(final byte[] src, final int offset, final int len) {
+        checkPositionIndexes(offset, offset + len, src.length);
+        ensureCapacity(length + len);
+        System.arraycopy(src, offset, bytes, length, len);
+        length += len;
+        return this;
+    }
+
+    /**
+     * Clear this read buffer.  The backing byte array is retained for reuse.
+     *
+     * @return this read buffer
+     */
+    public ReadBuffer clear() {
+        length = 0;
+        return this;
+    }
+
+    /**
+     * Ensure the backing byte array of this read buffer has at least the specified capacity.
+     *
+     * @param capacity minimum capacity
+     */
+    public void ensureCapacity(final int capacity) {
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length << 1));
+        }
+    }
+
+    /**
+     * Return the backing byte array of this read buffer.  Only the first
+     * {@link #length()} bytes are valid, and the backing byte array may be
+     * replaced by subsequent calls to <code>append</code>.
+     *
+     * @return the backing byte array of this read buffer
+     */
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * Return the byte at the specified index.
+     *
+     * @param index index
+     * @return the byte at the specified index
+     */
+    public byte byteAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds, length " + length);
+        }
+        return bytes[index];
+    }
+
+    /**
+     * Reverse complement this read buffer in place.  Only unambiguous lowercase
+     * and uppercase DNA bases are complemented, all other bytes are left as is.
+     *
+     * @return this read buffer
+     */
+    public ReadBuffer reverseComplement() {
+        for (int i = 0, j = length - 1; i <= j; i++, j--) {
+            byte b = complement(bytes[i]);
+            bytes[i] = complement(bytes[j]);
+            bytes[j] = b;
+        }
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return (char) (byteAt(index) & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        checkPositionIndexes(start, end, length);
+        return new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Return the complement of the specified base.
+     *
+     * @param b base
+     * @return the complement of the specified base
+     */
+    static byte complement(final byte b) {
+        return COMPLEMENT[b & 0xff];
+    }
+}
@@ -0,0 +1,513 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fasta;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * FASTA index, compatible with the <code>.fai</code> format written by <code>samtools faidx</code>.
+ *
+ * <p>
+ * Each entry records the name and length of a sequence, the byte offset of its first base,
+ * and the number of bases and bytes per line.  Sequence lines within an entry must all have
+ * the same length, except for the last line.
+ * </p>
+ */
+public final class FastaIndex {
+    /** List of entries. */
+    private final List<Entry> entries;
+
+    /** Map of entries keyed by name. */
+    private final Map<String, Entry> entriesByName;
+
+    /** Buffer size, <code>65536</code>. */
+    private static final int BUFFER_SIZE = 65536;
+
+
+    /**
+     * Create a new FASTA index with the specified entries.
+     *
+     * @param entries list of entries, must not be null
+     */
+    public FastaIndex(final List<Entry> entries) {
+        checkNotNull(entries);
+        this.entries = ImmutableList.copyOf(entries);
+        entriesByName = new LinkedHashMap<String, Entry>(entries.size() * 2);
+        for (Entry entry : this.entries) {
+            checkArgument(!entriesByName.containsKey(entry.getName()), "duplicate entry name " + entry.getName());
+            entriesByName.put(entry.getName(), entry);
+        }
+    }
+
+
+    /**
+     * Return the list of entries in this FASTA index.
+     *
+     * @return the list of entries in this FASTA index
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Return the list of sequence names in this FASTA index.
+     *
+     * @return the list of sequence names in this FASTA index
+     */
+    public List<String> getNames() {
+        return ImmutableList.copyOf(entriesByName.keySet());
+    }
+
+    /**
+     * Return the entry with the specified name, if any.
+     *
+     * @param name name
+     * @return the entry with the specified name, or null if no such entry exists
+     */
+    public Entry getEntry(final String name) {
+        return entriesByName.get(name);
+    }
+
+    /**
+     * Return true if this FASTA index contains an entry with the specified name.
+     *
+     * @param name name
+     * @return true if this FASTA index contains an entry with the specified name
+     */
+    public boolean contains(final String name) {
+        return entriesByName.containsKey(name);
+    }
+
+    /**
+     * Write this FASTA index in <code>.fai</code> format with the specified print writer.
+     *
+     * @param writer print writer to write with, must not be null
+     */
+    public void write(final PrintWriter writer) {
+        checkNotNull(writer);
+        for (Entry entry : entries) {
+            writer.println(entry.toString());
+        }
+    }
+
+    /**
+     * Write this FASTA index in <code>.fai</code> format to the specified file.
+     *
+     * @param file file to write to, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(final File file) throws IOException {
+        checkNotNull(file);
+        try (PrintWriter writer = new PrintWriter(file)) {
+            write(writer);
+        }
+    }
+
+
+    /**
+     * Return the <code>.fai</code> index file for the specified FASTA file.
+     *
+     * @param fastaFile FASTA file, must not be null
+     * @return the <code>.fai</code> index file for the specified FASTA file
+     */
+    public static File indexFile(final File fastaFile) {
+        checkNotNull(fastaFile);
+        return new File(fastaFile.getPath() + ".fai");
+    }
+
+    /**
+     * Read a FASTA index in <code>.fai</code> format from the specified reader.
+     *
+     * @param reader reader to read from, must not be null
+     * @return a FASTA index read from the specified reader
+     * @throws IOException if an I/O error occurs
+     */
+    public static FastaIndex read(final BufferedReader reader) throws IOException {
+        checkNotNull(reader);
+        List<Entry> entries = new ArrayList<Entry>();
+        long lineNumber = 0;
+        String line = null;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] tokens = line.split("\t");
+            if (tokens.length < 5) {
+                throw new IOException("invalid FASTA index line at line number " + lineNumber + ", expected 5 tokens, found " + tokens.length);
+            }
+            try {
+                entries.add(new Entry(tokens[0], Long.parseLong(tokens[1]), Long.parseLong(tokens[2]), Integer.parseInt(tokens[3]), Integer.parseInt(tokens[4])));
+            }
+            catch (IllegalArgumentException e) {
+                throw new IOException("invalid FASTA index line at line number " + lineNumber, e);
+            }
+        }
+        return new FastaIndex(entries);
+    }
+
+    /**
+     * Read a FASTA index in <code>.fai</code> format from the specified file.
+     *
+     * @param file file to read from, must not be null
+     * @return a FASTA index read from the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    public static FastaIndex read(final File file) throws IOException {
+        checkNotNull(file);
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Build a FASTA index by scanning the specified FASTA file.
+     *
+     * @param fastaFile FASTA file to scan, must not be null
+     * @return a FASTA index built by scanning the specified FASTA file
+     * @throws IOException if an I/O error occurs, or if the specified FASTA file cannot be indexed
+     */
+    public static FastaIndex build(final File fastaFile) throws IOException {
+        checkNotNull(fastaFile);
+        try (InputStream inputStream = new FileInputStream(fastaFile)) {
+            return build(inputStream);
+        }
+    }
+
+    /**
+     * Build a FASTA index by scanning the specified input stream.  Offsets are relative
+     * to the first byte read from the specified input stream.
+     *
+     * @param inputStream input stream to scan, must not be null
+     * @return a FASTA index built by scanning the specified input stream
+     * @throws IOException if an I/O error occurs, or if the specified input stream cannot be indexed
+     */
+    public static FastaIndex build(final InputStream inputStream) throws IOException {
+        checkNotNull(inputStream);
+        List<Entry> entries = new ArrayList<Entry>();
+        Builder builder = null;
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = 0L;
+        long lineNumber = 0L;
+        long lineStart = 0L;
+        int lineBases = 0;
+        boolean header = false;
+        boolean inName = false;
+        StringBuilder name = new StringBuilder();
+
+        int n;
+        while ((n = inputStream.read(buffer)) != -1) {
+            for (int i = 0; i < n; i++) {
+                byte b = buffer[i];
+                if (position == lineStart) {
+                    lineNumber++;
+                    lineBases = 0;
+                    header = (b == '>');
+                    if (header) {
+                        if (builder != null) {
+                            entries.add(builder.build());
+                            builder = null;
+                        }
+                        name.setLength(0);
+                        inName = true;
+                        position++;
+                        continue;
+                    }
+                }
+                position++;
+
+                if (b == '\n') {
+                    if (header) {
+                        builder = new Builder(name.toString(), position, lineNumber);
+                    }
+                    else if (builder != null) {
+                        builder.line(lineBases, (int) (position - lineStart), lineNumber);
+                    }
+                    else if (lineBases > 0) {
+                        throw new IOException("sequence before first header line at line number " + lineNumber);
+                    }
+                    lineStart = position;
+                }
+                else if (header) {
+                    if (inName) {
+                        if (b == ' ' || b == '\t' || b == '\r') {
+                            inName = false;
+                        }
+                        else {
+                            name.append((char) b);
+                        }
+                    }
+                }
+                else if (b != '\r') {
+                    lineBases++;
+                }
+            }
+        }
+
+        // last line without line terminator
+        if (position > lineStart) {
+            if (header) {
+                builder = new Builder(name.toString(), position, lineNumber);
+            }
+            else if (builder != null) {
+                builder.line(lineBases, -1, lineNumber);
+            }
+            else if (lineBases > 0) {
+                throw new IOException("sequence before first header line at line number " + lineNumber);
+            }
+        }
+        if (builder != null) {
+            entries.add(builder.build());
+        }
+        try {
+            return new FastaIndex(entries);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * FASTA index entry builder.
+     */
+    private static final class Builder {
+        /** Name. */
+        private final String name;
+
+        /** Offset of the first base. */
+        private final long offset;
+
+        /** Length, in bases. */
+        private long length;
+
+        /** Bases per line. */
+        private int lineBases = -1;
+
+        /** Bytes per line, including line terminators. */
+        private int lineBytes = -1;
+
+        /** True if a short or empty line has been seen. */
+        private boolean lastLine;
+
+
+        /**
+         * Create a new FASTA index entry builder.
+         *
+         * @param name name
+         * @param offset offset of the first base
+         * @param lineNumber line number of the header line
+         * @throws IOException if the name is empty
+         */
+        private Builder(final String name, final long offset, final long lineNumber) throws IOException {
+            if (name.isEmpty()) {
+                throw new IOException("missing sequence name at line number " + lineNumber);
+            }
+            this.name = name;
+            this.offset = offset;
+        }
+
+
+        /**
+         * Add a sequence line.
+         *
+         * @param bases number of bases in the line
+         * @param bytes number of bytes in the line, including line terminators, or <code>-1</code>
+         *    for a last line without line terminators
+         * @param lineNumber line number
+         * @throws IOException if the line has a different length than previous lines
+         */
+        private void line(final int bases, final int bytes, final long lineNumber) throws IOException {
+            if (bases == 0) {
+                lastLine = true;
+                return;
+            }
+            if (lastLine) {
+                throw new IOException("different line length in sequence " + name + " at line number " + lineNumber + ", cannot index");
+            }
+            if (lineBases < 0) {
+                lineBases = bases;
+                lineBytes = (bytes < 0) ? bases : bytes;
+            }
+            else if (bases > lineBases || (bases == lineBases && bytes >= 0 && bytes != lineBytes)) {
+                throw new IOException("different line length in sequence " + name + " at line number " + lineNumber + ", cannot index");
+            }
+            else if (bases < lineBases) {
+                lastLine = true;
+            }
+            length += bases;
+        }
+
+        /**
+         * Build and return a new FASTA index entry.
+         *
+         * @return a new FASTA index entry
+         */
+        private Entry build() {
+            return new Entry(name, length, offset, Math.max(0, lineBases), Math.max(0, lineBytes));
+        }
+    }
+
+    /**
+     * FASTA index entry.
+     */
+    public static final class Entry {
+        /** Name. */
+        private final String name;
+
+        /** Length, in bases. */
+        private final long length;
+
+        /** Byte offset of the first base. */
+        private final long offset;
+
+        /** Bases per line. */
+        private final int lineBases;
+
+        /** Bytes per line, including line terminators. */
+        private final int lineBytes;
+
+
+        /**
+         * Create a new FASTA index entry.
+         *
+         * @param name name, must not be null
+         * @param length length, in bases, must be at least zero
+         * @param offset byte offset of the first base, must be at least zero
+         * @param lineBases bases per line, must be at least zero, and greater than zero if length is greater than zero
+         * @param lineBytes bytes per line including line terminators, must be greater than or equal to <code>lineBases</code>
+         */
+        public Entry(final String name, final long length, final long offset, final int lineBases, final int lineBytes) {
+            checkNotNull(name);
+            checkArgument(length >= 0L, "length must be at least zero");
+            checkArgument(offset >= 0L, "offset must be at least zero");
+            checkArgument(lineBases >= 0, "lineBases must be at least zero");
+            checkArgument(length == 0L || lineBases > 0, "lineBases must be greater than zero");
+            checkArgument(lineBytes >= lineBases, "lineBytes must be greater than or equal to lineBases");
+            this.name = name;
+            this.length = length;
+            this.offset = offset;
+            this.lineBases = lineBases;
+            this.lineBytes = lineBytes;
+        }
+
+
+        /**
+         * Return the name of this FASTA index entry.
+         *
+         * @return the name of this FASTA index entry
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Return the length of this FASTA index entry, in bases.
+         *
+         * @return the length of this FASTA index entry, in bases
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * Return the byte offset of the first base of this FASTA index entry.
+         *
+         * @return the byte offset of the first base of this FASTA index entry
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Return the number of bases per line for this FASTA index entry.
+         *
+         * @return the number of bases per line for this FASTA index entry
+         */
+        public int getLineBases() {
+            return lineBases;
+        }
+
+        /**
+         * Return the number of bytes per line, including line terminators, for this FASTA index entry.
+         *
+         * @return the number of bytes per line, including line terminators, for this FASTA index entry
+         */
+        public int getLineBytes() {
+            return lineBytes;
+        }
+
+        /**
+         * Return the byte offset of the base at the specified 0-based position in this FASTA index entry.
+         *
+         * @param position 0-based position
+         * @return the byte offset of the base at the specified 0-based position in this FASTA index entry
+         */
+        long offsetOf(final long position) {
+            return offset + (position / lineBases) * lineBytes + (position % lineBases);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = name.hashCode();
+            result = 31 * result + (int) (length ^ (length >>> 32));
+            result = 31 * result + (int) (offset ^ (offset >>> 32));
+            result = 31 * result + lineBases;
+            result = 31 * result + lineBytes;
+            return result;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry entry = (Entry) o;
+            return name.equals(entry.name) && length == entry.length && offset == entry.offset && lineBases == entry.lineBases && lineBytes == entry.lineBytes;
+        }
+
+        @Override
+        public String toString() {
+            return name + "\t" + length + "\t" + offset + "\t" + lineBases + "\t" + lineBytes;
+        }
+    }
+}
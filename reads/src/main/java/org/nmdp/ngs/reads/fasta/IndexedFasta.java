@@ -0,0 +1,388 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fasta;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+
+/**
+ * Indexed FASTA file, memory-mapped for random access to subsequences.
+ *
+ * <p>
+ * Sequences are not loaded on heap; bases are read directly from the memory-mapped file
+ * on demand, using the offsets and line lengths in the {@link FastaIndex}.  Subsequences are
+ * returned as <code>CharSequence</code> views over the mapped file, or copied into
+ * <code>byte[]</code> arrays of only the requested bases.  Positions are 0-based and ranges
+ * are half-open, <code>[start, end)</code>, as in BED format.  Indexed FASTA files are safe
+ * for use by multiple concurrent threads.
+ * </p>
+ */
+public final class IndexedFasta implements Closeable {
+    /** FASTA index. */
+    private final FastaIndex index;
+
+    /** Random access file. */
+    private final RandomAccessFile file;
+
+    /** Memory-mapped segments. */
+    private final MappedByteBuffer[] segments;
+
+    /** Segment shift, log2 of the segment size. */
+    private static final int SEGMENT_SHIFT = 30;
+
+    /** Segment size, <code>2^30</code> bytes. */
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    /** Segment mask. */
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1L;
+
+
+    /**
+     * Create a new indexed FASTA file.
+     *
+     * @param fastaFile FASTA file, must not be null
+     * @param index FASTA index, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    private IndexedFasta(final File fastaFile, final FastaIndex index) throws IOException {
+        checkNotNull(fastaFile);
+        checkNotNull(index);
+        this.index = index;
+        this.file = new RandomAccessFile(fastaFile, "r");
+
+        try {
+            FileChannel channel = file.getChannel();
+            long size = channel.size();
+            for (FastaIndex.Entry entry : index.getEntries()) {
+                if (entry.getLength() > 0L && entry.offsetOf(entry.getLength() - 1L) >= size) {
+                    throw new IOException("FASTA index entry " + entry.getName() + " extends past the end of FASTA file " + fastaFile);
+                }
+            }
+            int count = (int) ((size + SEGMENT_SIZE - 1L) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position));
+            }
+        }
+        catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Return the FASTA index for this indexed FASTA file.
+     *
+     * @return the FASTA index for this indexed FASTA file
+     */
+    public FastaIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Return the list of sequence names in this indexed FASTA file.
+     *
+     * @return the list of sequence names in this indexed FASTA file
+     */
+    public List<String> getNames() {
+        return index.getNames();
+    }
+
+    /**
+     * Return the length of the sequence with the specified name, in bases.
+     *
+     * @param name sequence name, must not be null
+     * @return the length of the sequence with the specified name, in bases
+     * @throws IllegalArgumentException if no sequence with the specified name exists
+     */
+    public long getLength(final String name) {
+        return entry(name).getLength();
+    }
+
+    /**
+     * Return the sequence with the specified name as a view over the memory-mapped file.
+     *
+     * @param name sequence name, must not be null
+     * @return the sequence with the specified name as a view over the memory-mapped file
+     * @throws IllegalArgumentException if no sequence with the specified name exists,
+     *    or if the sequence is longer than <code>Integer.MAX_VALUE</code> bases
+     */
+    public CharSequence sequence(final String name) {
+        FastaIndex.Entry entry = entry(name);
+        return subsequence(entry, 0L, entry.getLength());
+    }
+
+    /**
+     * Return the subsequence <code>[start, end)</code> of the sequence with the specified name
+     * as a view over the memory-mapped file.
+     *
+     * @param name sequence name, must not be null
+     * @param start start position, 0-based, inclusive
+     * @param end end position, 0-based, exclusive
+     * @return the subsequence <code>[start, end)</code> of the sequence with the specified name
+     *    as a view over the memory-mapped file
+     * @throws IllegalArgumentException if no sequence with the specified name exists
+     * @throws IndexOutOfBoundsException if <code>[start, end)</code> is not within the sequence
+     */
+    public CharSequence subsequence(final String name, final long start, final long end) {
+        return subsequence(entry(name), start, end);
+    }
+
+    /**
+     * Return the bases in the subsequence <code>[start, end)</code> of the sequence with the specified
+     * name, copied into a new byte array.
+     *
+     * @param name sequence name, must not be null
+     * @param start start position, 0-based, inclusive
+     * @param end end position, 0-based, exclusive
+     * @return the bases in the subsequence <code>[start, end)</code> of the sequence with the specified
+     *    name, copied into a new byte array
+     * @throws IllegalArgumentException if no sequence with the specified name exists
+     * @throws IndexOutOfBoundsException if <code>[start, end)</code> is not within the sequence
+     */
+    public byte[] bytes(final String name, final long start, final long end) {
+        FastaIndex.Entry entry = entry(name);
+        checkRange(entry, start, end);
+        checkArgument((end - start) <= Integer.MAX_VALUE, "subsequence must not be longer than Integer.MAX_VALUE bases");
+        byte[] bytes = new byte[(int) (end - start)];
+        copy(entry, start, end, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Copy the bases in the subsequence <code>[start, end)</code> of the sequence with the specified
+     * name into the specified byte array, without allocating.
+     *
+     * @param name sequence name, must not be null
+     * @param start start position, 0-based, inclusive
+     * @param end end position, 0-based, exclusive
+     * @param bytes byte array to copy to, must not be null
+     * @param index index in byte array to copy to
+     * @throws IllegalArgumentException if no sequence with the specified name exists
+     * @throws IndexOutOfBoundsException if <code>[start, end)</code> is not within the sequence,
+     *    or if the bases do not fit in the specified byte array at the specified index
+     */
+    public void copy(final String name, final long start, final long end, final byte[] bytes, final int index) {
+        checkNotNull(bytes);
+        FastaIndex.Entry entry = entry(name);
+        checkRange(entry, start, end);
+        if (index < 0 || (end - start) > (bytes.length - index)) {
+            throw new IndexOutOfBoundsException("cannot copy " + (end - start) + " bases to byte array of length " + bytes.length + " at index " + index);
+        }
+        copy(entry, start, end, bytes, index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+
+    /**
+     * Return the entry with the specified name.
+     *
+     * @param name name
+     * @return the entry with the specified name
+     */
+    private FastaIndex.Entry entry(final String name) {
+        checkNotNull(name);
+        FastaIndex.Entry entry = index.getEntry(name);
+        checkArgument(entry != null, "no sequence with name " + name);
+        return entry;
+    }
+
+    /**
+     * Return the specified subsequence as a view over the memory-mapped file.
+     *
+     * @param entry entry
+     * @param start start position, 0-based, inclusive
+     * @param end end position, 0-based, exclusive
+     * @return the specified subsequence as a view over the memory-mapped file
+     */
+    private CharSequence subsequence(final FastaIndex.Entry entry, final long start, final long end) {
+        checkRange(entry, start, end);
+        checkArgument((end - start) <= Integer.MAX_VALUE, "subsequence must not be longer than Integer.MAX_VALUE bases");
+        return new Subsequence(entry, start, (int) (end - start));
+    }
+
+    /**
+     * Check that the specified range is within the specified entry.
+     *
+     * @param entry entry
+     * @param start start position, 0-based, inclusive
+     * @param end end position, 0-based, exclusive
+     */
+    private static void checkRange(final FastaIndex.Entry entry, final long start, final long end) {
+        if (start < 0L || end < start || end > entry.getLength()) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + ") not within sequence " + entry.getName() + " of length " + entry.getLength());
+        }
+    }
+
+    /**
+     * Return the byte at the specified offset in the memory-mapped file.
+     *
+     * @param offset offset
+     * @return the byte at the specified offset in the memory-mapped file
+     */
+    private byte get(final long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].get((int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * Copy the bases in the specified range to the specified byte array, one line at a time.
+     *
+     * @param entry entry
+     * @param start start position, 0-based, inclusive
+     * @param end end position, 0-based, exclusive
+     * @param bytes byte array to copy to
+     * @param index index in byte array to copy to
+     */
+    private void copy(final FastaIndex.Entry entry, final long start, final long end, final byte[] bytes, final int index) {
+        int lineBases = entry.getLineBases();
+        int i = index;
+        long position = start;
+        ByteBuffer buffer = null;
+        int bufferSegment = -1;
+        while (position < end) {
+            int length = (int) Math.min(end - position, lineBases - (position % lineBases));
+            long offset = entry.offsetOf(position);
+            int segment = (int) (offset >>> SEGMENT_SHIFT);
+            if (segment == (int) ((offset + length - 1L) >>> SEGMENT_SHIFT)) {
+                if (segment != bufferSegment) {
+                    buffer = segments[segment].duplicate();
+                    bufferSegment = segment;
+                }
+                buffer.position((int) (offset & SEGMENT_MASK));
+                buffer.get(bytes, i, length);
+            }
+            else {
+                for (int j = 0; j < length; j++) {
+                    bytes[i + j] = get(offset + j);
+                }
+            }
+            i += length;
+            position += length;
+        }
+    }
+
+    /**
+     * Subsequence view over the memory-mapped file.
+     */
+    private final class Subsequence implements CharSequence {
+        /** Entry. */
+        private final FastaIndex.Entry entry;
+
+        /** Start position, 0-based. */
+        private final long start;
+
+        /** Length. */
+        private final int length;
+
+
+        /**
+         * Create a new subsequence view.
+         *
+         * @param entry entry
+         * @param start start position, 0-based
+         * @param length length
+         */
+        private Subsequence(final FastaIndex.Entry entry, final long start, final int length) {
+            this.entry = entry;
+            this.start = start;
+            this.length = length;
+        }
+
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + length);
+            }
+            return (char) (get(entry.offsetOf(start + index)) & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            if (start < 0 || end < start || end > length) {
+                throw new IndexOutOfBoundsException("range [" + start + ", " + end + ") out of bounds for length " + length);
+            }
+            return new Subsequence(entry, this.start + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            copy(entry, start, start + length, bytes, 0);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+
+
+    /**
+     * Open the specified FASTA file, reading its <code>.fai</code> index file if present, or
+     * building an index by scanning the FASTA file otherwise.
+     *
+     * @param fastaFile FASTA file to open, must not be null
+     * @return the specified FASTA file opened as an indexed FASTA file
+     * @throws IOException if an I/O error occurs, or if the specified FASTA file cannot be indexed
+     */
+    public static IndexedFasta open(final File fastaFile) throws IOException {
+        checkNotNull(fastaFile);
+        File indexFile = FastaIndex.indexFile(fastaFile);
+        FastaIndex index = indexFile.exists() ? FastaIndex.read(indexFile) : FastaIndex.build(fastaFile);
+        return new IndexedFasta(fastaFile, index);
+    }
+
+    /**
+     * Open the specified FASTA file with the specified FASTA index.
+     *
+     * @param fastaFile FASTA file to open, must not be null
+     * @param index FASTA index for the specified FASTA file, must not be null
+     * @return the specified FASTA file opened as an indexed FASTA file
+     * @throws IOException if an I/O error occurs
+     */
+    public static IndexedFasta open(final File fastaFile, final FastaIndex index) throws IOException {
+        return new IndexedFasta(fastaFile, index);
+    }
+}
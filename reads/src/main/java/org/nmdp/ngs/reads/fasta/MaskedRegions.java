@@ -0,0 +1,265 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fasta;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Hard-masked region scanners.
+ *
+ * <p>
+ * Both scanners work on raw FASTA bytes rather than on parsed sequences.  Masked regions are
+ * maximal runs of <code>N</code> or <code>n</code> bases, reported to a listener as each run closes.
+ * The memory-mapped scanner tests eight bases at a time, skipping unmasked and masked stretches
+ * a word at a time and only falling back to single bases at run boundaries.
+ * </p>
+ */
+public final class MaskedRegions {
+    /** Number of bases to copy from a memory-mapped sequence at a time. */
+    static final int CHUNK_SIZE = 1 << 20;
+
+    /** Buffer size for streaming FASTA input. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Low bit of each byte in a word. */
+    private static final long LOW_BITS = 0x0101010101010101L;
+
+    /** High bit of each byte in a word. */
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /** ASCII lower case bit of each byte in a word. */
+    private static final long LOWER_CASE_BITS = 0x2020202020202020L;
+
+    /** Eight <code>n</code> bases in a word. */
+    private static final long LOWER_CASE_N = 0x6e6e6e6e6e6e6e6eL;
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private MaskedRegions() {
+        // empty
+    }
+
+
+    /**
+     * Scan the sequence with the specified name in the specified indexed FASTA file for hard-masked regions.
+     *
+     * @param fasta indexed FASTA file, must not be null
+     * @param name sequence name, must not be null
+     * @param listener masked region listener, must not be null
+     * @throws IllegalArgumentException if no sequence with the specified name exists
+     */
+    public static void scan(final IndexedFasta fasta, final String name, final MaskedRegionListener listener) {
+        checkNotNull(fasta);
+        checkNotNull(name);
+        checkNotNull(listener);
+
+        long length = fasta.getLength(name);
+        byte[] bytes = new byte[(int) Math.min(CHUNK_SIZE, length)];
+        ByteBuffer words = ByteBuffer.wrap(bytes);
+        long start = -1L;
+        for (long position = 0L; position < length; position += CHUNK_SIZE) {
+            int size = (int) Math.min(CHUNK_SIZE, length - position);
+            fasta.copy(name, position, position + size, bytes, 0);
+            start = scan(name, bytes, words, size, position, start, listener);
+        }
+        if (start >= 0L) {
+            listener.maskedRegion(name, start, length);
+        }
+    }
+
+    /**
+     * Scan each sequence in the specified indexed FASTA file for hard-masked regions, in index order.
+     *
+     * @param fasta indexed FASTA file, must not be null
+     * @param listener masked region listener, must not be null
+     */
+    public static void scan(final IndexedFasta fasta, final MaskedRegionListener listener) {
+        checkNotNull(fasta);
+        checkNotNull(listener);
+        for (String name : fasta.getNames()) {
+            scan(fasta, name, listener);
+        }
+    }
+
+    /**
+     * Scan the specified input stream in FASTA format for hard-masked regions.  Sequence names are
+     * taken from header lines up to the first whitespace character.
+     *
+     * @param inputStream input stream in FASTA format, must not be null
+     * @param listener masked region listener, must not be null
+     * @throws IOException if an I/O error occurs, or if sequence data appears before the first header line
+     */
+    public static void scan(final InputStream inputStream, final MaskedRegionListener listener) throws IOException {
+        checkNotNull(inputStream);
+        checkNotNull(listener);
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        StringBuilder sb = new StringBuilder();
+        String name = null;
+        boolean header = false;
+        boolean naming = false;
+        boolean lineStart = true;
+        long position = 0L;
+        long start = -1L;
+        int lineNumber = 1;
+
+        int n;
+        while ((n = inputStream.read(buffer)) != -1) {
+            for (int i = 0; i < n; i++) {
+                byte b = buffer[i];
+                if (b == '\n') {
+                    if (naming) {
+                        name = sb.toString();
+                        naming = false;
+                    }
+                    header = false;
+                    lineStart = true;
+                    lineNumber++;
+                }
+                else if (header) {
+                    if (naming) {
+                        if (b == ' ' || b == '\t' || b == '\r') {
+                            name = sb.toString();
+                            naming = false;
+                        }
+                        else {
+                            sb.append((char) (b & 0xff));
+                        }
+                    }
+                }
+                else if (lineStart && b == '>') {
+                    if (start >= 0L) {
+                        listener.maskedRegion(name, start, position);
+                    }
+                    sb.setLength(0);
+                    header = true;
+                    naming = true;
+                    lineStart = false;
+                    position = 0L;
+                    start = -1L;
+                }
+                else if (b != '\r' && b != ' ' && b != '\t') {
+                    lineStart = false;
+                    if (name == null) {
+                        throw new IOException("sequence data before FASTA header at line " + lineNumber);
+                    }
+                    if (isMasked(b)) {
+                        if (start < 0L) {
+                            start = position;
+                        }
+                    }
+                    else if (start >= 0L) {
+                        listener.maskedRegion(name, start, position);
+                        start = -1L;
+                    }
+                    position++;
+                }
+            }
+        }
+        if (start >= 0L) {
+            listener.maskedRegion(name, start, position);
+        }
+    }
+
+
+    /**
+     * Scan the specified chunk of bases for hard-masked regions.
+     *
+     * @param name sequence name
+     * @param bytes chunk of bases
+     * @param words chunk of bases wrapped as a byte buffer for word reads
+     * @param size number of bases in chunk
+     * @param offset position of the first base in chunk, 0-based
+     * @param start start of the masked region open at the beginning of chunk, or <code>-1</code> if none
+     * @param listener masked region listener
+     * @return start of the masked region open at the end of chunk, or <code>-1</code> if none
+     */
+    private static long scan(final String name, final byte[] bytes, final ByteBuffer words, final int size, final long offset, final long start, final MaskedRegionListener listener) {
+        long runStart = start;
+        int i = 0;
+        while (i < size) {
+            if (runStart < 0L) {
+                while (i + 8 <= size && !containsMasked(words.getLong(i))) {
+                    i += 8;
+                }
+                if (i < size) {
+                    if (isMasked(bytes[i])) {
+                        runStart = offset + i;
+                    }
+                    i++;
+                }
+            }
+            else {
+                while (i + 8 <= size && allMasked(words.getLong(i))) {
+                    i += 8;
+                }
+                if (i < size) {
+                    if (!isMasked(bytes[i])) {
+                        listener.maskedRegion(name, runStart, offset + i);
+                        runStart = -1L;
+                    }
+                    i++;
+                }
+            }
+        }
+        return runStart;
+    }
+
+    /**
+     * Return true if the specified base is hard-masked.
+     *
+     * @param b base
+     * @return true if the specified base is hard-masked
+     */
+    static boolean isMasked(final byte b) {
+        return (b | 0x20) == 'n';
+    }
+
+    /**
+     * Return true if any of the eight bases in the specified word is hard-masked.
+     *
+     * @param word eight bases
+     * @return true if any of the eight bases in the specified word is hard-masked
+     */
+    static boolean containsMasked(final long word) {
+        long x = (word | LOWER_CASE_BITS) ^ LOWER_CASE_N;
+        return ((x - LOW_BITS) & ~x & HIGH_BITS) != 0L;
+    }
+
+    /**
+     * Return true if all of the eight bases in the specified word are hard-masked.
+     *
+     * @param word eight bases
+     * @return true if all of the eight bases in the specified word are hard-masked
+     */
+    static boolean allMasked(final long word) {
+        return (word | LOWER_CASE_BITS) == LOWER_CASE_N;
+    }
+}
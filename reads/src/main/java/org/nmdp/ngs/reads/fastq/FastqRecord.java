@@ -0,0 +1,361 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fastq;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+
+import org.biojava.bio.program.fastq.Fastq;
+import org.biojava.bio.program.fastq.FastqVariant;
+
+/**
+ * Mutable, reusable FASTQ record backed by a byte array.
+ *
+ * <p>
+ * Records filled by {@link FastqRecordReader#next(FastqRecord)} are views over
+ * the reader's internal buffer and are only valid until the next call to
+ * <code>next</code>; use {@link #copy()} to retain a record.  Unmodified records
+ * are written byte-for-byte as read by {@link FastqRecordWriter}.
+ * </p>
+ */
+public final class FastqRecord {
+    /** Backing bytes. */
+    private byte[] data;
+
+    /** Start of the record in the backing bytes. */
+    private int start;
+
+    /** End of the record in the backing bytes, exclusive. */
+    private int end;
+
+    /** Start of the description. */
+    private int descriptionStart;
+
+    /** End of the description, exclusive. */
+    private int descriptionEnd;
+
+    /** Start of the sequence. */
+    private int sequenceStart;
+
+    /** End of the sequence, exclusive. */
+    private int sequenceEnd;
+
+    /** Start of the quality scores. */
+    private int qualityStart;
+
+    /** End of the quality scores, exclusive. */
+    private int qualityEnd;
+
+
+    /**
+     * Create a new empty FASTQ record.
+     */
+    public FastqRecord() {
+        set("", "", "");
+    }
+
+
+    /**
+     * Wrap the specified range of bytes.
+     *
+     * @param data backing bytes
+     * @param start start of the record
+     * @param end end of the record, exclusive
+     * @param descriptionStart start of the description
+     * @param descriptionEnd end of the description, exclusive
+     * @param sequenceStart start of the sequence
+     * @param sequenceEnd end of the sequence, exclusive
+     * @param qualityStart start of the quality scores
+     * @param qualityEnd end of the quality scores, exclusive
+     */
+    void wrap(final byte[] data, final int start, final int end,
+              final int descriptionStart, final int descriptionEnd,
+              final int sequenceStart, final int sequenceEnd,
+              final int qualityStart, final int qualityEnd) {
+        this.data = data;
+        this.start = start;
+        this.end = end;
+        this.descriptionStart = descriptionStart;
+        this.descriptionEnd = descriptionEnd;
+        this.sequenceStart = sequenceStart;
+        this.sequenceEnd = sequenceEnd;
+        this.qualityStart = qualityStart;
+        this.qualityEnd = qualityEnd;
+    }
+
+    /**
+     * Return the description of this FASTQ record.
+     *
+     * @return the description of this FASTQ record
+     */
+    public String description() {
+        return new String(data, descriptionStart, descriptionEnd - descriptionStart, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Return the sequence of this FASTQ record.
+     *
+     * @return the sequence of this FASTQ record
+     */
+    public String sequence() {
+        return new String(data, sequenceStart, sequenceEnd - sequenceStart, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Return the quality scores of this FASTQ record.
+     *
+     * @return the quality scores of this FASTQ record
+     */
+    public String quality() {
+        return new String(data, qualityStart, qualityEnd - qualityStart, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Return the length of the description of this FASTQ record.
+     *
+     * @return the length of the description of this FASTQ record
+     */
+    public int descriptionLength() {
+        return descriptionEnd - descriptionStart;
+    }
+
+    /**
+     * Return the length of the sequence of this FASTQ record.
+     *
+     * @return the length of the sequence of this FASTQ record
+     */
+    public int length() {
+        return sequenceEnd - sequenceStart;
+    }
+
+    /**
+     * Return the sequence byte at the specified index.
+     *
+     * @param index index, must be at least zero and less than <code>length()</code>
+     * @return the sequence byte at the specified index
+     */
+    public byte sequenceAt(final int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds");
+        }
+        return data[sequenceStart + index];
+    }
+
+    /**
+     * Return the quality score byte at the specified index.
+     *
+     * @param index index, must be at least zero and less than <code>length()</code>
+     * @return the quality score byte at the specified index
+     */
+    public byte qualityAt(final int index) {
+        if (index < 0 || index >= qualityEnd - qualityStart) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds");
+        }
+        return data[qualityStart + index];
+    }
+
+    /**
+     * Write the description of this FASTQ record to the specified output stream.
+     *
+     * @param outputStream output stream to write to, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeDescription(final OutputStream outputStream) throws IOException {
+        checkNotNull(outputStream);
+        outputStream.write(data, descriptionStart, descriptionEnd - descriptionStart);
+    }
+
+    /**
+     * Write the sequence of this FASTQ record to the specified output stream.
+     *
+     * @param outputStream output stream to write to, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeSequence(final OutputStream outputStream) throws IOException {
+        checkNotNull(outputStream);
+        outputStream.write(data, sequenceStart, sequenceEnd - sequenceStart);
+    }
+
+    /**
+     * Write the quality scores of this FASTQ record to the specified output stream.
+     *
+     * @param outputStream output stream to write to, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeQuality(final OutputStream outputStream) throws IOException {
+        checkNotNull(outputStream);
+        outputStream.write(data, qualityStart, qualityEnd - qualityStart);
+    }
+
+    /**
+     * Write this FASTQ record in FASTQ format to the specified output stream.  Unmodified records
+     * are written byte-for-byte as read, followed by a line terminator if the last line had none.
+     *
+     * @param outputStream output stream to write to, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        checkNotNull(outputStream);
+        outputStream.write(data, start, end - start);
+        if (end == start || data[end - 1] != '\n') {
+            outputStream.write('\n');
+        }
+    }
+
+    /**
+     * Set the description of this FASTQ record.
+     *
+     * @param description description, must not be null
+     * @return this FASTQ record
+     */
+    public FastqRecord setDescription(final CharSequence description) {
+        checkNotNull(description);
+        byte[] d = ascii(description);
+        rebuild(d, 0, d.length, data, sequenceStart, sequenceEnd - sequenceStart, data, qualityStart, qualityEnd - qualityStart);
+        return this;
+    }
+
+    /**
+     * Set the sequence of this FASTQ record.
+     *
+     * @param sequence sequence, must not be null
+     * @return this FASTQ record
+     */
+    public FastqRecord setSequence(final CharSequence sequence) {
+        checkNotNull(sequence);
+        byte[] s = ascii(sequence);
+        rebuild(data, descriptionStart, descriptionEnd - descriptionStart, s, 0, s.length, data, qualityStart, qualityEnd - qualityStart);
+        return this;
+    }
+
+    /**
+     * Set the quality scores of this FASTQ record.
+     *
+     * @param quality quality scores, must not be null
+     * @return this FASTQ record
+     */
+    public FastqRecord setQuality(final CharSequence quality) {
+        checkNotNull(quality);
+        byte[] q = ascii(quality);
+        rebuild(data, descriptionStart, descriptionEnd - descriptionStart, data, sequenceStart, sequenceEnd - sequenceStart, q, 0, q.length);
+        return this;
+    }
+
+    /**
+     * Set the description, sequence, and quality scores of this FASTQ record.
+     *
+     * @param description description, must not be null
+     * @param sequence sequence, must not be null
+     * @param quality quality scores, must not be null
+     * @return this FASTQ record
+     */
+    public FastqRecord set(final CharSequence description, final CharSequence sequence, final CharSequence quality) {
+        checkNotNull(description);
+        checkNotNull(sequence);
+        checkNotNull(quality);
+        byte[] d = ascii(description);
+        byte[] s = ascii(sequence);
+        byte[] q = ascii(quality);
+        rebuild(d, 0, d.length, s, 0, s.length, q, 0, q.length);
+        return this;
+    }
+
+    /**
+     * Return a copy of this FASTQ record that does not share backing bytes.
+     *
+     * @return a copy of this FASTQ record that does not share backing bytes
+     */
+    public FastqRecord copy() {
+        FastqRecord copy = new FastqRecord();
+        copy.wrap(Arrays.copyOfRange(data, start, end), 0, end - start,
+                  descriptionStart - start, descriptionEnd - start,
+                  sequenceStart - start, sequenceEnd - start,
+                  qualityStart - start, qualityEnd - start);
+        return copy;
+    }
+
+    /**
+     * Convert this FASTQ record to a Sanger variant FASTQ formatted sequence.
+     *
+     * @return this FASTQ record converted to a Sanger variant FASTQ formatted sequence
+     * @throws IllegalStateException if this FASTQ record is not valid
+     */
+    public Fastq toFastq() {
+        return Fastq.builder()
+            .withVariant(FastqVariant.FASTQ_SANGER)
+            .withDescription(description())
+            .withSequence(sequence())
+            .withQuality(quality())
+            .build();
+    }
+
+    @Override
+    public String toString() {
+        return new String(data, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Rebuild the backing bytes for this FASTQ record from the specified description, sequence, and quality scores.
+     */
+    private void rebuild(final byte[] d, final int dOffset, final int dLength,
+                         final byte[] s, final int sOffset, final int sLength,
+                         final byte[] q, final int qOffset, final int qLength) {
+
+        byte[] bytes = new byte[dLength + sLength + qLength + 6];
+        int i = 0;
+        bytes[i++] = '@';
+        System.arraycopy(d, dOffset, bytes, i, dLength);
+        i += dLength;
+        bytes[i++] = '\n';
+        System.arraycopy(s, sOffset, bytes, i, sLength);
+        i += sLength;
+        bytes[i++] = '\n';
+        bytes[i++] = '+';
+        bytes[i++] = '\n';
+        System.arraycopy(q, qOffset, bytes, i, qLength);
+        i += qLength;
+        bytes[i++] = '\n';
+
+        int ds = 1;
+        int ss = ds + dLength + 1;
+        int qs = ss + sLength + 3;
+        wrap(bytes, 0, i, ds, ds + dLength, ss, ss + sLength, qs, qs + qLength);
+    }
+
+    /**
+     * Encode the specified character sequence as US-ASCII bytes.
+     */
+    private static byte[] ascii(final CharSequence value) {
+        byte[] bytes = new byte[value.length()];
+        for (int i = 0, size = value.length(); i < size; i++) {
+            bytes[i] = (byte) value.charAt(i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fastq;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+
+/**
+ * High-throughput FASTQ record reader.
+ *
+ * <p>
+ * Reads strict four-line FASTQ format directly from bytes into a reusable
+ * {@link FastqRecord}, without creating intermediate strings or symbol lists.
+ * Carriage returns before line feeds and blank lines between records are ignored.
+ * </p>
+ *
+ * <p>
+ * Multi-line FASTQ, where the sequence or quality scores of a record are wrapped
+ * over more than one line, is not supported.  Such a record is rejected with an
+ * error naming the record.
+ * </p>
+ */
+public final class FastqRecordReader implements Closeable {
+    /** Default buffer size, <code>65536</code>. */
+    static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    /** Input stream. */
+    private final InputStream inputStream;
+
+    /** Buffer. */
+    private byte[] buffer;
+
+    /** Position of the next unread byte in the buffer. */
+    private int position;
+
+    /** Limit of valid bytes in the buffer, exclusive. */
+    private int limit;
+
+    /** True if the end of the input stream has been reached. */
+    private boolean eof;
+
+    /** Number of lines read so far. */
+    private long lineNumber;
+
+    /** Line starts for the record being scanned. */
+    private final int[] starts = new int[4];
+
+    /** Line ends for the record being scanned, exclusive of line terminators. */
+    private final int[] ends = new int[4];
+
+    /** Record end for the record being scanned, inclusive of line terminators. */
+    private int recordEnd;
+
+
+    /**
+     * Create a new FASTQ record reader with the default buffer size.
+     *
+     * @param inputStream input stream to read from, must not be null
+     */
+    public FastqRecordReader(final InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a new FASTQ record reader with the specified initial buffer size.
+     *
+     * @param inputStream input stream to read from, must not be null
+     * @param bufferSize initial buffer size, must be at least one
+     */
+    public FastqRecordReader(final InputStream inputStream, final int bufferSize) {
+        checkNotNull(inputStream);
+        checkArgument(bufferSize > 0, "bufferSize must be at least one");
+        this.inputStream = inputStream;
+        this.buffer = new byte[bufferSize];
+    }
+
+
+    /**
+     * Read the next FASTQ record into the specified record, if any.  The record
+     * is valid until the next call to this method.
+     *
+     * @param record record to read into, must not be null
+     * @return true if a record was read, false at the end of the input stream
+     * @throws IOException if an I/O error occurs or if the input is not valid FASTQ format
+     */
+    public boolean next(final FastqRecord record) throws IOException {
+        checkNotNull(record);
+        if (!advance()) {
+            return false;
+        }
+        if (buffer[starts[0]] != '@') {
+            throw new IOException("expected '@' at line " + (lineNumber + 1));
+        }
+        if (starts[2] == ends[2] || buffer[starts[2]] != '+') {
+            throw new IOException("expected '+' at line " + (lineNumber + 3) + " of record " + name()
+                                  + ", multi-line FASTQ is not supported");
+        }
+        if ((ends[1] - starts[1]) != (ends[3] - starts[3])) {
+            throw new IOException("sequence and quality scores of different lengths at line " + (lineNumber + 1) + " of record " + name()
+                                  + ", multi-line FASTQ is not supported");
+        }
+        record.wrap(buffer, position, recordEnd, starts[0] + 1, ends[0], starts[1], ends[1], starts[3], ends[3]);
+
+        position = recordEnd;
+        lineNumber += 4;
+        return true;
+    }
+
+    /**
+     * Skip the next FASTQ record, if any, without validating it or reading it into a record.
+     *
+     * @return true if a record was skipped, false at the end of the input stream
+     * @throws IOException if an I/O error occurs or if the input is truncated
+     */
+    public boolean skip() throws IOException {
+        if (!advance()) {
+            return false;
+        }
+        position = recordEnd;
+        lineNumber += 4;
+        return true;
+    }
+
+    /**
+     * Return the description line of the record being scanned, without the leading <code>'@'</code>.
+     *
+     * @return the description line of the record being scanned
+     */
+    private String name() {
+        return new String(buffer, starts[0] + 1, ends[0] - starts[0] - 1, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
+    /**
+     * Advance past any blank lines and scan for the next complete four-line record,
+     * filling the buffer as necessary.
+     *
+     * @return true if a complete record was found, false at the end of the input stream
+     * @throws IOException if an I/O error occurs or if the input is truncated
+     */
+    private boolean advance() throws IOException {
+        while (true) {
+            while (position < limit && (buffer[position] == '\n' || buffer[position] == '\r')) {
+                if (buffer[position] == '\n') {
+                    lineNumber++;
+                }
+                position++;
+            }
+            if (position == limit) {
+                if (eof) {
+                    return false;
+                }
+                fill();
+            }
+            else if (scan()) {
+                return true;
+            }
+            else if (eof) {
+                throw new IOException("truncated FASTQ record at line " + (lineNumber + 1));
+            }
+            else {
+                fill();
+            }
+        }
+    }
+
+    /**
+     * Scan the buffer for a complete four-line record starting at the current position.
+     *
+     * @return true if a complete record was found
+     */
+    private boolean scan() {
+        int p = position;
+        for (int i = 0; i < 4; i++) {
+            int n = p;
+            while (n < limit && buffer[n] != '\n') {
+                n++;
+            }
+            starts[i] = p;
+            if (n == limit) {
+                // accept a final line without a line terminator only at the end of the input stream
+                if (!eof || i < 3) {
+                    return false;
+                }
+                p = limit;
+            }
+            else {
+                p = n + 1;
+            }
+            ends[i] = (n > starts[i] && buffer[n - 1] == '\r') ? n - 1 : n;
+        }
+        recordEnd = p;
+        return true;
+    }
+
+    /**
+     * Compact the buffer and fill it with more bytes from the input stream, growing the buffer if necessary.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = inputStream.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+        }
+        else {
+            limit += read;
+        }
+    }
+}
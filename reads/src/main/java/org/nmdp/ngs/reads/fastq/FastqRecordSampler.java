@@ -0,0 +1,347 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fastq;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.apache.commons.math3.distribution.IntegerDistribution;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Exact-count and probabilistic downsampling of FASTQ records.
+ *
+ * <p>
+ * Records are sampled in units of one or more consecutive records, e.g. one for single end
+ * FASTQ format or two for interleaved paired end FASTQ format.  Records in units that are not
+ * selected are skipped without being validated or read into a record.  Selected units are
+ * written in input order.
+ * </p>
+ */
+public final class FastqRecordSampler {
+
+    /**
+     * Private no-arg constructor.
+     */
+    private FastqRecordSampler() {
+        // empty
+    }
+
+
+    /**
+     * Count the units of FASTQ records from the specified reader.
+     *
+     * @param reader reader to count from, must not be null
+     * @param recordsPerUnit number of consecutive records per unit, must be at least one
+     * @return the number of units of FASTQ records from the specified reader
+     * @throws IOException if an I/O error occurs or if the last unit is incomplete
+     */
+    public static long count(final FastqRecordReader reader, final int recordsPerUnit) throws IOException {
+        checkNotNull(reader);
+        checkArgument(recordsPerUnit > 0, "recordsPerUnit must be at least one");
+        long count = 0L;
+        while (skip(reader, recordsPerUnit)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Select exactly <code>count</code> units of FASTQ records uniformly at random from the specified
+     * reader, given the total number of units, in a single streaming pass (Knuth's Algorithm S).
+     *
+     * @param reader reader to sample from, must not be null
+     * @param writer writer to write selected units to, must not be null
+     * @param random source of randomness, must not be null
+     * @param count number of units to select, must be at least zero
+     * @param total total number of units, must be at least <code>count</code>
+     * @param recordsPerUnit number of consecutive records per unit, must be at least one
+     * @return the number of units written, which is less than <code>count</code> only if the
+     *    reader provides fewer than <code>total</code> units
+     * @throws IOException if an I/O error occurs
+     */
+    public static long select(final FastqRecordReader reader,
+                              final FastqRecordWriter writer,
+                              final RandomGenerator random,
+                              final long count,
+                              final long total,
+                              final int recordsPerUnit) throws IOException {
+        checkNotNull(reader);
+        checkNotNull(writer);
+        checkNotNull(random);
+        checkArgument(count >= 0L, "count must be at least zero");
+        checkArgument(total >= count, "total must be at least count");
+        checkArgument(recordsPerUnit > 0, "recordsPerUnit must be at least one");
+
+        FastqRecord record = new FastqRecord();
+        long selected = 0L;
+        for (long seen = 0L; selected < count; seen++) {
+            if ((total - seen) * random.nextDouble() < (count - selected)) {
+                if (!write(reader, writer, record, recordsPerUnit)) {
+                    break;
+                }
+                selected++;
+            }
+            else if (!skip(reader, recordsPerUnit)) {
+                break;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Select each unit of FASTQ records from the specified reader independently with the specified
+     * probability, in a single streaming pass.
+     *
+     * @param reader reader to sample from, must not be null
+     * @param writer writer to write selected units to, must not be null
+     * @param random source of randomness, must not be null
+     * @param probability probability a unit is selected, must be in the range <code>[0.0, 1.0]</code>
+     * @param recordsPerUnit number of consecutive records per unit, must be at least one
+     * @return the number of units written
+     * @throws IOException if an I/O error occurs or if the last unit is incomplete
+     */
+    public static long bernoulli(final FastqRecordReader reader,
+                                 final FastqRecordWriter writer,
+                                 final RandomGenerator random,
+                                 final double probability,
+                                 final int recordsPerUnit) throws IOException {
+        checkNotNull(reader);
+        checkNotNull(writer);
+        checkNotNull(random);
+        checkArgument(probability >= 0.0d && probability <= 1.0d, "probability must be in the range [0.0, 1.0]");
+        checkArgument(recordsPerUnit > 0, "recordsPerUnit must be at least one");
+
+        FastqRecord record = new FastqRecord();
+        long selected = 0L;
+        while (true) {
+            if (random.nextDouble() < probability) {
+                if (!write(reader, writer, record, recordsPerUnit)) {
+                    break;
+                }
+                selected++;
+            }
+            else if (!skip(reader, recordsPerUnit)) {
+                break;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Select each unit of FASTQ records from the specified reader if a sample from the specified
+     * distribution is greater than zero, in a single streaming pass.
+     *
+     * @param reader reader to sample from, must not be null
+     * @param writer writer to write selected units to, must not be null
+     * @param distribution distribution to sample, must not be null
+     * @param recordsPerUnit number of consecutive records per unit, must be at least one
+     * @return the number of units written
+     * @throws IOException if an I/O error occurs or if the last unit is incomplete
+     */
+    public static long sample(final FastqRecordReader reader,
+                              final FastqRecordWriter writer,
+                              final IntegerDistribution distribution,
+                              final int recordsPerUnit) throws IOException {
+        checkNotNull(reader);
+        checkNotNull(writer);
+        checkNotNull(distribution);
+        checkArgument(recordsPerUnit > 0, "recordsPerUnit must be at least one");
+
+        FastqRecord record = new FastqRecord();
+        long selected = 0L;
+        while (true) {
+            if (distribution.sample() > 0) {
+                if (!write(reader, writer, record, recordsPerUnit)) {
+                    break;
+                }
+                selected++;
+            }
+            else if (!skip(reader, recordsPerUnit)) {
+                break;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Select up to <code>count</code> units of FASTQ records uniformly at random from the specified
+     * reader in a single pass without knowing the total number of units (Li's Algorithm L reservoir
+     * sampling).  Selected units are held in memory until the end of the input.
+     *
+     * @param reader reader to sample from, must not be null
+     * @param writer writer to write selected units to, must not be null
+     * @param random source of randomness, must not be null
+     * @param count number of units to select, must be at least zero
+     * @param recordsPerUnit number of consecutive records per unit, must be at least one
+     * @return the number of units written, which is less than <code>count</code> only if the
+     *    reader provides fewer than <code>count</code> units
+     * @throws IOException if an I/O error occurs
+     */
+    public static int reservoir(final FastqRecordReader reader,
+                                final FastqRecordWriter writer,
+                                final RandomGenerator random,
+                                final int count,
+                                final int recordsPerUnit) throws IOException {
+        checkNotNull(reader);
+        checkNotNull(writer);
+        checkNotNull(random);
+        checkArgument(count >= 0, "count must be at least zero");
+        checkArgument(recordsPerUnit > 0, "recordsPerUnit must be at least one");
+
+        if (count == 0) {
+            return 0;
+        }
+        FastqRecord[][] units = new FastqRecord[count][];
+        long[] indices = new long[count];
+        FastqRecord record = new FastqRecord();
+
+        int size = 0;
+        while (size < count) {
+            FastqRecord[] unit = read(reader, record, recordsPerUnit);
+            if (unit == null) {
+                break;
+            }
+            units[size] = unit;
+            indices[size] = size;
+            size++;
+        }
+
+        if (size == count) {
+            double w = Math.exp(Math.log(nextOpenDouble(random)) / count);
+            long index = count - 1L;
+            while (true) {
+                long gap = (long) Math.floor(Math.log(nextOpenDouble(random)) / Math.log(1.0d - w));
+                boolean eof = false;
+                for (long i = 0L; i < gap; i++) {
+                    if (!skip(reader, recordsPerUnit)) {
+                        eof = true;
+                        break;
+                    }
+                }
+                if (eof) {
+                    break;
+                }
+                FastqRecord[] unit = read(reader, record, recordsPerUnit);
+                if (unit == null) {
+                    break;
+                }
+                index += gap + 1L;
+                int slot = random.nextInt(count);
+                units[slot] = unit;
+                indices[slot] = index;
+                w *= Math.exp(Math.log(nextOpenDouble(random)) / count);
+            }
+        }
+
+        // write in input order
+        final long[] inputOrder = indices;
+        Integer[] slots = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = i;
+        }
+        Arrays.sort(slots, new Comparator<Integer>() {
+                @Override
+                public int compare(final Integer left, final Integer right) {
+                    return Long.compare(inputOrder[left], inputOrder[right]);
+                }
+            });
+        for (Integer slot : slots) {
+            for (FastqRecord r : units[slot]) {
+                writer.write(r);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Return the next double from the specified source of randomness in the open interval <code>(0.0, 1.0)</code>.
+     */
+    private static double nextOpenDouble(final RandomGenerator random) {
+        double d = random.nextDouble();
+        while (d == 0.0d) {
+            d = random.nextDouble();
+        }
+        return d;
+    }
+
+    /**
+     * Skip a unit of records.
+     *
+     * @return true if a unit was skipped, false at the end of the input stream
+     */
+    private static boolean skip(final FastqRecordReader reader, final int recordsPerUnit) throws IOException {
+        if (!reader.skip()) {
+            return false;
+        }
+        for (int i = 1; i < recordsPerUnit; i++) {
+            if (!reader.skip()) {
+                throw new IOException("incomplete unit of " + recordsPerUnit + " records at end of input");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read and write a unit of records.
+     *
+     * @return true if a unit was written, false at the end of the input stream
+     */
+    private static boolean write(final FastqRecordReader reader, final FastqRecordWriter writer, final FastqRecord record, final int recordsPerUnit) throws IOException {
+        for (int i = 0; i < recordsPerUnit; i++) {
+            if (!reader.next(record)) {
+                if (i == 0) {
+                    return false;
+                }
+                throw new IOException("incomplete unit of " + recordsPerUnit + " records at end of input");
+            }
+            writer.write(record);
+        }
+        return true;
+    }
+
+    /**
+     * Read and copy a unit of records.
+     *
+     * @return a copy of a unit of records, or null at the end of the input stream
+     */
+    private static FastqRecord[] read(final FastqRecordReader reader, final FastqRecord record, final int recordsPerUnit) throws IOException {
+        FastqRecord[] unit = new FastqRecord[recordsPerUnit];
+        for (int i = 0; i < recordsPerUnit; i++) {
+            if (!reader.next(record)) {
+                if (i == 0) {
+                    return null;
+                }
+                throw new IOException("incomplete unit of " + recordsPerUnit + " records at end of input");
+            }
+            unit[i] = record.copy();
+        }
+        return unit;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fastq;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * High-throughput FASTQ record writer.
+ *
+ * <p>
+ * Records read by {@link FastqRecordReader} and not modified since are copied
+ * to the output stream byte-for-byte, without parsing or re-encoding.
+ * </p>
+ */
+public final class FastqRecordWriter implements Closeable, Flushable {
+    /** Default buffer size, <code>65536</code>. */
+    static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    /** Output stream. */
+    private final OutputStream outputStream;
+
+
+    /**
+     * Create a new FASTQ record writer with the default buffer size.
+     *
+     * @param outputStream output stream to write to, must not be null
+     */
+    public FastqRecordWriter(final OutputStream outputStream) {
+        this(outputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a new FASTQ record writer with the specified buffer size.
+     *
+     * @param outputStream output stream to write to, must not be null
+     * @param bufferSize buffer size, must be at least one
+     */
+    public FastqRecordWriter(final OutputStream outputStream, final int bufferSize) {
+        checkNotNull(outputStream);
+        checkArgument(bufferSize > 0, "bufferSize must be at least one");
+        this.outputStream = new BufferedOutputStream(outputStream, bufferSize);
+    }
+
+
+    /**
+     * Write the specified FASTQ record.
+     *
+     * @param record record to write, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(final FastqRecord record) throws IOException {
+        checkNotNull(record);
+        record.writeTo(outputStream);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        outputStream.close();
+    }
+}
@@ -29,12 +29,14 @@ import org.biojava.bio.symbol.SimpleSymbolList;
 import org.biojava.bio.symbol.Symbol;
 import org.biojava.bio.symbol.SymbolList;
 
+import org.nmdp.ngs.reads.ByteMutationStrategy;
 import org.nmdp.ngs.reads.MutationStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
 
 /**
  * Ambiguous substitution mutation strategy, replaces unambiguous base with <code>n</code>.
  */
-public final class AmbiguousSubstitutionMutationStrategy implements MutationStrategy
+public final class AmbiguousSubstitutionMutationStrategy implements MutationStrategy, ByteMutationStrategy
 {
     /** Ambiguous symbol list. */
     private static final SimpleSymbolList N = new SimpleSymbolList(DNATools.getDNA());
@@ -52,4 +54,9 @@ public final class AmbiguousSubstitutionMutationStrategy implements MutationStra
     public SymbolList mutate(final Symbol symbol) {
         return N;
     }
+
+    @Override
+    public void mutate(final byte base, final ReadBuffer read) {
+        read.append((byte) 'n');
+    }
 }
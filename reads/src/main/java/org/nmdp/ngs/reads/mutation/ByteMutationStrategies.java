@@ -0,0 +1,105 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.mutation;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.biojava.bio.seq.DNATools;
+
+import org.biojava.bio.symbol.IllegalSymbolException;
+import org.biojava.bio.symbol.Symbol;
+import org.biojava.bio.symbol.SymbolList;
+
+import org.nmdp.ngs.reads.ByteMutationStrategy;
+import org.nmdp.ngs.reads.MutationStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
+
+/**
+ * Byte mutation strategies.
+ */
+public final class ByteMutationStrategies {
+
+    /**
+     * Private no-arg constructor.
+     */
+    private ByteMutationStrategies() {
+        // empty
+    }
+
+
+    /**
+     * Adapt the specified mutation strategy to a byte mutation strategy.  If the specified
+     * mutation strategy already implements ByteMutationStrategy it is returned as is, otherwise
+     * each base is converted to a symbol, mutated, and the mutated symbols converted back to bases.
+     *
+     * @param mutation mutation strategy to adapt, must not be null
+     * @return the specified mutation strategy adapted to a byte mutation strategy
+     */
+    public static ByteMutationStrategy asByteMutationStrategy(final MutationStrategy mutation) {
+        checkNotNull(mutation);
+        if (mutation instanceof ByteMutationStrategy) {
+            return (ByteMutationStrategy) mutation;
+        }
+        return new ByteMutationStrategy() {
+            @Override
+            public void mutate(final byte base, final ReadBuffer read) {
+                try {
+                    SymbolList mutated = mutation.mutate(DNATools.forSymbol((char) base));
+                    for (int i = 1, length = mutated.length(); i <= length; i++) {
+                        read.append((byte) DNATools.dnaToken(mutated.symbolAt(i)));
+                    }
+                }
+                catch (IllegalSymbolException e) {
+                    // ignore
+                }
+            }
+        };
+    }
+
+    /**
+     * Adapt the specified byte mutation strategy to a mutation strategy.  If the specified
+     * byte mutation strategy already implements MutationStrategy it is returned as is.
+     *
+     * @param mutation byte mutation strategy to adapt, must not be null
+     * @return the specified byte mutation strategy adapted to a mutation strategy
+     */
+    public static MutationStrategy asMutationStrategy(final ByteMutationStrategy mutation) {
+        checkNotNull(mutation);
+        if (mutation instanceof MutationStrategy) {
+            return (MutationStrategy) mutation;
+        }
+        return new MutationStrategy() {
+            @Override
+            public SymbolList mutate(final Symbol symbol) {
+                ReadBuffer read = new ReadBuffer(4);
+                try {
+                    mutation.mutate((byte) DNATools.dnaToken(symbol), read);
+                    return DNATools.createDNA(read.toString());
+                }
+                catch (IllegalSymbolException e) {
+                    return SymbolList.EMPTY_LIST;
+                }
+            }
+        };
+    }
+}
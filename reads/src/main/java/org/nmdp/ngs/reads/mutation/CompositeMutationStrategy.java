@@ -30,12 +30,14 @@ import org.apache.commons.math3.random.RandomGenerator;
 import org.biojava.bio.symbol.Symbol;
 import org.biojava.bio.symbol.SymbolList;
 
+import org.nmdp.ngs.reads.ByteMutationStrategy;
 import org.nmdp.ngs.reads.MutationStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
 
 /**
  * Composite mutation strategy.
  */
-public final class CompositeMutationStrategy implements MutationStrategy {
+public final class CompositeMutationStrategy implements MutationStrategy, ByteMutationStrategy {
     /** Random. */
     private final RandomGenerator random;
 
@@ -98,4 +100,18 @@ public final class CompositeMutationStrategy implements MutationStrategy {
         }
         return ambiguous.mutate(symbol);
     }
+
+    @Override
+    public void mutate(final byte base, final ReadBuffer read) {
+        double d = random.nextDouble();
+        if (d < substitutionRate) {
+            substitution.mutate(base, read);
+        }
+        else if (d < (substitutionRate + indelRate)) {
+            indel.mutate(base, read);
+        }
+        else {
+            ambiguous.mutate(base, read);
+        }
+    }
 }
@@ -28,12 +28,14 @@ import org.biojava.bio.symbol.SimpleSymbolList;
 import org.biojava.bio.symbol.Symbol;
 import org.biojava.bio.symbol.SymbolList;
 
+import org.nmdp.ngs.reads.ByteMutationStrategy;
 import org.nmdp.ngs.reads.MutationStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
 
 /**
  * Deletion mutation strategy.
  */
-public final class DeletionMutationStrategy implements MutationStrategy {
+public final class DeletionMutationStrategy implements MutationStrategy, ByteMutationStrategy {
     /** Empty symbol list. */
     private static final SymbolList EMPTY = new SimpleSymbolList(DNATools.getDNA());
 
@@ -41,4 +43,9 @@ public final class DeletionMutationStrategy implements MutationStrategy {
     public SymbolList mutate(final Symbol symbol) {
         return EMPTY;
     }
+
+    @Override
+    public void mutate(final byte base, final ReadBuffer read) {
+        // empty
+    }
 }
@@ -29,12 +29,14 @@ import org.biojava.bio.symbol.SimpleSymbolList;
 import org.biojava.bio.symbol.Symbol;
 import org.biojava.bio.symbol.SymbolList;
 
+import org.nmdp.ngs.reads.ByteMutationStrategy;
 import org.nmdp.ngs.reads.MutationStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
 
 /**
  * Identity mutation strategy.
  */
-public final class IdentityMutationStrategy implements MutationStrategy {
+public final class IdentityMutationStrategy implements MutationStrategy, ByteMutationStrategy {
 
     @Override
     public SymbolList mutate(final Symbol symbol) {
@@ -47,4 +49,9 @@ public final class IdentityMutationStrategy implements MutationStrategy {
         }
         return symbolList;
     }
+
+    @Override
+    public void mutate(final byte base, final ReadBuffer read) {
+        read.append(base);
+    }
 }
@@ -30,12 +30,14 @@ import org.apache.commons.math3.random.RandomGenerator;
 import org.biojava.bio.symbol.Symbol;
 import org.biojava.bio.symbol.SymbolList;
 
+import org.nmdp.ngs.reads.ByteMutationStrategy;
 import org.nmdp.ngs.reads.MutationStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
 
 /**
  * Indel mutation strategy.
  */
-public final class IndelMutationStrategy implements MutationStrategy {
+public final class IndelMutationStrategy implements MutationStrategy, ByteMutationStrategy {
     /** Random. */
     private final RandomGenerator random;
 
@@ -74,4 +76,14 @@ public final class IndelMutationStrategy implements MutationStrategy {
     public SymbolList mutate(final Symbol symbol) {
         return random.nextDouble() < insertionRate ? insertion.mutate(symbol) : deletion.mutate(symbol);
     }
+
+    @Override
+    public void mutate(final byte base, final ReadBuffer read) {
+        if (random.nextDouble() < insertionRate) {
+            insertion.mutate(base, read);
+        }
+        else {
+            deletion.mutate(base, read);
+        }
+    }
 }
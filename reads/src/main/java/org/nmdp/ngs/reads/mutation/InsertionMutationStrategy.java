@@ -39,12 +39,14 @@ import org.biojava.bio.symbol.SimpleSymbolList;
 import org.biojava.bio.symbol.Symbol;
 import org.biojava.bio.symbol.SymbolList;
 
+import org.nmdp.ngs.reads.ByteMutationStrategy;
 import org.nmdp.ngs.reads.MutationStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
 
 /**
  * Insertion mutation strategy.
  */
-public final class InsertionMutationStrategy implements MutationStrategy {
+public final class InsertionMutationStrategy implements MutationStrategy, ByteMutationStrategy {
     /** Random. */
     private final RandomGenerator random;
 
@@ -58,6 +60,9 @@ public final class InsertionMutationStrategy implements MutationStrategy {
     /** List of DNA symbols. */
     private static final List<AtomicSymbol> SYMBOLS = ImmutableList.of(DNATools.a(), DNATools.c(), DNATools.g(), DNATools.t());
 
+    /** Array of DNA bases, in the same order as the list of DNA symbols. */
+    private static final byte[] BASES = new byte[] { 'a', 'c', 'g', 't' };
+
 
     /**
      * Create a new insertion mutation strategy with the specified parameters.
@@ -98,4 +103,17 @@ public final class InsertionMutationStrategy implements MutationStrategy {
         }
         return symbolList;
     }
+
+    @Override
+    public void mutate(final byte base, final ReadBuffer read) {
+        read.append(base);
+        int inserted = 1;
+        while (inserted < maximumInsertionLength) {
+            if (random.nextDouble() < insertionRate) {
+                break;
+            }
+            read.append(BASES[random.nextInt(BASES.length)]);
+            inserted++;
+        }
+    }
 }
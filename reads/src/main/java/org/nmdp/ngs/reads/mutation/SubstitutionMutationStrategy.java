@@ -38,18 +38,23 @@ import org.biojava.bio.symbol.SimpleSymbolList;
 import org.biojava.bio.symbol.Symbol;
 import org.biojava.bio.symbol.SymbolList;
 
+import org.nmdp.ngs.reads.ByteMutationStrategy;
 import org.nmdp.ngs.reads.MutationStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
 
 /**
  * Substitution mutation strategy.
  */
-public final class SubstitutionMutationStrategy implements MutationStrategy {
+public final class SubstitutionMutationStrategy implements MutationStrategy, ByteMutationStrategy {
     /** Random. */
     private final RandomGenerator random;
 
     /** List of DNA symbols. */
     private static final List<AtomicSymbol> SYMBOLS = ImmutableList.of(DNATools.a(), DNATools.c(), DNATools.g(), DNATools.t());
 
+    /** Array of DNA bases, in the same order as the list of DNA symbols. */
+    private static final byte[] BASES = new byte[] { 'a', 'c', 'g', 't' };
+
 
     /**
      * Create a new substitution mutation strategy.
@@ -74,4 +79,9 @@ public final class SubstitutionMutationStrategy implements MutationStrategy {
         }
         return symbolList;
     }
+
+    @Override
+    public void mutate(final byte base, final ReadBuffer read) {
+        read.append(BASES[random.nextInt(BASES.length)]);
+    }
 }
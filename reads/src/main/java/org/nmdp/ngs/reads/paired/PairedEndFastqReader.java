@@ -22,14 +22,20 @@
 */
 package org.nmdp.ngs.reads.paired;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,15 +59,21 @@ import org.biojava.bio.program.fastq.StreamListener;
  * Paired end FASTQ reads reader.
  */
 public final class PairedEndFastqReader {
-    /** Pattern for the left or first read of a paired end read, relies on convention of "<code> 1</code>" or "<code>\1</code>" in the description line. */
-    static final Pattern LEFT = Pattern.compile("^.*[ \\\\]1.*$");
+    /** Pattern for the left or first read of a paired end read, relies on convention of "<code> 1</code>" or "<code>\1</code>" in the description line, where the last such marker decides, consistent with {@link #PREFIX}. */
+    static final Pattern LEFT = Pattern.compile("^.+[ \\\\]1(?:(?![ \\\\][12]).)*$");
 
-    /** Pattern for the right or second read of a paired end read, relies on convention of "<code> 2</code>" or "<code>\2</code>" in the description line. */
-    static final Pattern RIGHT = Pattern.compile("^.*[ \\\\]2.*$");
+    /** Pattern for the right or second read of a paired end read, relies on convention of "<code> 2</code>" or "<code>\2</code>" in the description line, where the last such marker decides, consistent with {@link #PREFIX}. */
+    static final Pattern RIGHT = Pattern.compile("^.+[ \\\\]2(?:(?![ \\\\][12]).)*$");
 
     /** Pattern for capturing the prefix of a paired end read name, relies on convention of "<code> 1</code>", "<code>\1</code>", "<code> 2</code>", or "<code>\2</code>" in the description line. */
     static final Pattern PREFIX = Pattern.compile("^(.+)[ \\\\][12].*$");
 
+    /** Capacity of the read-ahead queues used when streaming in lock step. */
+    static final int LOCK_STEP_CAPACITY = 1024;
+
+    /** End of stream marker for the read-ahead queues used when streaming in lock step. */
+    private static final Fastq END = Fastq.builder().withDescription("end").withSequence("").withQuality("").build();
+
 
     /**
      * Private no-arg constructor.
@@ -207,7 +219,170 @@ public final class PairedEndFastqReader {
             };
 
         try {
-            ExecutorService executor = Executors.newFixedThreadPool(2);
+            stream(firstReadable, secondReadable, streamListener);
+        }
+        catch (PairedEndFastqReaderException e) {
+            throw new IOException("could not read paired end FASTQ reads", e);
+        }
+
+        for (Fastq unpaired : keyedByPrefix.values()) {
+            listener.unpaired(unpaired);
+        }
+    }
+
+    /**
+     * Stream the specified paired end reads within the specified memory budget.  Unpaired reads are held
+     * in RAM until their mate is read.  If the estimated size of the unpaired reads held in RAM exceeds the
+     * memory budget, they are spilled to hash-partitioned temporary files, and each partition is paired in
+     * a second pass after both readables have been read.
+     *
+     * @param firstReadable first readable, must not be null
+     * @param secondReadable second readable, must not be null
+     * @param memoryBudget memory budget for unpaired reads held in RAM, in bytes, must be greater than zero
+     * @param tempDirectory directory for temporary files, or <code>null</code> to use the default temporary-file directory
+     * @param listener paired end listener, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void streamPaired(final Readable firstReadable,
+                                    final Readable secondReadable,
+                                    final long memoryBudget,
+                                    final File tempDirectory,
+                                    final PairedEndListener listener) throws IOException {
+
+        checkNotNull(firstReadable);
+        checkNotNull(secondReadable);
+        checkArgument(memoryBudget > 0L, "memoryBudget must be greater than zero");
+        checkNotNull(listener);
+
+        SpillingPairedEndStreamListener streamListener = new SpillingPairedEndStreamListener(memoryBudget, SpillingPairedEndStreamListener.DEFAULT_PARTITIONS, tempDirectory, listener);
+        try {
+            stream(firstReadable, secondReadable, streamListener);
+            streamListener.finish();
+        }
+        catch (PairedEndFastqReaderException e) {
+            throw new IOException("could not read paired end FASTQ reads", e);
+        }
+        finally {
+            streamListener.close();
+        }
+    }
+
+    /**
+     * Stream the specified paired end reads in lock step.  Reads are taken from both readables together
+     * and paired by a cheap comparison of their descriptions, without regular expression matching or hashing.
+     * At the first pair of reads that do not match, falls back to pairing the remaining reads by prefix as
+     * {@link #streamPaired(Readable,Readable,PairedEndListener)} does.  RAM usage is minimal if the paired
+     * end reads are in the same order in both readables.
+     *
+     * @param firstReadable first readable, must not be null
+     * @param secondReadable second readable, must not be null
+     * @param listener paired end listener, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void streamLockStep(final Readable firstReadable,
+                                      final Readable secondReadable,
+                                      final PairedEndListener listener) throws IOException {
+
+        checkNotNull(firstReadable);
+        checkNotNull(secondReadable);
+        checkNotNull(listener);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            BlockingQueue<Fastq> firstQueue = new ArrayBlockingQueue<Fastq>(LOCK_STEP_CAPACITY);
+            BlockingQueue<Fastq> secondQueue = new ArrayBlockingQueue<Fastq>(LOCK_STEP_CAPACITY);
+            Future<Void> firstFuture = executor.submit(readAhead(firstReadable, firstQueue));
+            Future<Void> secondFuture = executor.submit(readAhead(secondReadable, secondQueue));
+
+            Fastq left = firstQueue.take();
+            Fastq right = secondQueue.take();
+            while (left != END && right != END && isPair(left, right)) {
+                listener.paired(left, right);
+                left = firstQueue.take();
+                right = secondQueue.take();
+            }
+
+            // fall back to pairing by prefix
+            Map<String, Fastq> keyedByPrefix = new HashMap<>();
+            while (left != END || right != END) {
+                if (left != END) {
+                    pair(keyedByPrefix, left, listener);
+                    left = firstQueue.take();
+                }
+                if (right != END) {
+                    pair(keyedByPrefix, right, listener);
+                    right = secondQueue.take();
+                }
+            }
+            firstFuture.get();
+            secondFuture.get();
+
+            for (Fastq unpaired : keyedByPrefix.values()) {
+                listener.unpaired(unpaired);
+            }
+        }
+        catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while streaming paired end FASTQ reads", e);
+        }
+        catch (PairedEndFastqReaderException e) {
+            throw new IOException("could not read paired end FASTQ reads", e);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Create and return a new task that reads ahead from the specified readable into the specified queue,
+     * ending with the end of stream marker.
+     *
+     * @param readable readable
+     * @param queue queue
+     * @return a new task that reads ahead from the specified readable into the specified queue
+     */
+    private static Callable<Void> readAhead(final Readable readable, final BlockingQueue<Fastq> queue) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                try {
+                    new SangerFastqReader().stream(readable, new StreamListener() {
+                            @Override
+                            public void fastq(final Fastq fastq) {
+                                try {
+                                    queue.put(fastq);
+                                }
+                                catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                    throw new PairedEndFastqReaderException("interrupted while reading ahead", e);
+                                }
+                            }
+                        });
+                }
+                finally {
+                    queue.put(END);
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Stream the specified readables concurrently to the specified stream listener.
+     *
+     * @param firstReadable first readable
+     * @param secondReadable second readable
+     * @param streamListener stream listener, must be thread safe
+     * @throws IOException if an I/O error occurs
+     */
+    private static void stream(final Readable firstReadable,
+                               final Readable secondReadable,
+                               final StreamListener streamListener) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
             Callable<Void> task1 = new Callable<Void>() {
                 @Override
                 public Void call() throws IOException {
@@ -226,20 +401,18 @@ public final class PairedEndFastqReader {
             for (Future<Void> future : executor.invokeAll(ImmutableList.of(task1, task2))) {
                 future.get();
             }
-            executor.shutdown();
         }
         catch (ExecutionException e) {
+            if (e.getCause() instanceof PairedEndFastqReaderException) {
+                throw (PairedEndFastqReaderException) e.getCause();
+            }
             throw new IOException(e.getCause());
         }
         catch (InterruptedException e) {
             // ignore
         }
-        catch (PairedEndFastqReaderException e) {
-            throw new IOException("could not read paired end FASTQ reads", e);
-        }
-
-        for (Fastq unpaired : keyedByPrefix.values()) {
-            listener.unpaired(unpaired);
+        finally {
+            executor.shutdown();
         }
     }
 
@@ -293,13 +466,94 @@ public final class PairedEndFastqReader {
         }
     }
 
+    /**
+     * Pair the specified fastq with its mate in the specified map of unpaired reads keyed by prefix,
+     * notifying the specified listener, or add it to the map if its mate has not been read.  A fastq
+     * that is neither a left nor a right read, or that is on the same side as the read already held
+     * for its prefix, is passed to the listener as unpaired.
+     *
+     * @param keyedByPrefix unpaired reads keyed by prefix
+     * @param fastq fastq
+     * @param listener paired end listener
+     * @return the mate of the specified fastq if it was paired, otherwise <code>null</code>
+     */
+    static Fastq pair(final Map<String, Fastq> keyedByPrefix, final Fastq fastq, final PairedEndListener listener) {
+        boolean left = isLeft(fastq);
+        if (!left && !isRight(fastq)) {
+            listener.unpaired(fastq);
+            return null;
+        }
+        String prefix = prefix(fastq);
+        Fastq other = keyedByPrefix.get(prefix);
+        if (other == null) {
+            keyedByPrefix.put(prefix, fastq);
+            return null;
+        }
+        if (fastq.equals(other)) {
+            return null;
+        }
+        if (left == isLeft(other)) {
+            listener.unpaired(fastq);
+            return null;
+        }
+        if (left) {
+            listener.paired(fastq, other);
+        }
+        else {
+            listener.paired(other, fastq);
+        }
+        keyedByPrefix.remove(prefix);
+        return other;
+    }
+
+
+    /**
+     * Return true if the specified fastqs are the left and right reads of the same paired end read,
+     * that is if their descriptions share a prefix followed by "<code> 1</code>" or "<code>\1</code>"
+     * and "<code> 2</code>" or "<code>\2</code>" respectively.  Cheaper than comparing the results of
+     * {@link #prefix(Fastq)}, {@link #isLeft(Fastq)}, and {@link #isRight(Fastq)}.
+     *
+     * @param left left fastq, must not be null
+     * @param right right fastq, must not be null
+     * @return true if the specified fastqs are the left and right reads of the same paired end read
+     */
+    static boolean isPair(final Fastq left, final Fastq right) {
+        checkNotNull(left);
+        checkNotNull(right);
+        String leftDescription = left.getDescription();
+        String rightDescription = right.getDescription();
+        int length = prefixLength(leftDescription);
+        return length > 0
+            && length == prefixLength(rightDescription)
+            && leftDescription.charAt(length + 1) == '1'
+            && rightDescription.charAt(length + 1) == '2'
+            && leftDescription.regionMatches(0, rightDescription, 0, length);
+    }
+
+    /**
+     * Return the length of the paired end read name prefix of the specified description, consistent
+     * with {@link #PREFIX}, or <code>-1</code> if the description does not have a prefix.
+     *
+     * @param description description
+     * @return the length of the paired end read name prefix of the specified description, or <code>-1</code>
+     */
+    static int prefixLength(final String description) {
+        for (int i = description.length() - 2; i > 0; i--) {
+            char c = description.charAt(i);
+            if ((c == ' ' || c == '\\') && (description.charAt(i + 1) == '1' || description.charAt(i + 1) == '2')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Return true if the specified fastq is the left or first read of a paired end read.
      *
      * @param fastq fastq, must not be null
      * @return true if the specified fastq is the left or first read of a paired end read
      */
-    static boolean isLeft(final Fastq fastq) {
+    public static boolean isLeft(final Fastq fastq) {
         checkNotNull(fastq);
         return LEFT.matcher(fastq.getDescription()).matches();
     }
@@ -310,7 +564,7 @@ public final class PairedEndFastqReader {
      * @param fastq fastq, must not be null
      * @return true if the specified fastq is the right or second read of a paired end read
      */
-    static boolean isRight(final Fastq fastq) {
+    public static boolean isRight(final Fastq fastq) {
         checkNotNull(fastq);
         return RIGHT.matcher(fastq.getDescription()).matches();
     }
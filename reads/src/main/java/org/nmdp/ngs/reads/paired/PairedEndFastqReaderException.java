@@ -35,4 +35,14 @@ public final class PairedEndFastqReaderException extends RuntimeException {
     PairedEndFastqReaderException(final String message) {
         super(message);
     }
+
+    /**
+     * Create a new paired end reader FASTQ exception with the specified message and cause.
+     *
+     * @param message message
+     * @param cause cause
+     */
+    PairedEndFastqReaderException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
 }
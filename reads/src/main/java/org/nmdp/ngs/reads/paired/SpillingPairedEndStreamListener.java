@@ -0,0 +1,365 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.paired;
+
+import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.pair;
+import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.prefix;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.biojava.bio.program.fastq.Fastq;
+import org.biojava.bio.program.fastq.SangerFastqReader;
+import org.biojava.bio.program.fastq.SangerFastqWriter;
+import org.biojava.bio.program.fastq.StreamListener;
+
+/**
+ * Stream listener which pairs reads by prefix within a memory budget, spilling unpaired
+ * reads to hash-partitioned temporary files when the memory budget is exceeded.
+ */
+final class SpillingPairedEndStreamListener implements StreamListener {
+    /** Default number of partitions. */
+    static final int DEFAULT_PARTITIONS = 64;
+
+    /** Maximum number of times a partition too large for the memory budget is re-partitioned. */
+    static final int MAX_LEVEL = 8;
+
+    /** Estimated fixed overhead per unpaired read held in RAM, in bytes. */
+    static final long OVERHEAD = 160L;
+
+    /** Memory budget for unpaired reads held in RAM, in bytes. */
+    private final long memoryBudget;
+
+    /** Number of partitions. */
+    private final int partitions;
+
+    /** Directory for temporary files, if any. */
+    private final File tempDirectory;
+
+    /** Paired end listener. */
+    private final PairedEndListener listener;
+
+    /** Unpaired reads held in RAM keyed by prefix. */
+    private final Map<String, Fastq> keyedByPrefix = new HashMap<>();
+
+    /** FASTQ writer. */
+    private final SangerFastqWriter fastqWriter = new SangerFastqWriter();
+
+    /** Estimated size of the unpaired reads held in RAM, in bytes. */
+    private long memory;
+
+    /** Partition files, created on first spill. */
+    private File[] files;
+
+    /** Partition writers, created on first spill. */
+    private Writer[] writers;
+
+    /** Largest estimated size in RAM of a partition paired in the second pass, in bytes. */
+    private long largestPartition;
+
+
+    /**
+     * Create a new spilling paired end stream listener.
+     *
+     * @param memoryBudget memory budget for unpaired reads held in RAM, in bytes
+     * @param partitions number of partitions
+     * @param tempDirectory directory for temporary files, or <code>null</code> to use the default temporary-file directory
+     * @param listener paired end listener
+     */
+    SpillingPairedEndStreamListener(final long memoryBudget,
+                                    final int partitions,
+                                    final File tempDirectory,
+                                    final PairedEndListener listener) {
+        this.memoryBudget = memoryBudget;
+        this.partitions = partitions;
+        this.tempDirectory = tempDirectory;
+        this.listener = listener;
+    }
+
+
+    @Override
+    public synchronized void fastq(final Fastq fastq) {
+        int unpaired = keyedByPrefix.size();
+        Fastq mate = pair(keyedByPrefix, fastq, listener);
+        if (mate != null) {
+            memory -= estimateSize(mate);
+        }
+        else if (keyedByPrefix.size() > unpaired) {
+            memory += estimateSize(fastq);
+            if (memory > memoryBudget) {
+                try {
+                    spill();
+                }
+                catch (IOException e) {
+                    throw new PairedEndFastqReaderException("could not spill unpaired reads to temporary files", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return true if this listener has spilled unpaired reads to temporary files.
+     *
+     * @return true if this listener has spilled unpaired reads to temporary files
+     */
+    synchronized boolean spilled() {
+        return files != null;
+    }
+
+    /**
+     * Return the largest estimated size in RAM of a partition paired in the second pass.
+     *
+     * @return the largest estimated size in RAM of a partition paired in the second pass, in bytes
+     */
+    synchronized long largestPartition() {
+        return largestPartition;
+    }
+
+    /**
+     * Finish pairing.  If no reads were spilled, the unpaired reads held in RAM are unpaired.
+     * Otherwise the unpaired reads held in RAM are spilled, and each partition is read back
+     * and paired in a second pass.  A partition whose estimated size in RAM exceeds the memory
+     * budget is first re-partitioned into smaller temporary files.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized void finish() throws IOException {
+        if (files == null) {
+            for (Fastq unpaired : keyedByPrefix.values()) {
+                listener.unpaired(unpaired);
+            }
+            keyedByPrefix.clear();
+            return;
+        }
+        spill();
+        for (Writer writer : writers) {
+            writer.close();
+        }
+        for (File file : files) {
+            finish(file, 1);
+        }
+    }
+
+    /**
+     * Pair the reads in the specified partition file, re-partitioning it first if its estimated
+     * size in RAM exceeds the memory budget.  A partition that re-partitioning does not split, for
+     * example one holding only the two reads of a pair, is paired in RAM.  The file is deleted afterwards.
+     *
+     * @param file partition file
+     * @param level partitioning level, <code>1</code> for the partitions of the first pass
+     * @throws IOException if an I/O error occurs
+     */
+    private void finish(final File file, final int level) throws IOException {
+        long estimate = estimateSize(file);
+        if (estimate > memoryBudget && level < MAX_LEVEL) {
+            int count = (int) Math.max(2L, Math.min(partitions, estimate / memoryBudget + 1L));
+            File[] subFiles = new File[count];
+            try {
+                int split = repartition(file, level, subFiles);
+                delete(file);
+                for (int i = 0; i < count; i++) {
+                    if (subFiles[i] != null) {
+                        finish(subFiles[i], split > 1 ? level + 1 : MAX_LEVEL);
+                        subFiles[i] = null;
+                    }
+                }
+            }
+            finally {
+                for (File subFile : subFiles) {
+                    delete(subFile);
+                }
+            }
+            return;
+        }
+        largestPartition = Math.max(largestPartition, estimate);
+        final Map<String, Fastq> partition = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            new SangerFastqReader().stream(reader, new StreamListener() {
+                    @Override
+                    public void fastq(final Fastq fastq) {
+                        pair(partition, fastq, listener);
+                    }
+                });
+        }
+        for (Fastq unpaired : partition.values()) {
+            listener.unpaired(unpaired);
+        }
+        delete(file);
+    }
+
+    /**
+     * Re-partition the reads in the specified partition file into the specified sub-partition files.
+     *
+     * @param file partition file
+     * @param level partitioning level of the partition file
+     * @param subFiles sub-partition files, created by this method on first use, <code>null</code> if empty
+     * @return the number of non-empty sub-partitions
+     * @throws IOException if an I/O error occurs
+     */
+    private int repartition(final File file, final int level, final File[] subFiles) throws IOException {
+        final Writer[] subWriters = new Writer[subFiles.length];
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                new SangerFastqReader().stream(reader, new StreamListener() {
+                        @Override
+                        public void fastq(final Fastq fastq) {
+                            int i = partition(prefix(fastq), level, subWriters.length);
+                            try {
+                                if (subWriters[i] == null) {
+                                    subFiles[i] = File.createTempFile("paired-" + level + "-" + i + "-", ".fq", tempDirectory);
+                                    subWriters[i] = Files.newBufferedWriter(subFiles[i].toPath(), StandardCharsets.UTF_8);
+                                }
+                                fastqWriter.append(subWriters[i], fastq);
+                            }
+                            catch (IOException e) {
+                                throw new PairedEndFastqReaderException("could not re-partition unpaired reads", e);
+                            }
+                        }
+                    });
+            }
+            catch (PairedEndFastqReaderException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        finally {
+            for (Writer subWriter : subWriters) {
+                if (subWriter != null) {
+                    subWriter.close();
+                }
+            }
+        }
+        int split = 0;
+        for (File subFile : subFiles) {
+            if (subFile != null) {
+                split++;
+            }
+        }
+        return split;
+    }
+
+    /**
+     * Close any partition writers and delete any temporary files.
+     */
+    synchronized void close() {
+        if (writers != null) {
+            for (Writer writer : writers) {
+                try {
+                    writer.close();
+                }
+                catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+        if (files != null) {
+            for (File file : files) {
+                delete(file);
+            }
+        }
+    }
+
+    /**
+     * Spill the unpaired reads held in RAM to hash-partitioned temporary files.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void spill() throws IOException {
+        if (files == null) {
+            files = new File[partitions];
+            writers = new Writer[partitions];
+            for (int i = 0; i < partitions; i++) {
+                files[i] = File.createTempFile("paired-" + i + "-", ".fq", tempDirectory);
+                writers[i] = Files.newBufferedWriter(files[i].toPath(), StandardCharsets.UTF_8);
+            }
+        }
+        for (Map.Entry<String, Fastq> entry : keyedByPrefix.entrySet()) {
+            fastqWriter.append(writers[partition(entry.getKey(), 0, partitions)], entry.getValue());
+        }
+        keyedByPrefix.clear();
+        memory = 0L;
+    }
+
+    /**
+     * Return the partition for the specified prefix.  Each partitioning level mixes the hash code
+     * differently, so that re-partitioning a partition spreads its reads.
+     *
+     * @param prefix prefix
+     * @param level partitioning level
+     * @param count number of partitions
+     * @return the partition for the specified prefix
+     */
+    static int partition(final String prefix, final int level, final int count) {
+        int h = prefix.hashCode() + level * 0x9e3779b9;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % count;
+    }
+
+    /**
+     * Return the estimated size in RAM of the reads in the specified partition file, in bytes.
+     *
+     * @param file partition file
+     * @return the estimated size in RAM of the reads in the specified partition file, in bytes
+     */
+    static long estimateSize(final File file) {
+        // two bytes per char, plus the overhead per read for at worst one read per 64 bytes
+        return 2L * file.length() + OVERHEAD * (file.length() / 64L);
+    }
+
+    /**
+     * Return the estimated size in RAM of the specified fastq, in bytes.
+     *
+     * @param fastq fastq
+     * @return the estimated size in RAM of the specified fastq, in bytes
+     */
+    static long estimateSize(final Fastq fastq) {
+        return OVERHEAD + 2L * (fastq.getDescription().length() + fastq.getSequence().length() + fastq.getQuality().length());
+    }
+
+    /**
+     * Delete the specified file, ignoring errors.
+     *
+     * @param file file to delete
+     */
+    private static void delete(final File file) {
+        if (file != null) {
+            file.delete();
+        }
+    }
+}
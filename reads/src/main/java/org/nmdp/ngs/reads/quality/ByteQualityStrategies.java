@@ -0,0 +1,87 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.quality;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.nmdp.ngs.reads.ByteQualityStrategy;
+import org.nmdp.ngs.reads.QualityStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
+
+/**
+ * Byte quality strategies.
+ */
+public final class ByteQualityStrategies {
+    /** Minimum FASTQ Sanger quality score. */
+    static final int MINIMUM_QUALITY_SCORE = 0;
+
+    /** Maximum FASTQ Sanger quality score. */
+    static final int MAXIMUM_QUALITY_SCORE = 93;
+
+    /** FASTQ Sanger quality score offset. */
+    static final int OFFSET = 33;
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private ByteQualityStrategies() {
+        // empty
+    }
+
+
+    /**
+     * Adapt the specified quality strategy to a byte quality strategy.  If the specified
+     * quality strategy already implements ByteQualityStrategy it is returned as is, otherwise
+     * quality scores are generated per position and encoded.
+     *
+     * @param quality quality strategy to adapt, must not be null
+     * @return the specified quality strategy adapted to a byte quality strategy
+     */
+    public static ByteQualityStrategy asByteQualityStrategy(final QualityStrategy quality) {
+        checkNotNull(quality);
+        if (quality instanceof ByteQualityStrategy) {
+            return (ByteQualityStrategy) quality;
+        }
+        return new ByteQualityStrategy() {
+            @Override
+            public void qualityScores(final int length, final ReadBuffer qualities) {
+                qualities.ensureCapacity(qualities.length() + length);
+                for (int i = 0; i < length; i++) {
+                    qualities.append(encode(quality.qualityScore(i, length)));
+                }
+            }
+        };
+    }
+
+    /**
+     * Encode the specified quality score in FASTQ Sanger (Phred+33) format, truncating
+     * and then clamping to the range of valid FASTQ Sanger quality scores.
+     *
+     * @param qualityScore quality score to encode
+     * @return the specified quality score encoded in FASTQ Sanger (Phred+33) format
+     */
+    public static byte encode(final double qualityScore) {
+        return (byte) (Math.max(Math.min((int) qualityScore, MAXIMUM_QUALITY_SCORE), MINIMUM_QUALITY_SCORE) + OFFSET);
+    }
+}
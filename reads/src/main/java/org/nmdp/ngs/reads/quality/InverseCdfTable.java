@@ -0,0 +1,100 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.quality;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.apache.commons.math3.distribution.RealDistribution;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Precomputed inverse cumulative distribution function lookup table for a real distribution.
+ * Sampling from the table costs a single random integer and an array lookup, rather than
+ * an evaluation of the inverse cumulative distribution function per sample.
+ */
+public final class InverseCdfTable {
+    /** Default table size. */
+    static final int DEFAULT_SIZE = 4096;
+
+    /** Quantiles, evaluated at the midpoint of each of <code>size</code> equal probability bins. */
+    private final double[] quantiles;
+
+
+    /**
+     * Create a new inverse cumulative distribution function lookup table for the specified distribution
+     * with the default table size.
+     *
+     * @param distribution distribution, must not be null
+     */
+    public InverseCdfTable(final RealDistribution distribution) {
+        this(distribution, DEFAULT_SIZE);
+    }
+
+    /**
+     * Create a new inverse cumulative distribution function lookup table for the specified distribution
+     * with the specified table size.
+     *
+     * @param distribution distribution, must not be null
+     * @param size table size, must be at least one
+     */
+    public InverseCdfTable(final RealDistribution distribution, final int size) {
+        checkNotNull(distribution);
+        checkArgument(size > 0, "size must be at least one");
+        quantiles = new double[size];
+        for (int i = 0; i < size; i++) {
+            quantiles[i] = distribution.inverseCumulativeProbability((i + 0.5d) / size);
+        }
+    }
+
+
+    /**
+     * Return the size of this inverse cumulative distribution function lookup table.
+     *
+     * @return the size of this inverse cumulative distribution function lookup table
+     */
+    public int size() {
+        return quantiles.length;
+    }
+
+    /**
+     * Return the quantile at the specified index in this inverse cumulative distribution function lookup table.
+     *
+     * @param index index
+     * @return the quantile at the specified index in this inverse cumulative distribution function lookup table
+     */
+    public double quantile(final int index) {
+        return quantiles[index];
+    }
+
+    /**
+     * Sample from this inverse cumulative distribution function lookup table.
+     *
+     * @param random random, must not be null
+     * @return a sample from this inverse cumulative distribution function lookup table
+     */
+    public double sample(final RandomGenerator random) {
+        return quantiles[random.nextInt(quantiles.length)];
+    }
+}
@@ -26,15 +26,25 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import org.apache.commons.math3.distribution.RealDistribution;
 
+import org.apache.commons.math3.random.RandomGenerator;
+
+import org.nmdp.ngs.reads.ByteQualityStrategy;
 import org.nmdp.ngs.reads.QualityStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
 
 /**
  * Quality strategy which samples from a single real distribution for the entire length of a read.
  */
-public final class RealDistributionQualityStrategy implements QualityStrategy {
+public final class RealDistributionQualityStrategy implements QualityStrategy, ByteQualityStrategy {
     /** Quality distribution. */
     private final RealDistribution distribution;
 
+    /** Random, if any. */
+    private final RandomGenerator random;
+
+    /** Inverse cumulative distribution function lookup table, if any. */
+    private final InverseCdfTable table;
+
 
     /**
      * Create a new real distribution quality strategy.
@@ -44,11 +54,43 @@ public final class RealDistributionQualityStrategy implements QualityStrategy {
     public RealDistributionQualityStrategy(final RealDistribution distribution) {
         checkNotNull(distribution);
         this.distribution = distribution;
+        this.random = null;
+        this.table = null;
+    }
+
+    /**
+     * Create a new real distribution quality strategy which samples from a precomputed
+     * inverse cumulative distribution function lookup table for the specified distribution.
+     *
+     * @param distribution distribution, must not be null
+     * @param random random, must not be null
+     */
+    public RealDistributionQualityStrategy(final RealDistribution distribution, final RandomGenerator random) {
+        checkNotNull(distribution);
+        checkNotNull(random);
+        this.distribution = distribution;
+        this.random = random;
+        this.table = new InverseCdfTable(distribution);
     }
 
 
     @Override
     public double qualityScore(final int position, final int length) {
-        return distribution.sample();
+        return table == null ? distribution.sample() : table.sample(random);
+    }
+
+    @Override
+    public void qualityScores(final int length, final ReadBuffer qualities) {
+        qualities.ensureCapacity(qualities.length() + length);
+        if (table == null) {
+            for (int i = 0; i < length; i++) {
+                qualities.append(ByteQualityStrategies.encode(distribution.sample()));
+            }
+        }
+        else {
+            for (int i = 0; i < length; i++) {
+                qualities.append(ByteQualityStrategies.encode(table.sample(random)));
+            }
+        }
     }
 }
@@ -26,19 +26,34 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import org.apache.commons.math3.distribution.RealDistribution;
 
+import org.apache.commons.math3.random.RandomGenerator;
+
+import org.nmdp.ngs.reads.ByteQualityStrategy;
 import org.nmdp.ngs.reads.QualityStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
 
 /**
  * Quality strategy which samples from a single real distribution and multiplies
- * by a positional score function.
+ * by a positional score function.  Cached score function values are safe to share
+ * between threads; whether an instance may be shared between threads otherwise depends
+ * on the distribution and random it samples from.
  */
-public final class ScoreFunctionQualityStrategy implements QualityStrategy {
+public final class ScoreFunctionQualityStrategy implements QualityStrategy, ByteQualityStrategy {
     /** Quality distribution. */
     private final RealDistribution distribution;
 
     /** Score function. */
     private final ScoreFunction scoreFunction;
 
+    /** Random, if any. */
+    private final RandomGenerator random;
+
+    /** Inverse cumulative distribution function lookup table, if any. */
+    private final InverseCdfTable table;
+
+    /** Cached score function values for the last read length, never modified once cached. */
+    private volatile double[] scores = new double[0];
+
 
     /**
      * Create a new score function quality strategy.
@@ -51,11 +66,69 @@ public final class ScoreFunctionQualityStrategy implements QualityStrategy {
         checkNotNull(scoreFunction);
         this.distribution = distribution;
         this.scoreFunction = scoreFunction;
+        this.random = null;
+        this.table = null;
+    }
+
+    /**
+     * Create a new score function quality strategy which samples from a precomputed
+     * inverse cumulative distribution function lookup table for the specified distribution.
+     *
+     * @param distribution distribution, must not be null
+     * @param scoreFunction score function, must not be null
+     * @param random random, must not be null
+     */
+    public ScoreFunctionQualityStrategy(final RealDistribution distribution, final ScoreFunction scoreFunction, final RandomGenerator random) {
+        checkNotNull(distribution);
+        checkNotNull(scoreFunction);
+        checkNotNull(random);
+        this.distribution = distribution;
+        this.scoreFunction = scoreFunction;
+        this.random = random;
+        this.table = new InverseCdfTable(distribution);
     }
 
 
     @Override
     public double qualityScore(final int position, final int length) {
-        return distribution.sample() * scoreFunction.evaluate((double) position / (double) length);
+        return sample() * scoreFunction.evaluate((double) position / (double) length);
+    }
+
+    @Override
+    public void qualityScores(final int length, final ReadBuffer qualities) {
+        double[] s = scores(length);
+        qualities.ensureCapacity(qualities.length() + length);
+        for (int i = 0; i < length; i++) {
+            qualities.append(ByteQualityStrategies.encode(sample() * s[i]));
+        }
+    }
+
+    /**
+     * Sample from the quality distribution, or its lookup table if any.
+     *
+     * @return a sample from the quality distribution
+     */
+    private double sample() {
+        return table == null ? distribution.sample() : table.sample(random);
+    }
+
+    /**
+     * Return the score function values for each position in a read of the specified length.
+     * Reads of the same length are common, so the last computed values are cached.  A new array
+     * is cached for each new length, so concurrent callers never see values being overwritten.
+     *
+     * @param length read length
+     * @return the score function values for each position in a read of the specified length
+     */
+    private double[] scores(final int length) {
+        double[] s = scores;
+        if (s.length != length) {
+            s = new double[length];
+            for (int i = 0; i < length; i++) {
+                s[i] = scoreFunction.evaluate((double) i / (double) length);
+            }
+            scores = s;
+        }
+        return s;
     }
 }
@@ -0,0 +1,118 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for ReadBuffer.
+ */
+public final class ReadBufferTest {
+    private ReadBuffer read;
+
+    @Before
+    public void setUp() {
+        read = new ReadBuffer(2);
+    }
+
+    @Test
+    public void testConstructor() {
+        assertNotNull(new ReadBuffer());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorNegativeCapacity() {
+        new ReadBuffer(-1);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, read.length());
+        assertEquals("", read.toString());
+    }
+
+    @Test
+    public void testAppend() {
+        read.append((byte) 'a').append((byte) 'c').append((byte) 'g').append((byte) 't');
+        assertEquals(4, read.length());
+        assertEquals("acgt", read.toString());
+        assertEquals('g', read.charAt(2));
+        assertEquals((byte) 't', read.byteAt(3));
+    }
+
+    @Test
+    public void testAppendRange() {
+        byte[] bytes = "aaccggtt".getBytes();
+        read.append(bytes, 2, 4);
+        assertEquals("ccgg", read.toString());
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testAppendRangeOutOfBounds() {
+        read.append(new byte[4], 2, 4);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testByteAtOutOfBounds() {
+        read.append((byte) 'a');
+        read.byteAt(1);
+    }
+
+    @Test
+    public void testClear() {
+        read.append((byte) 'a').append((byte) 'c').append((byte) 'g');
+        byte[] bytes = read.bytes();
+        assertEquals(0, read.clear().length());
+        read.append((byte) 't');
+        assertEquals("t", read.toString());
+        assertSame(bytes, read.bytes());
+    }
+
+    @Test
+    public void testSubSequence() {
+        read.append("aaccggtt".getBytes(), 0, 8);
+        assertEquals("ccgg", read.subSequence(2, 6).toString());
+    }
+
+    @Test
+    public void testReverseComplement() {
+        read.append("aaccgn".getBytes(), 0, 6);
+        assertEquals("ncggtt", read.reverseComplement().toString());
+    }
+
+    @Test
+    public void testReverseComplementUppercase() {
+        read.append("AACCGT".getBytes(), 0, 6);
+        assertEquals("ACGGTT", read.reverseComplement().toString());
+    }
+
+    @Test
+    public void testReverseComplementEmpty() {
+        assertEquals("", read.reverseComplement().toString());
+    }
+}
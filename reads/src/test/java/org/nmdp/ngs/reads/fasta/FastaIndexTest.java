@@ -0,0 +1,209 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fasta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import com.google.common.io.Files;
+
+import org.junit.Test;
+
+/**
+ * Unit test for FastaIndex.
+ */
+public final class FastaIndexTest {
+
+    private static FastaIndex build(final String fasta) throws IOException {
+        return FastaIndex.build(new ByteArrayInputStream(fasta.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullEntries() {
+        new FastaIndex(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorDuplicateEntries() {
+        FastaIndex.Entry entry = new FastaIndex.Entry("1", 4L, 3L, 4, 5);
+        new FastaIndex(ImmutableList.of(entry, entry));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testEntryNullName() {
+        new FastaIndex.Entry(null, 4L, 3L, 4, 5);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testEntryInvalidLineBases() {
+        new FastaIndex.Entry("1", 4L, 3L, 0, 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testEntryInvalidLineBytes() {
+        new FastaIndex.Entry("1", 4L, 3L, 4, 3);
+    }
+
+    @Test
+    public void testEntry() {
+        FastaIndex.Entry entry = new FastaIndex.Entry("1", 10L, 3L, 4, 5);
+        assertEquals("1", entry.getName());
+        assertEquals(10L, entry.getLength());
+        assertEquals(3L, entry.getOffset());
+        assertEquals(4, entry.getLineBases());
+        assertEquals(5, entry.getLineBytes());
+        assertEquals(3L, entry.offsetOf(0L));
+        assertEquals(6L, entry.offsetOf(3L));
+        assertEquals(8L, entry.offsetOf(4L));
+        assertEquals(13L, entry.offsetOf(8L));
+        assertEquals("1\t10\t3\t4\t5", entry.toString());
+        assertEquals(entry, new FastaIndex.Entry("1", 10L, 3L, 4, 5));
+        assertEquals(entry.hashCode(), new FastaIndex.Entry("1", 10L, 3L, 4, 5).hashCode());
+        assertFalse(entry.equals(new FastaIndex.Entry("2", 10L, 3L, 4, 5)));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testBuildNullInputStream() throws Exception {
+        FastaIndex.build((java.io.InputStream) null);
+    }
+
+    @Test
+    public void testBuild() throws Exception {
+        FastaIndex index = build(">1 description\nACGT\nACGT\nAC\n>2\nAAAAA\n>3\n");
+        assertEquals(ImmutableList.of("1", "2", "3"), index.getNames());
+        assertEquals(new FastaIndex.Entry("1", 10L, 15L, 4, 5), index.getEntry("1"));
+        assertEquals(new FastaIndex.Entry("2", 5L, 31L, 5, 6), index.getEntry("2"));
+        assertEquals(new FastaIndex.Entry("3", 0L, 40L, 0, 0), index.getEntry("3"));
+        assertTrue(index.contains("1"));
+        assertFalse(index.contains("4"));
+        assertNull(index.getEntry("4"));
+    }
+
+    @Test
+    public void testBuildCarriageReturns() throws Exception {
+        FastaIndex index = build(">1\r\nACGT\r\nAC\r\n");
+        assertEquals(new FastaIndex.Entry("1", 6L, 4L, 4, 6), index.getEntry("1"));
+    }
+
+    @Test
+    public void testBuildNoFinalLineTerminator() throws Exception {
+        FastaIndex index = build(">1\nACGT\nACGT");
+        assertEquals(new FastaIndex.Entry("1", 8L, 3L, 4, 5), index.getEntry("1"));
+    }
+
+    @Test
+    public void testBuildTrailingBlankLines() throws Exception {
+        FastaIndex index = build(">1\nACGT\nAC\n\n\n>2\nA\n");
+        assertEquals(6L, index.getEntry("1").getLength());
+        assertEquals(1L, index.getEntry("2").getLength());
+    }
+
+    @Test
+    public void testBuildEmpty() throws Exception {
+        assertTrue(build("").getEntries().isEmpty());
+    }
+
+    @Test(expected=IOException.class)
+    public void testBuildDifferentLineLengths() throws Exception {
+        build(">1\nACGT\nAC\nACGT\n");
+    }
+
+    @Test(expected=IOException.class)
+    public void testBuildLongerLine() throws Exception {
+        build(">1\nACGT\nACGTA\n");
+    }
+
+    @Test(expected=IOException.class)
+    public void testBuildSequenceBeforeHeader() throws Exception {
+        build("ACGT\n>1\nACGT\n");
+    }
+
+    @Test(expected=IOException.class)
+    public void testBuildMissingName() throws Exception {
+        build(">\nACGT\n");
+    }
+
+    @Test(expected=IOException.class)
+    public void testBuildDuplicateName() throws Exception {
+        build(">1\nACGT\n>1\nACGT\n");
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        FastaIndex index = build(">1 description\nACGT\nACGT\nAC\n>2\nAAAAA\n");
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter writer = new PrintWriter(stringWriter);
+        index.write(writer);
+        writer.close();
+        assertEquals(index.getEntries(), FastaIndex.read(new BufferedReader(new StringReader(stringWriter.toString()))).getEntries());
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadInvalidLine() throws Exception {
+        FastaIndex.read(new BufferedReader(new StringReader("1\t10\t3\n")));
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadInvalidNumber() throws Exception {
+        FastaIndex.read(new BufferedReader(new StringReader("1\tten\t3\t4\t5\n")));
+    }
+
+    @Test
+    public void testBuildWriteReadFile() throws Exception {
+        File fastaFile = File.createTempFile("fastaIndexTest", ".fa");
+        File indexFile = FastaIndex.indexFile(fastaFile);
+        try {
+            Files.write(">1\nACGT\nACGT\nAC\n>2\nAAAAA\n", fastaFile, StandardCharsets.US_ASCII);
+            FastaIndex index = FastaIndex.build(fastaFile);
+            index.write(indexFile);
+            List<String> lines = Files.readLines(indexFile, StandardCharsets.US_ASCII);
+            assertEquals(ImmutableList.of("1\t10\t3\t4\t5", "2\t5\t19\t5\t6"), lines);
+            assertEquals(index.getEntries(), FastaIndex.read(indexFile).getEntries());
+        }
+        finally {
+            fastaFile.delete();
+            indexFile.delete();
+        }
+    }
+
+    @Test
+    public void testIndexFile() {
+        assertEquals("ref.fa.fai", FastaIndex.indexFile(new File("ref.fa")).getName());
+    }
+}
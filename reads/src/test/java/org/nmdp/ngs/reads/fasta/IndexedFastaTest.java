@@ -0,0 +1,144 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fasta;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.collect.ImmutableList;
+
+import com.google.common.io.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for IndexedFasta.
+ */
+public final class IndexedFastaTest {
+    private File fastaFile;
+    private IndexedFasta fasta;
+
+    @Before
+    public void setUp() throws IOException {
+        fastaFile = File.createTempFile("indexedFastaTest", ".fa");
+        Files.write(">1 description\nACGTA\nCCGGT\nTT\n>2\nNNNNN\nacgt\n", fastaFile, StandardCharsets.US_ASCII);
+        fasta = IndexedFasta.open(fastaFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        fasta.close();
+        fastaFile.delete();
+        FastaIndex.indexFile(fastaFile).delete();
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testOpenNullFastaFile() throws Exception {
+        IndexedFasta.open(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testOpenNullIndex() throws Exception {
+        IndexedFasta.open(fastaFile, null);
+    }
+
+    @Test(expected=IOException.class)
+    public void testOpenIndexPastEnd() throws Exception {
+        IndexedFasta.open(fastaFile, new FastaIndex(ImmutableList.of(new FastaIndex.Entry("1", 1000L, 15L, 5, 6))));
+    }
+
+    @Test
+    public void testOpenWithIndexFile() throws Exception {
+        FastaIndex.build(fastaFile).write(FastaIndex.indexFile(fastaFile));
+        try (IndexedFasta indexed = IndexedFasta.open(fastaFile)) {
+            assertEquals(fasta.getIndex().getEntries(), indexed.getIndex().getEntries());
+        }
+    }
+
+    @Test
+    public void testNames() {
+        assertEquals(ImmutableList.of("1", "2"), fasta.getNames());
+    }
+
+    @Test
+    public void testLength() {
+        assertEquals(12L, fasta.getLength("1"));
+        assertEquals(9L, fasta.getLength("2"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testLengthMissingName() {
+        fasta.getLength("3");
+    }
+
+    @Test
+    public void testSequence() {
+        assertEquals("ACGTACCGGTTT", fasta.sequence("1").toString());
+        assertEquals("NNNNNacgt", fasta.sequence("2").toString());
+    }
+
+    @Test
+    public void testSubsequence() {
+        CharSequence subsequence = fasta.subsequence("1", 3L, 11L);
+        assertEquals(8, subsequence.length());
+        assertEquals('T', subsequence.charAt(0));
+        assertEquals('C', subsequence.charAt(2));
+        assertEquals('T', subsequence.charAt(7));
+        assertEquals("TACCGGTT", subsequence.toString());
+        assertEquals("CCG", subsequence.subSequence(2, 5).toString());
+        assertEquals("", fasta.subsequence("1", 12L, 12L).toString());
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testSubsequenceOutOfBounds() {
+        fasta.subsequence("1", 3L, 13L);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testSubsequenceNegativeStart() {
+        fasta.subsequence("1", -1L, 3L);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testSubsequenceCharAtOutOfBounds() {
+        fasta.subsequence("1", 3L, 5L).charAt(2);
+    }
+
+    @Test
+    public void testBytes() {
+        assertArrayEquals("GTACCGGTTT".getBytes(StandardCharsets.US_ASCII), fasta.bytes("1", 2L, 12L));
+        assertArrayEquals("Nac".getBytes(StandardCharsets.US_ASCII), fasta.bytes("2", 4L, 7L));
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testBytesOutOfBounds() {
+        fasta.bytes("2", 4L, 10L);
+    }
+}
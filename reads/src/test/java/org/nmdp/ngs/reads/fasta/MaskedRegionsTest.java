@@ -0,0 +1,252 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fasta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import static org.nmdp.ngs.reads.fasta.MaskedRegions.allMasked;
+import static org.nmdp.ngs.reads.fasta.MaskedRegions.containsMasked;
+import static org.nmdp.ngs.reads.fasta.MaskedRegions.isMasked;
+import static org.nmdp.ngs.reads.fasta.MaskedRegions.scan;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.io.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for MaskedRegions.
+ */
+public final class MaskedRegionsTest {
+    private File fastaFile;
+    private List<String> regions;
+    private MaskedRegionListener listener;
+    private static final String FASTA = ">1 description\nNNACGTACGTNN\nNACGTnnnnA\n>2\nACGT\n>3\nNNNNNNNNNNNN\nNNNNNNNNNNNN\nNN\n>4\nACGTACGTACGTACGTN\n";
+    private static final String EXPECTED = "[1:0-2, 1:10-13, 1:17-21, 3:0-26, 4:16-17]";
+
+    @Before
+    public void setUp() throws IOException {
+        fastaFile = File.createTempFile("maskedRegionsTest", ".fa");
+        regions = new ArrayList<String>();
+        listener = new MaskedRegionListener() {
+                @Override
+                public void maskedRegion(final String name, final long start, final long end) {
+                    regions.add(name + ":" + start + "-" + end);
+                }
+            };
+    }
+
+    @After
+    public void tearDown() {
+        fastaFile.delete();
+    }
+
+    private static InputStream inputStream(final String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long word(final String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.US_ASCII)).getLong();
+    }
+
+    @Test
+    public void testIsMasked() {
+        assertTrue(isMasked((byte) 'N'));
+        assertTrue(isMasked((byte) 'n'));
+        assertFalse(isMasked((byte) 'A'));
+        assertFalse(isMasked((byte) '\n'));
+        assertFalse(isMasked((byte) 0xce));
+    }
+
+    @Test
+    public void testContainsMasked() {
+        assertFalse(containsMasked(word("ACGTACGT")));
+        assertFalse(containsMasked(word("acgtacgt")));
+        assertTrue(containsMasked(word("NCGTACGT")));
+        assertTrue(containsMasked(word("ACGTACGn")));
+        assertTrue(containsMasked(word("NNNNNNNN")));
+        assertFalse(containsMasked(word("MOmoOOOO")));
+    }
+
+    @Test
+    public void testAllMasked() {
+        assertTrue(allMasked(word("NNNNNNNN")));
+        assertTrue(allMasked(word("nnnnNNNN")));
+        assertFalse(allMasked(word("NNNNNNNA")));
+        assertFalse(allMasked(word("ACGTACGT")));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testScanNullInputStream() throws IOException {
+        scan((InputStream) null, listener);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testScanInputStreamNullListener() throws IOException {
+        scan(inputStream(FASTA), null);
+    }
+
+    @Test
+    public void testScanInputStream() throws IOException {
+        scan(inputStream(FASTA), listener);
+        assertEquals(EXPECTED, regions.toString());
+    }
+
+    @Test
+    public void testScanInputStreamCrLf() throws IOException {
+        scan(inputStream(FASTA.replace("\n", "\r\n")), listener);
+        assertEquals(EXPECTED, regions.toString());
+    }
+
+    @Test
+    public void testScanInputStreamEmpty() throws IOException {
+        scan(inputStream(""), listener);
+        assertTrue(regions.isEmpty());
+    }
+
+    @Test(expected=IOException.class)
+    public void testScanInputStreamMissingHeader() throws IOException {
+        scan(inputStream("NNNN\n>1\nACGT\n"), listener);
+    }
+
+    @Test
+    public void testScanInputStreamWithoutTrailingNewline() throws IOException {
+        scan(inputStream(">1\nACNN"), listener);
+        assertEquals("[1:2-4]", regions.toString());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testScanNullIndexedFasta() {
+        scan((IndexedFasta) null, listener);
+    }
+
+    @Test
+    public void testScanIndexedFasta() throws IOException {
+        Files.write(FASTA, fastaFile, StandardCharsets.US_ASCII);
+        try (IndexedFasta fasta = IndexedFasta.open(fastaFile)) {
+            scan(fasta, listener);
+        }
+        assertEquals(EXPECTED, regions.toString());
+    }
+
+    @Test
+    public void testScanIndexedFastaName() throws IOException {
+        Files.write(FASTA, fastaFile, StandardCharsets.US_ASCII);
+        try (IndexedFasta fasta = IndexedFasta.open(fastaFile)) {
+            scan(fasta, "3", listener);
+        }
+        assertEquals("[3:0-26]", regions.toString());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testScanIndexedFastaMissingName() throws IOException {
+        Files.write(FASTA, fastaFile, StandardCharsets.US_ASCII);
+        try (IndexedFasta fasta = IndexedFasta.open(fastaFile)) {
+            scan(fasta, "missing", listener);
+        }
+    }
+
+    @Test
+    public void testScanIndexedFastaAcrossChunks() throws IOException {
+        writeMasked(fastaFile, MaskedRegions.CHUNK_SIZE * 2 + 17, new Random(42L));
+        List<String> streamed = new ArrayList<String>();
+        try (InputStream inputStream = new FileInputStream(fastaFile)) {
+            scan(inputStream, listener);
+        }
+        streamed.addAll(regions);
+        regions.clear();
+        try (IndexedFasta fasta = IndexedFasta.open(fastaFile)) {
+            scan(fasta, listener);
+        }
+        assertFalse(regions.isEmpty());
+        assertEquals(streamed, regions);
+    }
+
+
+    // methods for benchmarking, streaming scan vs memory-mapped word-at-a-time scan
+    private static final int M = 5;
+    private static final int N = 8 * 1024 * 1024;
+
+    private static void writeMasked(final File file, final int length, final Random random) throws IOException {
+        StringBuilder sb = new StringBuilder(length + length / 60 + 16);
+        sb.append(">1\n");
+        int column = 0;
+        boolean masked = true;
+        int run = 0;
+        for (int i = 0; i < length; i++) {
+            if (run == 0) {
+                masked = !masked;
+                run = 1 + random.nextInt(masked ? 2000 : 20000);
+            }
+            sb.append(masked ? 'N' : "ACGT".charAt(random.nextInt(4)));
+            run--;
+            if (++column == 60) {
+                sb.append('\n');
+                column = 0;
+            }
+        }
+        sb.append('\n');
+        Files.write(sb.toString(), file, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testStreamingScan() throws IOException {
+        writeMasked(fastaFile, N, new Random(42L));
+        for (int m = 0; m < M; m++) {
+            regions.clear();
+            try (InputStream inputStream = new FileInputStream(fastaFile)) {
+                scan(inputStream, listener);
+            }
+            assertFalse(regions.isEmpty());
+        }
+    }
+
+    @Test
+    public void testMemoryMappedScan() throws IOException {
+        writeMasked(fastaFile, N, new Random(42L));
+        try (IndexedFasta fasta = IndexedFasta.open(fastaFile)) {
+            for (int m = 0; m < M; m++) {
+                regions.clear();
+                scan(fasta, listener);
+                assertFalse(regions.isEmpty());
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fastq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for FastqRecordReader.
+ */
+public final class FastqRecordReaderTest {
+    private FastqRecord record;
+
+    @Before
+    public void setUp() {
+        record = new FastqRecord();
+    }
+
+    private static InputStream inputStream(final String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullInputStream() {
+        new FastqRecordReader(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidBufferSize() {
+        new FastqRecordReader(inputStream(""), 0);
+    }
+
+    @Test
+    public void testConstructor() {
+        assertNotNull(new FastqRecordReader(inputStream("")));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNextNullRecord() throws IOException {
+        new FastqRecordReader(inputStream("")).next(null);
+    }
+
+    @Test
+    public void testNextEmpty() throws IOException {
+        assertFalse(new FastqRecordReader(inputStream("")).next(record));
+    }
+
+    @Test
+    public void testNext() throws IOException {
+        FastqRecordReader reader = new FastqRecordReader(inputStream("@read/1\nacgt\n+\nIIII\n@read/2\naa\n+read/2\n##\n"));
+        assertTrue(reader.next(record));
+        assertEquals("read/1", record.description());
+        assertEquals("acgt", record.sequence());
+        assertEquals("IIII", record.quality());
+        assertTrue(reader.next(record));
+        assertEquals("read/2", record.description());
+        assertEquals("aa", record.sequence());
+        assertEquals("##", record.quality());
+        assertEquals("@read/2\naa\n+read/2\n##\n", record.toString());
+        assertFalse(reader.next(record));
+    }
+
+    @Test
+    public void testNextCarriageReturnsAndBlankLines() throws IOException {
+        FastqRecordReader reader = new FastqRecordReader(inputStream("\r\n@read/1\r\nacgt\r\n+\r\nIIII\r\n\r\n"));
+        assertTrue(reader.next(record));
+        assertEquals("read/1", record.description());
+        assertEquals("acgt", record.sequence());
+        assertEquals("IIII", record.quality());
+        assertFalse(reader.next(record));
+    }
+
+    @Test
+    public void testNextNoFinalLineTerminator() throws IOException {
+        FastqRecordReader reader = new FastqRecordReader(inputStream("@read/1\nacgt\n+\nIIII"));
+        assertTrue(reader.next(record));
+        assertEquals("IIII", record.quality());
+        assertFalse(reader.next(record));
+    }
+
+    @Test
+    public void testNextSmallBuffer() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("@read/" + i + "\nacgtacgtacgt\n+\nIIIIIIIIIIII\n");
+        }
+        FastqRecordReader reader = new FastqRecordReader(inputStream(sb.toString()), 3);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(reader.next(record));
+            assertEquals("read/" + i, record.description());
+            assertEquals("acgtacgtacgt", record.sequence());
+        }
+        assertFalse(reader.next(record));
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        FastqRecordReader reader = new FastqRecordReader(inputStream("@read/1\nacgt\n+\nIIII\n\n@read/2\naa\n+\n##\n"));
+        assertTrue(reader.skip());
+        assertTrue(reader.next(record));
+        assertEquals("read/2", record.description());
+        assertFalse(reader.skip());
+    }
+
+    @Test(expected=IOException.class)
+    public void testSkipTruncated() throws IOException {
+        new FastqRecordReader(inputStream("@read/1\nacgt\n")).skip();
+    }
+
+    @Test(expected=IOException.class)
+    public void testNextMissingAt() throws IOException {
+        new FastqRecordReader(inputStream("read/1\nacgt\n+\nIIII\n")).next(record);
+    }
+
+    @Test(expected=IOException.class)
+    public void testNextMissingPlus() throws IOException {
+        new FastqRecordReader(inputStream("@read/1\nacgt\n-\nIIII\n")).next(record);
+    }
+
+    @Test(expected=IOException.class)
+    public void testNextDifferentLengths() throws IOException {
+        new FastqRecordReader(inputStream("@read/1\nacgt\n+\nIII\n")).next(record);
+    }
+
+    @Test
+    public void testNextHighBitDescription() throws IOException {
+        FastqRecordReader reader = new FastqRecordReader(new ByteArrayInputStream("@r\u00e9ad/1\nacgt\n+\nIIII\n".getBytes(StandardCharsets.ISO_8859_1)));
+        assertTrue(reader.next(record));
+        assertEquals("r\u00e9ad/1", record.description());
+        assertEquals("@r\u00e9ad/1\nacgt\n+\nIIII\n", record.toString());
+    }
+
+    @Test
+    public void testNextHighBitDescriptionInError() throws IOException {
+        FastqRecordReader reader = new FastqRecordReader(new ByteArrayInputStream("@r\u00e9ad/1\nacgt\n+\nIII\n".getBytes(StandardCharsets.ISO_8859_1)));
+        try {
+            reader.next(record);
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage().contains("r\u00e9ad/1"));
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testNextTruncated() throws IOException {
+        new FastqRecordReader(inputStream("@read/1\nacgt\n")).next(record);
+    }
+
+    @Test
+    public void testNextMultiLine() throws IOException {
+        try {
+            new FastqRecordReader(inputStream("@read/1\nacgt\nacgt\n+\nIIII\nIIII\n")).next(record);
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage().contains("read/1"));
+            assertTrue(e.getMessage().contains("multi-line"));
+        }
+    }
+}
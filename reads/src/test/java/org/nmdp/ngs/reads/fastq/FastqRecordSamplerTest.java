@@ -0,0 +1,230 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fastq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.distribution.BinomialDistribution;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for FastqRecordSampler.
+ */
+public final class FastqRecordSamplerTest {
+    private RandomGenerator random;
+    private ByteArrayOutputStream outputStream;
+    private FastqRecordWriter writer;
+
+    @Before
+    public void setUp() {
+        random = new MersenneTwister(42L);
+        outputStream = new ByteArrayOutputStream();
+        writer = new FastqRecordWriter(outputStream);
+    }
+
+    private static FastqRecordReader createReader(final int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("@read" + i + "\nacgt\n+\nIIII\n");
+        }
+        return new FastqRecordReader(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private List<Integer> written() throws IOException {
+        writer.close();
+        List<Integer> indices = new ArrayList<Integer>();
+        FastqRecordReader reader = new FastqRecordReader(new ByteArrayInputStream(outputStream.toByteArray()));
+        FastqRecord record = new FastqRecord();
+        while (reader.next(record)) {
+            indices.add(Integer.valueOf(record.description().substring(4)));
+        }
+        return indices;
+    }
+
+    private static void assertIncreasing(final List<Integer> indices) {
+        for (int i = 1; i < indices.size(); i++) {
+            assertTrue(indices.get(i - 1) < indices.get(i));
+        }
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testCountNullReader() throws IOException {
+        FastqRecordSampler.count(null, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCountInvalidRecordsPerUnit() throws IOException {
+        FastqRecordSampler.count(createReader(10), 0);
+    }
+
+    @Test
+    public void testCount() throws IOException {
+        assertEquals(0L, FastqRecordSampler.count(createReader(0), 1));
+        assertEquals(10L, FastqRecordSampler.count(createReader(10), 1));
+        assertEquals(5L, FastqRecordSampler.count(createReader(10), 2));
+    }
+
+    @Test(expected=IOException.class)
+    public void testCountIncompleteUnit() throws IOException {
+        FastqRecordSampler.count(createReader(9), 2);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSelectTotalLessThanCount() throws IOException {
+        FastqRecordSampler.select(createReader(10), writer, random, 10L, 9L, 1);
+    }
+
+    @Test
+    public void testSelect() throws IOException {
+        assertEquals(30L, FastqRecordSampler.select(createReader(100), writer, random, 30L, 100L, 1));
+        List<Integer> indices = written();
+        assertEquals(30, indices.size());
+        assertIncreasing(indices);
+    }
+
+    @Test
+    public void testSelectAll() throws IOException {
+        assertEquals(100L, FastqRecordSampler.select(createReader(100), writer, random, 100L, 100L, 1));
+        assertEquals(100, written().size());
+    }
+
+    @Test
+    public void testSelectTotalTooLarge() throws IOException {
+        assertEquals(10L, FastqRecordSampler.select(createReader(10), writer, random, 20L, 20L, 1));
+    }
+
+    @Test
+    public void testSelectPairs() throws IOException {
+        assertEquals(10L, FastqRecordSampler.select(createReader(100), writer, random, 10L, 50L, 2));
+        List<Integer> indices = written();
+        assertEquals(20, indices.size());
+        for (int i = 0; i < indices.size(); i += 2) {
+            assertEquals(0, indices.get(i) % 2);
+            assertEquals(indices.get(i) + 1, (int) indices.get(i + 1));
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBernoulliInvalidProbability() throws IOException {
+        FastqRecordSampler.bernoulli(createReader(10), writer, random, 1.5d, 1);
+    }
+
+    @Test
+    public void testBernoulli() throws IOException {
+        long selected = FastqRecordSampler.bernoulli(createReader(1000), writer, random, 0.3d, 1);
+        List<Integer> indices = written();
+        assertEquals(selected, indices.size());
+        assertTrue(selected > 240L && selected < 360L);
+        assertIncreasing(indices);
+    }
+
+    @Test
+    public void testBernoulliNoneAll() throws IOException {
+        assertEquals(0L, FastqRecordSampler.bernoulli(createReader(100), writer, random, 0.0d, 1));
+        assertEquals(100L, FastqRecordSampler.bernoulli(createReader(100), writer, random, 1.0d, 1));
+        assertEquals(100, written().size());
+    }
+
+    @Test
+    public void testBernoulliPairs() throws IOException {
+        long selected = FastqRecordSampler.bernoulli(createReader(1000), writer, random, 0.5d, 2);
+        List<Integer> indices = written();
+        assertEquals(2L * selected, indices.size());
+        for (int i = 0; i < indices.size(); i += 2) {
+            assertEquals(0, indices.get(i) % 2);
+            assertEquals(indices.get(i) + 1, (int) indices.get(i + 1));
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testBernoulliIncompleteUnit() throws IOException {
+        FastqRecordSampler.bernoulli(createReader(9), writer, random, 0.5d, 2);
+    }
+
+    @Test
+    public void testSample() throws IOException {
+        assertEquals(0L, FastqRecordSampler.sample(createReader(100), writer, new BinomialDistribution(random, 1, 0.0d), 1));
+        assertEquals(100L, FastqRecordSampler.sample(createReader(100), writer, new BinomialDistribution(random, 1, 1.0d), 1));
+        assertEquals(100, written().size());
+    }
+
+    @Test
+    public void testReservoir() throws IOException {
+        assertEquals(30, FastqRecordSampler.reservoir(createReader(1000), writer, random, 30, 1));
+        List<Integer> indices = written();
+        assertEquals(30, indices.size());
+        assertIncreasing(indices);
+    }
+
+    @Test
+    public void testReservoirZero() throws IOException {
+        assertEquals(0, FastqRecordSampler.reservoir(createReader(10), writer, random, 0, 1));
+        assertEquals(0, written().size());
+    }
+
+    @Test
+    public void testReservoirFewerThanCount() throws IOException {
+        assertEquals(10, FastqRecordSampler.reservoir(createReader(10), writer, random, 20, 1));
+        assertEquals(10, written().size());
+    }
+
+    @Test
+    public void testReservoirPairs() throws IOException {
+        assertEquals(10, FastqRecordSampler.reservoir(createReader(1000), writer, random, 10, 2));
+        List<Integer> indices = written();
+        assertEquals(20, indices.size());
+        assertIncreasing(indices);
+        for (int i = 0; i < indices.size(); i += 2) {
+            assertEquals(0, indices.get(i) % 2);
+        }
+    }
+
+    @Test
+    public void testReservoirUniform() throws IOException {
+        int[] counts = new int[10];
+        for (int i = 0; i < 2000; i++) {
+            outputStream.reset();
+            writer = new FastqRecordWriter(outputStream);
+            FastqRecordSampler.reservoir(createReader(10), writer, random, 1, 1);
+            counts[written().get(0)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 120 && count < 280);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fastq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.biojava.bio.program.fastq.Fastq;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for FastqRecord.
+ */
+public final class FastqRecordTest {
+    private FastqRecord record;
+
+    @Before
+    public void setUp() {
+        record = new FastqRecord();
+    }
+
+    @Test
+    public void testConstructor() {
+        assertNotNull(record);
+        assertEquals("", record.description());
+        assertEquals("", record.sequence());
+        assertEquals("", record.quality());
+        assertEquals(0, record.length());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSetDescriptionNull() {
+        record.setDescription(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSetSequenceNull() {
+        record.setSequence(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSetQualityNull() {
+        record.setQuality(null);
+    }
+
+    @Test
+    public void testSet() {
+        assertSame(record, record.set("read/1", "acgt", "IIII"));
+        assertEquals("read/1", record.description());
+        assertEquals("acgt", record.sequence());
+        assertEquals("IIII", record.quality());
+        assertEquals(6, record.descriptionLength());
+        assertEquals(4, record.length());
+        assertEquals((byte) 'g', record.sequenceAt(2));
+        assertEquals((byte) 'I', record.qualityAt(3));
+        assertEquals("@read/1\nacgt\n+\nIIII\n", record.toString());
+    }
+
+    @Test
+    public void testSetFields() {
+        record.set("read/1", "acgt", "IIII");
+        record.setDescription("read/2");
+        assertEquals("@read/2\nacgt\n+\nIIII\n", record.toString());
+        record.setSequence("tt");
+        record.setQuality("##");
+        assertEquals("@read/2\ntt\n+\n##\n", record.toString());
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testSequenceAtOutOfBounds() {
+        record.set("read/1", "acgt", "IIII").sequenceAt(4);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testQualityAtOutOfBounds() {
+        record.set("read/1", "acgt", "IIII").qualityAt(-1);
+    }
+
+    @Test
+    public void testCopy() {
+        record.set("read/1", "acgt", "IIII");
+        FastqRecord copy = record.copy();
+        assertNotSame(record, copy);
+        assertEquals(record.toString(), copy.toString());
+        record.setSequence("tttt");
+        assertEquals("acgt", copy.sequence());
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        record.set("read/1", "acgt", "IIII");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        record.writeDescription(outputStream);
+        record.writeSequence(outputStream);
+        record.writeQuality(outputStream);
+        assertEquals("read/1acgtIIII", outputStream.toString("US-ASCII"));
+    }
+
+    @Test
+    public void testToFastq() {
+        Fastq fastq = record.set("read/1", "acgt", "IIII").toFastq();
+        assertEquals("read/1", fastq.getDescription());
+        assertEquals("acgt", fastq.getSequence());
+        assertEquals("IIII", fastq.getQuality());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.fastq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for FastqRecordWriter.
+ */
+public final class FastqRecordWriterTest {
+    private FastqRecord record;
+    private ByteArrayOutputStream outputStream;
+
+    @Before
+    public void setUp() {
+        record = new FastqRecord();
+        outputStream = new ByteArrayOutputStream();
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullOutputStream() {
+        new FastqRecordWriter(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidBufferSize() {
+        new FastqRecordWriter(outputStream, 0);
+    }
+
+    @Test
+    public void testConstructor() {
+        assertNotNull(new FastqRecordWriter(outputStream));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testWriteNullRecord() throws IOException {
+        new FastqRecordWriter(outputStream).write(null);
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        FastqRecordWriter writer = new FastqRecordWriter(outputStream);
+        writer.write(record.set("read/1", "acgt", "IIII"));
+        writer.close();
+        assertEquals("@read/1\nacgt\n+\nIIII\n", outputStream.toString("US-ASCII"));
+    }
+
+    @Test
+    public void testWritePassThrough() throws IOException {
+        String value = "@read/1\r\nacgt\r\n+read/1\r\nIIII\r\n@read/2\naa\n+\n##";
+        FastqRecordReader reader = new FastqRecordReader(new ByteArrayInputStream(value.getBytes(StandardCharsets.US_ASCII)));
+        FastqRecordWriter writer = new FastqRecordWriter(outputStream);
+        while (reader.next(record)) {
+            writer.write(record);
+        }
+        writer.close();
+        assertEquals(value + "\n", outputStream.toString("US-ASCII"));
+    }
+
+    @Test
+    public void testWriteModified() throws IOException {
+        String value = "@read/1\nacgt\n+read/1\nIIII\n";
+        FastqRecordReader reader = new FastqRecordReader(new ByteArrayInputStream(value.getBytes(StandardCharsets.US_ASCII)));
+        FastqRecordWriter writer = new FastqRecordWriter(outputStream);
+        while (reader.next(record)) {
+            writer.write(record.setDescription("read/2"));
+        }
+        writer.close();
+        assertEquals("@read/2\nacgt\n+\nIIII\n", outputStream.toString("US-ASCII"));
+    }
+}
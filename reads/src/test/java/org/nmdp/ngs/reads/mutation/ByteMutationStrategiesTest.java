@@ -0,0 +1,250 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.mutation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static org.nmdp.ngs.reads.mutation.ByteMutationStrategies.asByteMutationStrategy;
+import static org.nmdp.ngs.reads.mutation.ByteMutationStrategies.asMutationStrategy;
+
+import java.util.Iterator;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import org.biojava.bio.seq.DNATools;
+
+import org.biojava.bio.symbol.Symbol;
+import org.biojava.bio.symbol.SymbolList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.nmdp.ngs.reads.ByteMutationStrategy;
+import org.nmdp.ngs.reads.MutationStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
+
+/**
+ * Unit test for ByteMutationStrategies.
+ */
+public final class ByteMutationStrategiesTest {
+    private ReadBuffer read;
+    private MutationStrategy symbolOnly;
+    private ByteMutationStrategy byteOnly;
+
+    @Before
+    public void setUp() {
+        read = new ReadBuffer();
+        symbolOnly = new MutationStrategy() {
+            @Override
+            public SymbolList mutate(final Symbol symbol) {
+                return new AmbiguousSubstitutionMutationStrategy().mutate(symbol);
+            }
+        };
+        byteOnly = new ByteMutationStrategy() {
+            @Override
+            public void mutate(final byte base, final ReadBuffer read) {
+                read.append((byte) 'n');
+            }
+        };
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAsByteMutationStrategyNull() {
+        asByteMutationStrategy(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAsMutationStrategyNull() {
+        asMutationStrategy(null);
+    }
+
+    @Test
+    public void testAsByteMutationStrategyAlreadyByteMutationStrategy() {
+        MutationStrategy identity = new IdentityMutationStrategy();
+        assertSame(identity, asByteMutationStrategy(identity));
+    }
+
+    @Test
+    public void testAsMutationStrategyAlreadyMutationStrategy() {
+        ByteMutationStrategy identity = new IdentityMutationStrategy();
+        assertSame(identity, asMutationStrategy(identity));
+    }
+
+    @Test
+    public void testAsByteMutationStrategy() {
+        asByteMutationStrategy(symbolOnly).mutate((byte) 'a', read);
+        assertEquals("n", read.toString());
+    }
+
+    @Test
+    public void testAsMutationStrategy() throws Exception {
+        SymbolList mutated = asMutationStrategy(byteOnly).mutate(DNATools.a());
+        assertEquals(1, mutated.length());
+        assertEquals(DNATools.n(), mutated.symbolAt(1));
+    }
+
+    @Test
+    public void testIdentity() {
+        new IdentityMutationStrategy().mutate((byte) 'c', read);
+        assertEquals("c", read.toString());
+    }
+
+    @Test
+    public void testDeletion() {
+        new DeletionMutationStrategy().mutate((byte) 'c', read);
+        assertEquals(0, read.length());
+    }
+
+    @Test
+    public void testAmbiguousSubstitution() {
+        new AmbiguousSubstitutionMutationStrategy().mutate((byte) 'c', read);
+        assertEquals("n", read.toString());
+    }
+
+    @Test
+    public void testSubstitution() {
+        new SubstitutionMutationStrategy(new MersenneTwister()).mutate((byte) 'c', read);
+        assertEquals(1, read.length());
+        assertTrue("acgt".indexOf(read.charAt(0)) >= 0);
+    }
+
+    @Test
+    public void testInsertion() {
+        new InsertionMutationStrategy(new MersenneTwister(), 0.1d, 8).mutate((byte) 'c', read);
+        assertTrue(read.length() >= 1);
+        assertTrue(read.length() <= 8);
+        assertEquals('c', read.charAt(0));
+    }
+
+    @Test
+    public void testSubstitutionMatchesSymbolPath() throws Exception {
+        SymbolList expected = new SubstitutionMutationStrategy(new MersenneTwister(42L)).mutate(DNATools.c());
+        new SubstitutionMutationStrategy(new MersenneTwister(42L)).mutate((byte) 'c', read);
+        assertEquals(expected.seqString(), read.toString());
+    }
+
+    @Test
+    public void testInsertionMatchesSymbolPath() throws Exception {
+        SymbolList expected = new InsertionMutationStrategy(new MersenneTwister(42L), 0.1d, 8).mutate(DNATools.c());
+        new InsertionMutationStrategy(new MersenneTwister(42L), 0.1d, 8).mutate((byte) 'c', read);
+        assertEquals(expected.seqString(), read.toString());
+    }
+
+    @Test
+    public void testCompositeMatchesSymbolPath() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        MutationStrategy symbolComposite = createComposite(new MersenneTwister(42L));
+        for (int i = 0; i < 100; i++) {
+            expected.append(symbolComposite.mutate(DNATools.c()).seqString());
+        }
+        ByteMutationStrategy byteComposite = createComposite(new MersenneTwister(42L));
+        for (int i = 0; i < 100; i++) {
+            byteComposite.mutate((byte) 'c', read);
+        }
+        assertEquals(expected.toString(), read.toString());
+    }
+
+    private static CompositeMutationStrategy createComposite(final RandomGenerator random) {
+        InsertionMutationStrategy insertion = new InsertionMutationStrategy(random, 0.5d, 4);
+        IndelMutationStrategy indel = new IndelMutationStrategy(random, insertion, 0.5d, new DeletionMutationStrategy(), 0.5d);
+        return new CompositeMutationStrategy(random, new SubstitutionMutationStrategy(random), 0.4d, indel, 0.4d, new AmbiguousSubstitutionMutationStrategy(), 0.2d);
+    }
+
+
+    // methods for benchmarking, symbol-based path vs byte-based path
+    private static final int M = 10;
+    private static final double MUTATION_RATE = 0.1d;
+
+    private static String createReference(final int length) {
+        StringBuilder sb = new StringBuilder(length);
+        RandomGenerator random = new MersenneTwister(42L);
+        for (int i = 0; i < length; i++) {
+            sb.append("acgt".charAt(random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+
+    private static void mutateSymbols(final String reference) throws Exception {
+        RandomGenerator random = new MersenneTwister(42L);
+        MutationStrategy mutation = createComposite(random);
+        SymbolList symbols = DNATools.createDNA(reference);
+        for (int m = 0; m < M; m++) {
+            StringBuilder sequence = new StringBuilder();
+            for (Iterator<Symbol> i = symbols.iterator(); i.hasNext(); ) {
+                Symbol symbol = i.next();
+                if (random.nextDouble() < MUTATION_RATE) {
+                    for (Iterator<Symbol> j = mutation.mutate(symbol).iterator(); j.hasNext(); ) {
+                        sequence.append(DNATools.dnaToken(j.next()));
+                    }
+                }
+                else {
+                    sequence.append(DNATools.dnaToken(symbol));
+                }
+            }
+            assertNotNull(sequence.toString());
+        }
+    }
+
+    private static void mutateBytes(final String reference) {
+        RandomGenerator random = new MersenneTwister(42L);
+        ByteMutationStrategy mutation = createComposite(random);
+        byte[] bases = reference.getBytes();
+        ReadBuffer read = new ReadBuffer();
+        for (int m = 0; m < M; m++) {
+            read.clear();
+            for (int i = 0; i < bases.length; i++) {
+                if (random.nextDouble() < MUTATION_RATE) {
+                    mutation.mutate(bases[i], read);
+                }
+                else {
+                    read.append(bases[i]);
+                }
+            }
+            assertNotNull(read.toString());
+        }
+    }
+
+    @Test
+    public void testMutateSymbols150() throws Exception {
+        mutateSymbols(createReference(150));
+    }
+
+    @Test
+    public void testMutateBytes150() {
+        mutateBytes(createReference(150));
+    }
+
+    @Test
+    public void testMutateSymbols10k() throws Exception {
+        mutateSymbols(createReference(10000));
+    }
+
+    @Test
+    public void testMutateBytes10k() {
+        mutateBytes(createReference(10000));
+    }
+}
@@ -28,18 +28,28 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.isLeft;
+import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.isPair;
 import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.isRight;
 import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.prefix;
 import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.readPaired;
 import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.streamInterleaved;
+import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.streamLockStep;
 import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.streamPaired;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 
+import java.util.List;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import com.google.common.io.Files;
 
 import org.biojava.bio.program.fastq.Fastq;
 import org.biojava.bio.program.fastq.SangerFastqWriter;
@@ -94,6 +104,17 @@ public final class PairedEndFastqReaderTest {
         assertFalse(isLeft(right));
     }
 
+    @Test
+    public void testIsLeftLastMarker() {
+        Fastq fastq = Fastq.builder().withDescription("prefix 1 2").withSequence("aaaaa").withQuality("44444").build();
+        assertFalse(isLeft(fastq));
+        assertTrue(isRight(fastq));
+        assertEquals("prefix 1", prefix(fastq));
+        assertFalse(isLeft(invalidPrefix));
+        assertFalse(isRight(invalidPrefix));
+        assertFalse(isLeft(Fastq.builder().withDescription(" 1").withSequence("aaaaa").withQuality("44444").build()));
+    }
+
     @Test(expected=NullPointerException.class)
     public void testIsRightNull() {
         isRight(null);
@@ -127,6 +148,40 @@ public final class PairedEndFastqReaderTest {
         prefix(invalidPrefix);
     }
 
+    @Test(expected=NullPointerException.class)
+    public void testIsPairNullLeft() {
+        isPair(null, right);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testIsPairNullRight() {
+        isPair(left, null);
+    }
+
+    @Test
+    public void testIsPair() {
+        assertTrue(isPair(left, right));
+        assertFalse(isPair(right, left));
+        assertFalse(isPair(left, left));
+        assertFalse(isPair(left, mismatchPrefix));
+        assertFalse(isPair(invalidPrefix, right));
+        assertFalse(isPair(left, invalidPrefix));
+    }
+
+    @Test
+    public void testIsPairBackslash() {
+        assertTrue(isPair(Fastq.builder().withDescription("prefix\\1").withSequence("aaaaa").withQuality("44444").build(),
+                          Fastq.builder().withDescription("prefix\\2").withSequence("aaaaa").withQuality("44444").build()));
+    }
+
+    @Test
+    public void testIsPairIllumina() {
+        assertTrue(isPair(Fastq.builder().withDescription("M00001:1:000000000-A1B2C:1:1101:15589:1331 1:N:0:1").withSequence("aaaaa").withQuality("44444").build(),
+                          Fastq.builder().withDescription("M00001:1:000000000-A1B2C:1:1101:15589:1331 2:N:0:1").withSequence("aaaaa").withQuality("44444").build()));
+        assertFalse(isPair(Fastq.builder().withDescription("M00001:1:000000000-A1B2C:1:1101:15589:1331 1:N:0:1").withSequence("aaaaa").withQuality("44444").build(),
+                           Fastq.builder().withDescription("M00001:1:000000000-A1B2C:1:1101:15589:1332 2:N:0:1").withSequence("aaaaa").withQuality("44444").build()));
+    }
+
     @Test(expected=NullPointerException.class)
     public void testReadPairedNullFirstReader() throws Exception {
         readPaired(null, secondReader, listener);
@@ -258,6 +313,297 @@ public final class PairedEndFastqReaderTest {
             });
     }
 
+    @Test(expected=NullPointerException.class)
+    public void testStreamPairedMemoryBudgetNullFirstReader() throws Exception {
+        streamPaired(null, secondReader, 1024L, null, listener);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testStreamPairedMemoryBudgetNullSecondReader() throws Exception {
+        streamPaired(firstReader, null, 1024L, null, listener);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testStreamPairedMemoryBudgetNullListener() throws Exception {
+        streamPaired(firstReader, secondReader, 1024L, null, null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testStreamPairedMemoryBudgetZero() throws Exception {
+        streamPaired(firstReader, secondReader, 0L, null, listener);
+    }
+
+    @Test
+    public void testStreamPairedMemoryBudget() throws Exception {
+        streamPaired(firstReader, secondReader, 1024L * 1024L, null, new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    assertEquals(PairedEndFastqReaderTest.this.left.getDescription(), left.getDescription());
+                    assertEquals(PairedEndFastqReaderTest.this.right.getDescription(), right.getDescription());
+                }
+
+                @Override
+                public void unpaired(final Fastq unpaired) {
+                    fail("unpaired " + unpaired);
+                }
+            });
+    }
+
+    @Test
+    public void testStreamPairedMemoryBudgetUnpaired() throws Exception {
+        streamPaired(firstReader, firstReader, 1024L * 1024L, null, new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    fail("paired " + left + " " + right);
+                }
+
+                @Override
+                public void unpaired(final Fastq unpaired) {
+                    assertEquals(PairedEndFastqReaderTest.this.left.getDescription(), left.getDescription());
+                }
+            });
+    }
+
+    @Test
+    public void testStreamPairedMemoryBudgetSpill() throws Exception {
+        File tempDirectory = Files.createTempDir();
+        final AtomicInteger paired = new AtomicInteger();
+        final AtomicInteger unpaired = new AtomicInteger();
+        try {
+            streamPaired(createReader(100, 1, false), createReader(100, 2, true), 1L, tempDirectory, new PairedEndAdapter() {
+                    @Override
+                    public void paired(final Fastq left, final Fastq right) {
+                        assertEquals(prefix(left), prefix(right));
+                        assertTrue(isLeft(left));
+                        assertTrue(isRight(right));
+                        paired.incrementAndGet();
+                    }
+
+                    @Override
+                    public void unpaired(final Fastq fastq) {
+                        unpaired.incrementAndGet();
+                    }
+                });
+
+            assertEquals(100, paired.get());
+            assertEquals(0, unpaired.get());
+            assertEquals(0, tempDirectory.listFiles().length);
+        }
+        finally {
+            tempDirectory.delete();
+        }
+    }
+
+    @Test
+    public void testStreamPairedMemoryBudgetSpillUnpaired() throws Exception {
+        final AtomicInteger paired = new AtomicInteger();
+        final AtomicInteger unpaired = new AtomicInteger();
+        streamPaired(createReader(100, 1, false), createReader(50, 2, true), 1L, null, new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    assertEquals(prefix(left), prefix(right));
+                    paired.incrementAndGet();
+                }
+
+                @Override
+                public void unpaired(final Fastq fastq) {
+                    assertTrue(isLeft(fastq));
+                    unpaired.incrementAndGet();
+                }
+            });
+
+        assertEquals(50, paired.get());
+        assertEquals(50, unpaired.get());
+    }
+
+    @Test
+    public void testStreamPairedMemoryBudgetInvalidPrefix() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new SangerFastqWriter().write(outputStream, invalidPrefix);
+        Reader invalidPrefixReader = new StringReader(outputStream.toString());
+
+        final AtomicInteger unpaired = new AtomicInteger();
+        streamPaired(firstReader, invalidPrefixReader, 1L, null, new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    fail("paired " + left + " " + right);
+                }
+
+                @Override
+                public void unpaired(final Fastq fastq) {
+                    unpaired.incrementAndGet();
+                }
+            });
+        assertEquals(2, unpaired.get());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testStreamLockStepNullFirstReader() throws Exception {
+        streamLockStep(null, secondReader, listener);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testStreamLockStepNullSecondReader() throws Exception {
+        streamLockStep(firstReader, null, listener);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testStreamLockStepNullListener() throws Exception {
+        streamLockStep(firstReader, secondReader, null);
+    }
+
+    @Test
+    public void testStreamLockStep() throws Exception {
+        streamLockStep(firstReader, secondReader, new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    assertEquals(PairedEndFastqReaderTest.this.left.getDescription(), left.getDescription());
+                    assertEquals(PairedEndFastqReaderTest.this.right.getDescription(), right.getDescription());
+                }
+
+                @Override
+                public void unpaired(final Fastq unpaired) {
+                    fail("unpaired " + unpaired);
+                }
+            });
+    }
+
+    @Test
+    public void testStreamLockStepInOrder() throws Exception {
+        final AtomicInteger paired = new AtomicInteger();
+        streamLockStep(createReader(5000, 1, false), createReader(5000, 2, false), new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    assertEquals(prefix(left), prefix(right));
+                    paired.incrementAndGet();
+                }
+
+                @Override
+                public void unpaired(final Fastq unpaired) {
+                    fail("unpaired " + unpaired);
+                }
+            });
+        assertEquals(5000, paired.get());
+    }
+
+    @Test
+    public void testStreamLockStepFallback() throws Exception {
+        final AtomicInteger paired = new AtomicInteger();
+        streamLockStep(createReader(5000, 1, false), createReader(5000, 2, true), new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    assertEquals(prefix(left), prefix(right));
+                    assertTrue(isLeft(left));
+                    assertTrue(isRight(right));
+                    paired.incrementAndGet();
+                }
+
+                @Override
+                public void unpaired(final Fastq unpaired) {
+                    fail("unpaired " + unpaired);
+                }
+            });
+        assertEquals(5000, paired.get());
+    }
+
+    @Test
+    public void testStreamLockStepUnpaired() throws Exception {
+        final AtomicInteger paired = new AtomicInteger();
+        final AtomicInteger unpaired = new AtomicInteger();
+        streamLockStep(createReader(100, 1, false), createReader(50, 2, false), new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    assertEquals(prefix(left), prefix(right));
+                    paired.incrementAndGet();
+                }
+
+                @Override
+                public void unpaired(final Fastq fastq) {
+                    assertTrue(isLeft(fastq));
+                    unpaired.incrementAndGet();
+                }
+            });
+        assertEquals(50, paired.get());
+        assertEquals(50, unpaired.get());
+    }
+
+    @Test
+    public void testStreamLockStepMismatchPrefix() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new SangerFastqWriter().write(outputStream, mismatchPrefix);
+        Reader mismatchPrefixReader = new StringReader(outputStream.toString());
+
+        streamLockStep(firstReader, mismatchPrefixReader, new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    fail("paired " + left + " " + right);
+                }
+
+                @Override
+                public void unpaired(final Fastq unpaired) {
+                    assertTrue(left.getDescription().equals(unpaired.getDescription()) ||
+                               mismatchPrefix.getDescription().equals(unpaired.getDescription()));
+                }
+            });
+    }
+
+    @Test
+    public void testStreamLockStepInvalidPrefix() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new SangerFastqWriter().write(outputStream, invalidPrefix);
+        Reader invalidPrefixReader = new StringReader(outputStream.toString());
+
+        final List<String> unpaired = Lists.newArrayList();
+        streamLockStep(firstReader, invalidPrefixReader, new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    fail("paired " + left + " " + right);
+                }
+
+                @Override
+                public void unpaired(final Fastq fastq) {
+                    unpaired.add(fastq.getDescription());
+                }
+            });
+        assertEquals(2, unpaired.size());
+        assertTrue(unpaired.contains(left.getDescription()));
+        assertTrue(unpaired.contains(invalidPrefix.getDescription()));
+    }
+
+    @Test
+    public void testStreamLockStepSameSide() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Fastq otherLeft = Fastq.builder().withDescription("prefix\\1").withSequence("aaaaa").withQuality("44444").build();
+        new SangerFastqWriter().write(outputStream, ImmutableList.of(otherLeft, right));
+        Reader sameSideReader = new StringReader(outputStream.toString());
+
+        final List<String> paired = Lists.newArrayList();
+        final List<String> unpaired = Lists.newArrayList();
+        streamLockStep(firstReader, sameSideReader, new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    paired.add(left.getDescription() + ":" + right.getDescription());
+                }
+
+                @Override
+                public void unpaired(final Fastq fastq) {
+                    unpaired.add(fastq.getDescription());
+                }
+            });
+        assertEquals(ImmutableList.of("prefix 1:prefix 2"), paired);
+        assertEquals(ImmutableList.of(otherLeft.getDescription()), unpaired);
+    }
+
+    private static Reader createReader(final int count, final int read, final boolean reverse) throws IOException {
+        List<Fastq> fastqs = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            fastqs.add(Fastq.builder().withDescription("prefix" + i + " " + read).withSequence("aaaaatttttcccccggggg").withQuality("44444222224444422222").build());
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new SangerFastqWriter().write(outputStream, reverse ? Lists.reverse(fastqs) : fastqs);
+        return new StringReader(outputStream.toString());
+    }
+
     @Test(expected=NullPointerException.class)
     public void testStreamInterleavedNullReader() throws Exception {
         streamInterleaved(null, listener);
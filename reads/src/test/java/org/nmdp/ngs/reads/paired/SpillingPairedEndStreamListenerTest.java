@@ -0,0 +1,117 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.paired;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import static org.nmdp.ngs.reads.paired.PairedEndFastqReader.prefix;
+
+import java.io.File;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.io.Files;
+
+import org.biojava.bio.program.fastq.Fastq;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for SpillingPairedEndStreamListener.
+ */
+public final class SpillingPairedEndStreamListenerTest {
+    private File tempDirectory;
+    private AtomicInteger paired;
+    private AtomicInteger unpaired;
+    private PairedEndListener listener;
+
+    @Before
+    public void setUp() {
+        tempDirectory = Files.createTempDir();
+        paired = new AtomicInteger();
+        unpaired = new AtomicInteger();
+        listener = new PairedEndAdapter() {
+                @Override
+                public void paired(final Fastq left, final Fastq right) {
+                    assertEquals(prefix(left), prefix(right));
+                    paired.incrementAndGet();
+                }
+
+                @Override
+                public void unpaired(final Fastq fastq) {
+                    unpaired.incrementAndGet();
+                }
+            };
+    }
+
+    @After
+    public void tearDown() {
+        tempDirectory.delete();
+    }
+
+    private static Fastq createFastq(final int i, final int read) {
+        return Fastq.builder().withDescription("prefix" + i + " " + read).withSequence("aaaaatttttcccccggggg").withQuality("44444222224444422222").build();
+    }
+
+    @Test
+    public void testSpillLargerThanMemoryBudget() throws Exception {
+        long memoryBudget = 8192L;
+        SpillingPairedEndStreamListener streamListener = new SpillingPairedEndStreamListener(memoryBudget, 4, tempDirectory, listener);
+        try {
+            for (int i = 0; i < 2000; i++) {
+                streamListener.fastq(createFastq(i, 1));
+            }
+            for (int i = 1999; i >= 0; i--) {
+                streamListener.fastq(createFastq(i, 2));
+            }
+            streamListener.fastq(createFastq(2000, 1));
+            streamListener.finish();
+        }
+        finally {
+            streamListener.close();
+        }
+
+        assertTrue(streamListener.spilled());
+        assertTrue(streamListener.largestPartition() > 0L);
+        assertTrue(streamListener.largestPartition() <= memoryBudget);
+        assertEquals(2000, paired.get());
+        assertEquals(1, unpaired.get());
+        assertEquals(0, tempDirectory.listFiles().length);
+    }
+
+    @Test
+    public void testPartitionLevels() {
+        int differ = 0;
+        for (int i = 0; i < 100; i++) {
+            String prefix = "prefix" + i;
+            assertTrue(SpillingPairedEndStreamListener.partition(prefix, 0, 4) < 4);
+            if (SpillingPairedEndStreamListener.partition(prefix, 0, 4) != SpillingPairedEndStreamListener.partition(prefix, 1, 4)) {
+                differ++;
+            }
+        }
+        assertTrue(differ > 0);
+    }
+}
@@ -0,0 +1,237 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.quality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static org.nmdp.ngs.reads.quality.ByteQualityStrategies.asByteQualityStrategy;
+import static org.nmdp.ngs.reads.quality.ByteQualityStrategies.encode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math3.distribution.ConstantRealDistribution;
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.distribution.RealDistribution;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import org.biojava.bio.program.fastq.FastqVariant;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.nmdp.ngs.reads.ByteQualityStrategy;
+import org.nmdp.ngs.reads.QualityStrategy;
+import org.nmdp.ngs.reads.ReadBuffer;
+
+/**
+ * Unit test for ByteQualityStrategies.
+ */
+public final class ByteQualityStrategiesTest {
+    private ReadBuffer qualities;
+    private QualityStrategy constant;
+
+    @Before
+    public void setUp() {
+        qualities = new ReadBuffer();
+        constant = new QualityStrategy() {
+            @Override
+            public double qualityScore(final int position, final int length) {
+                return 40.0d;
+            }
+        };
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAsByteQualityStrategyNull() {
+        asByteQualityStrategy(null);
+    }
+
+    @Test
+    public void testAsByteQualityStrategyAlreadyByteQualityStrategy() {
+        RealDistributionQualityStrategy quality = new RealDistributionQualityStrategy(new NormalDistribution());
+        assertSame(quality, asByteQualityStrategy(quality));
+    }
+
+    @Test
+    public void testAsByteQualityStrategy() {
+        asByteQualityStrategy(constant).qualityScores(4, qualities);
+        assertEquals("IIII", qualities.toString());
+    }
+
+    @Test
+    public void testAsByteQualityStrategyManyReads() {
+        ByteQualityStrategy quality = asByteQualityStrategy(constant);
+        quality.qualityScores(4, qualities);
+        quality.qualityScores(2, qualities);
+        assertEquals("IIIIII", qualities.toString());
+    }
+
+    @Test
+    public void testEncode() {
+        for (int i = FastqVariant.FASTQ_SANGER.minimumQualityScore(); i <= FastqVariant.FASTQ_SANGER.maximumQualityScore(); i++) {
+            assertEquals(FastqVariant.FASTQ_SANGER.quality(i), (char) encode(i + 0.5d));
+        }
+    }
+
+    @Test
+    public void testEncodeClamps() {
+        assertEquals('!', (char) encode(-10.0d));
+        assertEquals('~', (char) encode(1000.0d));
+    }
+
+    @Test
+    public void testRealDistributionQualityScores() {
+        RandomGenerator random = new MersenneTwister(42L);
+        RealDistributionQualityStrategy quality = new RealDistributionQualityStrategy(new NormalDistribution(random, 30.0d, 2.0d), random);
+        quality.qualityScores(150, qualities);
+        assertEquals(150, qualities.length());
+        for (int i = 0; i < qualities.length(); i++) {
+            assertTrue(qualities.charAt(i) >= '!');
+            assertTrue(qualities.charAt(i) <= '~');
+        }
+    }
+
+    @Test
+    public void testScoreFunctionQualityScores() {
+        RandomGenerator random = new MersenneTwister(42L);
+        ScoreFunctionQualityStrategy quality = new ScoreFunctionQualityStrategy(new NormalDistribution(random, 1.0d, 0.1d), ScoreFunctions.illumina(), random);
+        quality.qualityScores(150, qualities);
+        quality.qualityScores(100, qualities);
+        quality.qualityScores(150, qualities);
+        assertEquals(400, qualities.length());
+        // low quality scores at the start of each read per illumina score function
+        assertEquals('!', qualities.charAt(0));
+        assertEquals('!', qualities.charAt(150));
+        assertEquals('!', qualities.charAt(250));
+    }
+
+    @Test
+    public void testScoreFunctionQualityScoresConcurrent() throws Exception {
+        final ScoreFunction linear = new ScoreFunction() {
+                @Override
+                public double evaluate(final double relativePosition) {
+                    return 40.0d * relativePosition;
+                }
+            };
+        final ScoreFunctionQualityStrategy quality = new ScoreFunctionQualityStrategy(new ConstantRealDistribution(1.0d), linear);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 4; t++) {
+                final int offset = t;
+                futures.add(executorService.submit(new Callable<Boolean>() {
+                        @Override
+                        public Boolean call() {
+                            ReadBuffer buffer = new ReadBuffer();
+                            for (int i = 0; i < 2000; i++) {
+                                int length = 50 + ((i + offset) % 3);
+                                buffer.clear();
+                                quality.qualityScores(length, buffer);
+                                for (int j = 0; j < length; j++) {
+                                    if (buffer.charAt(j) != (char) encode(linear.evaluate((double) j / (double) length))) {
+                                        return false;
+                                    }
+                                }
+                            }
+                            return true;
+                        }
+                    }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        }
+        finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testScoreFunctionQualityScoresWithoutTable() {
+        ScoreFunctionQualityStrategy quality = new ScoreFunctionQualityStrategy(new NormalDistribution(1.0d, 0.1d), ScoreFunctions.illumina());
+        quality.qualityScores(150, qualities);
+        assertEquals(150, qualities.length());
+    }
+
+
+    // methods for benchmarking, per position path vs batch path
+    private static final int M = 10;
+
+    private static void perPosition(final QualityStrategy quality, final int length) {
+        FastqVariant variant = FastqVariant.FASTQ_SANGER;
+        for (int m = 0; m < M; m++) {
+            StringBuilder qualityScores = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                double qualityScore = quality.qualityScore(i, length);
+                qualityScores.append(variant.quality(Math.max(Math.min((int) qualityScore, variant.maximumQualityScore()), variant.minimumQualityScore())));
+            }
+            assertNotNull(qualityScores.toString());
+        }
+    }
+
+    private static void batch(final ByteQualityStrategy quality, final int length) {
+        ReadBuffer qualities = new ReadBuffer();
+        for (int m = 0; m < M; m++) {
+            qualities.clear();
+            quality.qualityScores(length, qualities);
+            assertNotNull(qualities.toString());
+        }
+    }
+
+    private static RealDistribution createDistribution(final RandomGenerator random) {
+        return new NormalDistribution(random, 30.0d, 2.0d);
+    }
+
+    @Test
+    public void testPerPosition150() {
+        perPosition(new RealDistributionQualityStrategy(createDistribution(new MersenneTwister(42L))), 150);
+    }
+
+    @Test
+    public void testBatch150() {
+        RandomGenerator random = new MersenneTwister(42L);
+        batch(new RealDistributionQualityStrategy(createDistribution(random), random), 150);
+    }
+
+    @Test
+    public void testPerPosition10k() {
+        perPosition(new RealDistributionQualityStrategy(createDistribution(new MersenneTwister(42L))), 10000);
+    }
+
+    @Test
+    public void testBatch10k() {
+        RandomGenerator random = new MersenneTwister(42L);
+        batch(new RealDistributionQualityStrategy(createDistribution(random), random), 10000);
+    }
+}
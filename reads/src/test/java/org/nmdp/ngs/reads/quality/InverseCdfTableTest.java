@@ -0,0 +1,90 @@
+/*
+
+    ngs-reads  Next generation sequencing (NGS/HTS) reads.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.reads.quality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.distribution.RealDistribution;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for InverseCdfTable.
+ */
+public final class InverseCdfTableTest {
+    private RandomGenerator random;
+    private RealDistribution distribution;
+
+    @Before
+    public void setUp() {
+        random = new MersenneTwister(42L);
+        distribution = new NormalDistribution(random, 30.0d, 2.0d);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullDistribution() {
+        new InverseCdfTable(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidSize() {
+        new InverseCdfTable(distribution, 0);
+    }
+
+    @Test
+    public void testConstructor() {
+        assertEquals(InverseCdfTable.DEFAULT_SIZE, new InverseCdfTable(distribution).size());
+        assertEquals(16, new InverseCdfTable(distribution, 16).size());
+    }
+
+    @Test
+    public void testQuantilesIncreasing() {
+        InverseCdfTable table = new InverseCdfTable(distribution, 128);
+        for (int i = 1; i < table.size(); i++) {
+            assertTrue(table.quantile(i) > table.quantile(i - 1));
+        }
+    }
+
+    @Test
+    public void testMedian() {
+        InverseCdfTable table = new InverseCdfTable(distribution, 3);
+        assertEquals(30.0d, table.quantile(1), 0.0001d);
+    }
+
+    @Test
+    public void testSampleMean() {
+        InverseCdfTable table = new InverseCdfTable(distribution);
+        double sum = 0.0d;
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            sum += table.sample(random);
+        }
+        assertEquals(30.0d, sum / n, 0.05d);
+    }
+}
@@ -22,14 +22,13 @@
 */
 package org.nmdp.ngs.tools;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.inputStream;
+import static org.nmdp.ngs.tools.Streams.outputStream;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.PrintWriter;
 import java.io.IOException;
 
 import java.util.concurrent.Callable;
@@ -39,13 +38,6 @@ import org.apache.commons.math3.distribution.BinomialDistribution;
 import org.apache.commons.math3.random.MersenneTwister;
 import org.apache.commons.math3.random.RandomGenerator;
 
-import org.biojava.bio.program.fastq.Fastq;
-import org.biojava.bio.program.fastq.FastqReader;
-import org.biojava.bio.program.fastq.FastqWriter;
-import org.biojava.bio.program.fastq.SangerFastqWriter;
-import org.biojava.bio.program.fastq.SangerFastqReader;
-import org.biojava.bio.program.fastq.StreamListener;
-
 import org.dishevelled.commandline.ArgumentList;
 import org.dishevelled.commandline.CommandLine;
 import org.dishevelled.commandline.CommandLineParseException;
@@ -56,17 +48,29 @@ import org.dishevelled.commandline.Usage;
 import org.dishevelled.commandline.argument.DoubleArgument;
 import org.dishevelled.commandline.argument.FileArgument;
 import org.dishevelled.commandline.argument.IntegerArgument;
+import org.dishevelled.commandline.argument.LongArgument;
+
+import org.nmdp.ngs.reads.fastq.FastqRecordReader;
+import org.nmdp.ngs.reads.fastq.FastqRecordSampler;
+import org.nmdp.ngs.reads.fastq.FastqRecordWriter;
 
 /**
- * Downsample sequences from files in FASTQ format.
+ * Downsample sequences from files in FASTQ format. Each record must span exactly four lines,
+ * multi-line FASTQ is not supported.
  */
 public final class DownsampleFastq implements Callable<Integer> {
     private final File inputFastqFile;
     private final File outputFastqFile;
     private final BinomialDistribution distribution;
-    private final FastqReader fastqReader = new SangerFastqReader();
-    private final FastqWriter fastqWriter = new SangerFastqWriter();
-    private static final String USAGE = "ngs-downsample-fastq -p 0.5 [args]";
+    private final RandomGenerator random;
+    private final double probability;
+    private final long count;
+    private final double fraction;
+    private final long total;
+    private static final String USAGE = "ngs-downsample-fastq [-p 0.5 | -n 1000000 | -f 0.1] [args]";
+
+    /** Unknown total number of FASTQ records. */
+    public static final long UNKNOWN_TOTAL = -1L;
 
 
     /**
@@ -81,32 +85,105 @@ public final class DownsampleFastq implements Callable<Integer> {
         this.inputFastqFile = inputFastqFile;
         this.outputFastqFile = outputFastqFile;
         this.distribution = distribution;
+        this.random = null;
+        this.probability = -1.0d;
+        this.count = -1L;
+        this.fraction = 0.0d;
+        this.total = UNKNOWN_TOTAL;
+    }
+
+    /**
+     * Downsample sequences from files in FASTQ format, keeping each FASTQ record independently with the
+     * specified probability.  FASTQ records that are not kept are skipped without being parsed.
+     *
+     * @param inputFastqFile input FASTQ file, if any
+     * @param outputFastqFile output FASTQ file, if any
+     * @param random source of randomness, must not be null
+     * @param probability probability a FASTQ record will be kept, must be in the range <code>[0.0, 1.0]</code>
+     */
+    public DownsampleFastq(final File inputFastqFile, final File outputFastqFile, final RandomGenerator random, final double probability) {
+        checkNotNull(random);
+        checkArgument(probability >= 0.0d && probability <= 1.0d, "probability must be in the range [0.0, 1.0]");
+        this.inputFastqFile = inputFastqFile;
+        this.outputFastqFile = outputFastqFile;
+        this.distribution = null;
+        this.random = random;
+        this.probability = probability;
+        this.count = -1L;
+        this.fraction = 0.0d;
+        this.total = UNKNOWN_TOTAL;
+    }
+
+    /**
+     * Downsample exactly <code>count</code> FASTQ records from files in FASTQ format.  If the total number of
+     * FASTQ records is not known, reservoir sampling is used, which holds up to <code>count</code> FASTQ records
+     * in memory.
+     *
+     * @param inputFastqFile input FASTQ file, if any
+     * @param outputFastqFile output FASTQ file, if any
+     * @param random source of randomness, must not be null
+     * @param count number of FASTQ records to keep, must be at least zero
+     * @param total total number of FASTQ records in the input file, or <code>UNKNOWN_TOTAL</code> if not known
+     */
+    public DownsampleFastq(final File inputFastqFile, final File outputFastqFile, final RandomGenerator random, final long count, final long total) {
+        checkNotNull(random);
+        checkArgument(count >= 0L, "count must be at least zero");
+        checkArgument(total == UNKNOWN_TOTAL || total >= count, "total must be at least count if known");
+        checkArgument(total != UNKNOWN_TOTAL || count <= Integer.MAX_VALUE, "count must fit in memory if total is not known");
+        this.inputFastqFile = inputFastqFile;
+        this.outputFastqFile = outputFastqFile;
+        this.distribution = null;
+        this.random = random;
+        this.probability = -1.0d;
+        this.count = count;
+        this.fraction = 0.0d;
+        this.total = total;
+    }
+
+    /**
+     * Downsample exactly the specified fraction of FASTQ records from files in FASTQ format.  If the total number of
+     * FASTQ records is not known, the input file is read twice, first to count FASTQ records.
+     *
+     * @param inputFastqFile input FASTQ file, must not be null if <code>total</code> is not known
+     * @param outputFastqFile output FASTQ file, if any
+     * @param random source of randomness, must not be null
+     * @param fraction fraction of FASTQ records to keep, must be in the range <code>[0.0, 1.0]</code>
+     * @param total total number of FASTQ records in the input file, or <code>UNKNOWN_TOTAL</code> if not known
+     */
+    public DownsampleFastq(final File inputFastqFile, final File outputFastqFile, final RandomGenerator random, final double fraction, final long total) {
+        checkNotNull(random);
+        checkArgument(fraction >= 0.0d && fraction <= 1.0d, "fraction must be in the range [0.0, 1.0]");
+        checkArgument(total == UNKNOWN_TOTAL || total >= 0L, "total must be at least zero if known");
+        checkArgument(total != UNKNOWN_TOTAL || inputFastqFile != null, "inputFastqFile must not be null if total is not known");
+        this.inputFastqFile = inputFastqFile;
+        this.outputFastqFile = outputFastqFile;
+        this.distribution = null;
+        this.random = random;
+        this.probability = -1.0d;
+        this.count = -1L;
+        this.fraction = fraction;
+        this.total = total;
     }
 
 
     @Override
     public Integer call() throws Exception {
-        BufferedReader reader = null;
-        PrintWriter writer = null;
+        if (distribution == null && probability < 0.0d) {
+            downsampleExactly();
+            return 0;
+        }
+        FastqRecordReader reader = null;
+        FastqRecordWriter writer = null;
         try {
-            reader = reader(inputFastqFile);
-            writer = writer(outputFastqFile);
-
-            final PrintWriter w = writer;
-            fastqReader.stream(reader, new StreamListener() {
-                    @Override
-                    public void fastq(final Fastq fastq) {
-                        if (distribution.sample() > 0) {
-                            try {
-                                fastqWriter.append(w, fastq);
-                            }
-                            catch (IOException e) {
-                                throw new RuntimeException("could not write FASTQ", e);
-                            }
-                        }
-                    }
-                });
+            reader = new FastqRecordReader(inputStream(inputFastqFile));
+            writer = new FastqRecordWriter(outputStream(outputFastqFile));
 
+            if (distribution == null) {
+                FastqRecordSampler.bernoulli(reader, writer, random, probability, 1);
+            }
+            else {
+                FastqRecordSampler.sample(reader, writer, distribution, 1);
+            }
             return 0;
         }
         finally {
@@ -125,6 +202,60 @@ public final class DownsampleFastq implements Callable<Integer> {
         }
     }
 
+    /**
+     * Downsample exactly, selecting in a single streaming pass if the total number of FASTQ records is
+     * known or can be counted, otherwise with reservoir sampling.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void downsampleExactly() throws IOException {
+        long t = total;
+        if (count < 0L && t == UNKNOWN_TOTAL) {
+            FastqRecordReader reader = new FastqRecordReader(inputStream(inputFastqFile));
+            try {
+                t = FastqRecordSampler.count(reader, 1);
+            }
+            finally {
+                try {
+                    reader.close();
+                }
+                catch (Exception e) {
+                    // ignore
+                }
+            }
+        }
+        long n = (count < 0L) ? Math.round(fraction * t) : count;
+
+        FastqRecordReader reader = null;
+        FastqRecordWriter writer = null;
+        try {
+            reader = new FastqRecordReader(inputStream(inputFastqFile));
+            writer = new FastqRecordWriter(outputStream(outputFastqFile));
+
+            if (t == UNKNOWN_TOTAL) {
+                FastqRecordSampler.reservoir(reader, writer, random, (int) n, 1);
+            }
+            else {
+                FastqRecordSampler.select(reader, writer, random, n, t, 1);
+            }
+        }
+        finally {
+            try {
+                reader.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+            try {
+                writer.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+
     /**
      * Main.
      *
@@ -135,10 +266,13 @@ public final class DownsampleFastq implements Callable<Integer> {
         Switch help = new Switch("h", "help", "display help message");
         FileArgument inputFastqFile = new FileArgument("i", "input-fastq-file", "input FASTQ file, default stdin", false);
         FileArgument outputFastqFile = new FileArgument("o", "output-fastq-file", "output FASTQ file, default stdout", false);
-        DoubleArgument probability = new DoubleArgument("p", "probability", "probability a FASTQ record will be removed, [0.0-1.0]", true);
+        DoubleArgument probability = new DoubleArgument("p", "probability", "probability a FASTQ record will be kept, [0.0-1.0]", false);
+        LongArgument count = new LongArgument("n", "count", "exact number of FASTQ records to keep", false);
+        DoubleArgument fraction = new DoubleArgument("f", "fraction", "exact fraction of FASTQ records to keep, [0.0-1.0]", false);
+        LongArgument total = new LongArgument("t", "total", "total number of FASTQ records in the input file, if known", false);
         IntegerArgument seed = new IntegerArgument("z", "seed", "random number seed, default relates to current time", false);
 
-        ArgumentList arguments = new ArgumentList(about, help, inputFastqFile, outputFastqFile, probability, seed);
+        ArgumentList arguments = new ArgumentList(about, help, inputFastqFile, outputFastqFile, probability, count, fraction, total, seed);
         CommandLine commandLine = new CommandLine(args);
 
         DownsampleFastq downsampleFastq = null;
@@ -155,9 +289,19 @@ public final class DownsampleFastq implements Callable<Integer> {
             }
 
             RandomGenerator random = seed.wasFound() ? new MersenneTwister(seed.getValue()) : new MersenneTwister();
-            BinomialDistribution distribution = new BinomialDistribution(random, 1, probability.getValue());
-
-            downsampleFastq = new DownsampleFastq(inputFastqFile.getValue(), outputFastqFile.getValue(), distribution);
+            if ((probability.wasFound() ? 1 : 0) + (count.wasFound() ? 1 : 0) + (fraction.wasFound() ? 1 : 0) != 1) {
+                throw new IllegalArgumentException("exactly one of -p, -n, or -f must be specified");
+            }
+            long t = total.wasFound() ? total.getValue() : UNKNOWN_TOTAL;
+            if (count.wasFound()) {
+                downsampleFastq = new DownsampleFastq(inputFastqFile.getValue(), outputFastqFile.getValue(), random, count.getValue(), t);
+            }
+            else if (fraction.wasFound()) {
+                downsampleFastq = new DownsampleFastq(inputFastqFile.getValue(), outputFastqFile.getValue(), random, fraction.getValue(), t);
+            }
+            else {
+                downsampleFastq = new DownsampleFastq(inputFastqFile.getValue(), outputFastqFile.getValue(), random, probability.getValue());
+            }
         }
         catch (CommandLineParseException e) {
             if (about.wasFound()) {
@@ -24,8 +24,9 @@ package org.nmdp.ngs.tools;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.indexedFasta;
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
 
 import static org.nmdp.ngs.align.Blastn.blastn;
 
@@ -34,6 +35,7 @@ import java.io.File;
 import java.io.PrintWriter;
 import java.io.IOException;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -41,7 +43,6 @@ import java.util.concurrent.Callable;
 
 import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
 import com.google.common.collect.TreeRangeSet;
@@ -64,6 +65,9 @@ import org.dishevelled.commandline.argument.FileArgument;
 
 import org.nmdp.ngs.align.HighScoringPair;
 
+import org.nmdp.ngs.reads.fasta.FastaIndex;
+import org.nmdp.ngs.reads.fasta.IndexedFasta;
+
 /**
  * Evaluate assembly scaffolds against a reference sequence.
  */
@@ -97,16 +101,25 @@ public final class EvaluateScaffolds implements Callable<Integer> {
         try {
             writer = writer(evalFile);
 
-            Sequence reference = readReference();
-            List<Sequence> scaffolds = readScaffolds();
+            List<String> referenceNames = new ArrayList<String>(1);
+            List<Long> references = readLengths(referenceFastaFile, referenceNames);
+            if (references.isEmpty()) {
+                throw new IOException("reference FASTA file was empty");
+            }
+            if (references.size() > 1) {
+                throw new IOException("reference FASTA file contains more than one sequence");
+            }
+            String referenceName = referenceNames.get(0);
+            long referenceLength = references.get(0);
+            List<Long> scaffolds = readLengths(scaffoldsFastaFile, null);
 
-            writer.println("#reference length = " + reference.length());
+            writer.println("#reference length = " + referenceLength);
             writer.println("#scaffold count = " + scaffolds.size());
             writer.println("#scaffold lengths = " + dumpLengths(scaffolds));
 
             RangeSet<Long> ranges = TreeRangeSet.create();
             for (HighScoringPair hsp : blastn(referenceFastaFile, scaffoldsFastaFile)) {
-                if (reference.getName().equals(hsp.target())) {
+                if (referenceName.equals(hsp.target())) {
                     writer.println("#" + hsp.toString());
                     if (hsp.targetStart() <= hsp.targetEnd()) { // strands match
                         ranges.add(Range.closed(hsp.targetStart(), hsp.targetEnd()));
@@ -123,7 +136,7 @@ public final class EvaluateScaffolds implements Callable<Integer> {
             for (Range<Long> range : ranges.asRanges()) {
                 breadthOfCoverage += ContiguousSet.create(range, DiscreteDomain.longs()).size();
             }
-            double normalizedBreadthOfCoverage = (double) breadthOfCoverage / (double) reference.length();
+            double normalizedBreadthOfCoverage = (double) breadthOfCoverage / (double) referenceLength;
             writer.println("#breadth-of-coverage = " + breadthOfCoverage);
             writer.println("#normalized breadth-of-coverage = " + normalizedBreadthOfCoverage);
 
@@ -132,7 +145,7 @@ public final class EvaluateScaffolds implements Callable<Integer> {
             sb.append("\t");
             sb.append(scaffoldsFastaFile.getName());
             sb.append("\t");
-            sb.append(reference.length());
+            sb.append(referenceLength);
             sb.append("\t");
             sb.append(scaffolds.size());
             sb.append("\t");
@@ -156,40 +169,40 @@ public final class EvaluateScaffolds implements Callable<Integer> {
         }
     }
 
-    private Sequence readReference() throws IOException, BioException {
-        Sequence sequence = null;
-        BufferedReader reader = null;
-        try {
-            reader = reader(referenceFastaFile);
-            SequenceIterator sequences = SeqIOTools.readFastaDNA(reader);
-            if (!sequences.hasNext()) {
-                throw new IOException("reference FASTA file was empty");
-            }
-            sequence = sequences.nextSequence();
-            if (sequences.hasNext()) {
-                throw new IOException("reference FASTA file contains more than one sequence");
-            }
-        }
-        finally {
-            try {
-                reader.close();
-            }
-            catch (Exception e) {
-                // ignore
+    /**
+     * Read sequence lengths in order from the specified FASTA file, including sequences with duplicate
+     * names.  Uncompressed FASTA files are indexed, using the <code>.fai</code> index file if present,
+     * rather than parsed, unless they cannot be indexed.
+     *
+     * @param fastaFile FASTA file
+     * @param names list to add sequence names to in the same order, if any
+     * @return sequence lengths in order
+     * @throws IOException if an I/O error occurs
+     * @throws BioException if a FASTA format error occurs
+     */
+    static List<Long> readLengths(final File fastaFile, final List<String> names) throws IOException, BioException {
+        List<Long> lengths = new ArrayList<Long>();
+        try (IndexedFasta fasta = indexedFasta(fastaFile)) {
+            if (fasta != null) {
+                for (FastaIndex.Entry entry : fasta.getIndex().getEntries()) {
+                    lengths.add(entry.getLength());
+                    if (names != null) {
+                        names.add(entry.getName());
+                    }
+                }
+                return lengths;
             }
         }
-        return sequence;
-    }
 
-    private List<Sequence> readScaffolds() throws IOException, BioException {
         BufferedReader reader = null;
-        List<Sequence> scaffolds = Lists.newLinkedList();
         try {
-            reader = reader(scaffoldsFastaFile);
-
+            reader = reader(fastaFile);
             for (SequenceIterator sequences = SeqIOTools.readFastaDNA(reader); sequences.hasNext(); ) {
                 Sequence sequence = sequences.nextSequence();
-                scaffolds.add(sequence);
+                lengths.add((long) sequence.length());
+                if (names != null) {
+                    names.add(sequence.getName());
+                }
             }
         }
         finally {
@@ -200,16 +213,16 @@ public final class EvaluateScaffolds implements Callable<Integer> {
                 // ignore
             }
         }
-        return scaffolds;
+        return lengths;
     }
 
-    private static String dumpLengths(final List<Sequence> scaffolds) {
+    private static String dumpLengths(final List<Long> scaffolds) {
         StringBuilder sb = new StringBuilder();
-        Iterator<Sequence> iterator = scaffolds.iterator();
-        sb.append(iterator.next().length());
+        Iterator<Long> iterator = scaffolds.iterator();
+        sb.append(iterator.next());
         while (iterator.hasNext()) {
             sb.append(", ");
-            sb.append(iterator.next().length());
+            sb.append(iterator.next());
         }
         return sb.toString();
     }
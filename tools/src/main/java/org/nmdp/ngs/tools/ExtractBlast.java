@@ -22,8 +22,9 @@
 */
 package org.nmdp.ngs.tools;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.indexedFasta;
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
 import static org.nmdp.ngs.hml.HmlUtils.toDnaSymbolList;
 import groovyjarjarantlr.StringUtils;
 
@@ -37,6 +38,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.List;
+import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
 
@@ -58,6 +60,7 @@ import org.dishevelled.commandline.argument.IntegerArgument;
 import org.dishevelled.commandline.argument.StringArgument;
 import org.nmdp.ngs.align.HighScoringPair;
 import org.nmdp.ngs.align.HspReader;
+import org.nmdp.ngs.reads.fasta.IndexedFasta;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
@@ -74,6 +77,7 @@ public final class ExtractBlast implements Callable<Integer> {
     private final int alleleCutoff;
     private final String imgtDbVersion;
     private static final String USAGE = "ngs-extract-blast [args]";
+    private static final int SLICE_SIZE = 65536;
 
 
     /**
@@ -101,21 +105,26 @@ public final class ExtractBlast implements Callable<Integer> {
         try {
         	writer = writer(outputFile);
         	String subjectId = getSubjectId(inputFastaFile);
-        	Map<String, String> fastaSequence = readFasta(inputFastaFile);
         	Map<String, BlastResults> blastResults  = readBlast(alleleCutoff, inputBlastFile);
-        	
-        	 for (String seqId : fastaSequence.keySet()) {
 
-        		 BlastResults blast = blastResults.get(seqId);
-        		 String glstring =  blast.getTypingGlstring();
-        		 String locus    =  blast.getLocus();
-        		 String sequence = fastaSequence.get(seqId);
-        		 
-        		 writer.println(subjectId + "\t" + locus + "\t" + "HLA" +
-        		 "\t" + "IMGT/HLA" + "\t" + imgtDbVersion + "\t" + glstring + "\t" + sequence);
-        		 
-        		 blast.clearList();
-        		 
+        	// uncompressed FASTA files are memory-mapped and written a slice at a time rather than parsed
+        	try (IndexedFasta fasta = indexedFasta(inputFastaFile)) {
+        		if (fasta != null) {
+        			for (String seqId : fasta.getNames()) {
+        				writer.print(linePrefix(subjectId, blastResults.get(seqId)));
+        				long length = fasta.getLength(seqId);
+        				for (long start = 0L; start < length; start += SLICE_SIZE) {
+        					writer.print(fasta.subsequence(seqId, start, Math.min(length, start + SLICE_SIZE)).toString().toLowerCase(Locale.US));
+        				}
+        				writer.println();
+        			}
+        			return 0;
+        		}
+        	}
+
+        	Map<String, String> fastaSequence = readFasta(inputFastaFile);
+        	 for (String seqId : fastaSequence.keySet()) {
+        		 writer.println(linePrefix(subjectId, blastResults.get(seqId)) + fastaSequence.get(seqId));
         	 }
             return 0;
         }
@@ -131,6 +140,21 @@ public final class ExtractBlast implements Callable<Integer> {
         
     }
 
+    /**
+     * Return the output line for the specified blast results, up to but not including the sequence,
+     * and clear the specified blast results.
+     *
+     * @param subjectId subject id
+     * @param blast blast results
+     * @return the output line for the specified blast results, up to but not including the sequence
+     */
+    private String linePrefix(final String subjectId, final BlastResults blast) {
+        String glstring = blast.getTypingGlstring();
+        String locus = blast.getLocus();
+        blast.clearList();
+        return subjectId + "\t" + locus + "\t" + "HLA" + "\t" + "IMGT/HLA" + "\t" + imgtDbVersion + "\t" + glstring + "\t";
+    }
+
     /**
      * Extract consensus sequences from a file in HML format.
      *
@@ -22,8 +22,8 @@
 */
 package org.nmdp.ngs.tools;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -22,20 +22,14 @@
 */
 package org.nmdp.ngs.tools;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.inputStream;
+import static org.nmdp.ngs.tools.Streams.outputStream;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 
 import java.util.concurrent.Callable;
 
-import org.biojava.bio.program.fastq.Fastq;
-import org.biojava.bio.program.fastq.FastqReader;
-import org.biojava.bio.program.fastq.SangerFastqReader;
-import org.biojava.bio.program.fastq.StreamListener;
-
 import org.dishevelled.commandline.ArgumentList;
 import org.dishevelled.commandline.CommandLine;
 import org.dishevelled.commandline.CommandLineParseException;
@@ -45,13 +39,16 @@ import org.dishevelled.commandline.Usage;
 
 import org.dishevelled.commandline.argument.FileArgument;
 
+import org.nmdp.ngs.reads.fastq.FastqRecord;
+import org.nmdp.ngs.reads.fastq.FastqRecordReader;
+
 /**
- * Convert sequences in FASTQ format to FASTA format.
+ * Convert sequences in FASTQ format to FASTA format. Each record must span exactly four lines,
+ * multi-line FASTQ is not supported.
  */
 public final class FastqToFasta implements Callable<Integer> {
     private final File fastqFile;
     private final File fastaFile;
-    private final FastqReader fastqReader = new SangerFastqReader();
     private static final String USAGE = "ngs-fastq-to-fasta [args]";
 
 
@@ -69,25 +66,20 @@ public final class FastqToFasta implements Callable<Integer> {
 
     @Override
     public Integer call() throws Exception {
-        BufferedReader reader = null;
-        PrintWriter writer = null;
+        FastqRecordReader reader = null;
+        OutputStream writer = null;
         try {
-            reader = reader(fastqFile);
-            writer = writer(fastaFile);
-
-            final PrintWriter w = writer;
-            fastqReader.stream(reader, new StreamListener() {
-                    @Override
-                    public void fastq(final Fastq fastq)
-                    {
-                        StringBuilder sb = new StringBuilder(1200);
-                        sb.append(">");
-                        sb.append(fastq.getDescription());
-                        sb.append("\n");
-                        sb.append(fastq.getSequence());
-                        w.println(sb.toString());
-                    }
-                });
+            reader = new FastqRecordReader(inputStream(fastqFile));
+            writer = outputStream(fastaFile);
+
+            FastqRecord record = new FastqRecord();
+            while (reader.next(record)) {
+                writer.write('>');
+                record.writeDescription(writer);
+                writer.write('\n');
+                record.writeSequence(writer);
+                writer.write('\n');
+            }
 
             return 0;
         }
@@ -25,25 +25,15 @@ package org.nmdp.ngs.tools;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
 
 import java.io.File;
 import java.io.PrintWriter;
 
-import java.util.Collections;
-import java.util.List;
-
 import java.util.concurrent.Callable;
 
-import java.util.regex.Pattern;
-
-import com.google.common.collect.Lists;
-import com.google.common.collect.Ordering;
-
 import org.biojava.bio.program.fastq.Fastq;
-import org.biojava.bio.program.fastq.SangerFastqReader;
-import org.biojava.bio.program.fastq.StreamListener;
 
 import org.dishevelled.commandline.ArgumentList;
 import org.dishevelled.commandline.CommandLine;
@@ -55,6 +45,9 @@ import org.dishevelled.commandline.Usage;
 import org.dishevelled.commandline.argument.FileArgument;
 import org.dishevelled.commandline.argument.IntegerArgument;
 
+import org.nmdp.ngs.reads.paired.PairedEndFastqReader;
+import org.nmdp.ngs.reads.paired.PairedEndListener;
+
 /**
  * Convert sequences in FASTQ format to SSAKE import format.
  */
@@ -65,9 +58,7 @@ public final class FastqToSsake implements Callable<Integer> {
     private final File ssakeFile;
     private final File unpairedFile;
     public static final int DEFAULT_INSERT_SIZE = 500;
-    private static final Pattern LEFT = Pattern.compile("^.* 1.*$");
-    private static final Pattern RIGHT = Pattern.compile("^.* 2.*$");
-    private static final String USAGE = "ngs-fastq-to-ssake -1 foo_1.fq.gz -2 foo_2.fq.gz [args]\n\n   Note:  the contents of both FASTQ files are read into RAM.\n   Increase RAM to the JVM using e.g. -Xms2g -Xmx8g if necessary.";
+    private static final String USAGE = "ngs-fastq-to-ssake -1 foo_1.fq.gz -2 foo_2.fq.gz [args]\n\n   Note:  unpaired reads are held in RAM until their mate is read.  If the FASTQ files\n   are not in the same order, increase RAM to the JVM using e.g. -Xms2g -Xmx8g if necessary.";
 
 
     /**
@@ -99,42 +90,12 @@ public final class FastqToSsake implements Callable<Integer> {
             ssakeWriter = writer(ssakeFile);
             unpairedWriter = (unpairedFile == null) ? null : writer(unpairedFile);
 
-            // read both FASTQ files into RAM (ick)
-            final List<Fastq> reads = Lists.newArrayList();
-            SangerFastqReader fastqReader = new SangerFastqReader();
-            fastqReader.stream(reader(firstFastqFile), new StreamListener() {
-                    @Override
-                    public void fastq(final Fastq fastq) {
-                        reads.add(fastq);
-                    }
-                });
-            fastqReader.stream(reader(secondFastqFile), new StreamListener() {
-                    @Override
-                    public void fastq(final Fastq fastq) {
-                        reads.add(fastq);
-                    }
-                });
+            final PrintWriter sw = ssakeWriter;
+            final PrintWriter uw = unpairedWriter;
 
-            // .. and sort by description
-            Collections.sort(reads, new Ordering<Fastq>() {
+            PairedEndFastqReader.streamLockStep(reader(firstFastqFile), reader(secondFastqFile), new PairedEndListener() {
                     @Override
-                    public int compare(final Fastq left, final Fastq right) {
-                        return left.getDescription().compareTo(right.getDescription());
-                    }
-                });
-
-            for (int i = 0, size = reads.size(); i < size; ) {
-                Fastq left = reads.get(i);
-                if ((i + 1) == size) {
-                    if (unpairedWriter != null) {
-                        unpairedWriter.println(left.getDescription());
-                    }
-                    break;
-                }
-                Fastq right = reads.get(i + 1);
-
-                if (isLeft(left)) {
-                    if (isRight(right)) {
+                    public void paired(final Fastq left, final Fastq right) {
                         // write paired reads to SSAKE-hacked-up version of FASTA format
                         StringBuilder sb = new StringBuilder(512);
                         sb.append(">");
@@ -147,23 +108,17 @@ public final class FastqToSsake implements Callable<Integer> {
                         sb.append(left.getSequence());
                         sb.append(":");
                         sb.append(right.getSequence());
-                        ssakeWriter.println(sb.toString());
-                        i += 2;
+                        sw.println(sb.toString());
                     }
-                    else {
-                        if (unpairedWriter != null) {
-                            unpairedWriter.println(right.getDescription());
+
+                    @Override
+                    public void unpaired(final Fastq unpaired) {
+                        if (uw != null) {
+                            uw.println(unpaired.getDescription());
                         }
-                        i++;
-                    }
-                }
-                else {
-                    if (unpairedWriter != null) {
-                        unpairedWriter.println(left.getDescription());
                     }
-                    i++;
-                }
-            }
+                });
+
             return 0;
         }
         finally {
@@ -183,11 +138,11 @@ public final class FastqToSsake implements Callable<Integer> {
     }
 
     static boolean isLeft(final Fastq fastq) {
-        return LEFT.matcher(fastq.getDescription()).matches();
+        return PairedEndFastqReader.isLeft(fastq);
     }
 
     static boolean isRight(final Fastq fastq) {
-        return RIGHT.matcher(fastq.getDescription()).matches();
+        return PairedEndFastqReader.isRight(fastq);
     }
 
     /**
@@ -22,12 +22,15 @@
 */
 package org.nmdp.ngs.tools;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 
 import java.util.ArrayList;
@@ -42,10 +45,14 @@ import org.dishevelled.commandline.CommandLineParser;
 import org.dishevelled.commandline.Switch;
 import org.dishevelled.commandline.Usage;
 
+import org.dishevelled.commandline.argument.DoubleArgument;
 import org.dishevelled.commandline.argument.FileArgument;
 import org.dishevelled.commandline.argument.StringListArgument;
 
 import org.nmdp.ngs.variant.vcf.VcfHeader;
+import org.nmdp.ngs.variant.vcf.VcfLine;
+import org.nmdp.ngs.variant.vcf.VcfLineFilter;
+import org.nmdp.ngs.variant.vcf.VcfLineFilters;
 import org.nmdp.ngs.variant.vcf.VcfReader;
 import org.nmdp.ngs.variant.vcf.VcfRecord;
 import org.nmdp.ngs.variant.vcf.VcfSample;
@@ -56,6 +63,7 @@ import org.nmdp.ngs.variant.vcf.VcfStreamAdapter;
  * Filter variants in VCF format.
  */
 public final class FilterVcf implements Callable<Integer> {
+    private final VcfLineFilter lineFilter;
     private final Filter filter;
     private final File inputVcfFile;
     private final File outputVcfFile;
@@ -70,7 +78,26 @@ public final class FilterVcf implements Callable<Integer> {
      * @param outputVcfFile output VCF file, if any
      */
     public FilterVcf(final Filter filter, final File inputVcfFile, final File outputVcfFile) {
-        checkNotNull(filter);
+        this(VcfLineFilters.all(), checkNotNull(filter), inputVcfFile, outputVcfFile);
+    }
+
+    /**
+     * Filter variants in VCF format.
+     *
+     * <p>
+     * The specified VCF line filter is evaluated against each raw data line before it is parsed.
+     * If no record filter is specified, accepted data lines are written as is, without being parsed
+     * into VCF records.
+     * </p>
+     *
+     * @param lineFilter VCF line filter, must not be null
+     * @param filter record filter, evaluated against VCF records for data lines accepted by the VCF line filter, if any
+     * @param inputVcfFile input VCF file, if any
+     * @param outputVcfFile output VCF file, if any
+     */
+    public FilterVcf(final VcfLineFilter lineFilter, final Filter filter, final File inputVcfFile, final File outputVcfFile) {
+        checkNotNull(lineFilter);
+        this.lineFilter = lineFilter;
         this.filter = filter;
         this.inputVcfFile = inputVcfFile;
         this.outputVcfFile = outputVcfFile;
@@ -79,12 +106,19 @@ public final class FilterVcf implements Callable<Integer> {
 
     @Override
     public Integer call() throws Exception {
+        BufferedReader reader = null;
         PrintWriter writer = null;
         try {
+            reader = reader(inputVcfFile);
             writer = writer(outputVcfFile);
 
+            if (filter == null) {
+                filterLines(reader, writer);
+                return 0;
+            }
+
             final PrintWriter w = writer;
-            VcfReader.stream(reader(inputVcfFile), new VcfStreamAdapter() {
+            VcfReader.stream(reader, lineFilter, new VcfStreamAdapter() {
                     private boolean wroteSamples = false;
                     private List<VcfSample> samples = new ArrayList<VcfSample>();
 
@@ -116,6 +150,12 @@ public final class FilterVcf implements Callable<Integer> {
             return 0;
         }
         finally {
+            try {
+                reader.close();
+            }
+            catch (Exception e) {
+                // empty
+            }
             try {
                 writer.close();
             }
@@ -125,26 +165,59 @@ public final class FilterVcf implements Callable<Integer> {
         }
     }
 
+    /**
+     * Write header lines and data lines accepted by the VCF line filter as is.
+     *
+     * @param reader reader
+     * @param writer writer
+     * @throws IOException if an I/O error occurs
+     */
+    private void filterLines(final BufferedReader reader, final PrintWriter writer) throws IOException {
+        long lineNumber = 0L;
+        VcfLine vcfLine = new VcfLine();
+        String line = null;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.startsWith("#")) {
+                writer.println(line);
+            }
+            else {
+                vcfLine.reset(line);
+                if (vcfLine.getColumns() < VcfLine.FIXED_COLUMNS) {
+                    throw new IOException("invalid data line at line number " + lineNumber + ", expected 8 tokens, found " + vcfLine.getColumns());
+                }
+                try {
+                    if (lineFilter.accept(vcfLine)) {
+                        writer.println(line);
+                    }
+                }
+                catch (NumberFormatException e) {
+                    throw new IOException("invalid data line at line number " + lineNumber, e);
+                }
+            }
+        }
+    }
+
     interface Filter {
         boolean accept(VcfRecord record);
     }
 
-    static final class IdFilter implements Filter {
-        private final List<String> ids;
-
-        IdFilter(final List<String> ids) {
-            checkNotNull(ids);
-            this.ids = ids;
+    /**
+     * Parse the specified range in <code>chrom:start-end</code> format into a VCF line filter.
+     *
+     * @param range range in <code>chrom:start-end</code> format
+     * @return the specified range parsed into a VCF line filter
+     */
+    static VcfLineFilter parseRange(final String range) {
+        checkNotNull(range);
+        int colon = range.lastIndexOf(':');
+        int dash = range.lastIndexOf('-');
+        checkArgument(colon > 0 && dash > colon, "range must be in chrom:start-end format, was " + range);
+        try {
+            return VcfLineFilters.range(range.substring(0, colon), Long.parseLong(range.substring(colon + 1, dash)), Long.parseLong(range.substring(dash + 1)));
         }
-
-        @Override
-        public boolean accept(final VcfRecord record) {
-            for (String id : record.getId()) {
-                if (ids.contains(id)) {
-                    return true;
-                }
-            }
-            return false;
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("range must be in chrom:start-end format, was " + range, e);
         }
     }
 
@@ -156,11 +229,16 @@ public final class FilterVcf implements Callable<Integer> {
     public static void main(final String[] args) {
         Switch about = new Switch("a", "about", "display about message");
         Switch help = new Switch("h", "help", "display help message");
-        StringListArgument snpIdFilter = new StringListArgument("s", "snp-ids", "filter by snp id", true);
+        StringListArgument snpIdFilter = new StringListArgument("s", "snp-ids", "filter by snp id", false);
+        StringListArgument chromFilter = new StringListArgument("c", "chroms", "filter by chrom", false);
+        StringListArgument rangeFilter = new StringListArgument("r", "ranges", "filter by range, in chrom:start-end format, 1-based fully closed", false);
+        DoubleArgument minimumQualFilter = new DoubleArgument("q", "minimum-qual", "filter by minimum QUAL value", false);
+        Switch passFilter = new Switch("p", "pass", "filter by FILTER value PASS");
+        StringListArgument infoKeyFilter = new StringListArgument("n", "info-keys", "filter by INFO key", false);
         FileArgument inputVcfFile = new FileArgument("i", "input-vcf-file", "input VCF file, default stdin", false);
         FileArgument outputVcfFile = new FileArgument("o", "output-vcf-file", "output VCF file, default stdout", false);
 
-        ArgumentList arguments = new ArgumentList(about, help, snpIdFilter, inputVcfFile, outputVcfFile);
+        ArgumentList arguments = new ArgumentList(about, help, snpIdFilter, chromFilter, rangeFilter, minimumQualFilter, passFilter, infoKeyFilter, inputVcfFile, outputVcfFile);
         CommandLine commandLine = new CommandLine(args);
 
         FilterVcf filterVcf = null;
@@ -174,9 +252,36 @@ public final class FilterVcf implements Callable<Integer> {
                 Usage.usage(USAGE, null, commandLine, arguments, System.out);
                 System.exit(0);
             }
-            filterVcf = new FilterVcf(new IdFilter(snpIdFilter.getValue()), inputVcfFile.getValue(), outputVcfFile.getValue());
+
+            // most selective filters first
+            List<VcfLineFilter> filters = new ArrayList<VcfLineFilter>();
+            if (rangeFilter.wasFound()) {
+                List<VcfLineFilter> ranges = new ArrayList<VcfLineFilter>();
+                for (String range : rangeFilter.getValue()) {
+                    ranges.add(parseRange(range));
+                }
+                filters.add(VcfLineFilters.or(ranges.toArray(new VcfLineFilter[0])));
+            }
+            if (chromFilter.wasFound()) {
+                filters.add(VcfLineFilters.chrom(chromFilter.getValue().toArray(new String[0])));
+            }
+            if (snpIdFilter.wasFound()) {
+                filters.add(VcfLineFilters.id(snpIdFilter.getValue().toArray(new String[0])));
+            }
+            if (passFilter.wasFound()) {
+                filters.add(VcfLineFilters.pass());
+            }
+            if (minimumQualFilter.wasFound()) {
+                filters.add(VcfLineFilters.minimumQual(minimumQualFilter.getValue()));
+            }
+            if (infoKeyFilter.wasFound()) {
+                filters.add(VcfLineFilters.info(infoKeyFilter.getValue().toArray(new String[0])));
+            }
+            checkArgument(!filters.isEmpty(), "at least one filter must be specified");
+
+            filterVcf = new FilterVcf(VcfLineFilters.and(filters.toArray(new VcfLineFilter[0])), null, inputVcfFile.getValue(), outputVcfFile.getValue());
         }
-        catch (CommandLineParseException e) {
+        catch (CommandLineParseException | IllegalArgumentException e) {
             if (about.wasFound()) {
                 About.about(System.out);
                 System.exit(0);
@@ -25,7 +25,7 @@ package org.nmdp.ngs.tools;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.writer;
 
 import java.io.File;
 import java.io.PrintWriter;
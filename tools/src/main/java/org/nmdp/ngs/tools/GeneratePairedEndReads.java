@@ -24,12 +24,11 @@ package org.nmdp.ngs.tools;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.IOException;
 import java.io.PrintWriter;
 
 import java.util.concurrent.Callable;
@@ -171,38 +170,13 @@ public final class GeneratePairedEndReads implements Callable<Integer> {
         PrintWriter secondWriter = null;
         try {
             reader = reader(referenceFile);
-
-            // since writes append to each output file, they must be deleted first
-            firstReadFile.delete();
-            secondReadFile.delete();
+            firstWriter = writer(firstReadFile);
+            secondWriter = writer(secondReadFile);
 
             SequenceIterator sequences = SeqIOTools.readFastaDNA(reader);
             while (sequences.hasNext()) {
                 Sequence sequence = sequences.nextSequence();
-                try {
-                    firstWriter = writer(firstReadFile, true);
-                    secondWriter = writer(secondReadFile, true);
-
-                    new org.nmdp.ngs.reads.GeneratePairedEndReads(sequence, FastqVariant.FASTQ_SANGER, random, length, insertSize, quality, coverage, mutationRate, mutation, firstWriter, secondWriter, new SangerFastqWriter()).run();
-                }
-                catch (IOException e) {
-                    e.printStackTrace();
-                    System.exit(-1);
-                }
-                finally {
-                    try {
-                        firstWriter.flush();
-                    }
-                    catch (Exception e) {
-                        // ignore
-                    }
-                    try {
-                        secondWriter.flush();
-                    }
-                    catch (Exception e) {
-                        // ignore
-                    }
-                }
+                new org.nmdp.ngs.reads.GeneratePairedEndReads(sequence, FastqVariant.FASTQ_SANGER, random, length, insertSize, quality, coverage, mutationRate, mutation, firstWriter, secondWriter, new SangerFastqWriter()).run();
             }
 
             return 0;
@@ -302,11 +276,11 @@ public final class GeneratePairedEndReads implements Callable<Integer> {
             QualityStrategy quality = null;
             if ("illumina".equals(qualityType.getValue())) {
                 RealDistribution realDistribution = new NormalDistribution(random, meanQualityWeight.getValue(DEFAULT_MEAN_QUALITY_WEIGHT), qualityWeightVariation.getValue(DEFAULT_QUALITY_WEIGHT_VARIATION), NormalDistribution.DEFAULT_INVERSE_ABSOLUTE_ACCURACY);
-                quality = new ScoreFunctionQualityStrategy(realDistribution, ScoreFunctions.illumina());
+                quality = new ScoreFunctionQualityStrategy(realDistribution, ScoreFunctions.illumina(), random);
             }
             else {
                 RealDistribution realDistribution = new NormalDistribution(random, meanQuality.getValue(DEFAULT_MEAN_QUALITY), qualityVariation.getValue(DEFAULT_QUALITY_VARIATION), NormalDistribution.DEFAULT_INVERSE_ABSOLUTE_ACCURACY);
-                quality = new RealDistributionQualityStrategy(realDistribution);
+                quality = new RealDistributionQualityStrategy(realDistribution, random);
             }
 
             MutationStrategy mutation = DEFAULT_MUTATION;
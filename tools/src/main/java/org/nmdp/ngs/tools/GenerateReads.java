@@ -24,12 +24,12 @@ package org.nmdp.ngs.tools;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.indexedFasta;
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.IOException;
 import java.io.PrintWriter;
 
 import java.util.concurrent.Callable;
@@ -64,6 +64,8 @@ import org.nmdp.ngs.reads.CoverageStrategy;
 import org.nmdp.ngs.reads.MutationStrategy;
 import org.nmdp.ngs.reads.QualityStrategy;
 
+import org.nmdp.ngs.reads.fasta.IndexedFasta;
+
 import org.nmdp.ngs.reads.coverage.MeanCoverageStrategy;
 import org.nmdp.ngs.reads.coverage.MinimumCoverageStrategy;
 
@@ -156,27 +158,23 @@ public final class GenerateReads implements Callable<Integer> {
         BufferedReader reader = null;
         PrintWriter writer = null;
         try {
-            reader = reader(referenceFile);
+            writer = writer(readFile, true);
+
+            // uncompressed reference files are memory-mapped rather than parsed, unless they cannot be indexed
+            try (IndexedFasta fasta = indexedFasta(referenceFile)) {
+                if (fasta != null) {
+                    for (String name : fasta.getNames()) {
+                        new org.nmdp.ngs.reads.GenerateReads(fasta, name, FastqVariant.FASTQ_SANGER, random, length, quality, coverage, mutationRate, mutation, writer, new SangerFastqWriter()).run();
+                    }
+                    return 0;
+                }
+            }
 
+            reader = reader(referenceFile);
             SequenceIterator sequences = SeqIOTools.readFastaDNA(reader);
             while (sequences.hasNext()) {
                 Sequence sequence = sequences.nextSequence();
-                try {
-                    writer = writer(readFile, true);
-                    new org.nmdp.ngs.reads.GenerateReads(sequence, FastqVariant.FASTQ_SANGER, random, length, quality, coverage, mutationRate, mutation, writer, new SangerFastqWriter()).run();
-                }
-                catch (IOException e) {
-                    e.printStackTrace();
-                    System.exit(-1);
-                }
-                finally {
-                    try {
-                        writer.flush();
-                    }
-                    catch (Exception e) {
-                        // ignore
-                    }
-                }
+                new org.nmdp.ngs.reads.GenerateReads(sequence, FastqVariant.FASTQ_SANGER, random, length, quality, coverage, mutationRate, mutation, writer, new SangerFastqWriter()).run();
             }
 
             return 0;
@@ -264,11 +262,11 @@ public final class GenerateReads implements Callable<Integer> {
             QualityStrategy quality = null;
             if ("illumina".equals(qualityType.getValue())) {
                 RealDistribution realDistribution = new NormalDistribution(random, meanQualityWeight.getValue(DEFAULT_MEAN_QUALITY_WEIGHT), qualityWeightVariation.getValue(DEFAULT_QUALITY_WEIGHT_VARIATION), NormalDistribution.DEFAULT_INVERSE_ABSOLUTE_ACCURACY);
-                quality = new ScoreFunctionQualityStrategy(realDistribution, ScoreFunctions.illumina());
+                quality = new ScoreFunctionQualityStrategy(realDistribution, ScoreFunctions.illumina(), random);
             }
             else {
                 RealDistribution realDistribution = new NormalDistribution(random, meanQuality.getValue(DEFAULT_MEAN_QUALITY), qualityVariation.getValue(DEFAULT_QUALITY_VARIATION), NormalDistribution.DEFAULT_INVERSE_ABSOLUTE_ACCURACY);
-                quality = new RealDistributionQualityStrategy(realDistribution);
+                quality = new RealDistributionQualityStrategy(realDistribution, random);
             }
 
             MutationStrategy mutation = DEFAULT_MUTATION;
@@ -22,10 +22,11 @@
 */
 package org.nmdp.ngs.tools;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -46,9 +47,11 @@ import org.dishevelled.commandline.Switch;
 import org.dishevelled.commandline.Usage;
 
 import org.dishevelled.commandline.argument.FileArgument;
+import org.dishevelled.commandline.argument.LongArgument;
 
 import org.nmdp.ngs.reads.paired.PairedEndAdapter;
 import org.nmdp.ngs.reads.paired.PairedEndFastqReader;
+import org.nmdp.ngs.reads.paired.PairedEndListener;
 
 /**
  * Convert first and second sequence files in FASTQ format to interleaved FASTQ format.
@@ -58,6 +61,8 @@ public final class InterleaveFastq implements Callable<Integer> {
     private final File secondFastqFile;
     private final File pairedFile;
     private final File unpairedFile;
+    private final long memoryBudget;
+    static final long NO_MEMORY_BUDGET = 0L;
     private static final String USAGE = "ngs-interleave-fastq -1 foo_1.fq.gz -2 foo_2.fq.gz --paired foo.paired.fq.gz --unpaired foo.unpaired.fq.gz";
 
 
@@ -70,14 +75,29 @@ public final class InterleaveFastq implements Callable<Integer> {
      * @param unpairedFile output unpaired FASTQ file, must not be null
      */
     public InterleaveFastq(final File firstFastqFile, final File secondFastqFile, final File pairedFile, final File unpairedFile) {
+        this(firstFastqFile, secondFastqFile, pairedFile, unpairedFile, NO_MEMORY_BUDGET);
+    }
+
+    /**
+     * Convert first and second sequence files in FASTQ format to interleaved FASTQ format.
+     *
+     * @param firstFastqFile first FASTQ input file, must not be null
+     * @param secondFastqFile second FASTQ input file, must not be null
+     * @param pairedFile output interleaved paired FASTQ file, must not be null
+     * @param unpairedFile output unpaired FASTQ file, must not be null
+     * @param memoryBudget memory budget for unpaired reads held in RAM, in bytes, or <code>0L</code> for no memory budget
+     */
+    public InterleaveFastq(final File firstFastqFile, final File secondFastqFile, final File pairedFile, final File unpairedFile, final long memoryBudget) {
         checkNotNull(firstFastqFile);
         checkNotNull(secondFastqFile);
         checkNotNull(pairedFile);
         checkNotNull(unpairedFile);
+        checkArgument(memoryBudget >= 0L, "memoryBudget must be at least zero");
         this.firstFastqFile = firstFastqFile;
         this.secondFastqFile = secondFastqFile;
         this.pairedFile = pairedFile;
         this.unpairedFile = unpairedFile;
+        this.memoryBudget = memoryBudget;
     }
 
 
@@ -99,7 +119,7 @@ public final class InterleaveFastq implements Callable<Integer> {
             final FastqWriter pairedFastqWriter = new SangerFastqWriter();
             final FastqWriter unpairedFastqWriter = new SangerFastqWriter();
 
-            PairedEndFastqReader.streamPaired(firstReader, secondReader, new PairedEndAdapter() {
+            PairedEndListener listener = new PairedEndAdapter() {
                     @Override
                     public void paired(final Fastq left, final Fastq right) {
                         try {
@@ -120,7 +140,14 @@ public final class InterleaveFastq implements Callable<Integer> {
                             throw new RuntimeException("could not write unpaired read", e);
                         }
                     }
-                });
+                };
+
+            if (memoryBudget == NO_MEMORY_BUDGET) {
+                PairedEndFastqReader.streamLockStep(firstReader, secondReader, listener);
+            }
+            else {
+                PairedEndFastqReader.streamPaired(firstReader, secondReader, memoryBudget, null, listener);
+            }
 
             return 0;
         }
@@ -165,8 +192,9 @@ public final class InterleaveFastq implements Callable<Integer> {
         FileArgument secondFastqFile = new FileArgument("2", "second-fastq-file", "second FASTQ input file", true);
         FileArgument pairedFile = new FileArgument("p", "paired-file", "output interleaved paired FASTQ file", true);
         FileArgument unpairedFile = new FileArgument("u", "unpaired-file", "output unpaired FASTQ file", true);
+        LongArgument memoryBudget = new LongArgument("m", "memory-budget", "memory budget for unpaired reads held in RAM, in bytes, spills to temporary files when exceeded, default no memory budget", false);
 
-        ArgumentList arguments = new ArgumentList(about, help, firstFastqFile, secondFastqFile, pairedFile, unpairedFile);
+        ArgumentList arguments = new ArgumentList(about, help, firstFastqFile, secondFastqFile, pairedFile, unpairedFile, memoryBudget);
         CommandLine commandLine = new CommandLine(args);
 
         InterleaveFastq interleaveFastq = null;
@@ -180,7 +208,7 @@ public final class InterleaveFastq implements Callable<Integer> {
                 Usage.usage(USAGE, null, commandLine, arguments, System.out);
                 System.exit(0);
             }
-            interleaveFastq = new InterleaveFastq(firstFastqFile.getValue(), secondFastqFile.getValue(), pairedFile.getValue(), unpairedFile.getValue());
+            interleaveFastq = new InterleaveFastq(firstFastqFile.getValue(), secondFastqFile.getValue(), pairedFile.getValue(), unpairedFile.getValue(), memoryBudget.getValue(NO_MEMORY_BUDGET));
         }
         catch (CommandLineParseException e) {
             if (about.wasFound()) {
@@ -0,0 +1,403 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+
+import org.nmdp.ngs.align.BedListener;
+import org.nmdp.ngs.align.BedReader;
+import org.nmdp.ngs.align.BedRecord;
+
+import org.nmdp.ngs.range.tree.CenteredRangeTree;
+import org.nmdp.ngs.range.tree.RangeTree;
+
+/**
+ * Coordinate-based liftover index over alignment blocks, one centered range tree per source chromosome.
+ * Instances are immutable and may be shared between threads.
+ */
+final class Liftover {
+    /** Range trees of block source ranges keyed by source chromosome. */
+    private final Map<String, RangeTree<Long>> trees;
+
+    /** Blocks keyed by source chromosome and source range. */
+    private final Map<String, ListMultimap<Range<Long>, Block>> blocks;
+
+    /** Reason a record was not lifted, no overlapping blocks. */
+    static final String DELETED = "Deleted in new";
+
+    /** Reason a record was not lifted, too few bases in overlapping blocks. */
+    static final String PARTIALLY_DELETED = "Partially deleted in new";
+
+    /** Reason a record was not lifted, more than one chain maps it. */
+    static final String DUPLICATED = "Duplicated in new";
+
+    /** Chain file field splitter. */
+    private static final Splitter WHITESPACE = Splitter.on(CharMatcher.anyOf(" \t")).omitEmptyStrings();
+
+
+    /**
+     * Create a new liftover index over the specified alignment blocks.
+     *
+     * @param blocks alignment blocks, must not be null
+     */
+    Liftover(final Iterable<Block> blocks) {
+        checkNotNull(blocks);
+        Map<String, ListMultimap<Range<Long>, Block>> byChrom = Maps.newHashMap();
+        for (Block block : blocks) {
+            if (!byChrom.containsKey(block.sourceChrom)) {
+                byChrom.put(block.sourceChrom, ArrayListMultimap.<Range<Long>, Block>create());
+            }
+            byChrom.get(block.sourceChrom).put(block.sourceRange(), block);
+        }
+        this.trees = Maps.newHashMap();
+        for (Map.Entry<String, ListMultimap<Range<Long>, Block>> entry : byChrom.entrySet()) {
+            trees.put(entry.getKey(), CenteredRangeTree.create(ImmutableList.copyOf(entry.getValue().keySet())));
+        }
+        this.blocks = byChrom;
+    }
+
+
+    /**
+     * Lift the specified record over to the target assembly.
+     *
+     * @param record record to lift, must not be null
+     * @param minMatch minimum fraction of bases in the record that must be in blocks of a single chain
+     * @return the result of lifting the specified record over to the target assembly
+     */
+    Result lift(final BedRecord record, final double minMatch) {
+        checkNotNull(record);
+        RangeTree<Long> tree = trees.get(record.chrom());
+        if (tree == null) {
+            return new Result(record, null, DELETED);
+        }
+        ListMultimap<Range<Long>, Block> chromBlocks = blocks.get(record.chrom());
+        long start = record.start();
+        long end = record.end();
+        Iterable<Range<Long>> ranges = (start == end) ? tree.query(start) : tree.intersect(record.toRange());
+
+        // lifted span and number of mapped bases per chain, in order of first overlap
+        Map<Integer, long[]> chains = new LinkedHashMap<Integer, long[]>();
+        Map<Integer, Block> first = new LinkedHashMap<Integer, Block>();
+        for (Range<Long> range : ranges) {
+            for (Block block : chromBlocks.get(range)) {
+                long overlapStart = Math.max(start, block.sourceStart);
+                long overlapEnd = Math.min(end, block.sourceEnd);
+                if (overlapEnd < overlapStart || (overlapEnd == overlapStart && start != end)) {
+                    continue;
+                }
+                long targetStart = block.targetPosition(overlapStart, overlapEnd, true);
+                long targetEnd = block.targetPosition(overlapStart, overlapEnd, false);
+                long[] chain = chains.get(block.chain);
+                if (chain == null) {
+                    chains.put(block.chain, new long[] { targetStart, targetEnd, overlapEnd - overlapStart });
+                    first.put(block.chain, block);
+                }
+                else {
+                    chain[0] = Math.min(chain[0], targetStart);
+                    chain[1] = Math.max(chain[1], targetEnd);
+                    chain[2] += overlapEnd - overlapStart;
+                }
+            }
+        }
+        if (chains.isEmpty()) {
+            return new Result(record, null, DELETED);
+        }
+
+        long length = end - start;
+        Block lifted = null;
+        long[] span = null;
+        for (Map.Entry<Integer, long[]> entry : chains.entrySet()) {
+            long[] chain = entry.getValue();
+            if (length == 0L || chain[2] >= minMatch * length) {
+                if (lifted != null) {
+                    return new Result(record, null, DUPLICATED);
+                }
+                lifted = first.get(entry.getKey());
+                span = chain;
+            }
+        }
+        if (lifted == null) {
+            return new Result(record, null, PARTIALLY_DELETED);
+        }
+        BedRecord target = (record.name() == null) ? new BedRecord(lifted.targetChrom, span[0], span[1])
+            : new BedRecord(lifted.targetChrom, span[0], span[1], record.name());
+        return new Result(record, target, null);
+    }
+
+
+    /**
+     * Create and return a new liftover index from the specified reference BED records.  Each reference
+     * record places the source chromosome named by the record name at its coordinates in the target
+     * assembly.  Where more than one reference record has the same name, the last one is used.
+     *
+     * @param reader reader to read reference BED records from, must not be null
+     * @return a new liftover index from the specified reference BED records
+     * @throws IOException if an I/O error occurs, or if a reference BED record has no name
+     */
+    static Liftover fromRefBed(final BufferedReader reader) throws IOException {
+        checkNotNull(reader);
+        final Map<String, BedRecord> ref = new LinkedHashMap<String, BedRecord>(10000);
+        final BedRecord[] unnamed = new BedRecord[1];
+        BedReader.stream(reader, new BedListener() {
+                @Override
+                public boolean record(final BedRecord rec) {
+                    if (rec.name() == null) {
+                        unnamed[0] = rec;
+                        return false;
+                    }
+                    ref.put(rec.name(), rec);
+                    return true;
+                }
+            });
+        if (unnamed[0] != null) {
+            throw new IOException("reference BED record has no name, expected the source chromosome name in column 4: " + unnamed[0]);
+        }
+
+        List<Block> blocks = new ArrayList<Block>(ref.size());
+        int chain = 0;
+        for (BedRecord rec : ref.values()) {
+            blocks.add(new Block(chain++, rec.name(), 0L, rec.end() - rec.start(), rec.chrom(), rec.start(), 0L, false));
+        }
+        return new Liftover(blocks);
+    }
+
+    /**
+     * Create and return a new liftover index from the specified chain file.  Chains map from
+     * the reference (<code>t</code>) to the query (<code>q</code>) assembly.
+     *
+     * @param reader reader to read chains from, must not be null
+     * @return a new liftover index from the specified chain file
+     * @throws IOException if an I/O error occurs, or if the chain file is not valid
+     */
+    static Liftover fromChain(final BufferedReader reader) throws IOException {
+        checkNotNull(reader);
+        List<Block> blocks = new ArrayList<Block>();
+
+        int chain = -1;
+        String sourceChrom = null;
+        String targetChrom = null;
+        long targetSize = 0L;
+        boolean reverse = false;
+        long sourcePosition = 0L;
+        long targetPosition = 0L;
+        boolean inChain = false;
+        int lineNumber = 0;
+        try {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                List<String> tokens = WHITESPACE.splitToList(line);
+                if (tokens.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if ("chain".equals(tokens.get(0))) {
+                    checkArgument(!inChain, "missing final block size before new chain");
+                    checkArgument(tokens.size() >= 12, "chain header must have at least 12 fields");
+                    checkArgument("+".equals(tokens.get(4)), "reference strand must be +");
+                    chain++;
+                    sourceChrom = tokens.get(2);
+                    sourcePosition = Long.parseLong(tokens.get(5));
+                    targetChrom = tokens.get(7);
+                    targetSize = Long.parseLong(tokens.get(8));
+                    reverse = "-".equals(tokens.get(9));
+                    targetPosition = Long.parseLong(tokens.get(10));
+                    inChain = true;
+                }
+                else {
+                    checkArgument(inChain, "alignment block outside of chain");
+                    long size = Long.parseLong(tokens.get(0));
+                    blocks.add(new Block(chain, sourceChrom, sourcePosition, sourcePosition + size, targetChrom, targetPosition, targetSize, reverse));
+                    if (tokens.size() >= 3) {
+                        sourcePosition += size + Long.parseLong(tokens.get(1));
+                        targetPosition += size + Long.parseLong(tokens.get(2));
+                    }
+                    else {
+                        inChain = false;
+                    }
+                }
+            }
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException("could not read chain at line " + lineNumber + ", caught " + e.getMessage(), e);
+        }
+        return new Liftover(blocks);
+    }
+
+    /**
+     * Ungapped alignment block from a source range to a target range of the same length.
+     */
+    static final class Block {
+        /** Chain this block belongs to. */
+        private final int chain;
+
+        /** Source chromosome. */
+        private final String sourceChrom;
+
+        /** Source start, 0-based. */
+        private final long sourceStart;
+
+        /** Source end, 0-based, exclusive. */
+        private final long sourceEnd;
+
+        /** Target chromosome. */
+        private final String targetChrom;
+
+        /** Target start, 0-based, on the reverse strand if reverse. */
+        private final long targetStart;
+
+        /** Target chromosome size, used if reverse. */
+        private final long targetSize;
+
+        /** True if the target range is on the reverse strand. */
+        private final boolean reverse;
+
+
+        /**
+         * Create a new alignment block.
+         *
+         * @param chain chain this block belongs to
+         * @param sourceChrom source chromosome, must not be null
+         * @param sourceStart source start, 0-based
+         * @param sourceEnd source end, 0-based, exclusive
+         * @param targetChrom target chromosome, must not be null
+         * @param targetStart target start, 0-based, on the reverse strand if reverse
+         * @param targetSize target chromosome size, used if reverse
+         * @param reverse true if the target range is on the reverse strand
+         */
+        Block(final int chain, final String sourceChrom, final long sourceStart, final long sourceEnd,
+              final String targetChrom, final long targetStart, final long targetSize, final boolean reverse) {
+            checkNotNull(sourceChrom);
+            checkNotNull(targetChrom);
+            checkArgument(sourceStart >= 0L, "sourceStart must be at least zero");
+            checkArgument(sourceEnd >= sourceStart, "sourceEnd must be greater than or equal to sourceStart");
+            this.chain = chain;
+            this.sourceChrom = sourceChrom;
+            this.sourceStart = sourceStart;
+            this.sourceEnd = sourceEnd;
+            this.targetChrom = targetChrom;
+            this.targetStart = targetStart;
+            this.targetSize = targetSize;
+            this.reverse = reverse;
+        }
+
+
+        /**
+         * Return the source range of this block.
+         *
+         * @return the source range of this block
+         */
+        Range<Long> sourceRange() {
+            return Range.closedOpen(sourceStart, sourceEnd);
+        }
+
+        /**
+         * Return the forward strand target start or end position of the specified source range.
+         *
+         * @param start source start, 0-based, within this block
+         * @param end source end, 0-based, exclusive, within this block
+         * @param lower true to return the target start position, false to return the target end position
+         * @return the forward strand target start or end position of the specified source range
+         */
+        long targetPosition(final long start, final long end, final boolean lower) {
+            long targetRangeStart = targetStart + (start - sourceStart);
+            long targetRangeEnd = targetStart + (end - sourceStart);
+            if (reverse) {
+                return lower ? targetSize - targetRangeEnd : targetSize - targetRangeStart;
+            }
+            return lower ? targetRangeStart : targetRangeEnd;
+        }
+    }
+
+    /**
+     * Result of lifting a record over.
+     */
+    static final class Result {
+        /** Source record. */
+        private final BedRecord source;
+
+        /** Lifted record, if any. */
+        private final BedRecord lifted;
+
+        /** Reason the record was not lifted, if any. */
+        private final String reason;
+
+
+        /**
+         * Create a new result.
+         *
+         * @param source source record
+         * @param lifted lifted record, if any
+         * @param reason reason the record was not lifted, if any
+         */
+        private Result(final BedRecord source, final BedRecord lifted, final String reason) {
+            this.source = source;
+            this.lifted = lifted;
+            this.reason = reason;
+        }
+
+
+        /**
+         * Return the source record.
+         *
+         * @return the source record
+         */
+        BedRecord getSource() {
+            return source;
+        }
+
+        /**
+         * Return the lifted record, or null if the record was not lifted.
+         *
+         * @return the lifted record, or null if the record was not lifted
+         */
+        BedRecord getLifted() {
+            return lifted;
+        }
+
+        /**
+         * Return the reason the record was not lifted, or null if the record was lifted.
+         *
+         * @return the reason the record was not lifted, or null if the record was lifted
+         */
+        String getReason() {
+            return reason;
+        }
+    }
+}
@@ -22,20 +22,30 @@
 */
 package org.nmdp.ngs.tools;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.PrintWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.dishevelled.commandline.ArgumentList;
 import org.dishevelled.commandline.CommandLine;
@@ -44,7 +54,9 @@ import org.dishevelled.commandline.CommandLineParser;
 import org.dishevelled.commandline.Switch;
 import org.dishevelled.commandline.Usage;
 
+import org.dishevelled.commandline.argument.DoubleArgument;
 import org.dishevelled.commandline.argument.FileArgument;
+import org.dishevelled.commandline.argument.IntegerArgument;
 
 import org.nmdp.ngs.align.BedListener;
 import org.nmdp.ngs.align.BedReader;
@@ -56,9 +68,15 @@ import org.nmdp.ngs.align.BedWriter;
  */
 public final class LiftoverBed implements Callable<Integer> {
     private final File refBedFile;
+    private final File chainFile;
     private final File sourceBedFile;
     private final File targetBedFile;
-    private static final String USAGE = "ngs-liftover-bed -r ref.bed.gz [args]";
+    private final File unmappedBedFile;
+    private final double minMatch;
+    private final int threads;
+    static final double DEFAULT_MIN_MATCH = 1.0d;
+    static final int BATCH_SIZE = 10000;
+    private static final String USAGE = "ngs-liftover-bed (-r ref.bed.gz | -c chain.gz) [args]";
 
 
     /**
@@ -69,43 +87,57 @@ public final class LiftoverBed implements Callable<Integer> {
      * @param targetBedFile target BED file, if any
      */
     public LiftoverBed(final File refBedFile, final File sourceBedFile, final File targetBedFile) {
-        checkNotNull(refBedFile);
+        this(checkNotNull(refBedFile), null, sourceBedFile, targetBedFile, null, DEFAULT_MIN_MATCH, Streams.THREADS);
+    }
+
+    /**
+     * Liftover BED file.
+     *
+     * @param refBedFile reference BED file, if any
+     * @param chainFile chain file, if any; exactly one of reference BED file or chain file must not be null
+     * @param sourceBedFile source BED file, if any
+     * @param targetBedFile target BED file, if any
+     * @param unmappedBedFile unmapped BED file, if any
+     * @param minMatch minimum fraction of bases in each record that must map, must be greater than zero
+     *    and less than or equal to one
+     * @param threads number of batches of records to lift over concurrently, must be at least one
+     */
+    public LiftoverBed(final File refBedFile, final File chainFile, final File sourceBedFile, final File targetBedFile,
+                       final File unmappedBedFile, final double minMatch, final int threads) {
+        checkArgument((refBedFile == null) != (chainFile == null), "exactly one of refBedFile or chainFile must not be null");
+        checkArgument(minMatch > 0.0d && minMatch <= 1.0d, "minMatch must be greater than zero and less than or equal to one");
+        checkArgument(threads > 0, "threads must be at least one");
         this.refBedFile = refBedFile;
+        this.chainFile = chainFile;
         this.sourceBedFile = sourceBedFile;
         this.targetBedFile = targetBedFile;
+        this.unmappedBedFile = unmappedBedFile;
+        this.minMatch = minMatch;
+        this.threads = threads;
     }
 
 
     @Override
     public Integer call() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("liftover-bed-%d").build());
         BufferedReader reader = null;
         PrintWriter writer = null;
+        PrintWriter unmapped = null;
         try {
+            Liftover liftover = readLiftover();
+
             reader = reader(sourceBedFile);
             writer = writer(targetBedFile);
+            unmapped = (unmappedBedFile == null) ? null : writer(unmappedBedFile);
 
-            final PrintWriter w = writer;
-            final Map<String, BedRecord> ref = readRefFile();
-            BedReader.stream(reader, new BedListener() {
-                    @Override
-                    public boolean record(final BedRecord source) {
-                        BedRecord target = ref.get(source.chrom());
-
-                        if (target != null) {
-                            BedRecord lifted = new BedRecord(target.chrom(),
-                                                             target.start() + source.start(),
-                                                             target.start() + source.start() + (source.end() - source.start()),
-                                                             source.name());
-
-                            BedWriter.write(lifted, w);
-                        }
-                        return true;
-                    }
-                });
-
+            // stream batches of source records to workers, write results in source order
+            Batches batches = new Batches(liftover, executorService, writer, unmapped);
+            BedReader.stream(reader, batches);
+            batches.finish();
             return 0;
         }
         finally {
+            executorService.shutdownNow();
             try {
                 reader.close();
             }
@@ -118,25 +150,27 @@ public final class LiftoverBed implements Callable<Integer> {
             catch (Exception e) {
                 // empty
             }
+            try {
+                unmapped.close();
+            }
+            catch (Exception e) {
+                // empty
+            }
         }
     }
 
-    private Map<String, BedRecord> readRefFile() throws IOException {
+    /**
+     * Read the liftover index from the reference BED file or chain file.
+     */
+    private Liftover readLiftover() throws IOException {
         BufferedReader reader = null;
-        final Map<String, BedRecord> ref = new HashMap<String, BedRecord>(10000);
         try {
+            if (chainFile != null) {
+                reader = reader(chainFile);
+                return Liftover.fromChain(reader);
+            }
             reader = reader(refBedFile);
-
-            BedReader.stream(reader, new BedListener() {
-                    @Override
-                    public boolean record(final BedRecord rec) {
-                        BedRecord prev = ref.put(rec.name(), rec);
-                        if (prev != null) {
-                            // warn non-unique mapping
-                        }
-                        return true;
-                    }
-                });
+            return Liftover.fromRefBed(reader);
         }
         finally {
             try {
@@ -146,7 +180,139 @@ public final class LiftoverBed implements Callable<Integer> {
                 // empty
             }
         }
-        return ref;
+    }
+
+    /**
+     * Write the results of the specified batch to the target and unmapped BED files.
+     */
+    private static void write(final Future<List<Liftover.Result>> future, final PrintWriter writer, final PrintWriter unmapped) throws IOException {
+        List<Liftover.Result> results;
+        try {
+            results = future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for lifted BED records");
+        }
+        catch (ExecutionException e) {
+            throw new IOException("could not lift BED records", e.getCause());
+        }
+        for (Liftover.Result result : results) {
+            if (result.getLifted() != null) {
+                BedWriter.write(result.getLifted(), writer);
+            }
+            else if (unmapped != null) {
+                unmapped.println("#" + result.getReason());
+                BedWriter.write(result.getSource(), unmapped);
+            }
+        }
+    }
+
+    /**
+     * BED listener that submits batches of source records to be lifted over, keeping
+     * at most twice as many batches in flight as threads.
+     */
+    private final class Batches implements BedListener {
+        private final Liftover liftover;
+        private final ExecutorService executorService;
+        private final PrintWriter writer;
+        private final PrintWriter unmapped;
+        private final Deque<Future<List<Liftover.Result>>> futures = new ArrayDeque<Future<List<Liftover.Result>>>();
+        private List<BedRecord> batch = new ArrayList<BedRecord>(BATCH_SIZE);
+        private IOException failure;
+
+
+        /**
+         * Create a new batches listener.
+         *
+         * @param liftover liftover index
+         * @param executorService executor service
+         * @param writer target BED writer
+         * @param unmapped unmapped BED writer, if any
+         */
+        private Batches(final Liftover liftover, final ExecutorService executorService, final PrintWriter writer, final PrintWriter unmapped) {
+            this.liftover = liftover;
+            this.executorService = executorService;
+            this.writer = writer;
+            this.unmapped = unmapped;
+        }
+
+
+        @Override
+        public boolean record(final BedRecord source) {
+            batch.add(source);
+            if (batch.size() == BATCH_SIZE) {
+                submit();
+                try {
+                    while (futures.size() > 2 * threads) {
+                        write(futures.remove(), writer, unmapped);
+                    }
+                }
+                catch (IOException e) {
+                    failure = e;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Submit the current batch, if not empty.
+         */
+        private void submit() {
+            if (!batch.isEmpty()) {
+                futures.add(executorService.submit(new LiftBatch(liftover, batch, minMatch)));
+                batch = new ArrayList<BedRecord>(BATCH_SIZE);
+            }
+        }
+
+        /**
+         * Submit the last batch and write the results of all remaining batches.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        void finish() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            submit();
+            while (!futures.isEmpty()) {
+                write(futures.remove(), writer, unmapped);
+            }
+        }
+    }
+
+    /**
+     * Lift a batch of source records over.
+     */
+    private static final class LiftBatch implements Callable<List<Liftover.Result>> {
+        private final Liftover liftover;
+        private final List<BedRecord> batch;
+        private final double minMatch;
+
+
+        /**
+         * Create a new lift batch task.
+         *
+         * @param liftover liftover index
+         * @param batch batch of source records
+         * @param minMatch minimum fraction of bases in each record that must map
+         */
+        private LiftBatch(final Liftover liftover, final List<BedRecord> batch, final double minMatch) {
+            this.liftover = liftover;
+            this.batch = batch;
+            this.minMatch = minMatch;
+        }
+
+
+        @Override
+        public List<Liftover.Result> call() {
+            List<Liftover.Result> results = new ArrayList<Liftover.Result>(batch.size());
+            for (BedRecord source : batch) {
+                results.add(liftover.lift(source, minMatch));
+            }
+            return results;
+        }
     }
 
 
@@ -158,11 +324,15 @@ public final class LiftoverBed implements Callable<Integer> {
     public static void main(final String[] args) {
         Switch about = new Switch("a", "about", "display about message");
         Switch help = new Switch("h", "help", "display help message");
-        FileArgument refBedFile = new FileArgument("r", "ref-bed-file", "reference BED file", true);
+        FileArgument refBedFile = new FileArgument("r", "ref-bed-file", "reference BED file", false);
+        FileArgument chainFile = new FileArgument("c", "chain-file", "chain file", false);
         FileArgument sourceBedFile = new FileArgument("i", "source-bed-file", "input BED file, default stdin", false);
         FileArgument targetBedFile = new FileArgument("o", "target-bed-file", "output BED file, default stdout", false);
+        FileArgument unmappedBedFile = new FileArgument("u", "unmapped-bed-file", "output unmapped BED file, if any", false);
+        DoubleArgument minMatch = new DoubleArgument("m", "min-match", "minimum fraction of bases in each record that must map, default " + DEFAULT_MIN_MATCH, false);
+        IntegerArgument threads = new IntegerArgument("t", "threads", "number of batches of records to lift over concurrently, default " + Streams.THREADS, false);
 
-        ArgumentList arguments = new ArgumentList(about, help, refBedFile, sourceBedFile, targetBedFile);
+        ArgumentList arguments = new ArgumentList(about, help, refBedFile, chainFile, sourceBedFile, targetBedFile, unmappedBedFile, minMatch, threads);
         CommandLine commandLine = new CommandLine(args);
 
         LiftoverBed liftoverBed = null;
@@ -176,9 +346,10 @@ public final class LiftoverBed implements Callable<Integer> {
                 Usage.usage(USAGE, null, commandLine, arguments, System.out);
                 System.exit(0);
             }
-            liftoverBed = new LiftoverBed(refBedFile.getValue(), sourceBedFile.getValue(), targetBedFile.getValue());
+            liftoverBed = new LiftoverBed(refBedFile.getValue(), chainFile.getValue(), sourceBedFile.getValue(), targetBedFile.getValue(),
+                                          unmappedBedFile.getValue(), minMatch.getValue(DEFAULT_MIN_MATCH), threads.getValue(Streams.THREADS));
         }
-        catch (CommandLineParseException e) {
+        catch (CommandLineParseException | IllegalArgumentException e) {
             if (about.wasFound()) {
                 About.about(System.out);
                 System.exit(0);
@@ -22,22 +22,28 @@
 */
 package org.nmdp.ngs.tools;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static com.google.common.base.Preconditions.checkArgument;
+
+import static org.nmdp.ngs.tools.Streams.inputStream;
+import static org.nmdp.ngs.tools.Streams.indexedFasta;
+import static org.nmdp.ngs.tools.Streams.writer;
 
-import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.PrintWriter;
 
-import java.util.concurrent.Callable;
-
-import org.biojava.bio.seq.DNATools;
-import org.biojava.bio.seq.Sequence;
-import org.biojava.bio.seq.SequenceIterator;
+import java.util.ArrayList;
+import java.util.List;
 
-import org.biojava.bio.seq.io.SeqIOTools;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import org.biojava.bio.symbol.Symbol;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.dishevelled.commandline.ArgumentList;
 import org.dishevelled.commandline.CommandLine;
@@ -47,17 +53,25 @@ import org.dishevelled.commandline.Switch;
 import org.dishevelled.commandline.Usage;
 
 import org.dishevelled.commandline.argument.FileArgument;
+import org.dishevelled.commandline.argument.IntegerArgument;
 
 import org.nmdp.ngs.align.BedRecord;
 import org.nmdp.ngs.align.BedWriter;
 
+import org.nmdp.ngs.reads.fasta.IndexedFasta;
+import org.nmdp.ngs.reads.fasta.MaskedRegionListener;
+import org.nmdp.ngs.reads.fasta.MaskedRegions;
+
 /**
- * Convert hard-masked regions in a FASTA file to BED format.
+ * Convert hard-masked regions in a FASTA file to BED format.  Every maximal run of <code>N</code> or
+ * <code>n</code> bases is written as a BED record, including single-base runs and runs that reach the
+ * end of a sequence.
  */
-@SuppressWarnings("deprecation")
 public final class MaskedToBed implements Callable<Integer> {
     private final File fastaFile;
     private final File bedFile;
+    private final int threads;
+    private static final String NAME = "hard-mask";
     private static final String USAGE = "ngs-masked-to-bed [args]";
 
 
@@ -68,59 +82,69 @@ public final class MaskedToBed implements Callable<Integer> {
      * @param bedFile output BED file, if any
      */
     public MaskedToBed(final File fastaFile, final File bedFile) {
+        this(fastaFile, bedFile, Streams.THREADS);
+    }
+
+    /**
+     * Convert hard-masked regions in a FASTA file to BED format.
+     *
+     * @param fastaFile input hard-masked FASTA file, if any
+     * @param bedFile output BED file, if any
+     * @param threads number of sequences to scan concurrently, must be at least one;
+     *    only uncompressed input FASTA files are scanned concurrently
+     */
+    public MaskedToBed(final File fastaFile, final File bedFile, final int threads) {
+        checkArgument(threads > 0, "threads must be at least one");
         this.fastaFile = fastaFile;
         this.bedFile = bedFile;
+        this.threads = threads;
     }
 
 
     @Override
     public Integer call() throws Exception {
-        BufferedReader reader = null;
         PrintWriter writer = null;
         try {
-            reader = reader(fastaFile);
             writer = writer(bedFile);
-
-            for (SequenceIterator iter = SeqIOTools.readFastaDNA(reader); iter.hasNext(); ) {
-                Sequence sequence = iter.nextSequence();
-                String ref = sequence.getName();
-
-                int start = -1;
-                int end = -1;
-                for (int i = 1; i < sequence.length(); i++) {
-                    Symbol symbol = sequence.symbolAt(i);
-                    if (DNATools.n().equals(symbol)) {
-                        if (start < 0) {
-                            start = i;
-                            end = i;
-                        }
-                        else {
-                            end = i;
-                        }
-                    }
-                    else {
-                        if (start > 0) {
-                            if (end > start) {
-                                BedWriter.write(new BedRecord(ref, start - 1, end, "hard-mask"), writer);
-                            }
-                            start = -1;
-                            end = -1;
-                        }
-                    }
-                }
+            IndexedFasta fasta = indexedFasta(fastaFile);
+            if (fasta != null) {
+                scanIndexed(fasta, writer);
+            }
+            else {
+                scanStream(writer);
             }
-
             return 0;
         }
         finally {
             try {
-                reader.close();
+                writer.close();
             }
             catch (Exception e) {
                 // empty
             }
+        }
+    }
+
+    /**
+     * Scan sequences in the memory-mapped input FASTA file concurrently, writing BED records in sequence order.
+     */
+    private void scanIndexed(final IndexedFasta fasta, final PrintWriter writer) throws IOException {
+        List<String> names = fasta.getNames();
+        int poolSize = Math.max(1, Math.min(names.size(), threads));
+        ExecutorService executorService = Executors.newFixedThreadPool(poolSize, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("masked-to-bed-%d").build());
+        try {
+            List<Future<List<BedRecord>>> futures = new ArrayList<Future<List<BedRecord>>>(names.size());
+            for (String name : names) {
+                futures.add(executorService.submit(new ScanSequence(fasta, name)));
+            }
+            for (Future<List<BedRecord>> future : futures) {
+                BedWriter.write(get(future), writer);
+            }
+        }
+        finally {
+            executorService.shutdownNow();
             try {
-                writer.close();
+                fasta.close();
             }
             catch (Exception e) {
                 // empty
@@ -128,6 +152,80 @@ public final class MaskedToBed implements Callable<Integer> {
         }
     }
 
+    /**
+     * Scan the input FASTA stream, writing BED records as each masked region closes.  Used for
+     * compressed input, standard input, and FASTA files that cannot be indexed.
+     */
+    private void scanStream(final PrintWriter writer) throws IOException {
+        InputStream inputStream = null;
+        try {
+            inputStream = inputStream(fastaFile);
+            MaskedRegions.scan(inputStream, new MaskedRegionListener() {
+                    @Override
+                    public void maskedRegion(final String name, final long start, final long end) {
+                        BedWriter.write(new BedRecord(name, start, end, NAME), writer);
+                    }
+                });
+        }
+        finally {
+            try {
+                inputStream.close();
+            }
+            catch (Exception e) {
+                // empty
+            }
+        }
+    }
+
+    /**
+     * Return the BED records scanned from a sequence, rethrowing any exception thrown while scanning.
+     */
+    private static List<BedRecord> get(final Future<List<BedRecord>> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for masked regions");
+        }
+        catch (ExecutionException e) {
+            throw new IOException("could not scan masked regions", e.getCause());
+        }
+    }
+
+    /**
+     * Scan a sequence in a memory-mapped FASTA file for masked regions.
+     */
+    private static final class ScanSequence implements Callable<List<BedRecord>> {
+        private final IndexedFasta fasta;
+        private final String name;
+
+
+        /**
+         * Create a new scan sequence task.
+         *
+         * @param fasta indexed FASTA file
+         * @param name sequence name
+         */
+        private ScanSequence(final IndexedFasta fasta, final String name) {
+            this.fasta = fasta;
+            this.name = name;
+        }
+
+
+        @Override
+        public List<BedRecord> call() {
+            final List<BedRecord> records = new ArrayList<BedRecord>();
+            MaskedRegions.scan(fasta, name, new MaskedRegionListener() {
+                    @Override
+                    public void maskedRegion(final String name, final long start, final long end) {
+                        records.add(new BedRecord(name, start, end, NAME));
+                    }
+                });
+            return records;
+        }
+    }
+
 
     /**
      * Main.
@@ -139,8 +237,9 @@ public final class MaskedToBed implements Callable<Integer> {
         Switch help = new Switch("h", "help", "display help message");
         FileArgument fastaFile = new FileArgument("i", "fasta-file", "input hard-masked FASTA file, default stdin", false);
         FileArgument bedFile = new FileArgument("o", "bed-file", "output BED file, default stdout", false);
+        IntegerArgument threads = new IntegerArgument("t", "threads", "number of sequences to scan concurrently, default " + Streams.THREADS, false);
 
-        ArgumentList arguments = new ArgumentList(about, help, fastaFile, bedFile);
+        ArgumentList arguments = new ArgumentList(about, help, fastaFile, bedFile, threads);
         CommandLine commandLine = new CommandLine(args);
 
         MaskedToBed maskedToBed = null;
@@ -154,9 +253,9 @@ public final class MaskedToBed implements Callable<Integer> {
                 Usage.usage(USAGE, null, commandLine, arguments, System.out);
                 System.exit(0);
             }
-            maskedToBed = new MaskedToBed(fastaFile.getValue(), bedFile.getValue());
+            maskedToBed = new MaskedToBed(fastaFile.getValue(), bedFile.getValue(), threads.getValue(Streams.THREADS));
         }
-        catch (CommandLineParseException e) {
+        catch (CommandLineParseException | IllegalArgumentException e) {
             Usage.usage(USAGE, e, commandLine, arguments, System.err);
             System.exit(-1);
         }
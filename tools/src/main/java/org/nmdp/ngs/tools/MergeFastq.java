@@ -22,26 +22,33 @@
 */
 package org.nmdp.ngs.tools;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.inputStream;
+import static org.nmdp.ngs.tools.Streams.outputStream;
 
 import java.io.File;
-import java.io.PrintWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.google.common.collect.ImmutableList;
 
-import org.biojava.bio.program.fastq.Fastq;
-import org.biojava.bio.program.fastq.FastqWriter;
-import org.biojava.bio.program.fastq.SangerFastqWriter;
-import org.biojava.bio.program.fastq.SangerFastqReader;
-import org.biojava.bio.program.fastq.StreamListener;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.dishevelled.commandline.ArgumentList;
 import org.dishevelled.commandline.CommandLine;
@@ -52,47 +59,110 @@ import org.dishevelled.commandline.Usage;
 
 import org.dishevelled.commandline.argument.FileArgument;
 import org.dishevelled.commandline.argument.FileListArgument;
+import org.dishevelled.commandline.argument.IntegerArgument;
+import org.dishevelled.commandline.argument.StringArgument;
+
+import org.nmdp.ngs.reads.fastq.FastqRecord;
+import org.nmdp.ngs.reads.fastq.FastqRecordReader;
 
 /**
- * Merge two or more files in FASTQ format.
+ * Merge two or more files in FASTQ format. Each record must span exactly four lines,
+ * multi-line FASTQ is not supported.
  */
 public final class MergeFastq implements Callable<Integer> {
     private final List<File> inputFastqFiles;
     private final File outputFastqFile;
-    private final FastqWriter fastqWriter = new SangerFastqWriter();
+    private final MergeOrder mergeOrder;
+    private final int threads;
     private static final String USAGE = "ngs-merge-fastq -i foo_1.fq.gz,bar_1.fq.gz [args]";
 
+    /** Target size of a batch of FASTQ records, in bytes. */
+    static final int BATCH_SIZE = 256 * 1024;
+
+    /** Number of batches queued per input file. */
+    static final int QUEUE_CAPACITY = 4;
 
     /**
-     * Merge two or more files in FASTQ format.
+     * Merge order.
+     */
+    public enum MergeOrder {
+        /** All records from each input file in turn. */
+        CONCATENATED,
+
+        /** One record from each input file in turn, until all input files are exhausted. */
+        ROUND_ROBIN,
+
+        /** Batches of records from whichever input file produces them first. */
+        UNORDERED
+    }
+
+
+    /**
+     * Merge two or more files in FASTQ format, concatenated.
      *
      * @param inputFastqFiles list of FASTQ input files, must not be null
      * @param outputFastqFile FASTQ output file, if any
      */
     public MergeFastq(final List<File> inputFastqFiles, final File outputFastqFile) {
+        this(inputFastqFiles, outputFastqFile, MergeOrder.CONCATENATED, Streams.THREADS);
+    }
+
+    /**
+     * Merge two or more files in FASTQ format.
+     *
+     * @param inputFastqFiles list of FASTQ input files, must not be null
+     * @param outputFastqFile FASTQ output file, if any
+     * @param mergeOrder merge order, must not be null
+     * @param threads number of input files to read concurrently, must be at least one;
+     *    round robin merge order reads all input files concurrently
+     */
+    public MergeFastq(final List<File> inputFastqFiles, final File outputFastqFile, final MergeOrder mergeOrder, final int threads) {
         checkNotNull(inputFastqFiles);
+        checkNotNull(mergeOrder);
+        checkArgument(threads > 0, "threads must be at least one");
         this.inputFastqFiles = ImmutableList.copyOf(inputFastqFiles);
         this.outputFastqFile = outputFastqFile;
+        this.mergeOrder = mergeOrder;
+        this.threads = threads;
     }
 
 
     @Override
     public Integer call() throws Exception {
-        PrintWriter writer = null;
+        int size = inputFastqFiles.size();
+        int poolSize = Math.max(1, (mergeOrder == MergeOrder.ROUND_ROBIN) ? size : Math.min(size, threads));
+        ExecutorService executorService = Executors.newFixedThreadPool(poolSize, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("merge-fastq-%d").build());
+
+        OutputStream outputStream = null;
         try {
-            writer = writer(outputFastqFile);
+            outputStream = outputStream(outputFastqFile);
 
-            Append append = new Append(fastqWriter, writer);
-            SangerFastqReader fastqReader = new SangerFastqReader();
-            for (File inputFastqFile : inputFastqFiles) {
-                fastqReader.stream(reader(inputFastqFile), append);
+            List<BlockingQueue<Batch>> queues = new ArrayList<BlockingQueue<Batch>>(size);
+            BlockingQueue<Batch> shared = (mergeOrder == MergeOrder.UNORDERED) ? new ArrayBlockingQueue<Batch>(QUEUE_CAPACITY * poolSize) : null;
+            List<Future<Void>> futures = new ArrayList<Future<Void>>(size);
+            for (int i = 0; i < size; i++) {
+                BlockingQueue<Batch> queue = (shared == null) ? new ArrayBlockingQueue<Batch>(QUEUE_CAPACITY) : shared;
+                queues.add(queue);
+                futures.add(executorService.submit(new ReadBatches(i, inputFastqFiles.get(i), queue)));
             }
 
+            switch (mergeOrder) {
+            case ROUND_ROBIN:
+                roundRobin(queues, futures, outputStream);
+                break;
+            case UNORDERED:
+                unordered(shared, futures, outputStream);
+                break;
+            default:
+                concatenated(queues, futures, outputStream);
+                break;
+            }
             return 0;
         }
         finally {
+            executorService.shutdownNow();
             try {
-                writer.close();
+                outputStream.close();
             }
             catch (Exception e) {
                 // ignore
@@ -101,24 +171,205 @@ public final class MergeFastq implements Callable<Integer> {
     }
 
     /**
-     * Append.
+     * Write all batches from each input file in turn.
+     */
+    private static void concatenated(final List<BlockingQueue<Batch>> queues, final List<Future<Void>> futures, final OutputStream outputStream) throws IOException {
+        for (int i = 0, size = queues.size(); i < size; i++) {
+            for (Batch batch = take(queues.get(i)); !batch.isEnd(); batch = take(queues.get(i))) {
+                batch.writeTo(outputStream);
+            }
+            check(futures.get(i));
+        }
+    }
+
+    /**
+     * Write one record from each input file in turn.
+     */
+    private static void roundRobin(final List<BlockingQueue<Batch>> queues, final List<Future<Void>> futures, final OutputStream outputStream) throws IOException {
+        int size = queues.size();
+        Batch[] batches = new Batch[size];
+        int[] positions = new int[size];
+        int remaining = size;
+        while (remaining > 0) {
+            for (int i = 0; i < size; i++) {
+                if (batches[i] != null && batches[i].isEnd()) {
+                    continue;
+                }
+                if (batches[i] == null || positions[i] == batches[i].count()) {
+                    batches[i] = take(queues.get(i));
+                    positions[i] = 0;
+                    if (batches[i].isEnd()) {
+                        check(futures.get(i));
+                        remaining--;
+                        continue;
+                    }
+                }
+                batches[i].writeRecordTo(positions[i]++, outputStream);
+            }
+        }
+    }
+
+    /**
+     * Write batches from whichever input file produces them first.
+     */
+    private static void unordered(final BlockingQueue<Batch> queue, final List<Future<Void>> futures, final OutputStream outputStream) throws IOException {
+        int remaining = futures.size();
+        while (remaining > 0) {
+            Batch batch = take(queue);
+            if (batch.isEnd()) {
+                check(futures.get(batch.index()));
+                remaining--;
+            }
+            else {
+                batch.writeTo(outputStream);
+            }
+        }
+    }
+
+    /**
+     * Take the next batch from the specified queue.
+     */
+    private static Batch take(final BlockingQueue<Batch> queue) throws IOException {
+        try {
+            return queue.take();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for FASTQ records");
+        }
+    }
+
+    /**
+     * Rethrow any exception thrown while reading an input file.
+     */
+    private static void check(final Future<Void> future) throws IOException {
+        try {
+            future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for FASTQ records");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("could not read FASTQ records", e.getCause());
+        }
+    }
+
+    /**
+     * Read batches of FASTQ records from an input file.
      */
-    private static final class Append implements StreamListener {
-        private final FastqWriter fastqWriter;
-        private final PrintWriter writer;
+    private static final class ReadBatches implements Callable<Void> {
+        private final int index;
+        private final File inputFastqFile;
+        private final BlockingQueue<Batch> queue;
 
-        private Append(final FastqWriter fastqWriter, final PrintWriter writer) {
-            this.fastqWriter = fastqWriter;
-            this.writer = writer;
+        private ReadBatches(final int index, final File inputFastqFile, final BlockingQueue<Batch> queue) {
+            this.index = index;
+            this.inputFastqFile = inputFastqFile;
+            this.queue = queue;
         }
 
         @Override
-        public void fastq(final Fastq fastq) {
+        public Void call() throws Exception {
+            FastqRecordReader reader = null;
             try {
-                fastqWriter.append(writer, fastq);
+                reader = new FastqRecordReader(inputStream(inputFastqFile));
+                FastqRecord record = new FastqRecord();
+                Batch batch = new Batch(index, false);
+                while (reader.next(record)) {
+                    batch.add(record);
+                    if (batch.size() >= BATCH_SIZE) {
+                        queue.put(batch);
+                        batch = new Batch(index, false);
+                    }
+                }
+                if (batch.count() > 0) {
+                    queue.put(batch);
+                }
+                return null;
+            }
+            finally {
+                try {
+                    reader.close();
+                }
+                catch (Exception e) {
+                    // ignore
+                }
+                queue.put(new Batch(index, true));
+            }
+        }
+    }
+
+    /**
+     * Batch of FASTQ records copied as bytes.
+     */
+    private static final class Batch extends OutputStream {
+        private final int index;
+        private final boolean end;
+        private byte[] bytes;
+        private int size;
+        private int[] ends;
+        private int count;
+
+        private Batch(final int index, final boolean end) {
+            this.index = index;
+            this.end = end;
+            bytes = new byte[end ? 0 : BATCH_SIZE + 1024];
+            ends = new int[end ? 0 : 1024];
+        }
+
+        int index() {
+            return index;
+        }
+
+        boolean isEnd() {
+            return end;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int count() {
+            return count;
+        }
+
+        void add(final FastqRecord record) throws IOException {
+            record.writeTo(this);
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, ends.length * 2);
             }
-            catch (IOException e) {
-                // todo:  rethrow?
+            ends[count++] = size;
+        }
+
+        void writeTo(final OutputStream outputStream) throws IOException {
+            outputStream.write(bytes, 0, size);
+        }
+
+        void writeRecordTo(final int record, final OutputStream outputStream) throws IOException {
+            int start = (record == 0) ? 0 : ends[record - 1];
+            outputStream.write(bytes, start, ends[record] - start);
+        }
+
+        @Override
+        public void write(final int b) {
+            ensureCapacity(size + 1);
+            bytes[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] b, final int offset, final int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(b, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void ensureCapacity(final int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
             }
         }
     }
@@ -134,8 +385,10 @@ public final class MergeFastq implements Callable<Integer> {
         Switch help = new Switch("h", "help", "display help message");
         FileListArgument inputFastqFiles = new FileListArgument("i", "input-fastq-files", "list of FASTQ input files", true);
         FileArgument outputFastqFile = new FileArgument("o", "output-fastq-file", "FASTQ output file, default stdout", false);
+        StringArgument mergeOrder = new StringArgument("r", "merge-order", "merge order, one of { concatenated, round-robin, unordered }, default concatenated", false);
+        IntegerArgument threads = new IntegerArgument("t", "threads", "number of input files to read concurrently, default " + Streams.THREADS, false);
 
-        ArgumentList arguments = new ArgumentList(about, help, inputFastqFiles, outputFastqFile);
+        ArgumentList arguments = new ArgumentList(about, help, inputFastqFiles, outputFastqFile, mergeOrder, threads);
         CommandLine commandLine = new CommandLine(args);
 
         MergeFastq mergeFastq = null;
@@ -149,7 +402,8 @@ public final class MergeFastq implements Callable<Integer> {
                 Usage.usage(USAGE, null, commandLine, arguments, System.out);
                 System.exit(0);
             }
-            mergeFastq = new MergeFastq(inputFastqFiles.getValue(), outputFastqFile.getValue());
+            MergeOrder order = mergeOrder.wasFound() ? MergeOrder.valueOf(mergeOrder.getValue().toUpperCase(Locale.US).replace('-', '_')) : MergeOrder.CONCATENATED;
+            mergeFastq = new MergeFastq(inputFastqFiles.getValue(), outputFastqFile.getValue(), order, threads.getValue(Streams.THREADS));
         }
         catch (CommandLineParseException e) {
             if (about.wasFound()) {
@@ -163,6 +417,10 @@ public final class MergeFastq implements Callable<Integer> {
             Usage.usage(USAGE, e, commandLine, arguments, System.err);
             System.exit(-1);
         }
+        catch (IllegalArgumentException e) {
+            Usage.usage(USAGE, e, commandLine, arguments, System.err);
+            System.exit(-1);
+        }
         try {
             System.exit(mergeFastq.call());
         }
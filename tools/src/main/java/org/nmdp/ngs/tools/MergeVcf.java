@@ -0,0 +1,171 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.PrintWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.ImmutableList;
+
+import org.dishevelled.commandline.ArgumentList;
+import org.dishevelled.commandline.CommandLine;
+import org.dishevelled.commandline.CommandLineParseException;
+import org.dishevelled.commandline.CommandLineParser;
+import org.dishevelled.commandline.Switch;
+import org.dishevelled.commandline.Usage;
+
+import org.dishevelled.commandline.argument.FileArgument;
+import org.dishevelled.commandline.argument.FileListArgument;
+import org.dishevelled.commandline.argument.StringListArgument;
+
+import org.nmdp.ngs.variant.vcf.VcfMerger;
+
+/**
+ * Merge coordinate-sorted variants in VCF format.
+ */
+public final class MergeVcf implements Callable<Integer> {
+    private final List<File> inputVcfFiles;
+    private final List<String> chromosomes;
+    private final File outputVcfFile;
+    private static final String USAGE = "ngs-merge-vcf -i foo.vcf.gz,bar.vcf.gz [-c 1,2,3] -o foo-bar.vcf.gz";
+
+
+    /**
+     * Merge coordinate-sorted variants in VCF format.
+     *
+     * @param inputVcfFiles list of input VCF files, must not be null
+     * @param outputVcfFile output VCF file, if any
+     */
+    public MergeVcf(final List<File> inputVcfFiles, final File outputVcfFile) {
+        this(inputVcfFiles, ImmutableList.<String>of(), outputVcfFile);
+    }
+
+    /**
+     * Merge coordinate-sorted variants in VCF format.
+     *
+     * @param inputVcfFiles list of input VCF files, must not be null
+     * @param chromosomes list of chromosomes in coordinate-sort order, must not be null
+     * @param outputVcfFile output VCF file, if any
+     */
+    public MergeVcf(final List<File> inputVcfFiles, final List<String> chromosomes, final File outputVcfFile) {
+        checkNotNull(inputVcfFiles);
+        checkNotNull(chromosomes);
+        this.inputVcfFiles = ImmutableList.copyOf(inputVcfFiles);
+        this.chromosomes = ImmutableList.copyOf(chromosomes);
+        this.outputVcfFile = outputVcfFile;
+    }
+
+
+    @Override
+    public Integer call() throws Exception {
+        List<BufferedReader> readers = new ArrayList<BufferedReader>(inputVcfFiles.size());
+        PrintWriter writer = null;
+        try {
+            for (File inputVcfFile : inputVcfFiles) {
+                readers.add(reader(inputVcfFile));
+            }
+            writer = writer(outputVcfFile);
+            VcfMerger.merge(readers, chromosomes, writer);
+            return 0;
+        }
+        finally {
+            for (BufferedReader reader : readers) {
+                try {
+                    reader.close();
+                }
+                catch (Exception e) {
+                    // ignore
+                }
+            }
+            try {
+                writer.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+
+    /**
+     * Main.
+     *
+     * @param args command line args
+     */
+    public static void main(final String[] args) {
+        Switch about = new Switch("a", "about", "display about message");
+        Switch help = new Switch("h", "help", "display help message");
+        FileListArgument inputVcfFiles = new FileListArgument("i", "input-vcf-files", "comma-separated list of coordinate-sorted input VCF files", true);
+        StringListArgument chromosomes = new StringListArgument("c", "chromosomes", "comma-separated list of chromosomes in coordinate-sort order, default from ##contig header lines", false);
+        FileArgument outputVcfFile = new FileArgument("o", "output-vcf-file", "output VCF file, default stdout", false);
+
+        ArgumentList arguments = new ArgumentList(about, help, inputVcfFiles, chromosomes, outputVcfFile);
+        CommandLine commandLine = new CommandLine(args);
+
+        MergeVcf mergeVcf = null;
+        try
+        {
+            CommandLineParser.parse(commandLine, arguments);
+            if (about.wasFound()) {
+                About.about(System.out);
+                System.exit(0);
+            }
+            if (help.wasFound()) {
+                Usage.usage(USAGE, null, commandLine, arguments, System.out);
+                System.exit(0);
+            }
+            List<String> chromosomeOrder = chromosomes.wasFound() ? chromosomes.getValue() : ImmutableList.<String>of();
+            mergeVcf = new MergeVcf(inputVcfFiles.getValue(), chromosomeOrder, outputVcfFile.getValue());
+        }
+        catch (CommandLineParseException e) {
+            if (about.wasFound()) {
+                About.about(System.out);
+                System.exit(0);
+            }
+            if (help.wasFound()) {
+                Usage.usage(USAGE, null, commandLine, arguments, System.out);
+                System.exit(0);
+            }
+            Usage.usage(USAGE, e, commandLine, arguments, System.err);
+            System.exit(-1);
+        }
+        try {
+            System.exit(mergeVcf.call());
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
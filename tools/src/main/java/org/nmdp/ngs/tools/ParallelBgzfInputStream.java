@@ -0,0 +1,272 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import static org.nmdp.ngs.tools.ParallelBgzfOutputStream.FOOTER_LENGTH;
+import static org.nmdp.ngs.tools.ParallelBgzfOutputStream.HEADER_LENGTH;
+import static org.nmdp.ngs.tools.ParallelBgzfOutputStream.get;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.google.common.io.ByteStreams;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Input stream that decompresses block compressed gzip (BGZF) blocks in parallel.
+ *
+ * <p>
+ * Compressed blocks are read ahead on the calling thread and inflated on a pool
+ * of threads, which may be shared between streams; decompressed blocks are returned in order.
+ * </p>
+ */
+final class ParallelBgzfInputStream extends InputStream {
+    /** Empty block. */
+    private static final byte[] EMPTY = new byte[0];
+
+    /** Input stream. */
+    private final InputStream inputStream;
+
+    /** Executor service. */
+    private final ExecutorService executorService;
+
+    /** True if the executor service is owned by this input stream. */
+    private final boolean owned;
+
+    /** Maximum number of pending blocks. */
+    private final int capacity;
+
+    /** Pending decompressed blocks, in order. */
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+
+    /** Current decompressed block. */
+    private byte[] current = EMPTY;
+
+    /** Position in the current decompressed block. */
+    private int position;
+
+    /** True if the end of the compressed input stream has been reached. */
+    private boolean eof;
+
+
+    /**
+     * Create a new parallel BGZF input stream with its own pool of decompression threads,
+     * shut down when this input stream is closed.
+     *
+     * @param inputStream input stream to read compressed blocks from, must not be null
+     * @param threads number of decompression threads, must be at least one
+     */
+    ParallelBgzfInputStream(final InputStream inputStream, final int threads) {
+        this(inputStream, threads, null);
+    }
+
+    /**
+     * Create a new parallel BGZF input stream with the specified shared executor service,
+     * which is not shut down when this input stream is closed.
+     *
+     * @param inputStream input stream to read compressed blocks from, must not be null
+     * @param executorService executor service to decompress blocks with, must not be null
+     * @param threads number of threads of the specified executor service, bounding the number
+     *    of pending blocks, must be at least one
+     */
+    ParallelBgzfInputStream(final InputStream inputStream, final ExecutorService executorService, final int threads) {
+        this(inputStream, threads, checkNotNull(executorService));
+    }
+
+    /**
+     * Create a new parallel BGZF input stream.
+     *
+     * @param inputStream input stream to read compressed blocks from, must not be null
+     * @param threads number of decompression threads, must be at least one
+     * @param executorService shared executor service, if any
+     */
+    private ParallelBgzfInputStream(final InputStream inputStream, final int threads, final ExecutorService executorService) {
+        checkNotNull(inputStream);
+        checkArgument(threads > 0, "threads must be at least one");
+        this.inputStream = inputStream;
+        this.capacity = 4 * threads;
+        this.owned = executorService == null;
+        this.executorService = owned ? Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("bgzf-inflate-%d").build()) : executorService;
+    }
+
+
+    @Override
+    public int read() throws IOException {
+        if (!ensure()) {
+            return -1;
+        }
+        return current[position++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensure()) {
+            return -1;
+        }
+        int n = Math.min(length, current.length - position);
+        System.arraycopy(current, position, bytes, offset, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            inputStream.close();
+        }
+        finally {
+            if (owned) {
+                executorService.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Ensure there are unread bytes in the current decompressed block.
+     *
+     * @return true if there are unread bytes, false at the end of the stream
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean ensure() throws IOException {
+        while (position == current.length) {
+            while (!eof && pending.size() < capacity) {
+                final byte[] block = readBlock();
+                if (block == null) {
+                    eof = true;
+                }
+                else {
+                    pending.add(executorService.submit(new Callable<byte[]>() {
+                                @Override
+                                public byte[] call() throws IOException {
+                                    return inflate(block);
+                                }
+                            }));
+                }
+            }
+            if (pending.isEmpty()) {
+                return false;
+            }
+            current = get(pending.remove());
+            position = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Read the next compressed block, if any.
+     *
+     * @return the next compressed block, or null at the end of the stream
+     * @throws IOException if an I/O error occurs
+     */
+    private byte[] readBlock() throws IOException {
+        byte[] header = new byte[HEADER_LENGTH];
+        int read = ByteStreams.read(inputStream, header, 0, HEADER_LENGTH);
+        if (read == 0) {
+            return null;
+        }
+        if (read < HEADER_LENGTH) {
+            throw new EOFException("truncated BGZF block header");
+        }
+        if (header[0] != 0x1f || header[1] != (byte) 0x8b || header[2] != 0x08 || (header[3] & 0x04) == 0
+            || header[12] != 0x42 || header[13] != 0x43) {
+            throw new IOException("invalid BGZF block header");
+        }
+        int blockSize = ((header[16] & 0xff) | ((header[17] & 0xff) << 8)) + 1;
+        if (blockSize < HEADER_LENGTH + FOOTER_LENGTH) {
+            throw new IOException("invalid BGZF block size " + blockSize);
+        }
+        byte[] block = new byte[blockSize];
+        System.arraycopy(header, 0, block, 0, HEADER_LENGTH);
+        ByteStreams.readFully(inputStream, block, HEADER_LENGTH, blockSize - HEADER_LENGTH);
+        return block;
+    }
+
+    /**
+     * Inflate the specified BGZF block.
+     *
+     * @param block BGZF block
+     * @return the decompressed bytes
+     * @throws IOException if the block is not valid
+     */
+    static byte[] inflate(final byte[] block) throws IOException {
+        int size = readInt(block, block.length - 4);
+        int crc = readInt(block, block.length - FOOTER_LENGTH);
+        byte[] bytes = new byte[size];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(block, HEADER_LENGTH, block.length - HEADER_LENGTH - FOOTER_LENGTH);
+            int n = 0;
+            while (n < size) {
+                int inflated = inflater.inflate(bytes, n, size - n);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("truncated BGZF block");
+                }
+                n += inflated;
+            }
+        }
+        catch (DataFormatException e) {
+            throw new IOException("invalid BGZF block", e);
+        }
+        finally {
+            inflater.end();
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, 0, size);
+        if ((int) crc32.getValue() != crc) {
+            throw new IOException("BGZF block CRC mismatch");
+        }
+        return bytes;
+    }
+
+    /**
+     * Read a little endian int at the specified offset.
+     */
+    private static int readInt(final byte[] buffer, final int offset) {
+        return (buffer[offset] & 0xff) | ((buffer[offset + 1] & 0xff) << 8) | ((buffer[offset + 2] & 0xff) << 16) | ((buffer[offset + 3] & 0xff) << 24);
+    }
+}
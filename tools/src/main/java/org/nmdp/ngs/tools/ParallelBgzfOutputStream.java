@@ -0,0 +1,334 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Output stream that compresses blocks in parallel in block compressed gzip (BGZF) format.
+ *
+ * <p>
+ * Each block is an independent gzip member, so the output is readable by any gzip
+ * decompressor as well as by BGZF-aware tools.  Blocks are compressed on a pool of
+ * threads, which may be shared between streams, and written in order.
+ * </p>
+ */
+final class ParallelBgzfOutputStream extends OutputStream {
+    /** Maximum number of uncompressed bytes per block, <code>65280</code>. */
+    static final int BLOCK_SIZE = 65280;
+
+    /** Maximum size of a compressed block, including header and footer. */
+    static final int MAX_BLOCK_SIZE = 65536;
+
+    /** Block header length. */
+    static final int HEADER_LENGTH = 18;
+
+    /** Block footer length. */
+    static final int FOOTER_LENGTH = 8;
+
+    /** Empty block written as an end-of-file marker. */
+    static final byte[] EOF_MARKER = new byte[] {
+        0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, 0x06, 0x00, 0x42, 0x43, 0x02, 0x00,
+        0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00
+    };
+
+    /** Output stream. */
+    private final OutputStream outputStream;
+
+    /** Executor service. */
+    private final ExecutorService executorService;
+
+    /** True if the executor service is owned by this output stream. */
+    private final boolean owned;
+
+    /** Maximum number of pending blocks. */
+    private final int capacity;
+
+    /** Compression level. */
+    private final int level;
+
+    /** Pending compressed blocks, in order. */
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+
+    /** Current uncompressed block. */
+    private byte[] block = new byte[BLOCK_SIZE];
+
+    /** Number of bytes in the current uncompressed block. */
+    private int count;
+
+    /** True if this output stream has been closed. */
+    private boolean closed;
+
+
+    /**
+     * Create a new parallel BGZF output stream with the default compression level and its own
+     * pool of compression threads, shut down when this output stream is closed.
+     *
+     * @param outputStream output stream to write compressed blocks to, must not be null
+     * @param threads number of compression threads, must be at least one
+     */
+    ParallelBgzfOutputStream(final OutputStream outputStream, final int threads) {
+        this(outputStream, threads, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Create a new parallel BGZF output stream with its own pool of compression threads,
+     * shut down when this output stream is closed.
+     *
+     * @param outputStream output stream to write compressed blocks to, must not be null
+     * @param threads number of compression threads, must be at least one
+     * @param level compression level
+     */
+    ParallelBgzfOutputStream(final OutputStream outputStream, final int threads, final int level) {
+        this(outputStream, threads, level, null);
+    }
+
+    /**
+     * Create a new parallel BGZF output stream with the default compression level and the
+     * specified shared executor service, which is not shut down when this output stream is closed.
+     *
+     * @param outputStream output stream to write compressed blocks to, must not be null
+     * @param executorService executor service to compress blocks with, must not be null
+     * @param threads number of threads of the specified executor service, bounding the number
+     *    of pending blocks, must be at least one
+     */
+    ParallelBgzfOutputStream(final OutputStream outputStream, final ExecutorService executorService, final int threads) {
+        this(outputStream, threads, Deflater.DEFAULT_COMPRESSION, checkNotNull(executorService));
+    }
+
+    /**
+     * Create a new parallel BGZF output stream.
+     *
+     * @param outputStream output stream to write compressed blocks to, must not be null
+     * @param threads number of compression threads, must be at least one
+     * @param level compression level
+     * @param executorService shared executor service, if any
+     */
+    private ParallelBgzfOutputStream(final OutputStream outputStream, final int threads, final int level, final ExecutorService executorService) {
+        checkNotNull(outputStream);
+        checkArgument(threads > 0, "threads must be at least one");
+        this.outputStream = outputStream;
+        this.capacity = 4 * threads;
+        this.level = level;
+        this.owned = executorService == null;
+        this.executorService = owned ? Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("bgzf-deflate-%d").build()) : executorService;
+    }
+
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (count == BLOCK_SIZE) {
+            submitBlock();
+        }
+        block[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        int off = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            if (count == BLOCK_SIZE) {
+                submitBlock();
+            }
+            int n = Math.min(remaining, BLOCK_SIZE - count);
+            System.arraycopy(bytes, off, block, count, n);
+            count += n;
+            off += n;
+            remaining -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        submitBlock();
+        while (!pending.isEmpty()) {
+            outputStream.write(get(pending.remove()));
+        }
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+            outputStream.write(EOF_MARKER);
+            outputStream.close();
+        }
+        finally {
+            if (owned) {
+                executorService.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Submit the current block for compression, if it is not empty, and write any
+     * completed blocks in excess of capacity.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void submitBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        final byte[] bytes = block;
+        final int length = count;
+        pending.add(executorService.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() {
+                        return compress(bytes, length, level);
+                    }
+                }));
+        block = new byte[BLOCK_SIZE];
+        count = 0;
+
+        while (pending.size() > capacity) {
+            outputStream.write(get(pending.remove()));
+        }
+    }
+
+    /**
+     * Wait for and return the result of the specified future.
+     *
+     * @param future future
+     * @return the result of the specified future
+     * @throws IOException if an I/O error occurs
+     */
+    static byte[] get(final Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for block");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("could not process block", e.getCause());
+        }
+    }
+
+    /**
+     * Compress the specified bytes into a single BGZF block.
+     *
+     * @param bytes bytes to compress
+     * @param length number of bytes to compress, must not be greater than <code>BLOCK_SIZE</code>
+     * @param level compression level
+     * @return a single BGZF block
+     */
+    static byte[] compress(final byte[] bytes, final int length, final int level) {
+        byte[] buffer = new byte[MAX_BLOCK_SIZE];
+        int limit = MAX_BLOCK_SIZE - HEADER_LENGTH - FOOTER_LENGTH;
+        int size = deflate(new Deflater(level, true), bytes, length, buffer, limit);
+        if (size < 0) {
+            // incompressible, store instead
+            size = deflate(new Deflater(Deflater.NO_COMPRESSION, true), bytes, length, buffer, limit);
+        }
+        if (size < 0) {
+            throw new IllegalStateException("could not fit block in " + MAX_BLOCK_SIZE + " bytes");
+        }
+        int blockSize = HEADER_LENGTH + size + FOOTER_LENGTH;
+
+        buffer[0] = 0x1f;
+        buffer[1] = (byte) 0x8b;
+        buffer[2] = 0x08;
+        buffer[3] = 0x04;
+        buffer[9] = (byte) 0xff;
+        buffer[10] = 0x06;
+        buffer[12] = 0x42;
+        buffer[13] = 0x43;
+        buffer[14] = 0x02;
+        writeShort(buffer, 16, blockSize - 1);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        writeInt(buffer, HEADER_LENGTH + size, (int) crc.getValue());
+        writeInt(buffer, HEADER_LENGTH + size + 4, length);
+        return Arrays.copyOf(buffer, blockSize);
+    }
+
+    /**
+     * Deflate the specified bytes into the buffer after the block header.
+     *
+     * @return the number of compressed bytes, or <code>-1</code> if they do not fit within the limit
+     */
+    private static int deflate(final Deflater deflater, final byte[] bytes, final int length, final byte[] buffer, final int limit) {
+        try {
+            deflater.setInput(bytes, 0, length);
+            deflater.finish();
+            int size = 0;
+            while (!deflater.finished() && size < limit) {
+                size += deflater.deflate(buffer, HEADER_LENGTH + size, limit - size);
+            }
+            return deflater.finished() ? size : -1;
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Write the specified value as a little endian short.
+     */
+    private static void writeShort(final byte[] buffer, final int offset, final int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+    }
+
+    /**
+     * Write the specified value as a little endian int.
+     */
+    private static void writeInt(final byte[] buffer, final int offset, final int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+import java.util.Arrays;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.io.ByteStreams;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Input stream that reads ahead from another input stream on a background thread.
+ *
+ * <p>
+ * Used to pipeline single-threaded decompression (e.g. non-BGZF gzip or bzip2) with
+ * parsing on the calling thread.
+ * </p>
+ */
+final class ReadAheadInputStream extends InputStream {
+    /** Default chunk size, <code>65536</code>. */
+    static final int DEFAULT_CHUNK_SIZE = 65536;
+
+    /** Default number of chunks to read ahead, <code>16</code>. */
+    static final int DEFAULT_CAPACITY = 16;
+
+    /** End of stream sentinel. */
+    private static final byte[] END = new byte[0];
+
+    /** Input stream. */
+    private final InputStream inputStream;
+
+    /** Chunks read ahead. */
+    private final BlockingQueue<byte[]> queue;
+
+    /** Executor service. */
+    private final ExecutorService executorService;
+
+    /** Exception or error thrown by the background thread, if any. */
+    private volatile Throwable exception;
+
+    /** Current chunk. */
+    private byte[] current = new byte[0];
+
+    /** Position in the current chunk. */
+    private int position;
+
+    /** True if the end of the stream has been reached. */
+    private boolean eof;
+
+
+    /**
+     * Create a new read ahead input stream with the default chunk size and capacity.
+     *
+     * @param inputStream input stream to read ahead from, must not be null
+     */
+    ReadAheadInputStream(final InputStream inputStream) {
+        this(inputStream, DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new read ahead input stream.
+     *
+     * @param inputStream input stream to read ahead from, must not be null
+     * @param chunkSize chunk size, must be at least one
+     * @param capacity number of chunks to read ahead, must be at least one
+     */
+    ReadAheadInputStream(final InputStream inputStream, final int chunkSize, final int capacity) {
+        checkNotNull(inputStream);
+        checkArgument(chunkSize > 0, "chunkSize must be at least one");
+        checkArgument(capacity > 0, "capacity must be at least one");
+        this.inputStream = inputStream;
+        queue = new ArrayBlockingQueue<byte[]>(capacity);
+        executorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("read-ahead-%d").build());
+        executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            byte[] chunk = new byte[chunkSize];
+                            int read = ByteStreams.read(ReadAheadInputStream.this.inputStream, chunk, 0, chunkSize);
+                            if (read > 0) {
+                                queue.put(read < chunkSize ? Arrays.copyOf(chunk, read) : chunk);
+                            }
+                            if (read < chunkSize) {
+                                break;
+                            }
+                        }
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    catch (Throwable t) {
+                        exception = t;
+                    }
+                    finally {
+                        try {
+                            queue.put(END);
+                        }
+                        catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            });
+    }
+
+
+    @Override
+    public int read() throws IOException {
+        if (!ensure()) {
+            return -1;
+        }
+        return current[position++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensure()) {
+            return -1;
+        }
+        int n = Math.min(length, current.length - position);
+        System.arraycopy(current, position, bytes, offset, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executorService.shutdownNow();
+        inputStream.close();
+    }
+
+    /**
+     * Ensure there are unread bytes in the current chunk.
+     *
+     * @return true if there are unread bytes, false at the end of the stream
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean ensure() throws IOException {
+        while (position == current.length) {
+            if (eof) {
+                return false;
+            }
+            try {
+                current = queue.take();
+                position = 0;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted waiting for read ahead");
+            }
+            if (current == END) {
+                eof = true;
+                if (exception != null) {
+                    throw new IOException("could not read ahead from input stream", exception);
+                }
+            }
+        }
+        return true;
+    }
+}
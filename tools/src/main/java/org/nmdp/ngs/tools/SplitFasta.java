@@ -22,23 +22,36 @@
 */
 package org.nmdp.ngs.tools;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import static org.dishevelled.compress.Readers.reader;
-import static org.dishevelled.compress.Writers.writer;
+import static org.nmdp.ngs.tools.Streams.inputStream;
+import static org.nmdp.ngs.tools.Streams.outputStream;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
 
 import java.nio.file.Paths;
 
-import java.util.concurrent.Callable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-import org.biojava.bio.seq.Sequence;
-import org.biojava.bio.seq.SequenceIterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
-import org.biojava.bio.seq.io.SeqIOTools;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.dishevelled.commandline.ArgumentList;
 import org.dishevelled.commandline.CommandLine;
@@ -48,18 +61,23 @@ import org.dishevelled.commandline.Switch;
 import org.dishevelled.commandline.Usage;
 
 import org.dishevelled.commandline.argument.FileArgument;
+import org.dishevelled.commandline.argument.IntegerArgument;
 import org.dishevelled.commandline.argument.StringArgument;
 
 /**
  * Split sequences in FASTA format and write to separate files in FASTA format.
  */
-@SuppressWarnings("deprecation")
 public final class SplitFasta implements Callable<Integer> {
     private final File fastaFile;
     private final String outputFilePrefix;
     private final String outputFileExtension;
     private final File outputDirectory;
-    private static final int LINE_WIDTH = 60;
+    private final int lineWidth;
+    private final int threads;
+    private final int maxRecordBytes;
+    static final int LINE_WIDTH = 60;
+    static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
     private static final String DEFAULT_OUTPUT_FILE_PREFIX = "";
     private static final String DEFAULT_OUTPUT_FILE_EXTENSION = "fq.gz";
     private static final File DEFAULT_OUTPUT_DIRECTORY = Paths.get(".").toFile();
@@ -75,55 +93,128 @@ public final class SplitFasta implements Callable<Integer> {
      * @param outputDirectory output directory, must not be null
      */
     public SplitFasta(final File fastaFile, final String outputFilePrefix, final String outputFileExtension, final File outputDirectory) {
+        this(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, LINE_WIDTH, Streams.THREADS);
+    }
+
+    /**
+     * Split sequences in FASTA format and write to separate files in FASTA format.
+     *
+     * @param fastaFile input FASTA file, if any
+     * @param outputFilePrefix output file prefix, must not be null
+     * @param outputFileExtension output file extension, must not be null
+     * @param outputDirectory output directory, must not be null
+     * @param lineWidth line width to rewrap sequences to, must be at least zero;
+     *    zero copies sequence lines as is
+     * @param threads number of output files to write concurrently, must be at least one
+     */
+    public SplitFasta(final File fastaFile, final String outputFilePrefix, final String outputFileExtension, final File outputDirectory,
+                      final int lineWidth, final int threads) {
+        this(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, lineWidth, threads, MAX_RECORD_BYTES);
+    }
+
+    /**
+     * Split sequences in FASTA format and write to separate files in FASTA format.
+     *
+     * @param fastaFile input FASTA file, if any
+     * @param outputFilePrefix output file prefix, must not be null
+     * @param outputFileExtension output file extension, must not be null
+     * @param outputDirectory output directory, must not be null
+     * @param lineWidth line width to rewrap sequences to, must be at least zero;
+     *    zero copies sequence lines as is
+     * @param threads number of output files to write concurrently, must be at least one
+     * @param maxRecordBytes maximum number of bytes to buffer per record, must be at least one;
+     *    larger records are streamed directly to their output file
+     */
+    SplitFasta(final File fastaFile, final String outputFilePrefix, final String outputFileExtension, final File outputDirectory,
+               final int lineWidth, final int threads, final int maxRecordBytes) {
         checkNotNull(outputFilePrefix);
         checkNotNull(outputFileExtension);
         checkNotNull(outputDirectory);
+        checkArgument(lineWidth >= 0, "lineWidth must be at least zero");
+        checkArgument(threads > 0, "threads must be at least one");
+        checkArgument(maxRecordBytes > 0, "maxRecordBytes must be at least one");
         this.fastaFile = fastaFile;
         this.outputFilePrefix = outputFilePrefix;
         this.outputFileExtension = outputFileExtension;
         this.outputDirectory = outputDirectory;
+        this.lineWidth = lineWidth;
+        this.threads = threads;
+        this.maxRecordBytes = maxRecordBytes;
     }
 
 
     @Override
     public Integer call() throws Exception {
-        BufferedReader reader = null;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("split-fasta-%d").build());
+        // bound the number of bytes read ahead of the writers; larger records are streamed directly
+        int budget = (int) Math.min(Integer.MAX_VALUE, 2L * threads * maxRecordBytes);
+        Semaphore permits = new Semaphore(budget);
+        Map<File, Future<Void>> futures = new HashMap<File, Future<Void>>();
+
+        InputStream inputStream = null;
+        Record record = null;
         try {
-            reader = reader(fastaFile);
-            for (SequenceIterator sequences = SeqIOTools.readFastaDNA(reader); sequences.hasNext(); ) {
-                Sequence sequence = sequences.nextSequence();
+            inputStream = inputStream(fastaFile);
 
-                PrintWriter writer = null;
-                try {
-                    // special case for IMGT/HLA _gen.fasta reference sequences; remove HLA: from HLA:HLA00001
-                    String accession = sequence.getName().replace("HLA:", "");
-                    writer = writer(new File(outputDirectory, outputFilePrefix + accession + "." + outputFileExtension));
-
-                    // adapted from biojava FastaFormat since using Writer requires bending over backward
-                    writer.print(">");
-                    writer.println(describeSequence(sequence));
-
-                    int length = sequence.length();
-                    for (int position = 1; position < length; position += LINE_WIDTH) {
-                        int end = Math.min(position + LINE_WIDTH - 1, length);
-                        writer.println(sequence.subStr(position, end));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            boolean header = false;
+            boolean lineStart = true;
+            int lineNumber = 1;
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                int i = 0;
+                while (i < n) {
+                    if (lineStart && buffer[i] == '>') {
+                        submit(record, executorService, permits, budget, futures);
+                        record = new Record(lineWidth);
+                        header = true;
+                        lineStart = false;
+                        i++;
+                        continue;
                     }
-                }
-                finally {
-                    try {
-                        writer.close();
+                    int end = i;
+                    while (end < n && buffer[end] != '\n') {
+                        end++;
                     }
-                    catch (Exception e) {
-                        // ignore
+                    boolean endOfLine = end < n;
+                    if (endOfLine) {
+                        end++;
+                    }
+                    if (header) {
+                        record.header(buffer, i, end);
+                    }
+                    else if (record != null) {
+                        record.sequence(buffer, i, end);
+                        if (!record.isStreaming() && record.size() > maxRecordBytes) {
+                            stream(record, futures);
+                        }
                     }
+                    else if (!isWhitespace(buffer, i, end)) {
+                        throw new IOException("sequence data before FASTA header at line " + lineNumber);
+                    }
+                    if (endOfLine) {
+                        header = false;
+                        lineNumber++;
+                    }
+                    lineStart = endOfLine;
+                    i = end;
                 }
             }
+            submit(record, executorService, permits, budget, futures);
+            record = null;
 
+            for (Future<Void> future : futures.values()) {
+                check(future);
+            }
             return 0;
         }
         finally {
+            executorService.shutdownNow();
+            if (record != null) {
+                record.close();
+            }
             try {
-                reader.close();
+                inputStream.close();
             }
             catch (Exception e) {
                 // ignore
@@ -131,8 +222,310 @@ public final class SplitFasta implements Callable<Integer> {
         }
     }
 
-    private static String describeSequence(final Sequence sequence) {
-        return (sequence.getAnnotation().containsProperty("description_line")) ? (String) sequence.getAnnotation().getProperty("description_line") : sequence.getName();
+    /**
+     * Return the output file for the specified record.
+     */
+    private File file(final Record record) {
+        // special case for IMGT/HLA _gen.fasta reference sequences; remove HLA: from HLA:HLA00001
+        String accession = record.getName().replace("HLA:", "");
+        return new File(outputDirectory, outputFilePrefix + accession + "." + outputFileExtension);
+    }
+
+    /**
+     * Submit the specified record, if any, to be written to its output file, or finish writing it if it
+     * is being streamed directly to its output file.
+     */
+    private void submit(final Record record, final ExecutorService executorService, final Semaphore permits, final int budget,
+                        final Map<File, Future<Void>> futures) throws IOException {
+        if (record == null) {
+            return;
+        }
+        if (record.isStreaming()) {
+            record.finish();
+            return;
+        }
+        File file = file(record);
+
+        // records with the same accession are written in input order, last one wins
+        Future<Void> previous = futures.get(file);
+        if (previous != null) {
+            check(previous);
+        }
+        int bytes = Math.min(record.size(), budget);
+        try {
+            permits.acquire(bytes);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting to write FASTA records");
+        }
+        futures.put(file, executorService.submit(new WriteRecord(record, file, permits, bytes)));
+    }
+
+    /**
+     * Stream the specified record, and the rest of its sequence as it is read, directly to its output file.
+     */
+    private void stream(final Record record, final Map<File, Future<Void>> futures) throws IOException {
+        File file = file(record);
+
+        // records with the same accession are written in input order, last one wins
+        Future<Void> previous = futures.remove(file);
+        if (previous != null) {
+            check(previous);
+        }
+        record.streamTo(outputStream(file));
+    }
+
+    /**
+     * Rethrow any exception thrown while writing an output file.
+     */
+    private static void check(final Future<Void> future) throws IOException {
+        try {
+            future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting to write FASTA records");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("could not write FASTA record", e.getCause());
+        }
+    }
+
+    /**
+     * Return true if the bytes in the specified range are all whitespace.
+     */
+    private static boolean isWhitespace(final byte[] bytes, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (!isWhitespace(bytes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return true if the specified byte is whitespace.
+     */
+    private static boolean isWhitespace(final byte b) {
+        return b == '\n' || b == '\r' || b == ' ' || b == '\t';
+    }
+
+    /**
+     * FASTA record, header and sequence lines as bytes, buffered or streamed directly to an output stream.
+     */
+    private static final class Record {
+        private final int lineWidth;
+        private final ByteArrayOutputStream header = new ByteArrayOutputStream(128);
+        private final ByteArrayOutputStream sequence = new ByteArrayOutputStream(BUFFER_SIZE);
+        private OutputStream direct;
+        private int column = 0;
+        private int last = -1;
+
+
+        /**
+         * Create a new record.
+         *
+         * @param lineWidth line width to rewrap sequence to, or zero to copy sequence lines as is
+         */
+        private Record(final int lineWidth) {
+            this.lineWidth = lineWidth;
+        }
+
+
+        /**
+         * Append the specified range of header bytes, not including <code>&gt;</code>.
+         */
+        void header(final byte[] bytes, final int start, final int end) {
+            header.write(bytes, start, end - start);
+        }
+
+        /**
+         * Append the specified range of sequence bytes.
+         */
+        void sequence(final byte[] bytes, final int start, final int end) throws IOException {
+            OutputStream out = (direct == null) ? sequence : direct;
+            if (lineWidth == 0) {
+                out.write(bytes, start, end - start);
+                if (end > start) {
+                    last = bytes[end - 1];
+                }
+                return;
+            }
+            int i = start;
+            while (i < end) {
+                while (i < end && isWhitespace(bytes[i])) {
+                    i++;
+                }
+                int runEnd = i;
+                while (runEnd < end && !isWhitespace(bytes[runEnd])) {
+                    runEnd++;
+                }
+                while (i < runEnd) {
+                    int length = Math.min(runEnd - i, lineWidth - column);
+                    out.write(bytes, i, length);
+                    i += length;
+                    column += length;
+                    if (column == lineWidth) {
+                        out.write('\n');
+                        column = 0;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Return the name of this record, the header up to the first whitespace character.
+         */
+        String getName() {
+            String description = new String(header.toByteArray(), StandardCharsets.US_ASCII);
+            int end = 0;
+            while (end < description.length() && !isWhitespace((byte) description.charAt(end))) {
+                end++;
+            }
+            return description.substring(0, end);
+        }
+
+        /**
+         * Return the number of bytes buffered for this record.
+         */
+        int size() {
+            return header.size() + sequence.size();
+        }
+
+        /**
+         * Return true if this record is being streamed directly to an output stream.
+         */
+        boolean isStreaming() {
+            return direct != null;
+        }
+
+        /**
+         * Write the bytes buffered so far to the specified output stream, and stream the rest
+         * of the sequence directly to it.
+         */
+        void streamTo(final OutputStream outputStream) throws IOException {
+            direct = outputStream;
+            writeHeader(outputStream);
+            sequence.writeTo(outputStream);
+            sequence.reset();
+        }
+
+        /**
+         * Finish streaming this record and close its output stream.
+         */
+        void finish() throws IOException {
+            OutputStream outputStream = direct;
+            direct = null;
+            writeEnd(outputStream);
+            outputStream.close();
+        }
+
+        /**
+         * Close the output stream this record is being streamed to, if any, ignoring exceptions.
+         */
+        void close() {
+            if (direct != null) {
+                try {
+                    direct.close();
+                }
+                catch (Exception e) {
+                    // ignore
+                }
+                direct = null;
+            }
+        }
+
+        /**
+         * Write this record to the specified output stream.  Rewrapped records are written with
+         * new line endings, other records are copied as is.
+         */
+        void writeTo(final OutputStream outputStream) throws IOException {
+            writeHeader(outputStream);
+            sequence.writeTo(outputStream);
+            writeEnd(outputStream);
+        }
+
+        /**
+         * Write the header line of this record to the specified output stream.
+         */
+        private void writeHeader(final OutputStream outputStream) throws IOException {
+            byte[] bytes = header.toByteArray();
+            int length = bytes.length;
+            if (lineWidth > 0) {
+                while (length > 0 && (bytes[length - 1] == '\n' || bytes[length - 1] == '\r')) {
+                    length--;
+                }
+            }
+            outputStream.write('>');
+            outputStream.write(bytes, 0, length);
+            if (length == 0 || bytes[length - 1] != '\n') {
+                outputStream.write('\n');
+            }
+        }
+
+        /**
+         * Write the final line ending of this record, if necessary, to the specified output stream.
+         */
+        private void writeEnd(final OutputStream outputStream) throws IOException {
+            if ((lineWidth > 0) ? column > 0 : (last != -1 && last != '\n')) {
+                outputStream.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Write a FASTA record to an output file.
+     */
+    private static final class WriteRecord implements Callable<Void> {
+        private final Record record;
+        private final File file;
+        private final Semaphore permits;
+        private final int bytes;
+
+
+        /**
+         * Create a new write record task.
+         *
+         * @param record record to write
+         * @param file output file
+         * @param permits permits to release when done
+         * @param bytes number of permits to release when done
+         */
+        private WriteRecord(final Record record, final File file, final Semaphore permits, final int bytes) {
+            this.record = record;
+            this.file = file;
+            this.permits = permits;
+            this.bytes = bytes;
+        }
+
+
+        @Override
+        public Void call() throws IOException {
+            OutputStream outputStream = null;
+            try {
+                outputStream = outputStream(file);
+                record.writeTo(outputStream);
+                outputStream.close();
+                outputStream = null;
+                return null;
+            }
+            finally {
+                if (outputStream != null) {
+                    try {
+                        outputStream.close();
+                    }
+                    catch (Exception e) {
+                        // ignore
+                    }
+                }
+                // release permits only after the record is flushed and closed
+                permits.release(bytes);
+            }
+        }
     }
 
 
@@ -148,8 +541,10 @@ public final class SplitFasta implements Callable<Integer> {
         StringArgument outputFilePrefix = new StringArgument("p", "output-file-prefix", "output file prefix, default \"\"", false);
         StringArgument outputFileExtension = new StringArgument("x", "output-file-extension", "output file extension, default " + DEFAULT_OUTPUT_FILE_EXTENSION, false);
         FileArgument outputDirectory = new FileArgument("d", "output-directory", "output directory, default .", false);
+        IntegerArgument lineWidth = new IntegerArgument("w", "line-width", "line width to rewrap sequences to, 0 to copy sequence lines as is, default " + LINE_WIDTH, false);
+        IntegerArgument threads = new IntegerArgument("t", "threads", "number of output files to write concurrently, default " + Streams.THREADS, false);
 
-        ArgumentList arguments = new ArgumentList(about, help, fastaFile, outputFilePrefix, outputFileExtension, outputDirectory);
+        ArgumentList arguments = new ArgumentList(about, help, fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, lineWidth, threads);
         CommandLine commandLine = new CommandLine(args);
 
         SplitFasta splitFasta = null;
@@ -164,9 +559,10 @@ public final class SplitFasta implements Callable<Integer> {
                 Usage.usage(USAGE, null, commandLine, arguments, System.out);
                 System.exit(0);
             }
-            splitFasta = new SplitFasta(fastaFile.getValue(), outputFilePrefix.getValue(DEFAULT_OUTPUT_FILE_PREFIX), outputFileExtension.getValue(DEFAULT_OUTPUT_FILE_EXTENSION), outputDirectory.getValue(DEFAULT_OUTPUT_DIRECTORY));
+            splitFasta = new SplitFasta(fastaFile.getValue(), outputFilePrefix.getValue(DEFAULT_OUTPUT_FILE_PREFIX), outputFileExtension.getValue(DEFAULT_OUTPUT_FILE_EXTENSION), outputDirectory.getValue(DEFAULT_OUTPUT_DIRECTORY),
+                                        lineWidth.getValue(LINE_WIDTH), threads.getValue(Streams.THREADS));
         }
-        catch (CommandLineParseException e) {
+        catch (CommandLineParseException | IllegalArgumentException e) {
             Usage.usage(USAGE, e, commandLine, arguments, System.err);
             System.exit(-1);
         }
@@ -0,0 +1,261 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import java.util.zip.GZIPInputStream;
+
+import com.google.common.io.Files;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+
+import org.apache.commons.compress.compressors.CompressorException;
+import org.apache.commons.compress.compressors.CompressorStreamFactory;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2Utils;
+
+import org.apache.commons.compress.compressors.gzip.GzipUtils;
+
+import org.nmdp.ngs.reads.fasta.IndexedFasta;
+
+/**
+ * Shared input and output streams, readers, and writers for command line tools,
+ * following the same compression conventions as <code>org.dishevelled.compress.Readers.reader(File)</code>
+ * and <code>org.dishevelled.compress.Writers.writer(File)</code>.
+ *
+ * <p>
+ * Block compressed gzip (BGZF) input is decompressed in parallel, other compressed
+ * input is decompressed on a read ahead thread, and gzip and BGZF output is compressed
+ * in parallel as BGZF, which remains readable by any gzip decompressor.  All parallel BGZF
+ * streams share a single bounded pool of daemon threads, however many streams are open.
+ * </p>
+ */
+final class Streams {
+    /** Buffer size, <code>65536</code>. */
+    static final int BUFFER_SIZE = 65536;
+
+    /** Number of compression and decompression threads. */
+    static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    /** Compression and decompression threads shared by all parallel BGZF streams. */
+    static final ExecutorService EXECUTOR_SERVICE = Executors.newFixedThreadPool(THREADS, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("bgzf-%d").build());
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private Streams() {
+        // empty
+    }
+
+
+    /**
+     * Return a buffered input stream for the specified file, decompressing if necessary.
+     *
+     * @param file file, if any; if null, read from standard input
+     * @return a buffered input stream for the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    static InputStream inputStream(final File file) throws IOException {
+        if (file == null) {
+            InputStream inputStream = new BufferedInputStream(System.in, BUFFER_SIZE);
+            if (BlockCompressedInputStream.isValidFile(inputStream)) {
+                return new BufferedInputStream(new ParallelBgzfInputStream(inputStream, EXECUTOR_SERVICE, THREADS), BUFFER_SIZE);
+            }
+            try {
+                return new BufferedInputStream(new ReadAheadInputStream(new CompressorStreamFactory().createCompressorInputStream(inputStream)), BUFFER_SIZE);
+            }
+            catch (CompressorException e) {
+                return inputStream;
+            }
+        }
+        if (isBgzfFilename(file) || GzipUtils.isCompressedFilename(file.getName())) {
+            InputStream inputStream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+            if (BlockCompressedInputStream.isValidFile(inputStream)) {
+                return new BufferedInputStream(new ParallelBgzfInputStream(inputStream, EXECUTOR_SERVICE, THREADS), BUFFER_SIZE);
+            }
+            return new BufferedInputStream(new ReadAheadInputStream(new GZIPInputStream(inputStream, BUFFER_SIZE)), BUFFER_SIZE);
+        }
+        if (BZip2Utils.isCompressedFilename(file.getName())) {
+            return new BufferedInputStream(new ReadAheadInputStream(new BZip2CompressorInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE), true)), BUFFER_SIZE);
+        }
+        return new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+    }
+
+    /**
+     * Return a buffered output stream for the specified file, compressing if necessary.
+     *
+     * @param file file, if any; if null, write to standard output
+     * @return a buffered output stream for the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    static OutputStream outputStream(final File file) throws IOException {
+        return outputStream(file, false);
+    }
+
+    /**
+     * Return a buffered output stream for the specified file, compressing if necessary.
+     *
+     * @param file file, if any; if null, write to standard output
+     * @param append true to append to the specified file
+     * @return a buffered output stream for the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    static OutputStream outputStream(final File file, final boolean append) throws IOException {
+        if (file == null) {
+            return new BufferedOutputStream(new StandardOutputStream(), BUFFER_SIZE);
+        }
+        if (isBgzfFilename(file) || GzipUtils.isCompressedFilename(file.getName())) {
+            return new BufferedOutputStream(new ParallelBgzfOutputStream(new FileOutputStream(file, append), EXECUTOR_SERVICE, THREADS), BUFFER_SIZE);
+        }
+        if (BZip2Utils.isCompressedFilename(file.getName())) {
+            return new BufferedOutputStream(new BZip2CompressorOutputStream(new FileOutputStream(file, append)), BUFFER_SIZE);
+        }
+        return new BufferedOutputStream(new FileOutputStream(file, append), BUFFER_SIZE);
+    }
+
+    /**
+     * Return a buffered reader for the specified file, decompressing if necessary.
+     *
+     * @param file file, if any; if null, read from standard input
+     * @return a buffered reader for the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    static BufferedReader reader(final File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(inputStream(file)), BUFFER_SIZE);
+    }
+
+    /**
+     * Return a print writer for the specified file, compressing if necessary.  The print
+     * writer does not flush automatically, so that compressed output is written in full blocks.
+     *
+     * @param file file, if any; if null, write to standard output
+     * @return a print writer for the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    static PrintWriter writer(final File file) throws IOException {
+        return writer(file, false);
+    }
+
+    /**
+     * Return a print writer for the specified file, compressing if necessary.  The print
+     * writer does not flush automatically, so that compressed output is written in full blocks.
+     *
+     * @param file file, if any; if null, write to standard output
+     * @param append true to append to the specified file
+     * @return a print writer for the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    static PrintWriter writer(final File file, final boolean append) throws IOException {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(outputStream(file, append)), BUFFER_SIZE));
+    }
+
+    /**
+     * Return true if the specified file has a block compressed gzip (BGZF) file extension.
+     *
+     * @param file file
+     * @return true if the specified file has a block compressed gzip (BGZF) file extension
+     */
+    static boolean isBgzfFilename(final File file) {
+        String extension = Files.getFileExtension(file.getName());
+        return "bgz".equals(extension) || "bgzf".equals(extension);
+    }
+
+    /**
+     * Return true if the specified file is an uncompressed regular file that may be memory-mapped.
+     *
+     * @param file file, if any
+     * @return true if the specified file is an uncompressed regular file that may be memory-mapped
+     */
+    static boolean isMappable(final File file) {
+        return file != null
+            && file.isFile()
+            && !isBgzfFilename(file)
+            && !GzipUtils.isCompressedFilename(file.getName())
+            && !BZip2Utils.isCompressedFilename(file.getName());
+    }
+
+    /**
+     * Open the specified file as a memory-mapped indexed FASTA file, if it is mappable and can be indexed.
+     *
+     * @param file file, if any
+     * @return the specified file opened as an indexed FASTA file, or <code>null</code> if the specified file
+     *    is not mappable or cannot be indexed, e.g. if line lengths differ within a sequence
+     */
+    static IndexedFasta indexedFasta(final File file) {
+        if (isMappable(file)) {
+            try {
+                return IndexedFasta.open(file);
+            }
+            catch (IOException e) {
+                // fall back to parsing, which reports any I/O error again
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Standard output stream that flushes rather than closes standard output on close.
+     */
+    private static final class StandardOutputStream extends FilterOutputStream {
+
+        /**
+         * Create a new standard output stream.
+         */
+        private StandardOutputStream() {
+            super(System.out);
+        }
+
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
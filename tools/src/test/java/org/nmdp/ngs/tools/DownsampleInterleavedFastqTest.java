@@ -22,14 +22,24 @@
 */
 package org.nmdp.ngs.tools;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.io.Files;
 
 import org.apache.commons.math3.random.JDKRandomGenerator;
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
 
 import org.apache.commons.math3.distribution.BinomialDistribution;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -40,10 +50,30 @@ public final class DownsampleInterleavedFastqTest {
     private File inputFastqFile;
     private File outputFastqFile;
     private BinomialDistribution distribution;
+    private RandomGenerator random;
 
     @Before
     public void setUp() throws Exception {
         distribution = new BinomialDistribution(new JDKRandomGenerator(), 1, 1.0d);
+        random = new MersenneTwister(42L);
+        inputFastqFile = File.createTempFile("downsampleInterleavedFastqTest", ".fq");
+        outputFastqFile = File.createTempFile("downsampleInterleavedFastqTest", ".fq");
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("@read" + i + "\nacgt\n+\nIIII\n");
+        }
+        Files.write(sb.toString(), inputFastqFile, StandardCharsets.US_ASCII);
+    }
+
+    @After
+    public void tearDown() {
+        inputFastqFile.delete();
+        outputFastqFile.delete();
+    }
+
+    private int countOutputRecords() throws IOException {
+        return Files.readLines(outputFastqFile, StandardCharsets.US_ASCII).size() / 4;
     }
 
     @Test(expected=NullPointerException.class)
@@ -55,4 +85,85 @@ public final class DownsampleInterleavedFastqTest {
     public void testConstructor() {
         assertNotNull(new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, distribution));
     }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorProbabilityNullRandom() {
+        new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, null, 0.5d);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidProbability() {
+        new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, 1.5d);
+    }
+
+    @Test
+    public void testDownsampleDistribution() throws Exception {
+        assertEquals(0, (int) new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, distribution).call());
+        assertEquals(100, countOutputRecords());
+    }
+
+    @Test
+    public void testDownsampleProbability() throws Exception {
+        assertEquals(0, (int) new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, 1.0d).call());
+        assertEquals(100, countOutputRecords());
+        assertEquals(0, (int) new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, 0.0d).call());
+        assertEquals(0, countOutputRecords());
+        assertEquals(0, (int) new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, 0.5d).call());
+        assertTrue(countOutputRecords() > 0 && countOutputRecords() < 100);
+        assertEquals(0, countOutputRecords() % 2);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorCountNullRandom() {
+        new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, null, 10L, DownsampleInterleavedFastq.UNKNOWN_TOTAL);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorNegativeCount() {
+        new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, -1L, DownsampleInterleavedFastq.UNKNOWN_TOTAL);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorTotalLessThanCount() {
+        new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, 10L, 9L);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorFractionNullRandom() {
+        new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, null, 0.5d, DownsampleInterleavedFastq.UNKNOWN_TOTAL);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidFraction() {
+        new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, 1.5d, DownsampleInterleavedFastq.UNKNOWN_TOTAL);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorFractionUnknownTotalNullInputFastqFile() {
+        new DownsampleInterleavedFastq(null, outputFastqFile, random, 0.5d, DownsampleInterleavedFastq.UNKNOWN_TOTAL);
+    }
+
+    @Test
+    public void testDownsampleReservoir() throws Exception {
+        assertEquals(0, (int) new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, 10L, DownsampleInterleavedFastq.UNKNOWN_TOTAL).call());
+        assertEquals(20, countOutputRecords());
+    }
+
+    @Test
+    public void testDownsampleCountKnownTotal() throws Exception {
+        assertEquals(0, (int) new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, 10L, 50L).call());
+        assertEquals(20, countOutputRecords());
+    }
+
+    @Test
+    public void testDownsampleFraction() throws Exception {
+        assertEquals(0, (int) new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, 0.2d, DownsampleInterleavedFastq.UNKNOWN_TOTAL).call());
+        assertEquals(20, countOutputRecords());
+    }
+
+    @Test
+    public void testDownsampleFractionKnownTotal() throws Exception {
+        assertEquals(0, (int) new DownsampleInterleavedFastq(inputFastqFile, outputFastqFile, random, 0.2d, 50L).call());
+        assertEquals(20, countOutputRecords());
+    }
 }
@@ -22,11 +22,23 @@
 */
 package org.nmdp.ngs.tools;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import static org.nmdp.ngs.tools.EvaluateScaffolds.readLengths;
+
 import java.io.File;
 import java.io.IOException;
 
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import com.google.common.io.Files;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -65,4 +77,21 @@ public final class EvaluateScaffoldsTest {
     public void testConstructor() {
         assertNotNull(new EvaluateScaffolds(referenceFastaFile, scaffoldsFastaFile, evalFile));
     }
+
+    @Test
+    public void testReadLengths() throws Exception {
+        Files.write(">1\nACGTACGT\nAC\n>2\nACG\n", scaffoldsFastaFile, StandardCharsets.US_ASCII);
+        List<String> names = new ArrayList<String>();
+        assertEquals(ImmutableList.of(10L, 3L), readLengths(scaffoldsFastaFile, names));
+        assertEquals(ImmutableList.of("1", "2"), names);
+    }
+
+    @Test
+    public void testReadLengthsDuplicateNames() throws Exception {
+        Files.write(">1\nACGTACGT\nAC\n>2\nACG\n>1\nACGTA\n", scaffoldsFastaFile, StandardCharsets.US_ASCII);
+        List<String> names = new ArrayList<String>();
+        assertEquals(ImmutableList.of(10L, 3L, 5L), readLengths(scaffoldsFastaFile, names));
+        assertEquals(ImmutableList.of("1", "2", "1"), names);
+        assertEquals(ImmutableList.of(10L, 3L, 5L), readLengths(scaffoldsFastaFile, null));
+    }
 }
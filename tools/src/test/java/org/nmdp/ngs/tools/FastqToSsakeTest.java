@@ -22,6 +22,7 @@
 */
 package org.nmdp.ngs.tools;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -32,12 +33,17 @@ import static org.nmdp.ngs.tools.FastqToSsake.isRight;
 import java.io.File;
 import java.io.IOException;
 
+import java.nio.charset.StandardCharsets;
+
 import java.util.List;
 
 import com.google.common.collect.ImmutableList;
 
+import com.google.common.io.Files;
+
 import org.biojava.bio.program.fastq.Fastq;
 import org.biojava.bio.program.fastq.FastqBuilder;
+import org.biojava.bio.program.fastq.SangerFastqWriter;
 
 import org.junit.After;
 import org.junit.Before;
@@ -68,6 +74,28 @@ public final class FastqToSsakeTest {
     public void tearDown() {
         firstFastqFile.delete();
         secondFastqFile.delete();
+        if (ssakeFile != null) {
+            ssakeFile.delete();
+        }
+        if (unpairedFile != null) {
+            unpairedFile.delete();
+        }
+    }
+
+    @Test
+    public void testCallUnpaired() throws Exception {
+        ssakeFile = File.createTempFile("fastqToSsakeTest", ".txt");
+        unpairedFile = File.createTempFile("fastqToSsakeTest", ".txt");
+        Fastq otherLeft = new FastqBuilder().withDescription("foo\\1").appendSequence("a").appendQuality("-").build();
+        new SangerFastqWriter().write(firstFastqFile, ImmutableList.of(left, invalid));
+        new SangerFastqWriter().write(secondFastqFile, ImmutableList.of(otherLeft, right));
+
+        assertEquals(Integer.valueOf(0), new FastqToSsake(firstFastqFile, secondFastqFile, ssakeFile, FastqToSsake.DEFAULT_INSERT_SIZE, unpairedFile).call());
+        assertEquals(ImmutableList.of(">foo 1:foo 2:500", "a:a"), Files.readLines(ssakeFile, StandardCharsets.UTF_8));
+        List<String> unpaired = Files.readLines(unpairedFile, StandardCharsets.UTF_8);
+        assertEquals(2, unpaired.size());
+        assertTrue(unpaired.contains("invalid"));
+        assertTrue(unpaired.contains("foo\\1"));
     }
 
     @Test(expected=NullPointerException.class)
@@ -115,4 +143,10 @@ public final class FastqToSsakeTest {
             assertFalse(isRight(fastq));
         }
     }
+
+    @Test
+    public void testIsLeftIsRightBackslash() {
+        assertTrue(isLeft(new FastqBuilder().withDescription("foo\\1").appendSequence("a").appendQuality("-").build()));
+        assertTrue(isRight(new FastqBuilder().withDescription("foo\\2").appendSequence("a").appendQuality("-").build()));
+    }
 }
@@ -22,13 +22,28 @@
 */
 package org.nmdp.ngs.tools;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import com.google.common.io.Files;
+
+import org.junit.After;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import org.nmdp.ngs.variant.vcf.VcfLineFilters;
 import org.nmdp.ngs.variant.vcf.VcfRecord;
 
 /**
@@ -39,8 +54,23 @@ public final class FilterVcfTest {
     private File inputVcfFile;
     private File outputVcfFile;
 
+    private static final String HEADER = "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA19131";
+    private static final String FIRST = "22\t100\trs1\tA\tG\t50\tPASS\tDB\tGT\t0|1";
+    private static final String SECOND = "22\t200\trs2\tC\tT\t10\tq10\t.\tGT\t1|1";
+    private static final String THIRD = "X\t300\trs3\tG\tA\t60\tPASS\tAA=G\tGT\t0|0";
+
     @Before
     public void setUp() throws Exception {
+        inputVcfFile = File.createTempFile("filterVcfTest", ".vcf");
+        outputVcfFile = File.createTempFile("filterVcfTest", ".vcf");
+        PrintWriter writer = Streams.writer(inputVcfFile);
+        writer.println("##fileformat=VCFv4.1");
+        writer.println(HEADER);
+        writer.println(FIRST);
+        writer.println(SECOND);
+        writer.println(THIRD);
+        writer.close();
+
         filter = new FilterVcf.Filter() {
                 @Override
                 public boolean accept(final VcfRecord record) {
@@ -49,6 +79,16 @@ public final class FilterVcfTest {
             };
     }
 
+    @After
+    public void tearDown() {
+        inputVcfFile.delete();
+        outputVcfFile.delete();
+    }
+
+    private List<String> lines() throws IOException {
+        return Files.readLines(outputVcfFile, StandardCharsets.US_ASCII);
+    }
+
     @Test(expected=NullPointerException.class)
     public void testConstructorNullFilter() {
         new FilterVcf(null, inputVcfFile, outputVcfFile);
@@ -58,4 +98,73 @@ public final class FilterVcfTest {
     public void testConstructor() {
         assertNotNull(new FilterVcf(filter, inputVcfFile, outputVcfFile));
     }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullLineFilter() {
+        new FilterVcf(null, filter, inputVcfFile, outputVcfFile);
+    }
+
+    @Test
+    public void testConstructorNullRecordFilter() {
+        assertNotNull(new FilterVcf(VcfLineFilters.all(), null, inputVcfFile, outputVcfFile));
+    }
+
+    @Test
+    public void testFilterRecords() throws Exception {
+        FilterVcf.Filter qualFilter = new FilterVcf.Filter() {
+                @Override
+                public boolean accept(final VcfRecord record) {
+                    return record.getQual() > 20.0d;
+                }
+            };
+        assertEquals(0, (int) new FilterVcf(qualFilter, inputVcfFile, outputVcfFile).call());
+        List<String> lines = lines();
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(2).startsWith("22\t100\trs1\t"));
+    }
+
+    @Test
+    public void testFilterLines() throws Exception {
+        assertEquals(0, (int) new FilterVcf(VcfLineFilters.and(VcfLineFilters.chrom("22"), VcfLineFilters.pass()), null, inputVcfFile, outputVcfFile).call());
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.1", HEADER, FIRST), lines());
+    }
+
+    @Test
+    public void testFilterLinesRange() throws Exception {
+        assertEquals(0, (int) new FilterVcf(FilterVcf.parseRange("22:150-300"), null, inputVcfFile, outputVcfFile).call());
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.1", HEADER, SECOND), lines());
+    }
+
+    @Test
+    public void testFilterLinesThenRecords() throws Exception {
+        FilterVcf.Filter idFilter = new FilterVcf.Filter() {
+                @Override
+                public boolean accept(final VcfRecord record) {
+                    return !"rs3".equals(record.getId()[0]);
+                }
+            };
+        assertEquals(0, (int) new FilterVcf(VcfLineFilters.pass(), idFilter, inputVcfFile, outputVcfFile).call());
+        assertEquals(3, lines().size());
+    }
+
+    @Test(expected=IOException.class)
+    public void testFilterLinesInvalidDataLine() throws Exception {
+        Files.write("##fileformat=VCFv4.1\n" + HEADER + "\n22\t100\n", inputVcfFile, StandardCharsets.US_ASCII);
+        new FilterVcf(VcfLineFilters.all(), null, inputVcfFile, outputVcfFile).call();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testParseRangeInvalid() {
+        FilterVcf.parseRange("22:100");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testParseRangeInvalidNumber() {
+        FilterVcf.parseRange("22:a-b");
+    }
+
+    @Test
+    public void testParseRangeContigWithColon() {
+        assertNotNull(FilterVcf.parseRange("HLA:HLA00001:1-100"));
+    }
 }
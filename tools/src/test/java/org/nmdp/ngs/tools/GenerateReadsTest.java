@@ -22,9 +22,19 @@
 */
 package org.nmdp.ngs.tools;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+
+import com.google.common.io.Files;
 
 import org.apache.commons.math3.distribution.NormalDistribution;
 import org.apache.commons.math3.distribution.RealDistribution;
@@ -32,11 +42,14 @@ import org.apache.commons.math3.distribution.RealDistribution;
 import org.apache.commons.math3.random.JDKRandomGenerator;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import org.nmdp.ngs.reads.CoverageStrategy;
 import org.nmdp.ngs.reads.MutationStrategy;
+
+import org.nmdp.ngs.reads.coverage.MinimumCoverageStrategy;
 import org.nmdp.ngs.reads.QualityStrategy;
 import org.nmdp.ngs.reads.quality.RealDistributionQualityStrategy;
 
@@ -63,8 +76,46 @@ public final class GenerateReadsTest {
         mutation = GenerateReads.DEFAULT_MUTATION;
     }
 
+    @After
+    public void tearDown() {
+        if (referenceFile != null) {
+            referenceFile.delete();
+        }
+        if (readFile != null) {
+            readFile.delete();
+        }
+    }
+
+    private void generateReads(final String reference) throws Exception {
+        referenceFile = File.createTempFile("generateReadsTest", ".fa");
+        readFile = File.createTempFile("generateReadsTest", ".fq");
+        Files.write(reference, referenceFile, StandardCharsets.US_ASCII);
+        assertEquals(0, (int) new GenerateReads(referenceFile, readFile, random, new NormalDistribution(random, 6.0d, 1.0d, NormalDistribution.DEFAULT_INVERSE_ABSOLUTE_ACCURACY),
+                                                quality, new MinimumCoverageStrategy(1), mutationRate, mutation).call());
+    }
+
+    private void assertReadsWithin(final String bases) throws IOException {
+        List<String> lines = Files.readLines(readFile, StandardCharsets.US_ASCII);
+        assertFalse(lines.isEmpty());
+        for (int i = 1; i < lines.size(); i += 4) {
+            assertTrue(lines.get(i), bases.contains(lines.get(i)));
+        }
+    }
+
     @Test
     public void testConstructor() {
         assertNotNull(new GenerateReads(referenceFile, readFile, random, length, quality, coverage, mutationRate, mutation));
     }
+
+    @Test
+    public void testCallIndexed() throws Exception {
+        generateReads(">seq1\nACGTTGCAAC\nGGTTAACC\n");
+        assertReadsWithin("acgttgcaacggttaacc");
+    }
+
+    @Test
+    public void testCallNotIndexable() throws Exception {
+        generateReads(">seq1\nACGT\nTGCAACGG\nTTAACC\n");
+        assertReadsWithin("acgttgcaacggttaacc");
+    }
 }
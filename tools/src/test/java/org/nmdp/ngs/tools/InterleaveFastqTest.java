@@ -86,11 +86,21 @@ public final class InterleaveFastqTest {
         new InterleaveFastq(firstFastqFile, secondFastqFile, pairedFile, null);
     }
 
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorNegativeMemoryBudget() {
+        new InterleaveFastq(firstFastqFile, secondFastqFile, pairedFile, unpairedFile, -1L);
+    }
+
     @Test
     public void testConstructor() {
         assertNotNull(new InterleaveFastq(firstFastqFile, secondFastqFile, pairedFile, unpairedFile));
     }
 
+    @Test
+    public void testConstructorMemoryBudget() {
+        assertNotNull(new InterleaveFastq(firstFastqFile, secondFastqFile, pairedFile, unpairedFile, 1024L));
+    }
+
     @Test
     public void testInterleaveFastq() throws Exception {
         copyResource("paired_R1.fq.gz", firstFastqFile);
@@ -121,6 +131,26 @@ public final class InterleaveFastqTest {
         assertEquals(2, countFastq(unpairedFile));
     }
 
+    @Test
+    public void testInterleaveFastqMemoryBudget() throws Exception {
+        copyResource("paired_R1.fq.gz", firstFastqFile);
+        copyResource("paired_R2.fq.gz", secondFastqFile);
+        new InterleaveFastq(firstFastqFile, secondFastqFile, pairedFile, unpairedFile, 1L).call();
+
+        assertEquals(8, countFastq(pairedFile));
+        assertEquals(0, countFastq(unpairedFile));
+    }
+
+    @Test
+    public void testInterleaveFastqUnpairedMemoryBudget() throws Exception {
+        copyResource("unpaired_R1.fq.gz", firstFastqFile);
+        copyResource("unpaired_R2.fq.gz", secondFastqFile);
+        new InterleaveFastq(firstFastqFile, secondFastqFile, pairedFile, unpairedFile, 1L).call();
+
+        assertEquals(4, countFastq(pairedFile));
+        assertEquals(2, countFastq(unpairedFile));
+    }
+
     private static int countFastq(final File file) throws Exception {
         FastqReader fastqReader = new SangerFastqReader();
         int count = 0;
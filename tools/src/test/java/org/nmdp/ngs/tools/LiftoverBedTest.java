@@ -22,11 +22,16 @@
 */
 package org.nmdp.ngs.tools;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.File;
 import java.io.IOException;
 
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.io.Files;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -36,17 +41,31 @@ import org.junit.Test;
  */
 public class LiftoverBedTest {
     private File refBedFile;
+    private File chainFile;
     private File sourceBedFile;
     private File targetBedFile;
+    private File unmappedBedFile;
 
     @Before
     public void setUp() throws IOException {
         refBedFile = File.createTempFile("liftoverBedTest", ".bed");
+        chainFile = File.createTempFile("liftoverBedTest", ".chain");
+        sourceBedFile = File.createTempFile("liftoverBedTest", ".bed");
+        targetBedFile = File.createTempFile("liftoverBedTest", ".bed");
+        unmappedBedFile = File.createTempFile("liftoverBedTest", ".bed");
+
+        Files.write("chr6\t1000\t2000\tcontig1\nchr6\t5000\t5500\tcontig2\n", refBedFile, StandardCharsets.US_ASCII);
+        Files.write("chain 1000 contig1 1000 + 0 1000 chr6 10000 + 1000 2000 1\n1000\n", chainFile, StandardCharsets.US_ASCII);
+        Files.write("contig1\t10\t20\ta\ncontig2\t450\t550\tb\ncontig3\t0\t10\tc\ncontig1\t30\t40\td\n", sourceBedFile, StandardCharsets.US_ASCII);
     }
 
     @After
     public void tearDown() {
         refBedFile.delete();
+        chainFile.delete();
+        sourceBedFile.delete();
+        targetBedFile.delete();
+        unmappedBedFile.delete();
     }
 
     @Test(expected=NullPointerException.class)
@@ -54,8 +73,89 @@ public class LiftoverBedTest {
         assertNotNull(new LiftoverBed(null, sourceBedFile, targetBedFile));
     }
 
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorRefBedAndChainFile() {
+        new LiftoverBed(refBedFile, chainFile, sourceBedFile, targetBedFile, null, LiftoverBed.DEFAULT_MIN_MATCH, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorNeitherRefBedNorChainFile() {
+        new LiftoverBed(null, null, sourceBedFile, targetBedFile, null, LiftoverBed.DEFAULT_MIN_MATCH, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidMinMatch() {
+        new LiftoverBed(refBedFile, null, sourceBedFile, targetBedFile, null, 0.0d, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidThreads() {
+        new LiftoverBed(refBedFile, null, sourceBedFile, targetBedFile, null, LiftoverBed.DEFAULT_MIN_MATCH, 0);
+    }
+
     @Test
     public void testConstructor() {
         assertNotNull(new LiftoverBed(refBedFile, sourceBedFile, targetBedFile));
     }
+
+    @Test
+    public void testLiftoverRefBed() throws Exception {
+        assertEquals(Integer.valueOf(0), new LiftoverBed(refBedFile, sourceBedFile, targetBedFile).call());
+        assertEquals("chr6\t1010\t1020\ta\nchr6\t1030\t1040\td\n", Files.toString(targetBedFile, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testLiftoverChain() throws Exception {
+        assertEquals(Integer.valueOf(0), new LiftoverBed(null, chainFile, sourceBedFile, targetBedFile, unmappedBedFile, LiftoverBed.DEFAULT_MIN_MATCH, 2).call());
+        assertEquals("chr6\t1010\t1020\ta\nchr6\t1030\t1040\td\n", Files.toString(targetBedFile, StandardCharsets.US_ASCII));
+        assertEquals("#Deleted in new\ncontig2\t450\t550\tb\n#Deleted in new\ncontig3\t0\t10\tc\n", Files.toString(unmappedBedFile, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testLiftoverUnmapped() throws Exception {
+        assertEquals(Integer.valueOf(0), new LiftoverBed(refBedFile, null, sourceBedFile, targetBedFile, unmappedBedFile, LiftoverBed.DEFAULT_MIN_MATCH, 1).call());
+        assertEquals("#Partially deleted in new\ncontig2\t450\t550\tb\n#Deleted in new\ncontig3\t0\t10\tc\n", Files.toString(unmappedBedFile, StandardCharsets.US_ASCII));
+    }
+
+
+    // methods for benchmarking, one thread vs batches on several threads
+    private static final int M = 3;
+    private static final int N = 100000;
+
+    private void writeRecords() throws IOException {
+        StringBuilder chain = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            chain.append("chain 1000 chr1 100000000 + ").append(i * 1000000).append(" ").append((i + 1) * 1000000)
+                .append(" chr1b 200000000 + ").append(i * 1000000 + 500).append(" ").append((i + 1) * 1000000 + 500).append(" ").append(i).append("\n");
+            for (int j = 0; j < 99; j++) {
+                chain.append("9000 1000 1000\n");
+            }
+            chain.append("9000\n\n");
+        }
+        Files.write(chain.toString(), chainFile, StandardCharsets.US_ASCII);
+
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < N; i++) {
+            long start = i * 997L;
+            source.append("chr1\t").append(start).append("\t").append(start + 100L).append("\tr").append(i).append("\n");
+        }
+        Files.write(source.toString(), sourceBedFile, StandardCharsets.US_ASCII);
+    }
+
+    private void liftover(final int threads) throws Exception {
+        writeRecords();
+        for (int m = 0; m < M; m++) {
+            assertEquals(Integer.valueOf(0), new LiftoverBed(null, chainFile, sourceBedFile, targetBedFile, unmappedBedFile, LiftoverBed.DEFAULT_MIN_MATCH, threads).call());
+        }
+    }
+
+    @Test
+    public void testSingleThread() throws Exception {
+        liftover(1);
+    }
+
+    @Test
+    public void testBatches() throws Exception {
+        liftover(4);
+    }
 }
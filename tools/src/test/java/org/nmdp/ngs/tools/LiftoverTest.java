@@ -0,0 +1,165 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.nmdp.ngs.align.BedRecord;
+
+/**
+ * Unit test for Liftover.
+ */
+public final class LiftoverTest {
+    private Liftover chain;
+    private static final String CHAIN = "chain 1000 chr1 1000 + 100 300 chr1b 2000 + 500 690 1\n"
+        + "50 10 0\n"
+        + "140\n"
+        + "\n"
+        + "chain 500 chr2 500 + 0 100 chr2b 1000 - 0 100 2\n"
+        + "100\n";
+
+    @Before
+    public void setUp() throws IOException {
+        chain = Liftover.fromChain(new BufferedReader(new StringReader(CHAIN)));
+    }
+
+    private static BedRecord lifted(final Liftover liftover, final BedRecord record, final double minMatch) {
+        return liftover.lift(record, minMatch).getLifted();
+    }
+
+    private static String reason(final Liftover liftover, final BedRecord record, final double minMatch) {
+        return liftover.lift(record, minMatch).getReason();
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullBlocks() {
+        new Liftover(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testLiftNullRecord() {
+        chain.lift(null, 1.0d);
+    }
+
+    @Test
+    public void testLiftWithinBlock() {
+        assertEquals(new BedRecord("chr1b", 510L, 520L, "a"), lifted(chain, new BedRecord("chr1", 110L, 120L, "a"), 1.0d));
+        assertNull(reason(chain, new BedRecord("chr1", 110L, 120L, "a"), 1.0d));
+    }
+
+    @Test
+    public void testLiftSecondBlock() {
+        // second block starts at source 160, target 550
+        assertEquals(new BedRecord("chr1b", 550L, 560L, "b"), lifted(chain, new BedRecord("chr1", 160L, 170L, "b"), 1.0d));
+    }
+
+    @Test
+    public void testLiftWithoutName() {
+        assertEquals(new BedRecord("chr1b", 510L, 520L), lifted(chain, new BedRecord("chr1", 110L, 120L), 1.0d));
+    }
+
+    @Test
+    public void testLiftAcrossGap() {
+        BedRecord record = new BedRecord("chr1", 140L, 170L, "c");
+        assertNull(lifted(chain, record, 1.0d));
+        assertEquals(Liftover.PARTIALLY_DELETED, reason(chain, record, 1.0d));
+        // 10 of 30 bases in gap
+        assertEquals(new BedRecord("chr1b", 540L, 560L, "c"), lifted(chain, record, 0.6d));
+    }
+
+    @Test
+    public void testLiftDeleted() {
+        assertEquals(Liftover.DELETED, reason(chain, new BedRecord("chr1", 152L, 158L, "d"), 1.0d));
+        assertEquals(Liftover.DELETED, reason(chain, new BedRecord("chr1", 10L, 20L, "d"), 1.0d));
+        assertEquals(Liftover.DELETED, reason(chain, new BedRecord("chr3", 10L, 20L, "d"), 1.0d));
+    }
+
+    @Test
+    public void testLiftReverseStrand() {
+        assertEquals(new BedRecord("chr2b", 980L, 990L, "e"), lifted(chain, new BedRecord("chr2", 10L, 20L, "e"), 1.0d));
+    }
+
+    @Test
+    public void testLiftDuplicated() {
+        Liftover liftover = new Liftover(ImmutableList.of(new Liftover.Block(0, "chr1", 0L, 100L, "chr1b", 0L, 0L, false),
+                                                          new Liftover.Block(1, "chr1", 0L, 100L, "chr7b", 0L, 0L, false)));
+        assertEquals(Liftover.DUPLICATED, reason(liftover, new BedRecord("chr1", 10L, 20L, "f"), 1.0d));
+    }
+
+    @Test
+    public void testLiftZeroLength() {
+        assertEquals(new BedRecord("chr1b", 510L, 510L, "g"), lifted(chain, new BedRecord("chr1", 110L, 110L, "g"), 1.0d));
+    }
+
+    @Test
+    public void testFromRefBed() throws IOException {
+        Liftover liftover = Liftover.fromRefBed(new BufferedReader(new StringReader("chr6\t1000\t2000\tcontig1\nchr6\t5000\t5500\tcontig2\n")));
+        assertEquals(new BedRecord("chr6", 1010L, 1020L, "h"), lifted(liftover, new BedRecord("contig1", 10L, 20L, "h"), 1.0d));
+        assertEquals(new BedRecord("chr6", 5000L, 5100L, "i"), lifted(liftover, new BedRecord("contig2", 0L, 100L, "i"), 1.0d));
+        assertEquals(Liftover.PARTIALLY_DELETED, reason(liftover, new BedRecord("contig2", 450L, 550L, "j"), 1.0d));
+    }
+
+    @Test
+    public void testFromRefBedLastWins() throws IOException {
+        Liftover liftover = Liftover.fromRefBed(new BufferedReader(new StringReader("chr6\t1000\t2000\tcontig1\nchr7\t5000\t6000\tcontig1\n")));
+        assertEquals(new BedRecord("chr7", 5010L, 5020L, "k"), lifted(liftover, new BedRecord("contig1", 10L, 20L, "k"), 1.0d));
+    }
+
+    @Test
+    public void testFromRefBedMissingName() throws IOException {
+        try {
+            Liftover.fromRefBed(new BufferedReader(new StringReader("chr6\t1000\t2000\tcontig1\nchr6\t5000\t5500\n")));
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage().contains("chr6\t5000\t5500"));
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testFromChainBlockOutsideChain() throws IOException {
+        Liftover.fromChain(new BufferedReader(new StringReader("100\n")));
+    }
+
+    @Test(expected=IOException.class)
+    public void testFromChainInvalidHeader() throws IOException {
+        Liftover.fromChain(new BufferedReader(new StringReader("chain 1000 chr1 1000 + 100\n")));
+    }
+
+    @Test(expected=IOException.class)
+    public void testFromChainInvalidBlockSize() throws IOException {
+        Liftover.fromChain(new BufferedReader(new StringReader("chain 1000 chr1 1000 + 100 300 chr1b 2000 + 500 690 1\nfifty\n")));
+    }
+}
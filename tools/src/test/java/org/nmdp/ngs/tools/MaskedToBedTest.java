@@ -22,10 +22,19 @@
 */
 package org.nmdp.ngs.tools;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
 
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.io.Files;
+
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 /**
@@ -33,10 +42,99 @@ import org.junit.Test;
  */
 public class MaskedToBedTest {
     private File fastaFile;
+    private File compressedFastaFile;
     private File bedFile;
+    private static final String FASTA = ">1 description\nNNACGTACGTNN\nNACGTnnnnA\n>2\nACGT\n>3\nNNNN\nNN\n";
+    private static final String EXPECTED = "1\t0\t2\thard-mask\n1\t10\t13\thard-mask\n1\t17\t21\thard-mask\n3\t0\t6\thard-mask\n";
+
+    @Before
+    public void setUp() throws IOException {
+        fastaFile = File.createTempFile("maskedToBedTest", ".fa");
+        compressedFastaFile = File.createTempFile("maskedToBedTest", ".fa.gz");
+        bedFile = File.createTempFile("maskedToBedTest", ".bed");
+
+        Files.write(FASTA, fastaFile, StandardCharsets.US_ASCII);
+        PrintWriter writer = Streams.writer(compressedFastaFile);
+        writer.print(FASTA);
+        writer.close();
+    }
+
+    @After
+    public void tearDown() {
+        fastaFile.delete();
+        compressedFastaFile.delete();
+        bedFile.delete();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidThreads() {
+        new MaskedToBed(fastaFile, bedFile, 0);
+    }
 
     @Test
     public void testConstructor() {
         assertNotNull(new MaskedToBed(fastaFile, bedFile));
     }
+
+    @Test
+    public void testMaskedToBed() throws Exception {
+        assertEquals(Integer.valueOf(0), new MaskedToBed(fastaFile, bedFile).call());
+        assertEquals(EXPECTED, Files.toString(bedFile, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testMaskedToBedSingleThread() throws Exception {
+        assertEquals(Integer.valueOf(0), new MaskedToBed(fastaFile, bedFile, 1).call());
+        assertEquals(EXPECTED, Files.toString(bedFile, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testMaskedToBedCompressed() throws Exception {
+        assertEquals(Integer.valueOf(0), new MaskedToBed(compressedFastaFile, bedFile).call());
+        assertEquals(EXPECTED, Files.toString(bedFile, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testMaskedToBedSingleBaseRuns() throws Exception {
+        String fasta = ">1\nNACGTNACGT\nAnA\n";
+        String expected = "1\t0\t1\thard-mask\n1\t5\t6\thard-mask\n1\t11\t12\thard-mask\n";
+        Files.write(fasta, fastaFile, StandardCharsets.US_ASCII);
+        assertEquals(Integer.valueOf(0), new MaskedToBed(fastaFile, bedFile).call());
+        assertEquals(expected, Files.toString(bedFile, StandardCharsets.US_ASCII));
+
+        PrintWriter writer = Streams.writer(compressedFastaFile);
+        writer.print(fasta);
+        writer.close();
+        assertEquals(Integer.valueOf(0), new MaskedToBed(compressedFastaFile, bedFile).call());
+        assertEquals(expected, Files.toString(bedFile, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testMaskedToBedRunsAtEndOfSequence() throws Exception {
+        String fasta = ">1\nACGTACGTNN\nNN\n>2\nACGTN\n>3\nACGT\n";
+        String expected = "1\t8\t12\thard-mask\n2\t4\t5\thard-mask\n";
+        Files.write(fasta, fastaFile, StandardCharsets.US_ASCII);
+        assertEquals(Integer.valueOf(0), new MaskedToBed(fastaFile, bedFile).call());
+        assertEquals(expected, Files.toString(bedFile, StandardCharsets.US_ASCII));
+
+        PrintWriter writer = Streams.writer(compressedFastaFile);
+        writer.print(fasta);
+        writer.close();
+        assertEquals(Integer.valueOf(0), new MaskedToBed(compressedFastaFile, bedFile).call());
+        assertEquals(expected, Files.toString(bedFile, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testMaskedToBedNotIndexable() throws Exception {
+        Files.write(">1 description\nNNACGT\nACGTNNNACGTnnn\nnA\n>2\nACGT\n>3\nNNNN\nNN\n", fastaFile, StandardCharsets.US_ASCII);
+        assertEquals(Integer.valueOf(0), new MaskedToBed(fastaFile, bedFile).call());
+        assertEquals(EXPECTED, Files.toString(bedFile, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testMaskedToBedBlankLineNotIndexable() throws Exception {
+        Files.write(">1 description\nNNACGTACGTNN\n\nNACGTnnnnA\n>2\nACGT\n>3\nNNNN\nNN\n", fastaFile, StandardCharsets.US_ASCII);
+        assertEquals(Integer.valueOf(0), new MaskedToBed(fastaFile, bedFile).call());
+        assertEquals(EXPECTED, Files.toString(bedFile, StandardCharsets.US_ASCII));
+    }
 }
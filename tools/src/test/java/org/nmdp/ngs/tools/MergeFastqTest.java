@@ -22,15 +22,22 @@
 */
 package org.nmdp.ngs.tools;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
+
+import java.nio.charset.StandardCharsets;
 
 import java.util.List;
 
 import com.google.common.collect.ImmutableList;
 
+import com.google.common.io.Files;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -41,21 +48,46 @@ import org.junit.Test;
 public final class MergeFastqTest {
     private File inputFastqFile;
     private File outputFastqFile;
+    private File secondFastqFile;
     private List<File> inputFastqFiles;
 
     @Before
     public void setUp() throws IOException {
         inputFastqFile = File.createTempFile("mergeFastqTest", ".fq");
+        secondFastqFile = File.createTempFile("mergeFastqTest", ".fq.gz");
         outputFastqFile = File.createTempFile("mergeFastqTest", ".fq");
-        inputFastqFiles = ImmutableList.of(inputFastqFile);
+        inputFastqFiles = ImmutableList.of(inputFastqFile, secondFastqFile);
+
+        write(inputFastqFile, "a", 3);
+        write(secondFastqFile, "b", 2);
     }
 
     @After
     public void tearDown() {
         inputFastqFile.delete();
+        secondFastqFile.delete();
         outputFastqFile.delete();
     }
 
+    private static void write(final File file, final String prefix, final int count) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("@" + prefix + i + "\nacgt\n+\nIIII\n");
+        }
+        PrintWriter writer = Streams.writer(file);
+        writer.print(sb.toString());
+        writer.close();
+    }
+
+    private List<String> descriptions() throws IOException {
+        ImmutableList.Builder<String> descriptions = ImmutableList.builder();
+        List<String> lines = Files.readLines(outputFastqFile, StandardCharsets.US_ASCII);
+        for (int i = 0; i < lines.size(); i += 4) {
+            descriptions.add(lines.get(i).substring(1));
+        }
+        return descriptions.build();
+    }
+
     @Test(expected=NullPointerException.class)
     public void testConstructorNullInputFastqFiles() {
         new MergeFastq(null, outputFastqFile);
@@ -65,4 +97,46 @@ public final class MergeFastqTest {
     public void testConstructor() {
         assertNotNull(new MergeFastq(inputFastqFiles, outputFastqFile));
     }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullMergeOrder() {
+        new MergeFastq(inputFastqFiles, outputFastqFile, null, 2);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidThreads() {
+        new MergeFastq(inputFastqFiles, outputFastqFile, MergeFastq.MergeOrder.CONCATENATED, 0);
+    }
+
+    @Test
+    public void testMergeConcatenated() throws Exception {
+        assertEquals(0, (int) new MergeFastq(inputFastqFiles, outputFastqFile).call());
+        assertEquals(ImmutableList.of("a0", "a1", "a2", "b0", "b1"), descriptions());
+    }
+
+    @Test
+    public void testMergeConcatenatedSingleThread() throws Exception {
+        assertEquals(0, (int) new MergeFastq(inputFastqFiles, outputFastqFile, MergeFastq.MergeOrder.CONCATENATED, 1).call());
+        assertEquals(ImmutableList.of("a0", "a1", "a2", "b0", "b1"), descriptions());
+    }
+
+    @Test
+    public void testMergeRoundRobin() throws Exception {
+        assertEquals(0, (int) new MergeFastq(inputFastqFiles, outputFastqFile, MergeFastq.MergeOrder.ROUND_ROBIN, 1).call());
+        assertEquals(ImmutableList.of("a0", "b0", "a1", "b1", "a2"), descriptions());
+    }
+
+    @Test
+    public void testMergeUnordered() throws Exception {
+        assertEquals(0, (int) new MergeFastq(inputFastqFiles, outputFastqFile, MergeFastq.MergeOrder.UNORDERED, 2).call());
+        List<String> descriptions = descriptions();
+        assertEquals(5, descriptions.size());
+        assertTrue(descriptions.containsAll(ImmutableList.of("a0", "a1", "a2", "b0", "b1")));
+    }
+
+    @Test(expected=IOException.class)
+    public void testMergeInvalidInput() throws Exception {
+        Files.write("not fastq\n", inputFastqFile, StandardCharsets.US_ASCII);
+        new MergeFastq(inputFastqFiles, outputFastqFile).call();
+    }
 }
@@ -0,0 +1,126 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import com.google.common.io.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for MergeVcf.
+ */
+public final class MergeVcfTest {
+    private File inputVcfFile;
+    private File secondVcfFile;
+    private File outputVcfFile;
+    private List<File> inputVcfFiles;
+
+    @Before
+    public void setUp() throws IOException {
+        inputVcfFile = File.createTempFile("mergeVcfTest", ".vcf");
+        secondVcfFile = File.createTempFile("mergeVcfTest", ".vcf.gz");
+        outputVcfFile = File.createTempFile("mergeVcfTest", ".vcf");
+        inputVcfFiles = ImmutableList.of(inputVcfFile, secondVcfFile);
+
+        write(inputVcfFile, "NA1", 10L, 30L);
+        write(secondVcfFile, "NA2", 20L, 30L);
+    }
+
+    @After
+    public void tearDown() {
+        inputVcfFile.delete();
+        secondVcfFile.delete();
+        outputVcfFile.delete();
+    }
+
+    private static void write(final File file, final String sample, final long... positions) throws IOException {
+        write(file, sample, "22", positions);
+    }
+
+    private static void write(final File file, final String sample, final String chrom, final long... positions) throws IOException {
+        PrintWriter writer = Streams.writer(file);
+        writer.println("##fileformat=VCFv4.1");
+        writer.println("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\t" + sample);
+        for (long position : positions) {
+            writer.println(chrom + "\t" + position + "\t.\tA\tG\t.\t.\t.\tGT\t0|1");
+        }
+        writer.close();
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullInputVcfFiles() {
+        new MergeVcf(null, outputVcfFile);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullChromosomes() {
+        new MergeVcf(inputVcfFiles, null, outputVcfFile);
+    }
+
+    @Test
+    public void testConstructor() {
+        assertNotNull(new MergeVcf(inputVcfFiles, outputVcfFile));
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        assertEquals(0, (int) new MergeVcf(inputVcfFiles, outputVcfFile).call());
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.1",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA1\tNA2",
+                                      "22\t10\t.\tA\tG\t.\t.\t.\tGT\t0|1\t.",
+                                      "22\t20\t.\tA\tG\t.\t.\t.\tGT\t.\t0|1",
+                                      "22\t30\t.\tA\tG\t.\t.\t.\tGT\t0|1\t0|1"), Files.readLines(outputVcfFile, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testMergeChromosomes() throws Exception {
+        write(inputVcfFile, "NA1", "X", 10L);
+        assertEquals(0, (int) new MergeVcf(inputVcfFiles, ImmutableList.of("22", "X"), outputVcfFile).call());
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.1",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA1\tNA2",
+                                      "22\t20\t.\tA\tG\t.\t.\t.\tGT\t.\t0|1",
+                                      "22\t30\t.\tA\tG\t.\t.\t.\tGT\t.\t0|1",
+                                      "X\t10\t.\tA\tG\t.\t.\t.\tGT\t0|1\t."), Files.readLines(outputVcfFile, StandardCharsets.US_ASCII));
+    }
+
+    @Test(expected=IOException.class)
+    public void testMergeNotSorted() throws Exception {
+        write(inputVcfFile, "NA1", 30L, 10L);
+        new MergeVcf(inputVcfFiles, outputVcfFile).call();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.io.ByteStreams;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for ParallelBgzfInputStream.
+ */
+public final class ParallelBgzfInputStreamTest {
+    private byte[] bytes;
+    private byte[] compressed;
+
+    @Before
+    public void setUp() throws IOException {
+        bytes = new byte[3 * ParallelBgzfOutputStream.BLOCK_SIZE + 17];
+        Random random = new Random(42L);
+        byte[] bases = new byte[] { 'a', 'c', 'g', 't' };
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = bases[random.nextInt(4)];
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputStream parallel = new ParallelBgzfOutputStream(outputStream, 2);
+        parallel.write(bytes);
+        parallel.close();
+        compressed = outputStream.toByteArray();
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullInputStream() {
+        new ParallelBgzfInputStream(null, 2);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidThreads() {
+        new ParallelBgzfInputStream(new ByteArrayInputStream(compressed), 0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullExecutorService() {
+        new ParallelBgzfInputStream(new ByteArrayInputStream(compressed), null, 2);
+    }
+
+    @Test
+    public void testReadSharedExecutorService() throws IOException {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            InputStream first = new ParallelBgzfInputStream(new ByteArrayInputStream(compressed), executorService, 2);
+            InputStream second = new ParallelBgzfInputStream(new ByteArrayInputStream(compressed), executorService, 2);
+            assertEquals(bytes[0] & 0xff, first.read());
+            assertArrayEquals(bytes, ByteStreams.toByteArray(second));
+            second.close();
+            assertFalse(executorService.isShutdown());
+            assertArrayEquals(Arrays.copyOfRange(bytes, 1, bytes.length), ByteStreams.toByteArray(first));
+            first.close();
+            assertFalse(executorService.isShutdown());
+        }
+        finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testConstructor() throws IOException {
+        InputStream parallel = new ParallelBgzfInputStream(new ByteArrayInputStream(compressed), 2);
+        assertNotNull(parallel);
+        parallel.close();
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        InputStream parallel = new ParallelBgzfInputStream(new ByteArrayInputStream(compressed), 4);
+        assertArrayEquals(bytes, ByteStreams.toByteArray(parallel));
+        parallel.close();
+    }
+
+    @Test
+    public void testReadSingleBytes() throws IOException {
+        InputStream parallel = new ParallelBgzfInputStream(new ByteArrayInputStream(compressed), 2);
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(bytes[i] & 0xff, parallel.read());
+        }
+        assertEquals(-1, parallel.read());
+        parallel.close();
+    }
+
+    @Test
+    public void testReadEmpty() throws IOException {
+        InputStream parallel = new ParallelBgzfInputStream(new ByteArrayInputStream(new byte[0]), 2);
+        assertEquals(-1, parallel.read());
+        parallel.close();
+    }
+
+    @Test
+    public void testReadHtsjdk() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BlockCompressedOutputStream bgzf = new BlockCompressedOutputStream(outputStream, null);
+        bgzf.write(bytes);
+        bgzf.close();
+
+        InputStream parallel = new ParallelBgzfInputStream(new ByteArrayInputStream(outputStream.toByteArray()), 2);
+        assertArrayEquals(bytes, ByteStreams.toByteArray(parallel));
+        parallel.close();
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadTruncated() throws IOException {
+        InputStream parallel = new ParallelBgzfInputStream(new ByteArrayInputStream(Arrays.copyOf(compressed, 100)), 2);
+        try {
+            ByteStreams.toByteArray(parallel);
+        }
+        finally {
+            parallel.close();
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadCorrupt() throws IOException {
+        byte[] corrupt = compressed.clone();
+        corrupt[ParallelBgzfOutputStream.HEADER_LENGTH + 4] ^= 0xff;
+        InputStream parallel = new ParallelBgzfInputStream(new ByteArrayInputStream(corrupt), 2);
+        try {
+            ByteStreams.toByteArray(parallel);
+        }
+        finally {
+            parallel.close();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.util.Random;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.io.ByteStreams;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for ParallelBgzfOutputStream.
+ */
+public final class ParallelBgzfOutputStreamTest {
+    private byte[] bytes;
+    private ByteArrayOutputStream outputStream;
+
+    @Before
+    public void setUp() {
+        bytes = bytes(new Random(42L), 3 * ParallelBgzfOutputStream.BLOCK_SIZE + 17);
+        outputStream = new ByteArrayOutputStream();
+    }
+
+    private static byte[] bytes(final Random random, final int length) {
+        byte[] bytes = new byte[length];
+        byte[] bases = new byte[] { 'a', 'c', 'g', 't' };
+        for (int i = 0; i < length; i++) {
+            bytes[i] = bases[random.nextInt(4)];
+        }
+        return bytes;
+    }
+
+    private static byte[] compress(final byte[] bytes, final int threads) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputStream parallel = new ParallelBgzfOutputStream(outputStream, threads);
+        parallel.write(bytes);
+        parallel.close();
+        return outputStream.toByteArray();
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullOutputStream() {
+        new ParallelBgzfOutputStream(null, 2);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidThreads() {
+        new ParallelBgzfOutputStream(outputStream, 0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullExecutorService() {
+        new ParallelBgzfOutputStream(outputStream, null, 2);
+    }
+
+    @Test
+    public void testSharedExecutorService() throws IOException {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            ByteArrayOutputStream secondOutputStream = new ByteArrayOutputStream();
+            OutputStream first = new ParallelBgzfOutputStream(outputStream, executorService, 2);
+            OutputStream second = new ParallelBgzfOutputStream(secondOutputStream, executorService, 2);
+            for (int i = 0; i < bytes.length; i += 1000) {
+                first.write(bytes, i, Math.min(1000, bytes.length - i));
+                second.write(bytes, i, Math.min(1000, bytes.length - i));
+            }
+            first.close();
+            assertFalse(executorService.isShutdown());
+            second.close();
+            assertFalse(executorService.isShutdown());
+            assertArrayEquals(bytes, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray()))));
+            assertArrayEquals(bytes, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(secondOutputStream.toByteArray()))));
+        }
+        finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testConstructor() throws IOException {
+        ParallelBgzfOutputStream parallel = new ParallelBgzfOutputStream(outputStream, 2);
+        assertNotNull(parallel);
+        parallel.close();
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        new ParallelBgzfOutputStream(outputStream, 2).close();
+        assertArrayEquals(ParallelBgzfOutputStream.EOF_MARKER, outputStream.toByteArray());
+    }
+
+    @Test
+    public void testGzipCompatible() throws IOException {
+        byte[] compressed = compress(bytes, 4);
+        assertArrayEquals(bytes, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void testBgzfCompatible() throws IOException {
+        byte[] compressed = compress(bytes, 4);
+        assertArrayEquals(bytes, ByteStreams.toByteArray(new BlockCompressedInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void testSingleByteWrites() throws IOException {
+        OutputStream parallel = new ParallelBgzfOutputStream(outputStream, 2);
+        for (byte b : bytes) {
+            parallel.write(b);
+        }
+        parallel.close();
+        assertArrayEquals(bytes, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray()))));
+    }
+
+    @Test
+    public void testIncompressible() throws IOException {
+        byte[] random = new byte[2 * ParallelBgzfOutputStream.BLOCK_SIZE];
+        new Random(42L).nextBytes(random);
+        assertArrayEquals(random, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compress(random, 2)))));
+    }
+
+    @Test
+    public void testFlush() throws IOException {
+        OutputStream parallel = new ParallelBgzfOutputStream(outputStream, 2);
+        parallel.write(bytes, 0, 10);
+        parallel.flush();
+        int flushed = outputStream.size();
+        parallel.write(bytes, 10, bytes.length - 10);
+        parallel.close();
+        assertEquals(true, flushed > 0);
+        assertArrayEquals(bytes, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray()))));
+    }
+
+    @Test
+    public void testCloseTwice() throws IOException {
+        OutputStream parallel = new ParallelBgzfOutputStream(outputStream, 2);
+        parallel.close();
+        parallel.close();
+        assertArrayEquals(ParallelBgzfOutputStream.EOF_MARKER, outputStream.toByteArray());
+    }
+
+
+    // methods for benchmarking, single-threaded gzip vs parallel bgzf
+    private static final int M = 2;
+    private static final int N = 2 * 1024 * 1024;
+
+    private static void gzip(final byte[] bytes) throws IOException {
+        for (int m = 0; m < M; m++) {
+            GZIPOutputStream gzip = new GZIPOutputStream(ByteStreams.nullOutputStream(), 65536);
+            gzip.write(bytes);
+            gzip.close();
+        }
+    }
+
+    private static void parallel(final byte[] bytes, final int threads) throws IOException {
+        for (int m = 0; m < M; m++) {
+            OutputStream parallel = new ParallelBgzfOutputStream(ByteStreams.nullOutputStream(), threads);
+            parallel.write(bytes);
+            parallel.close();
+        }
+    }
+
+    @Test
+    public void testGzip2m() throws IOException {
+        gzip(bytes(new Random(42L), N));
+    }
+
+    @Test
+    public void testParallel2m() throws IOException {
+        parallel(bytes(new Random(42L), N), Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.Random;
+
+import com.google.common.io.ByteStreams;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for ReadAheadInputStream.
+ */
+public final class ReadAheadInputStreamTest {
+    private byte[] bytes;
+
+    @Before
+    public void setUp() {
+        bytes = new byte[100003];
+        new Random(42L).nextBytes(bytes);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullInputStream() {
+        new ReadAheadInputStream(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidChunkSize() {
+        new ReadAheadInputStream(new ByteArrayInputStream(bytes), 0, 4);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidCapacity() {
+        new ReadAheadInputStream(new ByteArrayInputStream(bytes), 1024, 0);
+    }
+
+    @Test
+    public void testConstructor() throws IOException {
+        InputStream readAhead = new ReadAheadInputStream(new ByteArrayInputStream(bytes));
+        assertNotNull(readAhead);
+        readAhead.close();
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        InputStream readAhead = new ReadAheadInputStream(new ByteArrayInputStream(bytes), 1024, 4);
+        assertArrayEquals(bytes, ByteStreams.toByteArray(readAhead));
+        assertEquals(-1, readAhead.read());
+        readAhead.close();
+    }
+
+    @Test
+    public void testReadEmpty() throws IOException {
+        InputStream readAhead = new ReadAheadInputStream(new ByteArrayInputStream(new byte[0]));
+        assertEquals(-1, readAhead.read());
+        readAhead.close();
+    }
+
+    @Test
+    public void testCloseEarly() throws IOException {
+        InputStream readAhead = new ReadAheadInputStream(new ByteArrayInputStream(bytes), 16, 1);
+        assertEquals(bytes[0] & 0xff, readAhead.read());
+        readAhead.close();
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadException() throws IOException {
+        InputStream failing = new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    throw new IOException("expected");
+                }
+            };
+        InputStream readAhead = new ReadAheadInputStream(failing);
+        try {
+            readAhead.read();
+        }
+        finally {
+            readAhead.close();
+        }
+    }
+
+    @Test
+    public void testReadRuntimeException() throws IOException {
+        final RuntimeException cause = new IllegalStateException("expected");
+        InputStream failing = new InputStream() {
+                @Override
+                public int read() {
+                    throw cause;
+                }
+            };
+        InputStream readAhead = new ReadAheadInputStream(failing);
+        try {
+            readAhead.read();
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertSame(cause, e.getCause());
+        }
+        finally {
+            readAhead.close();
+        }
+    }
+}
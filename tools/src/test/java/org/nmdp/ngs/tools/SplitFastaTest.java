@@ -22,9 +22,15 @@
 */
 package org.nmdp.ngs.tools;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.io.Files;
 
 import org.junit.After;
 import org.junit.Before;
@@ -38,21 +44,30 @@ public final class SplitFastaTest {
     private String outputFilePrefix;
     private String outputFileExtension;
     private File outputDirectory;
+    private static final String FASTA = ">HLA:HLA00001 A*01:01:01:01 3503 bp\nACGTACGTAC\nGTAC\n>HLA:HLA00002 A*01:01:01:02N\nACG\nTACGTA\nCGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGT\n";
 
     @Before
     public void setUp() throws Exception {
         fastaFile = File.createTempFile("splitFastaTest", "fa");
         outputFilePrefix = "outputFilePrefix";
         outputFileExtension = "fa";
-        outputDirectory = File.createTempFile("splitFastaTest", "dir");
+        outputDirectory = Files.createTempDir();
+        Files.write(FASTA, fastaFile, StandardCharsets.US_ASCII);
     }
 
     @After
     public void tearDown() throws Exception {
         fastaFile.delete();
+        for (File file : outputDirectory.listFiles()) {
+            file.delete();
+        }
         outputDirectory.delete();
     }
 
+    private String read(final String accession) throws IOException {
+        return Files.toString(new File(outputDirectory, outputFilePrefix + accession + "." + outputFileExtension), StandardCharsets.US_ASCII);
+    }
+
     @Test(expected=NullPointerException.class)
     public void testConstructorNullOutputFilePrefix() {
         new SplitFasta(fastaFile, null, outputFileExtension, outputDirectory);
@@ -68,8 +83,136 @@ public final class SplitFastaTest {
         new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, null);
     }
 
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidLineWidth() {
+        new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, -1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidThreads() {
+        new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, SplitFasta.LINE_WIDTH, 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidMaxRecordBytes() {
+        new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, SplitFasta.LINE_WIDTH, 1, 0);
+    }
+
     @Test
     public void testConstructor() {
         assertNotNull(new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory));
     }
+
+    @Test
+    public void testSplitFasta() throws Exception {
+        assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory).call());
+        assertEquals(2, outputDirectory.listFiles().length);
+        assertEquals(">HLA:HLA00001 A*01:01:01:01 3503 bp\nACGTACGTACGTAC\n", read("HLA00001"));
+        assertEquals(">HLA:HLA00002 A*01:01:01:02N\nACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGT\nACGTACGTACGTACGT\n", read("HLA00002"));
+    }
+
+    @Test
+    public void testSplitFastaRewrap() throws Exception {
+        assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, 4, 1).call());
+        assertEquals(">HLA:HLA00001 A*01:01:01:01 3503 bp\nACGT\nACGT\nACGT\nAC\n", read("HLA00001"));
+    }
+
+    @Test
+    public void testSplitFastaCopyLines() throws Exception {
+        assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, 0, 2).call());
+        assertEquals(">HLA:HLA00001 A*01:01:01:01 3503 bp\nACGTACGTAC\nGTAC\n", read("HLA00001"));
+        assertEquals(">HLA:HLA00002 A*01:01:01:02N\nACG\nTACGTA\nCGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGT\n", read("HLA00002"));
+    }
+
+    @Test
+    public void testSplitFastaCrLf() throws Exception {
+        Files.write(">1 first\r\nACGT\r\nAC\r\n", fastaFile, StandardCharsets.US_ASCII);
+        assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory).call());
+        assertEquals(">1 first\nACGTAC\n", read("1"));
+    }
+
+    @Test
+    public void testSplitFastaWithoutTrailingNewline() throws Exception {
+        Files.write(">1\nACGT\nAC", fastaFile, StandardCharsets.US_ASCII);
+        assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, 0, 1).call());
+        assertEquals(">1\nACGT\nAC\n", read("1"));
+    }
+
+    @Test
+    public void testSplitFastaDuplicateAccession() throws Exception {
+        Files.write(">1 first\nACGT\n>1 second\nTTTT\n", fastaFile, StandardCharsets.US_ASCII);
+        assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory).call());
+        assertEquals(">1 second\nTTTT\n", read("1"));
+    }
+
+    @Test
+    public void testSplitFastaCompressed() throws Exception {
+        outputFileExtension = "fa.gz";
+        assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory).call());
+        assertEquals(2, outputDirectory.listFiles().length);
+    }
+
+    @Test
+    public void testSplitFastaStreamLargeRecords() throws Exception {
+        assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, SplitFasta.LINE_WIDTH, 2, 8).call());
+        assertEquals(2, outputDirectory.listFiles().length);
+        assertEquals(">HLA:HLA00001 A*01:01:01:01 3503 bp\nACGTACGTACGTAC\n", read("HLA00001"));
+        assertEquals(">HLA:HLA00002 A*01:01:01:02N\nACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGT\nACGTACGTACGTACGT\n", read("HLA00002"));
+    }
+
+    @Test
+    public void testSplitFastaStreamLargeRecordsCopyLines() throws Exception {
+        assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, 0, 1, 8).call());
+        assertEquals(">HLA:HLA00001 A*01:01:01:01 3503 bp\nACGTACGTAC\nGTAC\n", read("HLA00001"));
+        assertEquals(">HLA:HLA00002 A*01:01:01:02N\nACG\nTACGTA\nCGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGT\n", read("HLA00002"));
+    }
+
+    @Test
+    public void testSplitFastaStreamLargeRecordDuplicateAccession() throws Exception {
+        Files.write(">1 first\nACGTACGT\n>2\nAC\n>1 second\nTTTTTTTTTTTT\nTT\n", fastaFile, StandardCharsets.US_ASCII);
+        assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, 4, 2, 16).call());
+        assertEquals(">1 second\nTTTT\nTTTT\nTTTT\nTT\n", read("1"));
+        assertEquals(">2\nAC\n", read("2"));
+    }
+
+    @Test(expected=IOException.class)
+    public void testSplitFastaMissingHeader() throws Exception {
+        Files.write("ACGT\n>1\nACGT\n", fastaFile, StandardCharsets.US_ASCII);
+        new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory).call();
+    }
+
+
+    // methods for benchmarking, one writer thread vs concurrent writers
+    private static final int M = 5;
+    private static final int N = 200;
+
+    private void writeRecords() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < N; i++) {
+            sb.append(">HLA:HLA").append(i).append(" A*01:01:01:").append(i).append("\n");
+            for (int j = 0; j < 60; j++) {
+                sb.append("ACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTAC\n");
+            }
+        }
+        Files.write(sb.toString(), fastaFile, StandardCharsets.US_ASCII);
+        outputFileExtension = "fa.gz";
+    }
+
+    private void split(final int threads) throws Exception {
+        writeRecords();
+        for (int m = 0; m < M; m++) {
+            assertEquals(Integer.valueOf(0), new SplitFasta(fastaFile, outputFilePrefix, outputFileExtension, outputDirectory, SplitFasta.LINE_WIDTH, threads).call());
+        }
+        assertEquals(N, outputDirectory.listFiles().length);
+    }
+
+    @Test
+    public void testSingleThread() throws Exception {
+        split(1);
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        split(4);
+    }
 }
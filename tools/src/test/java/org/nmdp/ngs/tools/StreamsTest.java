@@ -0,0 +1,235 @@
+/*
+
+    ngs-tools  Next generation sequencing (NGS/HTS) command line tools.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import static org.nmdp.ngs.tools.Streams.indexedFasta;
+import static org.nmdp.ngs.tools.Streams.inputStream;
+import static org.nmdp.ngs.tools.Streams.isBgzfFilename;
+import static org.nmdp.ngs.tools.Streams.isMappable;
+import static org.nmdp.ngs.tools.Streams.outputStream;
+import static org.nmdp.ngs.tools.Streams.reader;
+import static org.nmdp.ngs.tools.Streams.writer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+
+import org.junit.Test;
+
+import org.nmdp.ngs.reads.fasta.IndexedFasta;
+
+/**
+ * Unit test for Streams.
+ */
+public final class StreamsTest {
+    private static final String VALUE = "@read/1\nacgt\n+\nIIII\n";
+
+    private static void roundTrip(final String suffix) throws IOException {
+        File file = File.createTempFile("streamsTest", suffix);
+        try {
+            OutputStream outputStream = outputStream(file);
+            outputStream.write(VALUE.getBytes(StandardCharsets.US_ASCII));
+            outputStream.close();
+
+            InputStream inputStream = inputStream(file);
+            assertEquals(VALUE, new String(ByteStreams.toByteArray(inputStream), StandardCharsets.US_ASCII));
+            inputStream.close();
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        roundTrip(".fq");
+    }
+
+    @Test
+    public void testRoundTripGzip() throws IOException {
+        roundTrip(".fq.gz");
+    }
+
+    @Test
+    public void testRoundTripBgzf() throws IOException {
+        roundTrip(".fq.bgz");
+    }
+
+    @Test
+    public void testRoundTripBzip2() throws IOException {
+        roundTrip(".fq.bz2");
+    }
+
+    @Test
+    public void testGzipOutputIsBgzf() throws IOException {
+        File file = File.createTempFile("streamsTest", ".fq.gz");
+        try {
+            OutputStream outputStream = outputStream(file);
+            outputStream.write(VALUE.getBytes(StandardCharsets.US_ASCII));
+            outputStream.close();
+
+            InputStream inputStream = new BlockCompressedInputStream(file);
+            assertEquals(VALUE, new String(ByteStreams.toByteArray(inputStream), StandardCharsets.US_ASCII));
+            inputStream.close();
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testManyGzipStreamsShareThreads() throws IOException {
+        int before = Thread.activeCount();
+        File[] files = new File[32];
+        OutputStream[] outputStreams = new OutputStream[files.length];
+        try {
+            for (int i = 0; i < files.length; i++) {
+                files[i] = File.createTempFile("streamsTest", ".fq.gz");
+                outputStreams[i] = outputStream(files[i]);
+                outputStreams[i].write(VALUE.getBytes(StandardCharsets.US_ASCII));
+                outputStreams[i].flush();
+            }
+            assertTrue(Thread.activeCount() - before <= Streams.THREADS);
+            for (int i = 0; i < files.length; i++) {
+                outputStreams[i].close();
+                InputStream inputStream = inputStream(files[i]);
+                assertEquals(VALUE, new String(ByteStreams.toByteArray(inputStream), StandardCharsets.US_ASCII));
+                inputStream.close();
+            }
+        }
+        finally {
+            for (File file : files) {
+                if (file != null) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGzipInputNotBgzf() throws IOException {
+        File file = File.createTempFile("streamsTest", ".fq.gz");
+        try {
+            OutputStream outputStream = new GZIPOutputStream(new FileOutputStream(file));
+            outputStream.write(VALUE.getBytes(StandardCharsets.US_ASCII));
+            outputStream.close();
+
+            InputStream inputStream = inputStream(file);
+            assertEquals(VALUE, new String(ByteStreams.toByteArray(inputStream), StandardCharsets.US_ASCII));
+            inputStream.close();
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testReaderWriter() throws IOException {
+        File file = File.createTempFile("streamsTest", ".txt.gz");
+        try {
+            PrintWriter writer = writer(file);
+            writer.println("foo");
+            writer.close();
+
+            writer = writer(file, true);
+            writer.println("bar");
+            writer.close();
+
+            BufferedReader reader = reader(file);
+            assertEquals("foo", reader.readLine());
+            assertEquals("bar", reader.readLine());
+            assertNull(reader.readLine());
+            reader.close();
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testIsBgzfFilename() {
+        assertTrue(isBgzfFilename(new File("foo.fq.bgz")));
+        assertTrue(isBgzfFilename(new File("foo.fq.bgzf")));
+        assertFalse(isBgzfFilename(new File("foo.fq.gz")));
+        assertFalse(isBgzfFilename(new File("foo.fq")));
+    }
+
+    @Test
+    public void testIsMappable() throws Exception {
+        assertFalse(isMappable(null));
+        assertFalse(isMappable(new File("does-not-exist.fa")));
+        File file = File.createTempFile("streamsTest", ".fa");
+        File compressed = File.createTempFile("streamsTest", ".fa.gz");
+        try {
+            assertTrue(isMappable(file));
+            assertFalse(isMappable(compressed));
+            assertFalse(isMappable(file.getParentFile()));
+        }
+        finally {
+            file.delete();
+            compressed.delete();
+        }
+    }
+
+    @Test
+    public void testIndexedFasta() throws Exception {
+        assertNull(indexedFasta(null));
+        File file = File.createTempFile("streamsTest", ".fa");
+        File ragged = File.createTempFile("streamsTest", ".fa");
+        File compressed = File.createTempFile("streamsTest", ".fa.gz");
+        try {
+            Files.write(">seq1\nACGT\nAC\n", file, StandardCharsets.US_ASCII);
+            Files.write(">seq1\nAC\nACGT\n", ragged, StandardCharsets.US_ASCII);
+            try (IndexedFasta fasta = indexedFasta(file)) {
+                assertNotNull(fasta);
+                assertEquals("ACGTAC", fasta.sequence("seq1").toString());
+            }
+            assertNull(indexedFasta(ragged));
+            assertNull(indexedFasta(compressed));
+        }
+        finally {
+            file.delete();
+            ragged.delete();
+            compressed.delete();
+        }
+    }
+}
@@ -54,10 +54,48 @@ public final class StreamingVcfParser {
      * @throws IOException if an I/O error occurs
      */
     public static void stream(final Readable readable, final VcfStreamListener listener) throws IOException {
+        stream(readable, null, listener);
+    }
+
+    /**
+     * Stream the specified readable, skipping data lines not accepted by the specified VCF line filter.
+     *
+     * @param readable readable, must not be null
+     * @param filter VCF line filter, evaluated against each data line before it is parsed, if any
+     * @param listener event based reader callback, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void stream(final Readable readable, final VcfLineFilter filter, final VcfStreamListener listener) throws IOException {
+        stream(readable, filter, false, listener);
+    }
+
+    /**
+     * Stream sites from the specified readable.  Data lines are tokenized only through the INFO column,
+     * so VCF records streamed to the specified listener do not have FORMAT or genotype fields.
+     *
+     * @param readable readable, must not be null
+     * @param filter VCF line filter, evaluated against each data line before it is parsed, if any
+     * @param listener event based reader callback, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void streamSites(final Readable readable, final VcfLineFilter filter, final VcfStreamListener listener) throws IOException {
+        stream(readable, filter, true, listener);
+    }
+
+    /**
+     * Stream the specified readable.
+     *
+     * @param readable readable, must not be null
+     * @param filter VCF line filter, if any
+     * @param sites true to tokenize data lines only through the INFO column
+     * @param listener event based reader callback, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    private static void stream(final Readable readable, final VcfLineFilter filter, final boolean sites, final VcfStreamListener listener) throws IOException {
         checkNotNull(readable);
         checkNotNull(listener);
 
-        VcfParser.parse(readable, new VcfParseAdapter() {
+        VcfParseListener parseListener = new VcfParseAdapter() {
                 /** VCF record builder. */
                 private final VcfRecord.Builder builder = VcfRecord.builder();
 
@@ -185,6 +223,13 @@ public final class StreamingVcfParser {
 
                     return true;
                 }
-            });
+            };
+
+        if (sites) {
+            VcfParser.parseSites(readable, filter, parseListener);
+        }
+        else {
+            VcfParser.parse(readable, filter, parseListener);
+        }
     }
 }
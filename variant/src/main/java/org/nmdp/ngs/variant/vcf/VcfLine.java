@@ -0,0 +1,292 @@
+/*
+
+    ngs-variant  Variants.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.variant.vcf;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * Reusable tokenized view over the fixed columns (CHROM through INFO) of a raw VCF data line.
+ *
+ * <p>
+ * Column boundaries are located with a single scan when the line is reset; column values are
+ * compared in place where possible, without splitting the line or creating substrings.  Sample
+ * columns, if any, are not tokenized.
+ * </p>
+ */
+public final class VcfLine {
+    /** Number of fixed columns, CHROM through INFO. */
+    public static final int FIXED_COLUMNS = 8;
+
+    /** CHROM column. */
+    public static final int CHROM = 0;
+
+    /** POS column. */
+    public static final int POS = 1;
+
+    /** ID column. */
+    public static final int ID = 2;
+
+    /** REF column. */
+    public static final int REF = 3;
+
+    /** ALT column. */
+    public static final int ALT = 4;
+
+    /** QUAL column. */
+    public static final int QUAL = 5;
+
+    /** FILTER column. */
+    public static final int FILTER = 6;
+
+    /** INFO column. */
+    public static final int INFO = 7;
+
+    /** Raw VCF data line. */
+    private String line;
+
+    /** Number of fixed columns found. */
+    private int columns;
+
+    /** Start offsets of the fixed columns. */
+    private final int[] starts = new int[FIXED_COLUMNS];
+
+    /** End offsets (exclusive) of the fixed columns. */
+    private final int[] ends = new int[FIXED_COLUMNS];
+
+
+    /**
+     * Create a new empty VCF line.
+     */
+    public VcfLine() {
+        // empty
+    }
+
+    /**
+     * Create a new VCF line over the specified raw VCF data line.
+     *
+     * @param line raw VCF data line, must not be null
+     */
+    public VcfLine(final String line) {
+        reset(line);
+    }
+
+
+    /**
+     * Reset this VCF line to the specified raw VCF data line.
+     *
+     * @param line raw VCF data line, must not be null
+     * @return this VCF line
+     */
+    public VcfLine reset(final String line) {
+        checkNotNull(line);
+        this.line = line;
+        columns = 0;
+        int start = 0;
+        int length = line.length();
+        while (columns < FIXED_COLUMNS && start <= length) {
+            int end = line.indexOf('\t', start);
+            if (end < 0) {
+                end = length;
+            }
+            starts[columns] = start;
+            ends[columns] = end;
+            columns++;
+            start = end + 1;
+        }
+        return this;
+    }
+
+    /**
+     * Return the raw VCF data line for this VCF line.
+     *
+     * @return the raw VCF data line for this VCF line
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Return the number of fixed columns (CHROM through INFO) found in this VCF line, at most <code>8</code>.
+     *
+     * @return the number of fixed columns found in this VCF line
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Return the value of the specified fixed column.
+     *
+     * @param column fixed column, <code>0</code> for CHROM through <code>7</code> for INFO
+     * @return the value of the specified fixed column
+     */
+    public String getColumn(final int column) {
+        checkElementIndex(column, columns);
+        return line.substring(starts[column], ends[column]);
+    }
+
+    /**
+     * Return the CHROM value for this VCF line.
+     *
+     * @return the CHROM value for this VCF line
+     */
+    public String getChrom() {
+        return getColumn(CHROM);
+    }
+
+    /**
+     * Return the POS value for this VCF line.
+     *
+     * @return the POS value for this VCF line
+     * @throws NumberFormatException if the POS value is not a valid number
+     */
+    public long getPos() {
+        checkElementIndex(POS, columns);
+        int start = starts[POS];
+        int end = ends[POS];
+        if (start == end) {
+            throw new NumberFormatException("empty pos");
+        }
+        long pos = 0L;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9' || (end - start) > 18) {
+                return Long.parseLong(line.substring(start, end));
+            }
+            pos = pos * 10L + (c - '0');
+        }
+        return pos;
+    }
+
+    /**
+     * Return the QUAL value for this VCF line, or <code>Double.NaN</code> if the QUAL value is missing.
+     *
+     * @return the QUAL value for this VCF line, or <code>Double.NaN</code> if the QUAL value is missing
+     * @throws NumberFormatException if the QUAL value is not a valid number
+     */
+    public double getQual() {
+        return isMissing(QUAL) ? Double.NaN : Double.parseDouble(getColumn(QUAL));
+    }
+
+    /**
+     * Return true if the value of the specified fixed column is the missing value (<code>"."</code>).
+     *
+     * @param column fixed column
+     * @return true if the value of the specified fixed column is the missing value (<code>"."</code>)
+     */
+    public boolean isMissing(final int column) {
+        checkElementIndex(column, columns);
+        return (ends[column] - starts[column]) == 1 && line.charAt(starts[column]) == '.';
+    }
+
+    /**
+     * Return true if the CHROM value for this VCF line is equal to the specified chrom.
+     *
+     * @param chrom chrom
+     * @return true if the CHROM value for this VCF line is equal to the specified chrom
+     */
+    public boolean isChrom(final String chrom) {
+        return columnEquals(CHROM, chrom);
+    }
+
+    /**
+     * Return true if the ID column for this VCF line contains the specified id.
+     *
+     * @param id id
+     * @return true if the ID column for this VCF line contains the specified id
+     */
+    public boolean hasId(final String id) {
+        return containsToken(ID, id, ';', false);
+    }
+
+    /**
+     * Return true if the FILTER column for this VCF line contains the specified filter.
+     *
+     * @param filter filter
+     * @return true if the FILTER column for this VCF line contains the specified filter
+     */
+    public boolean hasFilter(final String filter) {
+        return containsToken(FILTER, filter, ';', false);
+    }
+
+    /**
+     * Return true if the INFO column for this VCF line contains the specified key.
+     *
+     * @param key INFO key
+     * @return true if the INFO column for this VCF line contains the specified key
+     */
+    public boolean hasInfo(final String key) {
+        return containsToken(INFO, key, ';', true);
+    }
+
+    /**
+     * Return true if the value of the specified fixed column is equal to the specified value.
+     *
+     * @param column fixed column
+     * @param value value
+     * @return true if the value of the specified fixed column is equal to the specified value
+     */
+    boolean columnEquals(final int column, final String value) {
+        checkElementIndex(column, columns);
+        int length = ends[column] - starts[column];
+        return value.length() == length && line.regionMatches(starts[column], value, 0, length);
+    }
+
+    /**
+     * Return true if the specified fixed column contains the specified token.
+     *
+     * @param column fixed column
+     * @param token token
+     * @param separator token separator
+     * @param key true to compare only the key of <code>key=value</code> tokens
+     * @return true if the specified fixed column contains the specified token
+     */
+    private boolean containsToken(final int column, final String token, final char separator, final boolean key) {
+        checkElementIndex(column, columns);
+        int length = token.length();
+        int end = ends[column];
+        int start = starts[column];
+        int keyEnd = -1;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? line.charAt(i) : separator;
+            if (c == separator) {
+                int tokenEnd = keyEnd < 0 ? i : keyEnd;
+                if ((tokenEnd - start) == length && line.regionMatches(start, token, 0, length)) {
+                    return true;
+                }
+                start = i + 1;
+                keyEnd = -1;
+            }
+            else if (key && c == '=' && keyEnd < 0) {
+                keyEnd = i;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return line;
+    }
+}
@@ -0,0 +1,304 @@
+/*
+
+    ngs-variant  Variants.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.variant.vcf;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Static utility methods for composing VCF line filters.
+ *
+ * <p>
+ * Each filter is compiled when it is created, e.g. sets of values are copied into hash sets and
+ * single values are compared in place, so that evaluating a filter against a VCF line does not
+ * split the line or build a VCF record.
+ * </p>
+ */
+public final class VcfLineFilters {
+    /** Accept all VCF lines. */
+    private static final VcfLineFilter ALL = new VcfLineFilter() {
+            @Override
+            public boolean accept(final VcfLine line) {
+                return true;
+            }
+        };
+
+    /** Accept VCF lines with a FILTER value of <code>PASS</code>. */
+    private static final VcfLineFilter PASS = new VcfLineFilter() {
+            @Override
+            public boolean accept(final VcfLine line) {
+                return line.columnEquals(VcfLine.FILTER, "PASS");
+            }
+        };
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private VcfLineFilters() {
+        // empty
+    }
+
+
+    /**
+     * Return a VCF line filter that accepts all VCF lines.
+     *
+     * @return a VCF line filter that accepts all VCF lines
+     */
+    public static VcfLineFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Return a VCF line filter that accepts VCF lines with any of the specified chroms.
+     *
+     * @param chroms chroms, must not be null and must not be empty
+     * @return a VCF line filter that accepts VCF lines with any of the specified chroms
+     */
+    public static VcfLineFilter chrom(final String... chroms) {
+        final Set<String> values = copyOf(chroms);
+        if (values.size() == 1) {
+            final String chrom = values.iterator().next();
+            return new VcfLineFilter() {
+                    @Override
+                    public boolean accept(final VcfLine line) {
+                        return line.isChrom(chrom);
+                    }
+                };
+        }
+        return new VcfLineFilter() {
+                @Override
+                public boolean accept(final VcfLine line) {
+                    return values.contains(line.getChrom());
+                }
+            };
+    }
+
+    /**
+     * Return a VCF line filter that accepts VCF lines on the specified chrom with POS
+     * in the range <code>[start..end]</code>, inclusive.
+     *
+     * @param chrom chrom, must not be null
+     * @param start start position, 1-based, must be at least <code>1</code>
+     * @param end end position, 1-based, must be greater than or equal to <code>start</code>
+     * @return a VCF line filter that accepts VCF lines on the specified chrom with POS
+     *    in the range <code>[start..end]</code>, inclusive
+     */
+    public static VcfLineFilter range(final String chrom, final long start, final long end) {
+        checkNotNull(chrom);
+        checkArgument(start >= 1L, "start must be at least 1");
+        checkArgument(end >= start, "end must be greater than or equal to start");
+        return new VcfLineFilter() {
+                @Override
+                public boolean accept(final VcfLine line) {
+                    if (line.isChrom(chrom)) {
+                        long pos = line.getPos();
+                        return pos >= start && pos <= end;
+                    }
+                    return false;
+                }
+            };
+    }
+
+    /**
+     * Return a VCF line filter that accepts VCF lines with any of the specified ids.
+     *
+     * @param ids ids, must not be null and must not be empty
+     * @return a VCF line filter that accepts VCF lines with any of the specified ids
+     */
+    public static VcfLineFilter id(final String... ids) {
+        final Set<String> values = copyOf(ids);
+        return new VcfLineFilter() {
+                @Override
+                public boolean accept(final VcfLine line) {
+                    for (String id : values) {
+                        if (line.hasId(id)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+    }
+
+    /**
+     * Return a VCF line filter that accepts VCF lines with a QUAL value greater than or equal
+     * to the specified minimum QUAL value.  VCF lines with a missing QUAL value are not accepted.
+     *
+     * @param minimumQual minimum QUAL value
+     * @return a VCF line filter that accepts VCF lines with a QUAL value greater than or equal
+     *    to the specified minimum QUAL value
+     */
+    public static VcfLineFilter minimumQual(final double minimumQual) {
+        return new VcfLineFilter() {
+                @Override
+                public boolean accept(final VcfLine line) {
+                    return !line.isMissing(VcfLine.QUAL) && line.getQual() >= minimumQual;
+                }
+            };
+    }
+
+    /**
+     * Return a VCF line filter that accepts VCF lines that have passed all filters, i.e. with
+     * a FILTER value of <code>PASS</code>.
+     *
+     * @return a VCF line filter that accepts VCF lines that have passed all filters
+     */
+    public static VcfLineFilter pass() {
+        return PASS;
+    }
+
+    /**
+     * Return a VCF line filter that accepts VCF lines with any of the specified FILTER values.
+     *
+     * @param filters FILTER values, must not be null and must not be empty
+     * @return a VCF line filter that accepts VCF lines with any of the specified FILTER values
+     */
+    public static VcfLineFilter filter(final String... filters) {
+        final Set<String> values = copyOf(filters);
+        return new VcfLineFilter() {
+                @Override
+                public boolean accept(final VcfLine line) {
+                    for (String filter : values) {
+                        if (line.hasFilter(filter)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+    }
+
+    /**
+     * Return a VCF line filter that accepts VCF lines with any of the specified INFO keys.
+     *
+     * @param keys INFO keys, must not be null and must not be empty
+     * @return a VCF line filter that accepts VCF lines with any of the specified INFO keys
+     */
+    public static VcfLineFilter info(final String... keys) {
+        final Set<String> values = copyOf(keys);
+        return new VcfLineFilter() {
+                @Override
+                public boolean accept(final VcfLine line) {
+                    for (String key : values) {
+                        if (line.hasInfo(key)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+    }
+
+    /**
+     * Return a VCF line filter that accepts VCF lines accepted by all of the specified filters.
+     * Filters are evaluated in order and evaluation stops at the first filter that does not
+     * accept a line, so the most selective filters should be specified first.
+     *
+     * @param filters filters, must not be null
+     * @return a VCF line filter that accepts VCF lines accepted by all of the specified filters
+     */
+    public static VcfLineFilter and(final VcfLineFilter... filters) {
+        final VcfLineFilter[] copy = copyOf(filters);
+        return new VcfLineFilter() {
+                @Override
+                public boolean accept(final VcfLine line) {
+                    for (VcfLineFilter filter : copy) {
+                        if (!filter.accept(line)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            };
+    }
+
+    /**
+     * Return a VCF line filter that accepts VCF lines accepted by any of the specified filters.
+     * Filters are evaluated in order and evaluation stops at the first filter that accepts a line.
+     *
+     * @param filters filters, must not be null
+     * @return a VCF line filter that accepts VCF lines accepted by any of the specified filters
+     */
+    public static VcfLineFilter or(final VcfLineFilter... filters) {
+        final VcfLineFilter[] copy = copyOf(filters);
+        return new VcfLineFilter() {
+                @Override
+                public boolean accept(final VcfLine line) {
+                    for (VcfLineFilter filter : copy) {
+                        if (filter.accept(line)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+    }
+
+    /**
+     * Return a VCF line filter that accepts VCF lines not accepted by the specified filter.
+     *
+     * @param filter filter, must not be null
+     * @return a VCF line filter that accepts VCF lines not accepted by the specified filter
+     */
+    public static VcfLineFilter not(final VcfLineFilter filter) {
+        checkNotNull(filter);
+        return new VcfLineFilter() {
+                @Override
+                public boolean accept(final VcfLine line) {
+                    return !filter.accept(line);
+                }
+            };
+    }
+
+    /**
+     * Copy the specified values into an immutable set.
+     *
+     * @param values values, must not be null and must not be empty
+     * @return the specified values copied into an immutable set
+     */
+    private static Set<String> copyOf(final String[] values) {
+        checkNotNull(values);
+        checkArgument(values.length > 0, "values must not be empty");
+        return ImmutableSet.copyOf(values);
+    }
+
+    /**
+     * Copy the specified filters into a new array.
+     *
+     * @param filters filters, must not be null
+     * @return the specified filters copied into a new array
+     */
+    private static VcfLineFilter[] copyOf(final VcfLineFilter[] filters) {
+        checkNotNull(filters);
+        VcfLineFilter[] copy = filters.clone();
+        for (VcfLineFilter filter : copy) {
+            checkNotNull(filter);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,590 @@
+/*
+
+    ngs-variant  Variants.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.variant.vcf;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import com.google.common.base.Joiner;
+
+/**
+ * Streaming k-way merge of coordinate-sorted VCF files.
+ *
+ * <p>
+ * Samples from all inputs are combined into a single header, with the <code>##fileformat</code> of the first
+ * input that declares one as its first line.  Structured meta-information header lines such as <code>##INFO</code>,
+ * <code>##FORMAT</code>, <code>##FILTER</code>, and <code>##contig</code> are combined by type and ID, and merging
+ * fails if inputs declare the same type and ID differently.  Records are merged by CHROM/POS
+ * with a heap holding one line per input, so memory is bounded by the number of inputs and records
+ * at a single position rather than their size.  Chromosome order is taken from an explicit list of chromosomes, if specified, then
+ * from <code>##contig</code> meta-information header lines.  Chromosomes declared in neither are ranked
+ * in the order in which they are first seen across all inputs; if that order conflicts with the order of
+ * an input, for example when inputs without <code>##contig</code> header lines contain different sets
+ * of chromosomes, merging fails and the chromosome order must be declared.
+ * </p>
+ *
+ * <p>
+ * All records at a CHROM/POS are read from every input before records from different inputs with the
+ * same REF, ALT, and FORMAT are combined into a single record, the n-th such record of one input with
+ * the n-th of each other input.  Combined records have the union of IDs, the maximum QUAL, the union of
+ * failed FILTERs (or <code>PASS</code> if none failed), and the union of INFO keys, with the value of an
+ * INFO key taken from the first input that has it.  Genotype fields for samples not present in an input are
+ * written as the missing value (<code>"."</code>).
+ * </p>
+ */
+public final class VcfMerger {
+    /** Default file format, if none of the inputs specify one. */
+    static final String DEFAULT_FILE_FORMAT = "VCFv4.2";
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private VcfMerger() {
+        // empty
+    }
+
+
+    /**
+     * Merge the specified coordinate-sorted VCF inputs with the specified print writer.
+     *
+     * @param readers list of buffered readers for coordinate-sorted VCF inputs, must not be null
+     * @param writer print writer to write merged VCF with, must not be null
+     * @throws IOException if an I/O error occurs, if an input is not coordinate-sorted, or if inputs
+     *    declare conflicting meta-information header lines
+     */
+    public static void merge(final List<? extends BufferedReader> readers, final PrintWriter writer) throws IOException {
+        merge(readers, Collections.<String>emptyList(), writer);
+    }
+
+    /**
+     * Merge the specified coordinate-sorted VCF inputs with the specified print writer.
+     *
+     * @param readers list of buffered readers for coordinate-sorted VCF inputs, must not be null
+     * @param chromosomeOrder list of chromosomes in coordinate-sort order, ranked before chromosomes
+     *    declared in <code>##contig</code> meta-information header lines, must not be null
+     * @param writer print writer to write merged VCF with, must not be null
+     * @throws IOException if an I/O error occurs, if an input is not coordinate-sorted, or if inputs
+     *    declare conflicting meta-information header lines
+     */
+    public static void merge(final List<? extends BufferedReader> readers, final List<String> chromosomeOrder, final PrintWriter writer) throws IOException {
+        checkNotNull(readers);
+        checkNotNull(chromosomeOrder);
+        checkNotNull(writer);
+
+        // read headers
+        int size = readers.size();
+        List<Input> inputs = new ArrayList<Input>(size);
+        String fileFormat = null;
+        Set<String> meta = new LinkedHashSet<String>();
+        Map<String, String> structured = new HashMap<String, String>();
+        Map<String, Integer> samples = new LinkedHashMap<String, Integer>();
+        Map<String, Integer> chromosomes = new HashMap<String, Integer>();
+        for (String chromosome : chromosomeOrder) {
+            if (!chromosomes.containsKey(chromosome)) {
+                chromosomes.put(chromosome, chromosomes.size());
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            Input input = new Input(i, readers.get(i));
+            input.readHeader();
+            for (String m : input.meta) {
+                if (m.startsWith("##fileformat=")) {
+                    if (fileFormat == null) {
+                        fileFormat = m.substring(13);
+                    }
+                    continue;
+                }
+                String key = metaKey(m);
+                if (key != null) {
+                    String previous = structured.get(key);
+                    if (previous == null) {
+                        structured.put(key, m);
+                    }
+                    else if (!previous.equals(m)) {
+                        throw new IOException("meta-information header line " + m + " in input " + i + " conflicts with " + previous);
+                    }
+                }
+                meta.add(m);
+                if (m.startsWith("##contig=<ID=")) {
+                    String id = contigId(m);
+                    if (!chromosomes.containsKey(id)) {
+                        chromosomes.put(id, chromosomes.size());
+                    }
+                }
+            }
+            input.columns = new int[input.samples.length];
+            for (int j = 0; j < input.samples.length; j++) {
+                String sample = input.samples[j];
+                if (!samples.containsKey(sample)) {
+                    samples.put(sample, samples.size());
+                }
+                input.columns[j] = samples.get(sample);
+            }
+            inputs.add(input);
+        }
+        int declared = chromosomes.size();
+
+        if (fileFormat == null) {
+            fileFormat = DEFAULT_FILE_FORMAT;
+        }
+        List<String> headerMeta = new ArrayList<String>(meta.size() + 1);
+        headerMeta.add("##fileformat=" + fileFormat);
+        headerMeta.addAll(meta);
+        VcfHeader header = VcfHeader.builder()
+            .withFileFormat(fileFormat)
+            .withMeta(headerMeta)
+            .build();
+
+        List<VcfSample> vcfSamples = new ArrayList<VcfSample>(samples.size());
+        for (String sample : samples.keySet()) {
+            vcfSamples.add(new VcfSample(sample, new VcfGenome[0]));
+        }
+        VcfWriter.writeHeader(header, writer);
+        VcfWriter.writeColumnHeader(vcfSamples, writer);
+
+        // merge records
+        PriorityQueue<Input> heap = new PriorityQueue<Input>(Math.max(1, size), new Comparator<Input>() {
+                @Override
+                public int compare(final Input left, final Input right) {
+                    if (left.rank != right.rank) {
+                        return left.rank < right.rank ? -1 : 1;
+                    }
+                    if (left.pos != right.pos) {
+                        return left.pos < right.pos ? -1 : 1;
+                    }
+                    return left.index - right.index;
+                }
+            });
+        for (Input input : inputs) {
+            if (input.next(chromosomes, declared)) {
+                heap.add(input);
+            }
+        }
+
+        List<Input> same = new ArrayList<Input>(size);
+        Map<String, List<Record>> groups = new LinkedHashMap<String, List<Record>>();
+        Map<String, Integer> occurrences = new HashMap<String, Integer>();
+        String[] values = new String[samples.size()];
+        while (!heap.isEmpty()) {
+            Input first = heap.poll();
+            int rank = first.rank;
+            long pos = first.pos;
+            same.add(first);
+            while (!heap.isEmpty() && heap.peek().rank == rank && heap.peek().pos == pos) {
+                same.add(heap.poll());
+            }
+
+            // read every record at this position from each input before grouping
+            for (Input input : same) {
+                boolean more = false;
+                do {
+                    String key = input.key();
+                    Integer occurrence = occurrences.get(key);
+                    occurrences.put(key, occurrence == null ? 1 : occurrence + 1);
+                    if (occurrence != null) {
+                        key = key + "\t" + occurrence;
+                    }
+                    List<Record> group = groups.get(key);
+                    if (group == null) {
+                        group = new ArrayList<Record>(size);
+                        groups.put(key, group);
+                    }
+                    group.add(new Record(input.tokens, input.columns));
+                    more = input.next(chromosomes, declared);
+                }
+                while (more && input.rank == rank && input.pos == pos);
+
+                if (more) {
+                    heap.add(input);
+                }
+                occurrences.clear();
+            }
+            for (List<Record> group : groups.values()) {
+                writeRecord(group, values, writer);
+            }
+            groups.clear();
+            same.clear();
+        }
+    }
+
+    /**
+     * Write the specified group of records from different inputs as a single record.
+     *
+     * @param group group of records with the same CHROM, POS, REF, ALT, and FORMAT
+     * @param values genotype field values, one per merged sample
+     * @param writer print writer to write merged VCF with
+     */
+    private static void writeRecord(final List<Record> group, final String[] values, final PrintWriter writer) {
+        String[] tokens = group.get(0).tokens;
+        StringBuilder sb = new StringBuilder(tokens[0]);
+        if (group.size() == 1) {
+            for (int i = 1; i < 8; i++) {
+                sb.append("\t");
+                sb.append(tokens[i]);
+            }
+        }
+        else {
+            sb.append("\t");
+            sb.append(tokens[1]);
+            sb.append("\t");
+            sb.append(mergeIds(group));
+            sb.append("\t");
+            sb.append(tokens[3]);
+            sb.append("\t");
+            sb.append(tokens[4]);
+            sb.append("\t");
+            sb.append(mergeQual(group));
+            sb.append("\t");
+            sb.append(mergeFilter(group));
+            sb.append("\t");
+            sb.append(mergeInfo(group));
+        }
+        if (values.length > 0) {
+            Arrays.fill(values, ".");
+            String format = null;
+            for (Record record : group) {
+                if (record.tokens.length > 8) {
+                    if (format == null) {
+                        format = record.tokens[8];
+                    }
+                    for (int j = 9, columns = Math.min(record.tokens.length, 9 + record.columns.length); j < columns; j++) {
+                        int column = record.columns[j - 9];
+                        if (".".equals(values[column])) {
+                            values[column] = record.tokens[j];
+                        }
+                    }
+                }
+            }
+            sb.append("\t");
+            sb.append(format == null ? "GT" : format);
+            for (String value : values) {
+                sb.append("\t");
+                sb.append(value);
+            }
+        }
+        writer.println(sb.toString());
+    }
+
+    /**
+     * Return the union of the IDs of the specified group of records.
+     *
+     * @param group group of records
+     * @return the union of the IDs of the specified group of records
+     */
+    private static String mergeIds(final List<Record> group) {
+        Set<String> ids = new LinkedHashSet<String>();
+        for (Record record : group) {
+            for (String id : record.tokens[2].split(";")) {
+                if (!".".equals(id)) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids.isEmpty() ? "." : Joiner.on(";").join(ids);
+    }
+
+    /**
+     * Return the maximum QUAL of the specified group of records.
+     *
+     * @param group group of records
+     * @return the maximum QUAL of the specified group of records
+     */
+    private static String mergeQual(final List<Record> group) {
+        String qual = ".";
+        double max = Double.NEGATIVE_INFINITY;
+        for (Record record : group) {
+            try {
+                double value = Double.parseDouble(record.tokens[5]);
+                if (value > max) {
+                    max = value;
+                    qual = record.tokens[5];
+                }
+            }
+            catch (NumberFormatException e) {
+                // missing value
+            }
+        }
+        return qual;
+    }
+
+    /**
+     * Return the union of the failed FILTERs of the specified group of records, or <code>PASS</code>
+     * if none failed.
+     *
+     * @param group group of records
+     * @return the union of the failed FILTERs of the specified group of records
+     */
+    private static String mergeFilter(final List<Record> group) {
+        boolean pass = false;
+        Set<String> filters = new LinkedHashSet<String>();
+        for (Record record : group) {
+            for (String filter : record.tokens[6].split(";")) {
+                if ("PASS".equals(filter)) {
+                    pass = true;
+                }
+                else if (!".".equals(filter)) {
+                    filters.add(filter);
+                }
+            }
+        }
+        if (filters.isEmpty()) {
+            return pass ? "PASS" : ".";
+        }
+        return Joiner.on(";").join(filters);
+    }
+
+    /**
+     * Return the union of the INFO keys of the specified group of records, with the value of a key
+     * taken from the first record that has it.
+     *
+     * @param group group of records
+     * @return the union of the INFO keys of the specified group of records
+     */
+    private static String mergeInfo(final List<Record> group) {
+        Map<String, String> info = new LinkedHashMap<String, String>();
+        for (Record record : group) {
+            for (String field : record.tokens[7].split(";")) {
+                if (!".".equals(field) && !field.isEmpty()) {
+                    int equals = field.indexOf('=');
+                    String key = equals < 0 ? field : field.substring(0, equals);
+                    if (!info.containsKey(key)) {
+                        info.put(key, field);
+                    }
+                }
+            }
+        }
+        return info.isEmpty() ? "." : Joiner.on(";").join(info.values());
+    }
+
+    /**
+     * Return the type and ID of the specified structured meta-information header line, for example
+     * <code>##INFO=&lt;ID=DP</code>, or null if the line is not structured or has no ID.
+     *
+     * @param meta meta-information header line
+     * @return the type and ID of the specified structured meta-information header line, or null
+     */
+    static String metaKey(final String meta) {
+        int start = meta.indexOf("=<");
+        if (start < 0) {
+            return null;
+        }
+        int id = meta.indexOf("ID=", start);
+        if (id != start + 2 && (id < 0 || meta.charAt(id - 1) != ',')) {
+            return null;
+        }
+        int end = id + 3;
+        while (end < meta.length() && meta.charAt(end) != ',' && meta.charAt(end) != '>') {
+            end++;
+        }
+        return meta.substring(0, start + 2) + meta.substring(id, end);
+    }
+
+    /**
+     * Return the ID of the specified <code>##contig</code> meta-information header line.
+     *
+     * @param meta <code>##contig</code> meta-information header line
+     * @return the ID of the specified <code>##contig</code> meta-information header line
+     */
+    static String contigId(final String meta) {
+        int start = 13;
+        int end = start;
+        while (end < meta.length() && meta.charAt(end) != ',' && meta.charAt(end) != '>') {
+            end++;
+        }
+        return meta.substring(start, end);
+    }
+
+    /**
+     * Data line read from a VCF input.
+     */
+    private static final class Record {
+        /** Tokens of this data line. */
+        private final String[] tokens;
+
+        /** Merged sample column for each sample of the input. */
+        private final int[] columns;
+
+
+        /**
+         * Create a new record.
+         *
+         * @param tokens tokens
+         * @param columns merged sample columns
+         */
+        private Record(final String[] tokens, final int[] columns) {
+            this.tokens = tokens;
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * VCF input.
+     */
+    private static final class Input {
+        /** Index of this input. */
+        private final int index;
+
+        /** Buffered reader for this input. */
+        private final BufferedReader reader;
+
+        /** Meta-information header lines. */
+        private final List<String> meta = new ArrayList<String>();
+
+        /** Sample names. */
+        private String[] samples = new String[0];
+
+        /** Merged sample column for each sample. */
+        private int[] columns;
+
+        /** Tokens of the current data line. */
+        private String[] tokens;
+
+        /** Chromosome rank of the current data line. */
+        private int rank;
+
+        /** Position of the current data line. */
+        private long pos;
+
+        /** Line number of the current data line. */
+        private long lineNumber;
+
+        /** Chromosomes seen in this input. */
+        private final Set<String> seen = new HashSet<String>();
+
+
+        /**
+         * Create a new VCF input.
+         *
+         * @param index index
+         * @param reader buffered reader
+         */
+        private Input(final int index, final BufferedReader reader) {
+            checkNotNull(reader);
+            this.index = index;
+            this.reader = reader;
+        }
+
+
+        /**
+         * Read meta-information header lines and the column header line.
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        private void readHeader() throws IOException {
+            String line = null;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.startsWith("##")) {
+                    meta.add(line.trim());
+                }
+                else if (line.startsWith("#CHROM")) {
+                    String[] header = line.split("\t");
+                    if (header.length > 9) {
+                        samples = Arrays.copyOfRange(header, 9, header.length);
+                    }
+                    return;
+                }
+                else {
+                    throw new IOException("missing column header line in input " + index + " at line number " + lineNumber);
+                }
+            }
+        }
+
+        /**
+         * Advance to the next data line, if any.
+         *
+         * @param chromosomes chromosome ranks keyed by chromosome
+         * @param declared number of chromosomes with declared ranks
+         * @return true if this input has a data line
+         * @throws IOException if an I/O error occurs, if this input is not coordinate-sorted, or if
+         *    the order of chromosomes in this input conflicts with the order in which they were first seen
+         */
+        private boolean next(final Map<String, Integer> chromosomes, final int declared) throws IOException {
+            String line = reader.readLine();
+            while (line != null && line.trim().isEmpty()) {
+                lineNumber++;
+                line = reader.readLine();
+            }
+            if (line == null) {
+                tokens = null;
+                return false;
+            }
+            lineNumber++;
+            tokens = line.split("\t");
+            if (tokens.length < 8) {
+                throw new IOException("invalid data line in input " + index + " at line number " + lineNumber + ", expected 8 tokens, found " + tokens.length);
+            }
+            Integer chromosome = chromosomes.get(tokens[0]);
+            if (chromosome == null) {
+                chromosome = chromosomes.size();
+                chromosomes.put(tokens[0], chromosome);
+            }
+            long p = 0L;
+            try {
+                p = Long.parseLong(tokens[1]);
+            }
+            catch (NumberFormatException e) {
+                throw new IOException("invalid pos in input " + index + " at line number " + lineNumber, e);
+            }
+            if (chromosome < rank && !seen.contains(tokens[0]) && (rank >= declared || chromosome >= declared)) {
+                throw new IOException("order of chromosome " + tokens[0] + " in input " + index + " at line number " + lineNumber
+                                      + " conflicts with the order of other inputs, declare chromosome order with ##contig header lines or explicitly");
+            }
+            if (chromosome < rank || (chromosome == rank && p < pos)) {
+                throw new IOException("input " + index + " is not coordinate-sorted at line number " + lineNumber);
+            }
+            if (chromosome != rank || seen.isEmpty()) {
+                seen.add(tokens[0]);
+            }
+            rank = chromosome;
+            pos = p;
+            return true;
+        }
+
+        /**
+         * Return the merge key of the current data line.
+         *
+         * @return the merge key of the current data line
+         */
+        private String key() {
+            return tokens[3] + "\t" + tokens[4] + "\t" + (tokens.length > 8 ? tokens[8] : "");
+        }
+    }
+}
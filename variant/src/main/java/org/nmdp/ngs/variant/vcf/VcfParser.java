@@ -55,8 +55,49 @@ public final class VcfParser {
      * @throws IOException if an I/O error occurs
      */
     public static void parse(final Readable readable, final VcfParseListener listener) throws IOException {
+        parse(readable, null, listener);
+    }
+
+    /**
+     * Parse the specified readable, skipping data lines not accepted by the specified VCF line filter.
+     *
+     * @param readable readable, must not be null
+     * @param filter VCF line filter, evaluated against each data line before it is parsed, if any
+     * @param listener low-level event based parser callback, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void parse(final Readable readable, final VcfLineFilter filter, final VcfParseListener listener) throws IOException {
+        checkNotNull(readable);
+        VcfLineProcessor lineProcessor = new VcfLineProcessor(filter, false, listener);
+        CharStreams.readLines(readable, lineProcessor);
+    }
+
+    /**
+     * Parse sites from the specified readable.  Data lines are tokenized only through the INFO column;
+     * the FORMAT and sample columns are skipped, so <code>format</code> and <code>genotype</code> are
+     * never called on the specified listener.
+     *
+     * @param readable readable, must not be null
+     * @param listener low-level event based parser callback, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void parseSites(final Readable readable, final VcfParseListener listener) throws IOException {
+        parseSites(readable, null, listener);
+    }
+
+    /**
+     * Parse sites from the specified readable, skipping data lines not accepted by the specified VCF line filter.
+     * Data lines are tokenized only through the INFO column; the FORMAT and sample columns are skipped, so
+     * <code>format</code> and <code>genotype</code> are never called on the specified listener.
+     *
+     * @param readable readable, must not be null
+     * @param filter VCF line filter, evaluated against each data line before it is parsed, if any
+     * @param listener low-level event based parser callback, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void parseSites(final Readable readable, final VcfLineFilter filter, final VcfParseListener listener) throws IOException {
         checkNotNull(readable);
-        VcfLineProcessor lineProcessor = new VcfLineProcessor(listener);
+        VcfLineProcessor lineProcessor = new VcfLineProcessor(filter, true, listener);
         CharStreams.readLines(readable, lineProcessor);
     }
 
@@ -67,6 +108,18 @@ public final class VcfParser {
         /** Line number. */
         private long lineNumber = 0;
 
+        /** VCF line filter, if any. */
+        private final VcfLineFilter filter;
+
+        /** True to tokenize data lines only through the INFO column. */
+        private final boolean sites;
+
+        /** Reusable VCF line for the VCF line filter and for sites. */
+        private final VcfLine vcfLine = new VcfLine();
+
+        /** Reusable fixed column tokens for sites. */
+        private final String[] fixedColumns = new String[VcfLine.FIXED_COLUMNS];
+
         /** VCF parse listener. */
         private final VcfParseListener listener;
 
@@ -77,10 +130,14 @@ public final class VcfParser {
         /**
          * Create a new VCF line processor.
          *
+         * @param filter VCF line filter, if any
+         * @param sites true to tokenize data lines only through the INFO column
          * @param listener VCF parse listener
          */
-        private VcfLineProcessor(final VcfParseListener listener) {
+        private VcfLineProcessor(final VcfLineFilter filter, final boolean sites, final VcfParseListener listener) {
             checkNotNull(listener);
+            this.filter = filter;
+            this.sites = sites;
             this.listener = listener;
         }
 
@@ -94,8 +151,26 @@ public final class VcfParser {
         public boolean processLine(final String line) throws IOException
         {
             lineNumber++;
+
+            boolean dataLine = !line.startsWith("#");
+            if (dataLine && (filter != null || sites)) {
+                vcfLine.reset(line);
+            }
+
+            // skip data lines not accepted by filter before tokenizing
+            if (dataLine && filter != null) {
+                try {
+                    if (!filter.accept(vcfLine)) {
+                        return true;
+                    }
+                }
+                catch (IndexOutOfBoundsException | NumberFormatException e) {
+                    throw new IOException("invalid data line at line number " + lineNumber, e);
+                }
+            }
+
             // consider using guava Splitter
-            String[] tokens = line.split("\t");
+            String[] tokens = (dataLine && sites) ? fixedColumns() : line.split("\t");
 
             if (tokens[0].startsWith("##")) {
                 // meta-information lines
@@ -166,7 +241,7 @@ public final class VcfParser {
                     }
                 }
 
-                if (tokens.length > 8) {
+                if (!sites && tokens.length > 8) {
                     String[] formatTokens = tokens[8].split(":");
                     listener.format(formatTokens);
 
@@ -197,6 +272,26 @@ public final class VcfParser {
             }
             return true;
         }
+
+        /**
+         * Return the fixed column tokens of the current VCF line, without tokenizing the FORMAT and sample columns.
+         *
+         * @return the fixed column tokens of the current VCF line
+         */
+        private String[] fixedColumns() {
+            int columns = vcfLine.getColumns();
+            if (columns < VcfLine.FIXED_COLUMNS) {
+                String[] tokens = new String[columns];
+                for (int i = 0; i < columns; i++) {
+                    tokens[i] = vcfLine.getColumn(i);
+                }
+                return tokens;
+            }
+            for (int i = 0; i < VcfLine.FIXED_COLUMNS; i++) {
+                fixedColumns[i] = vcfLine.getColumn(i);
+            }
+            return fixedColumns;
+        }
     }
 
     /**
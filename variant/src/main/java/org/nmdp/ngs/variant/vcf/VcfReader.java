@@ -77,6 +77,47 @@ public final class VcfReader {
         StreamingVcfParser.stream(readable, listener);
     }
 
+    /**
+     * Stream the specified readable, skipping data lines not accepted by the specified VCF line filter
+     * before they are parsed.
+     *
+     * @param readable readable to stream, must not be null
+     * @param filter VCF line filter, must not be null
+     * @param listener event based reader callback, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void stream(final Readable readable, final VcfLineFilter filter, final VcfStreamListener listener) throws IOException {
+        checkNotNull(filter);
+        StreamingVcfParser.stream(readable, filter, listener);
+    }
+
+    /**
+     * Stream sites from the specified readable.  Data lines are tokenized only through the INFO column,
+     * so VCF records streamed to the specified listener do not have FORMAT or genotype fields.
+     *
+     * @param readable readable to stream, must not be null
+     * @param listener event based reader callback, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void streamSites(final Readable readable, final VcfStreamListener listener) throws IOException {
+        StreamingVcfParser.streamSites(readable, null, listener);
+    }
+
+    /**
+     * Stream sites from the specified readable, skipping data lines not accepted by the specified VCF line filter
+     * before they are parsed.  Data lines are tokenized only through the INFO column, so VCF records streamed to
+     * the specified listener do not have FORMAT or genotype fields.
+     *
+     * @param readable readable to stream, must not be null
+     * @param filter VCF line filter, must not be null
+     * @param listener event based reader callback, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public static void streamSites(final Readable readable, final VcfLineFilter filter, final VcfStreamListener listener) throws IOException {
+        checkNotNull(filter);
+        StreamingVcfParser.streamSites(readable, filter, listener);
+    }
+
 
     // collect methods
 
@@ -113,6 +154,18 @@ public final class VcfReader {
         return VcfRecordParser.records(readable);
     }
 
+    /**
+     * Read zero or more VCF sites from the specified readable.  Data lines are tokenized only through
+     * the INFO column, so the VCF records returned do not have FORMAT or genotype fields.
+     *
+     * @param readable readable to read from, must not be null
+     * @return zero or more VCF sites read from the specified readable
+     * @throws IOException if an I/O error occurs
+     */
+    public static Iterable<VcfRecord> sites(final Readable readable) throws IOException {
+        return VcfRecordParser.sites(readable);
+    }
+
 
     // convenience methods
 
@@ -242,4 +295,46 @@ public final class VcfReader {
             return records(reader);
         }
     }
+
+    /**
+     * Read zero or more VCF sites from the specified file.
+     *
+     * @param file file to read from, must not be null
+     * @return zero or more VCF sites read from the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    public static Iterable<VcfRecord> sites(final File file) throws IOException {
+        checkNotNull(file);
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            return sites(reader);
+        }
+    }
+
+    /**
+     * Read zero or more VCF sites from the specified URL.
+     *
+     * @param url URL to read from, must not be null
+     * @return zero or more VCF sites read from the specified URL
+     * @throws IOException if an I/O error occurs
+     */
+    public static Iterable<VcfRecord> sites(final URL url) throws IOException {
+        checkNotNull(url);
+        try (BufferedReader reader = Resources.asCharSource(url, Charsets.UTF_8).openBufferedStream()) {
+            return sites(reader);
+        }
+    }
+
+    /**
+     * Read zero or more VCF sites from the specified input stream.
+     *
+     * @param inputStream input stream to read from, must not be null
+     * @return zero or more VCF sites read from the specified input stream
+     * @throws IOException if an I/O error occurs
+     */
+    public static Iterable<VcfRecord> sites(final InputStream inputStream) throws IOException {
+        checkNotNull(inputStream);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+            return sites(reader);
+        }
+    }
 }
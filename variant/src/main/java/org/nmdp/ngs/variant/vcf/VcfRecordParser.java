@@ -59,6 +59,21 @@ public final class VcfRecordParser {
         return parseListener.getRecords();
     }
 
+    /**
+     * Read zero or more VCF sites from the specified readable.  Data lines are tokenized only through
+     * the INFO column, so the VCF records returned do not have FORMAT or genotype fields.
+     *
+     * @param readable readable to read from, must not be null
+     * @return zero or more VCF sites read from the specified readable
+     * @throws IOException if an I/O error occurs
+     */
+    public static Iterable<VcfRecord> sites(final Readable readable) throws IOException {
+        checkNotNull(readable);
+        ParseListener parseListener = new ParseListener();
+        VcfParser.parseSites(readable, parseListener);
+        return parseListener.getRecords();
+    }
+
     /**
      * Parse listener.
      */
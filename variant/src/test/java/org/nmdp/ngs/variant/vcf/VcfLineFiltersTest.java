@@ -0,0 +1,234 @@
+/*
+
+    ngs-variant  Variants.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.variant.vcf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.all;
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.and;
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.chrom;
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.filter;
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.id;
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.info;
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.minimumQual;
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.not;
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.or;
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.pass;
+import static org.nmdp.ngs.variant.vcf.VcfLineFilters.range;
+
+import java.io.StringReader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for VcfLineFilters.
+ */
+public final class VcfLineFiltersTest {
+    private VcfLine line;
+    private VcfLine missing;
+
+    @Before
+    public void setUp() {
+        line = new VcfLine("22\t16050408\trs149201999\tT\tC\t100\tPASS\tAA=T;DB\tGT\t0|0");
+        missing = new VcfLine("X\t42\t.\tA\tG\t.\t.\t.");
+    }
+
+    @Test
+    public void testAll() {
+        assertTrue(all().accept(line));
+        assertTrue(all().accept(missing));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testChromNull() {
+        chrom((String[]) null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testChromEmpty() {
+        chrom();
+    }
+
+    @Test
+    public void testChrom() {
+        assertTrue(chrom("22").accept(line));
+        assertFalse(chrom("2").accept(line));
+        assertTrue(chrom("X", "22").accept(line));
+        assertTrue(chrom("X", "22").accept(missing));
+        assertFalse(chrom("1", "2").accept(line));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testRangeNullChrom() {
+        range(null, 1L, 2L);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testRangeInvalidStart() {
+        range("22", 0L, 2L);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testRangeInvalidEnd() {
+        range("22", 2L, 1L);
+    }
+
+    @Test
+    public void testRange() {
+        assertTrue(range("22", 16050408L, 16050408L).accept(line));
+        assertTrue(range("22", 16000000L, 17000000L).accept(line));
+        assertFalse(range("22", 16050409L, 17000000L).accept(line));
+        assertFalse(range("22", 1L, 16050407L).accept(line));
+        assertFalse(range("21", 16000000L, 17000000L).accept(line));
+    }
+
+    @Test
+    public void testId() {
+        assertTrue(id("rs149201999").accept(line));
+        assertTrue(id("rs1", "rs149201999").accept(line));
+        assertFalse(id("rs1").accept(line));
+        assertFalse(id(".").accept(line));
+    }
+
+    @Test
+    public void testMinimumQual() {
+        assertTrue(minimumQual(100.0d).accept(line));
+        assertFalse(minimumQual(100.1d).accept(line));
+        assertFalse(minimumQual(0.0d).accept(missing));
+    }
+
+    @Test
+    public void testPass() {
+        assertTrue(pass().accept(line));
+        assertFalse(pass().accept(missing));
+    }
+
+    @Test
+    public void testFilter() {
+        assertTrue(filter("PASS").accept(line));
+        assertFalse(filter("q10").accept(line));
+        assertTrue(filter(".").accept(missing));
+    }
+
+    @Test
+    public void testInfo() {
+        assertTrue(info("AA").accept(line));
+        assertTrue(info("DB").accept(line));
+        assertTrue(info("XX", "DB").accept(line));
+        assertFalse(info("T").accept(line));
+        assertFalse(info("AA").accept(missing));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAndNull() {
+        and((VcfLineFilter[]) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAndNullFilter() {
+        and(all(), null);
+    }
+
+    @Test
+    public void testAnd() {
+        assertTrue(and().accept(line));
+        assertTrue(and(chrom("22"), pass()).accept(line));
+        assertFalse(and(chrom("22"), pass()).accept(missing));
+        assertFalse(and(chrom("22"), info("XX")).accept(line));
+    }
+
+    @Test
+    public void testOr() {
+        assertFalse(or().accept(line));
+        assertTrue(or(chrom("X"), pass()).accept(line));
+        assertTrue(or(chrom("X"), pass()).accept(missing));
+        assertFalse(or(chrom("1"), info("XX")).accept(line));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNotNull() {
+        not(null);
+    }
+
+    @Test
+    public void testNot() {
+        assertFalse(not(all()).accept(line));
+        assertTrue(not(chrom("X")).accept(line));
+        assertFalse(not(chrom("X")).accept(missing));
+    }
+
+    @Test
+    public void testPassSingleton() {
+        assertSame(pass(), pass());
+    }
+
+
+    // methods for benchmarking, parsing records vs filtering lines
+    private static final int M = 2;
+    private static final int N = 20000;
+
+    private static String createVcf() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("##fileformat=VCFv4.2\n");
+        sb.append("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA19131\tNA19223\n");
+        for (int i = 0; i < N; i++) {
+            sb.append("22\t" + (16050408 + i) + "\trs" + i + "\tT\tC\t100\tPASS\tAC=1;AN=4;AF=0.25\tGT:DS:GL\t0|0:0.000:-0.19,-0.46,-1.75\t0|1:0.050:-0.67,-0.11,-5.00\n");
+        }
+        return sb.toString();
+    }
+
+    private static final class CountRecords extends VcfStreamAdapter {
+        private int count = 0;
+
+        @Override
+        public void record(final VcfRecord record) {
+            if (record.getPos() >= 16060408L && record.getPos() <= 16060417L) {
+                count++;
+            }
+        }
+    }
+
+    @Test
+    public void testParseRecords20k() throws Exception {
+        String vcf = createVcf();
+        for (int m = 0; m < M; m++) {
+            CountRecords countRecords = new CountRecords();
+            VcfReader.stream(new StringReader(vcf), countRecords);
+            assertEquals(10, countRecords.count);
+        }
+    }
+
+    @Test
+    public void testFilterLines20k() throws Exception {
+        String vcf = createVcf();
+        for (int m = 0; m < M; m++) {
+            CountRecords countRecords = new CountRecords();
+            VcfReader.stream(new StringReader(vcf), range("22", 16060408L, 16060417L), countRecords);
+            assertEquals(10, countRecords.count);
+        }
+    }
+}
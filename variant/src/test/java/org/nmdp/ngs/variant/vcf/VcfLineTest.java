@@ -0,0 +1,158 @@
+/*
+
+    ngs-variant  Variants.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.variant.vcf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for VcfLine.
+ */
+public final class VcfLineTest {
+    private VcfLine line;
+    private static final String LINE = "22\t16050408\trs149201999;rs1\tT\tC\t99.5\tq10;PASS\tAA=T;DB;H2=1,2\tGT\t0|0";
+
+    @Before
+    public void setUp() {
+        line = new VcfLine(LINE);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullLine() {
+        new VcfLine(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testResetNullLine() {
+        new VcfLine().reset(null);
+    }
+
+    @Test
+    public void testReset() {
+        VcfLine vcfLine = new VcfLine();
+        assertEquals(vcfLine, vcfLine.reset(LINE));
+        assertEquals(LINE, vcfLine.getLine());
+        assertEquals(LINE, vcfLine.toString());
+        assertEquals(8, vcfLine.getColumns());
+    }
+
+    @Test
+    public void testColumns() {
+        assertEquals(1, new VcfLine("22").getColumns());
+        assertEquals(2, new VcfLine("22\t").getColumns());
+        assertEquals(8, new VcfLine("22\t1\t.\tA\tG\t.\t.\t.").getColumns());
+    }
+
+    @Test
+    public void testGetColumn() {
+        assertEquals("22", line.getColumn(VcfLine.CHROM));
+        assertEquals("T", line.getColumn(VcfLine.REF));
+        assertEquals("C", line.getColumn(VcfLine.ALT));
+        assertEquals("AA=T;DB;H2=1,2", line.getColumn(VcfLine.INFO));
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testGetColumnOutOfBounds() {
+        line.getColumn(VcfLine.FIXED_COLUMNS);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testGetColumnMissingColumn() {
+        new VcfLine("22\t1").getColumn(VcfLine.ID);
+    }
+
+    @Test
+    public void testGetChrom() {
+        assertEquals("22", line.getChrom());
+        assertTrue(line.isChrom("22"));
+        assertFalse(line.isChrom("2"));
+        assertFalse(line.isChrom("22\t"));
+    }
+
+    @Test
+    public void testGetPos() {
+        assertEquals(16050408L, line.getPos());
+    }
+
+    @Test(expected=NumberFormatException.class)
+    public void testGetPosInvalid() {
+        new VcfLine("22\tpos\t.\tA\tG\t.\t.\t.").getPos();
+    }
+
+    @Test(expected=NumberFormatException.class)
+    public void testGetPosEmpty() {
+        new VcfLine("22\t\t.\tA\tG\t.\t.\t.").getPos();
+    }
+
+    @Test
+    public void testGetQual() {
+        assertEquals(99.5d, line.getQual(), 0.1d);
+        assertTrue(Double.isNaN(new VcfLine("22\t1\t.\tA\tG\t.\t.\t.").getQual()));
+    }
+
+    @Test
+    public void testIsMissing() {
+        assertFalse(line.isMissing(VcfLine.QUAL));
+        assertTrue(new VcfLine("22\t1\t.\tA\tG\t.\t.\t.").isMissing(VcfLine.ID));
+    }
+
+    @Test
+    public void testHasId() {
+        assertTrue(line.hasId("rs149201999"));
+        assertTrue(line.hasId("rs1"));
+        assertFalse(line.hasId("rs14920199"));
+        assertFalse(line.hasId("T"));
+    }
+
+    @Test
+    public void testHasFilter() {
+        assertTrue(line.hasFilter("PASS"));
+        assertTrue(line.hasFilter("q10"));
+        assertFalse(line.hasFilter("q1"));
+    }
+
+    @Test
+    public void testHasInfo() {
+        assertTrue(line.hasInfo("AA"));
+        assertTrue(line.hasInfo("DB"));
+        assertTrue(line.hasInfo("H2"));
+        assertFalse(line.hasInfo("T"));
+        assertFalse(line.hasInfo("GT"));
+        assertFalse(line.hasInfo("H"));
+    }
+
+    @Test
+    public void testHasInfoLastColumnBounds() {
+        VcfLine flags = new VcfLine("22\t1\t.\tA\tG\t.\tPASS\tDB;AA\tGT:FT\tA=B;AA=1");
+        assertTrue(flags.hasInfo("DB"));
+        assertTrue(flags.hasInfo("AA"));
+        assertFalse(flags.hasInfo("A"));
+        assertFalse(flags.hasInfo("GT"));
+        assertTrue(flags.hasFilter("PASS"));
+        assertFalse(flags.hasFilter("DB"));
+    }
+}
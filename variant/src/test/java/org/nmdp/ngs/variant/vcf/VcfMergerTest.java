@@ -0,0 +1,266 @@
+/*
+
+    ngs-variant  Variants.
+    Copyright (c) 2014-2015 National Marrow Donor Program (NMDP)
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.gnu.org/licenses/lgpl.html
+
+*/
+package org.nmdp.ngs.variant.vcf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.nmdp.ngs.variant.vcf.VcfMerger.contigId;
+import static org.nmdp.ngs.variant.vcf.VcfMerger.merge;
+import static org.nmdp.ngs.variant.vcf.VcfMerger.metaKey;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import java.util.List;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Test;
+
+/**
+ * Unit test for VcfMerger.
+ */
+public final class VcfMergerTest {
+
+    private static BufferedReader vcf(final String... lines) {
+        return new BufferedReader(new StringReader(Joiner.on("\n").join(lines) + "\n"));
+    }
+
+    private static List<String> mergeLines(final BufferedReader... readers) throws IOException {
+        return mergeLines(ImmutableList.<String>of(), readers);
+    }
+
+    private static List<String> mergeLines(final List<String> chromosomeOrder, final BufferedReader... readers) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter writer = new PrintWriter(stringWriter);
+        merge(ImmutableList.copyOf(readers), chromosomeOrder, writer);
+        writer.close();
+        return Splitter.on(System.getProperty("line.separator")).omitEmptyStrings().splitToList(stringWriter.toString());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testMergeNullReaders() throws Exception {
+        merge(null, new PrintWriter(new StringWriter()));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testMergeNullChromosomeOrder() throws Exception {
+        merge(ImmutableList.<BufferedReader>of(), null, new PrintWriter(new StringWriter()));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testMergeNullWriter() throws Exception {
+        merge(ImmutableList.<BufferedReader>of(), null);
+    }
+
+    @Test
+    public void testContigId() {
+        assertEquals("22", contigId("##contig=<ID=22,length=51304566>"));
+        assertEquals("chrM", contigId("##contig=<ID=chrM>"));
+    }
+
+    @Test
+    public void testMetaKey() {
+        assertEquals("##INFO=<ID=DP", metaKey("##INFO=<ID=DP,Number=1,Type=Integer,Description=\"Depth\">"));
+        assertEquals("##contig=<ID=1", metaKey("##contig=<ID=1>"));
+        assertEquals("##SAMPLE=<ID=NA1", metaKey("##SAMPLE=<Genomes=G1,ID=NA1>"));
+        assertNull(metaKey("##source=test"));
+        assertNull(metaKey("##PEDIGREE=<Child=NA1,Mother=NA2>"));
+    }
+
+    @Test
+    public void testMergeEmpty() throws Exception {
+        List<String> lines = mergeLines();
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.2", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO"), lines);
+    }
+
+    @Test
+    public void testMergeSitesOnly() throws Exception {
+        List<String> lines = mergeLines(vcf("##fileformat=VCFv4.1", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "1\t10\t.\tA\tG\t.\t.\t.", "1\t30\t.\tA\tG\t.\t.\t."),
+                                        vcf("##fileformat=VCFv4.2", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "1\t20\t.\tC\tT\t.\t.\t.", "2\t5\t.\tC\tT\t.\t.\t."));
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.1",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO",
+                                      "1\t10\t.\tA\tG\t.\t.\t.",
+                                      "1\t20\t.\tC\tT\t.\t.\t.",
+                                      "1\t30\t.\tA\tG\t.\t.\t.",
+                                      "2\t5\t.\tC\tT\t.\t.\t."), lines);
+    }
+
+    @Test
+    public void testMergeUnionSamples() throws Exception {
+        List<String> lines = mergeLines(vcf("##fileformat=VCFv4.1", "##FORMAT=<ID=GT,Number=1,Type=String,Description=\"Genotype\">", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA1", "1\t10\trs1\tA\tG\t50\tPASS\t.\tGT\t0|1", "1\t20\t.\tC\tT\t.\t.\t.\tGT\t1|1"),
+                                        vcf("##fileformat=VCFv4.1", "##FORMAT=<ID=GT,Number=1,Type=String,Description=\"Genotype\">", "##source=second", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA2", "1\t10\t.\tA\tG\t.\t.\t.\tGT\t1|0", "1\t15\t.\tG\tC\t.\t.\t.\tGT\t0|1"));
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.1",
+                                      "##FORMAT=<ID=GT,Number=1,Type=String,Description=\"Genotype\">",
+                                      "##source=second",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA1\tNA2",
+                                      "1\t10\trs1\tA\tG\t50\tPASS\t.\tGT\t0|1\t1|0",
+                                      "1\t15\t.\tG\tC\t.\t.\t.\tGT\t.\t0|1",
+                                      "1\t20\t.\tC\tT\t.\t.\t.\tGT\t1|1\t."), lines);
+    }
+
+    @Test
+    public void testMergeFileFormatFirst() throws Exception {
+        List<String> lines = mergeLines(vcf("##source=first", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO"),
+                                        vcf("##source=second", "##fileformat=VCFv4.1", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO"));
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.1",
+                                      "##source=first",
+                                      "##source=second",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO"), lines);
+    }
+
+    @Test
+    public void testMergeConflictingMeta() throws Exception {
+        try {
+            mergeLines(vcf("##INFO=<ID=DP,Number=1,Type=Integer,Description=\"Depth\">", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO"),
+                       vcf("##INFO=<ID=DP,Number=1,Type=Float,Description=\"Depth\">", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO"));
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage().contains("Type=Float"));
+        }
+    }
+
+    @Test
+    public void testMergeSameSiteDifferentAlt() throws Exception {
+        List<String> lines = mergeLines(vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA1", "1\t10\t.\tA\tG\t.\t.\t.\tGT\t0|1"),
+                                        vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA2", "1\t10\t.\tA\tT\t.\t.\t.\tGT\t1|1"));
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.2",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA1\tNA2",
+                                      "1\t10\t.\tA\tG\t.\t.\t.\tGT\t0|1\t.",
+                                      "1\t10\t.\tA\tT\t.\t.\t.\tGT\t.\t1|1"), lines);
+    }
+
+    @Test
+    public void testMergeSameSiteIdQualFilterInfo() throws Exception {
+        List<String> lines = mergeLines(vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "1\t10\trs1\tA\tG\t30\tPASS\tDP=10;DB", "1\t20\t.\tC\tT\t.\t.\t."),
+                                        vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "1\t10\trs2;rs1\tA\tG\t50.5\tq10\tDP=20;AF=0.5", "1\t20\t.\tC\tT\t.\t.\t."),
+                                        vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "1\t10\t.\tA\tG\t.\tq10;s50\t.", "1\t20\t.\tC\tT\t.\tPASS\t."));
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.2",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO",
+                                      "1\t10\trs1;rs2\tA\tG\t50.5\tq10;s50\tDP=10;DB;AF=0.5",
+                                      "1\t20\t.\tC\tT\t.\tPASS\t."), lines);
+    }
+
+    @Test
+    public void testMergeSameSiteMultipleRecords() throws Exception {
+        List<String> lines = mergeLines(vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA1", "1\t10\t.\tA\tG\t.\t.\t.\tGT\t0|1", "1\t10\t.\tA\tT\t.\t.\t.\tGT\t0|1", "1\t20\t.\tC\tT\t.\t.\t.\tGT\t1|1"),
+                                        vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA2", "1\t10\t.\tA\tT\t.\t.\t.\tGT\t1|0", "1\t10\t.\tA\tG\t.\t.\t.\tGT\t1|1"));
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.2",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA1\tNA2",
+                                      "1\t10\t.\tA\tG\t.\t.\t.\tGT\t0|1\t1|1",
+                                      "1\t10\t.\tA\tT\t.\t.\t.\tGT\t0|1\t1|0",
+                                      "1\t20\t.\tC\tT\t.\t.\t.\tGT\t1|1\t."), lines);
+    }
+
+    @Test
+    public void testMergeSameSiteDuplicateRecords() throws Exception {
+        List<String> lines = mergeLines(vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA1", "1\t10\t.\tA\tG\t.\t.\t.\tGT\t0|1", "1\t10\t.\tA\tG\t.\t.\t.\tGT\t1|1"),
+                                        vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA2", "1\t10\t.\tA\tG\t.\t.\t.\tGT\t1|0"));
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.2",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tNA1\tNA2",
+                                      "1\t10\t.\tA\tG\t.\t.\t.\tGT\t0|1\t1|0",
+                                      "1\t10\t.\tA\tG\t.\t.\t.\tGT\t1|1\t."), lines);
+    }
+
+    @Test
+    public void testMergeContigOrder() throws Exception {
+        List<String> lines = mergeLines(vcf("##fileformat=VCFv4.1", "##contig=<ID=2>", "##contig=<ID=10>", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "10\t5\t.\tA\tG\t.\t.\t."),
+                                        vcf("##fileformat=VCFv4.1", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "2\t50\t.\tC\tT\t.\t.\t."));
+        assertEquals("2\t50\t.\tC\tT\t.\t.\t.", lines.get(4));
+        assertEquals("10\t5\t.\tA\tG\t.\t.\t.", lines.get(5));
+    }
+
+    @Test
+    public void testMergeContigLessDifferentChromosomes() throws Exception {
+        List<String> lines = mergeLines(vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "1\t10\t.\tA\tG\t.\t.\t.", "3\t10\t.\tA\tG\t.\t.\t."),
+                                        vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "2\t20\t.\tC\tT\t.\t.\t.", "3\t5\t.\tC\tT\t.\t.\t."));
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.2",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO",
+                                      "1\t10\t.\tA\tG\t.\t.\t.",
+                                      "2\t20\t.\tC\tT\t.\t.\t.",
+                                      "3\t5\t.\tC\tT\t.\t.\t.",
+                                      "3\t10\t.\tA\tG\t.\t.\t."), lines);
+    }
+
+    @Test
+    public void testMergeContigLessConflictingChromosomeOrder() throws Exception {
+        try {
+            mergeLines(vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "2\t5\t.\tA\tG\t.\t.\t."),
+                       vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "1\t10\t.\tC\tT\t.\t.\t.", "2\t20\t.\tC\tT\t.\t.\t."));
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage().contains("##contig"));
+        }
+    }
+
+    @Test
+    public void testMergeContigLessExplicitChromosomeOrder() throws Exception {
+        List<String> lines = mergeLines(ImmutableList.of("1", "2"),
+                                        vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "2\t5\t.\tA\tG\t.\t.\t."),
+                                        vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "1\t10\t.\tC\tT\t.\t.\t.", "2\t20\t.\tC\tT\t.\t.\t."));
+        assertEquals(ImmutableList.of("##fileformat=VCFv4.2",
+                                      "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO",
+                                      "1\t10\t.\tC\tT\t.\t.\t.",
+                                      "2\t5\t.\tA\tG\t.\t.\t.",
+                                      "2\t20\t.\tC\tT\t.\t.\t."), lines);
+    }
+
+    @Test(expected=IOException.class)
+    public void testMergeNotSorted() throws Exception {
+        mergeLines(vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "1\t20\t.\tA\tG\t.\t.\t.", "1\t10\t.\tA\tG\t.\t.\t."));
+    }
+
+    @Test(expected=IOException.class)
+    public void testMergeInvalidPos() throws Exception {
+        mergeLines(vcf("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO", "1\tpos\t.\tA\tG\t.\t.\t."));
+    }
+
+    @Test(expected=IOException.class)
+    public void testMergeMissingColumnHeader() throws Exception {
+        mergeLines(vcf("##fileformat=VCFv4.1", "1\t10\t.\tA\tG\t.\t.\t."));
+    }
+
+    @Test
+    public void testMergeReadableByVcfReader() throws Exception {
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter writer = new PrintWriter(stringWriter);
+        merge(ImmutableList.of(new BufferedReader(new InputStreamReader(getClass().getResourceAsStream("samples.vcf"))),
+                               vcf("##fileformat=VCFv4.1", "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tEXTRA", "22\t1\t.\tA\tG\t.\t.\t.\tGT\t0|1")), writer);
+        writer.close();
+        List<VcfRecord> records = ImmutableList.copyOf(VcfReader.records(new StringReader(stringWriter.toString())));
+        assertEquals(5, records.size());
+        assertEquals("0|1", records.get(2).getGenotypes().get("EXTRA").getGt());
+    }
+}
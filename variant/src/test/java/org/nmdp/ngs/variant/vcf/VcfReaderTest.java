@@ -32,7 +32,9 @@ import static org.nmdp.ngs.variant.vcf.VcfReader.parse;
 import static org.nmdp.ngs.variant.vcf.VcfReader.header;
 import static org.nmdp.ngs.variant.vcf.VcfReader.records;
 import static org.nmdp.ngs.variant.vcf.VcfReader.samples;
+import static org.nmdp.ngs.variant.vcf.VcfReader.sites;
 import static org.nmdp.ngs.variant.vcf.VcfReader.stream;
+import static org.nmdp.ngs.variant.vcf.VcfReader.streamSites;
 
 import java.net.URL;
 
@@ -45,6 +47,9 @@ import java.io.IOException;
 
 import java.nio.CharBuffer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.google.common.collect.ImmutableList;
 
 import com.google.common.io.Files;
@@ -124,6 +129,28 @@ public final class VcfReaderTest {
         }
     }
 
+    @Test(expected=NullPointerException.class)
+    public void testStreamNullFilter() throws Exception {
+        stream(readable, null, streamListener);
+    }
+
+    @Test
+    public void testStreamFilter() throws Exception {
+        final List<VcfRecord> records = new ArrayList<VcfRecord>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(createFile(VCF)))) {
+            stream(reader, VcfLineFilters.range("22", 16071987L, 16096466L), new VcfStreamAdapter() {
+                @Override
+                public void record(final VcfRecord record) {
+                    records.add(record);
+                }
+            });
+        }
+        assertEquals(2, records.size());
+        assertEquals("rs183560222", records.get(0).getId()[0]);
+        assertEquals(32L, records.get(0).getLineNumber());
+        assertEquals("rs200520879", records.get(1).getId()[0]);
+    }
+
     @Test(expected=NullPointerException.class)
     public void testHeaderNullReadable() throws Exception {
         header((Readable) null);
@@ -174,6 +201,61 @@ public final class VcfReaderTest {
         assertTrue(ImmutableList.copyOf(records).isEmpty());
     }
 
+    @Test(expected=NullPointerException.class)
+    public void testSitesNullReadable() throws Exception {
+        sites((Readable) null);
+    }
+
+    @Test
+    public void testSites() throws Exception {
+        Iterable<VcfRecord> sites = sites(readable);
+        assertNotNull(sites);
+        assertTrue(ImmutableList.copyOf(sites).isEmpty());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testStreamSitesNullReadable() throws Exception {
+        streamSites(null, streamListener);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testStreamSitesNullListener() throws Exception {
+        streamSites(readable, null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testStreamSitesNullFilter() throws Exception {
+        streamSites(readable, null, streamListener);
+    }
+
+    @Test
+    public void testStreamSitesFilter() throws Exception {
+        final List<VcfRecord> sites = new ArrayList<VcfRecord>();
+        final List<VcfSample> samples = new ArrayList<VcfSample>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(createFile(VCF)))) {
+            streamSites(reader, VcfLineFilters.id("rs183560222"), new VcfStreamAdapter() {
+                @Override
+                public void sample(final VcfSample sample) {
+                    samples.add(sample);
+                }
+
+                @Override
+                public void record(final VcfRecord record) {
+                    sites.add(record);
+                }
+            });
+        }
+        assertEquals(2, samples.size());
+        assertEquals(1, sites.size());
+        assertEquals(16071987L, sites.get(0).getPos());
+        assertTrue(sites.get(0).getGenotypes().isEmpty());
+    }
+
+    @Test(expected=IOException.class)
+    public void testSitesInvalidDataLine() throws Exception {
+        sites(createInputStream("invalid-data-line.vcf"));
+    }
+
 
     @Test(expected=NullPointerException.class)
     public void testHeaderNullFile() throws Exception {
@@ -267,6 +349,36 @@ public final class VcfReaderTest {
         validateRecords(records(createInputStream(VCF)));
     }
 
+    @Test(expected=NullPointerException.class)
+    public void testSitesNullFile() throws Exception {
+        sites((File) null);
+    }
+
+    @Test
+    public void testSitesFile() throws Exception {
+        validateSites(sites(createFile(VCF)));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSitesNullURL() throws Exception {
+        sites((URL) null);
+    }
+
+    @Test
+    public void testSitesURL() throws Exception {
+        validateSites(sites(createURL(VCF)));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSitesNullInputStream() throws Exception {
+        sites((InputStream) null);
+    }
+
+    @Test
+    public void testSitesInputStream() throws Exception {
+        validateSites(sites(createInputStream(VCF)));
+    }
+
     @Test
     public void testSamplesFullHeader() throws Exception {
         Iterable<VcfSample> samples = samples(createInputStream("chr22-header.vcf"));
@@ -542,6 +654,26 @@ public final class VcfReaderTest {
         assertEquals(70, count);
     }
 
+    private static void validateSites(final Iterable<VcfRecord> sites) {
+        assertNotNull(sites);
+
+        int count = 0;
+        for (VcfRecord site : sites) {
+            assertEquals("22", site.getChrom());
+            assertNotNull(site.getGenotypes());
+            assertTrue(site.getGenotypes().isEmpty());
+            if (16140370 == site.getPos()) {
+                assertEquals("rs2096606", site.getId()[0]);
+                assertEquals("A", site.getRef());
+                assertEquals("G", site.getAlt()[0]);
+                assertEquals(100.0d, site.getQual(), 0.1d);
+                assertEquals("PASS", site.getFilter()[0]);
+            }
+            count++;
+        }
+        assertEquals(70, count);
+    }
+
     private static URL createURL(final String name) throws Exception {
         return VcfReaderTest.class.getResource(name);
     }
@@ -556,4 +688,44 @@ public final class VcfReaderTest {
         file.deleteOnExit();
         return file;
     }
+
+
+    // methods for benchmarking, records vs sites for many samples
+    private static final int M = 2;
+    private static final int N = 200;
+    private static final int SAMPLES = 1000;
+
+    private static String createManySamples() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("##fileformat=VCFv4.2\n");
+        sb.append("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT");
+        for (int i = 0; i < SAMPLES; i++) {
+            sb.append("\tS" + i);
+        }
+        sb.append("\n");
+        for (int i = 0; i < N; i++) {
+            sb.append("22\t" + (16050408 + i) + "\trs" + i + "\tT\tC\t100\tPASS\tAC=1;AN=4\tGT:DS");
+            for (int j = 0; j < SAMPLES; j++) {
+                sb.append("\t0|1:0.050");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testRecords200x1000() throws Exception {
+        String vcf = createManySamples();
+        for (int m = 0; m < M; m++) {
+            assertEquals(N, ImmutableList.copyOf(records(CharBuffer.wrap(vcf))).size());
+        }
+    }
+
+    @Test
+    public void testSites200x1000() throws Exception {
+        String vcf = createManySamples();
+        for (int m = 0; m < M; m++) {
+            assertEquals(N, ImmutableList.copyOf(sites(CharBuffer.wrap(vcf))).size());
+        }
+    }
 }